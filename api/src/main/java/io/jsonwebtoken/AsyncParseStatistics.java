@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken;
+
+/**
+ * Point-in-time counters for a {@link JwtParser}'s {@link JwtParser#parseClaimsJwsAsync(String) asynchronous
+ * parses}.  All counts are cumulative since the parser was created.
+ *
+ * @since 0.12.0
+ */
+public interface AsyncParseStatistics {
+
+    /**
+     * Returns the number of parses that have been handed to the executor but have not started running yet.
+     *
+     * @return the number of offloaded parses waiting for an executor thread.
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the number of parses that were completed on the calling thread because they did not require
+     * expensive cryptography (for example HMAC-signed, malformed or already verified JWSs).
+     *
+     * @return the number of parses completed on the calling thread.
+     */
+    long getInlineCount();
+
+    /**
+     * Returns the number of parses that were handed to the executor.
+     *
+     * @return the number of parses handed to the executor.
+     */
+    long getOffloadedCount();
+
+    /**
+     * Returns the sum, in nanoseconds, of the time each offloaded parse spent waiting between being handed to the
+     * executor and starting to run.  Divide by the number of offloaded parses that have started for the average.
+     *
+     * @return the total offload latency in nanoseconds.
+     */
+    long getTotalOffloadLatencyNanos();
+
+    /**
+     * Returns the longest time, in nanoseconds, an offloaded parse spent waiting between being handed to the
+     * executor and starting to run.
+     *
+     * @return the maximum offload latency in nanoseconds.
+     */
+    long getMaxOffloadLatencyNanos();
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken;
+
+/**
+ * Point-in-time counters for a size-bounded cache maintained by a {@link JwtParser}.  All counts are cumulative
+ * since the parser was created.
+ *
+ * @since 0.12.0
+ */
+public interface CacheStatistics {
+
+    /**
+     * Returns the number of lookups that found a usable cached entry.
+     *
+     * @return the number of lookups that found a usable cached entry.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups that did not find a usable cached entry.
+     *
+     * @return the number of lookups that did not find a usable cached entry.
+     */
+    long getMissCount();
+
+    /**
+     * Returns the number of entries removed from the cache before being explicitly replaced, either to make room
+     * for a new entry or because the entry expired.
+     *
+     * @return the number of entries removed to make room for new entries or because they expired.
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the current number of cached entries.
+     *
+     * @return the current number of cached entries.
+     */
+    int getSize();
+
+    /**
+     * Returns the maximum number of entries the cache will hold.
+     *
+     * @return the maximum number of entries the cache will hold.
+     */
+    int getMaxSize();
+}
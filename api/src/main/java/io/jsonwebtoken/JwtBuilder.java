@@ -23,6 +23,7 @@ import io.jsonwebtoken.security.InvalidKeyException;
 import io.jsonwebtoken.security.Keys;
 import java.security.Key;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -524,7 +525,48 @@ public interface JwtBuilder extends ClaimsMutator<JwtBuilder> {
      * <a href="https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-25#section-7">JWT Compact Serialization</a>
      * rules.
      *
+     * <p>The header and claims are serialized and encoded again on every call.  When issuing many JWTs with the same
+     * header, {@link #toTemplate()} and {@link #compactAll(Iterator)} encode the header only once.</p>
+     *
      * @return A compact URL-safe JWT string.
      */
     String compact();
+
+    /**
+     * Returns a {@link JwtTemplate} that issues JWTs with this builder's current header, claims, compression and
+     * signing key, adding only the {@code sub}, {@code iat}, {@code exp} and {@code jti} claims given to each
+     * {@link JwtTemplate#compact(String, Date, Date, String) compact} call.  This is much faster than
+     * {@link #compact()} when issuing many JWTs, because everything but the per-token claims is serialized and
+     * encoded once.
+     *
+     * @return a template for issuing many JWTs like the one this builder would produce.
+     * @throws IllegalStateException if a plaintext {@link #setPayload(String) payload} is set, or if any of the
+     *                               {@code sub}, {@code iat}, {@code exp} or {@code jti} claims are set, since those
+     *                               are supplied per token.
+     * @since 0.12.0
+     */
+    JwtTemplate toTemplate();
+
+    /**
+     * Creates one compact JWT per claim set, in parallel, with this builder's current header, claims, compression and
+     * signing key.  Each JWT is exactly the String this builder would produce after
+     * {@link #addClaims(Map) addClaims(claimSet)}, but the header is encoded and the signer created only once for
+     * all of them, and they are serialized and signed on all available processors.
+     *
+     * <p>The returned iterator produces the JWTs in the same order as the claim sets.  It reads claim sets from
+     * {@code claimSets} lazily, only as fast as its own {@code next()} is called: at most a small, fixed number of
+     * claim sets (four per available processor) are read ahead and being processed at any time, so millions of
+     * tokens can be created from, and written to, streams with bounded memory.  Claim sets must therefore not be
+     * modified once {@code claimSets} has returned them.</p>
+     *
+     * <p>If a claim set cannot be turned into a JWT, {@code next()} throws the exception {@link #compact()} would
+     * have thrown for it; iteration may continue with the next claim set.  Later changes to this builder do not
+     * affect the returned iterator.</p>
+     *
+     * @param claimSets the claim sets to create JWTs for, one per JWT
+     * @return an iterator over the compact JWTs, in the same order as {@code claimSets}.
+     * @throws IllegalStateException if a plaintext {@link #setPayload(String) payload} is set.
+     * @since 0.12.0
+     */
+    Iterator<String> compactAll(Iterator<? extends Map<String, ?>> claimSets);
 }
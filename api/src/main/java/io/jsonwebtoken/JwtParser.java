@@ -19,9 +19,13 @@ import io.jsonwebtoken.io.Decoder;
 import io.jsonwebtoken.io.Deserializer;
 import io.jsonwebtoken.security.SignatureException;
 
+import java.nio.ByteBuffer;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * A parser for reading JWT strings, used to convert them into a {@link Jwt} object representing the expanded JWT.
@@ -425,6 +429,60 @@ public interface JwtParser {
      */
     Jwt parse(String jwt) throws ExpiredJwtException, MalformedJwtException, SignatureException, IllegalArgumentException;
 
+    /**
+     * Parses the compact serialized JWT represented by the {@code length} US-ASCII bytes of the {@code jwt} array
+     * starting at {@code offset}, and returns the resulting JWT or JWS instance.
+     *
+     * <p>This method behaves exactly like {@link #parse(String)}, but is more efficient for callers that already
+     * hold the token as bytes (for example, an HTTP {@code Authorization} header read from a network buffer): the
+     * bytes are never converted to a String, and a JWS signature is verified directly over the original
+     * {@code header.payload} byte range.  The array is not modified and must not be modified concurrently while it
+     * is being parsed.</p>
+     *
+     * @param jwt    the array containing the compact serialized JWT as US-ASCII bytes
+     * @param offset the index of the first byte of the JWT in the array
+     * @param length the number of bytes of the JWT
+     * @return the JWT or JWS instance represented by the specified bytes.
+     * @throws MalformedJwtException    if the specified JWT was incorrectly constructed (and therefore invalid).
+     *                                  Invalid JWTs should not be trusted and should be discarded.
+     * @throws SignatureException       if a JWS signature was discovered, but could not be verified.  JWTs that fail
+     *                                  signature validation should not be trusted and should be discarded.
+     * @throws ExpiredJwtException      if the specified JWT is a Claims JWT and the Claims has an expiration time
+     *                                  before the time this method is invoked.
+     * @throws IllegalArgumentException if the specified array is {@code null}, the specified range is out of bounds,
+     *                                  or the range is empty or only whitespace.
+     * @see #parse(String)
+     * @see #parseAscii(ByteBuffer)
+     * @since 0.12.0
+     */
+    Jwt parse(byte[] jwt, int offset, int length)
+        throws ExpiredJwtException, MalformedJwtException, SignatureException, IllegalArgumentException;
+
+    /**
+     * Parses the compact serialized JWT represented by the {@link ByteBuffer#remaining() remaining} US-ASCII bytes of
+     * the specified buffer, and returns the resulting JWT or JWS instance.
+     *
+     * <p>This method behaves exactly like {@link #parse(byte[], int, int)}.  It is not named {@code parse} so that
+     * existing {@code parse(null)} calls remain unambiguous.  The buffer's position, limit and mark
+     * are not modified.  Buffers backed by an accessible array are parsed in place; other buffers (such as direct
+     * or read-only buffers) have their remaining bytes copied once into a temporary array.</p>
+     *
+     * @param jwt the buffer containing the compact serialized JWT as US-ASCII bytes
+     * @return the JWT or JWS instance represented by the specified buffer.
+     * @throws MalformedJwtException    if the specified JWT was incorrectly constructed (and therefore invalid).
+     *                                  Invalid JWTs should not be trusted and should be discarded.
+     * @throws SignatureException       if a JWS signature was discovered, but could not be verified.  JWTs that fail
+     *                                  signature validation should not be trusted and should be discarded.
+     * @throws ExpiredJwtException      if the specified JWT is a Claims JWT and the Claims has an expiration time
+     *                                  before the time this method is invoked.
+     * @throws IllegalArgumentException if the specified buffer is {@code null} or its remaining bytes are empty or
+     *                                  only whitespace.
+     * @see #parse(String)
+     * @see #parse(byte[], int, int)
+     * @since 0.12.0
+     */
+    Jwt parseAscii(ByteBuffer jwt) throws ExpiredJwtException, MalformedJwtException, SignatureException, IllegalArgumentException;
+
     /**
      * Parses the specified compact serialized JWT string based on the builder's current configuration state and
      * invokes the specified {@code handler} with the resulting JWT or JWS instance.
@@ -591,4 +649,162 @@ public interface JwtParser {
      */
     Jws<Claims> parseClaimsJws(String claimsJws)
         throws ExpiredJwtException, UnsupportedJwtException, MalformedJwtException, SignatureException, IllegalArgumentException;
+
+    /**
+     * Returns the <b>unverified</b> header of the specified compact JWT or JWS, without decoding the payload or
+     * verifying any signature.
+     *
+     * <p>This is intended for code that must inspect a token before it can be parsed, for example to route a request
+     * or to choose a key based on the {@code kid} or {@code alg} header parameters, or on claims replicated as header
+     * parameters (as described in <a href="https://tools.ietf.org/html/rfc7519#section-5.3">RFC 7519, Section
+     * 5.3</a>) such as {@code iss}, which are available via {@link java.util.Map#get(Object) get}.  Only the
+     * first segment is Base64Url-decoded and deserialized.</p>
+     *
+     * <p><b>WARNING:</b> anyone can create a token with any header, so the returned values must not be trusted for
+     * anything other than selecting how to parse the token.  The token must still be fully
+     * {@link #parse(String) parsed} (and its signature verified) before any of its contents are relied upon.  To help
+     * prevent the result from being mistaken for verified data, the returned header is immutable: all mutator
+     * methods throw {@link UnsupportedOperationException}.</p>
+     *
+     * @param jwt the compact serialized JWT or JWS
+     * @return the unverified, immutable header of the specified JWT or JWS.
+     * @throws MalformedJwtException    if the specified JWT does not contain exactly two period characters, is
+     *                                  missing a payload, has no header, or its header is not a valid JSON object.
+     * @throws IllegalArgumentException if the specified string is {@code null} or empty or only whitespace.
+     * @see #peekHeader(byte[], int, int)
+     * @since 0.12.0
+     */
+    JwsHeader peekHeader(String jwt) throws MalformedJwtException, IllegalArgumentException;
+
+    /**
+     * Returns the <b>unverified</b> header of the compact JWT or JWS represented by the {@code length} US-ASCII bytes
+     * of the {@code jwt} array starting at {@code offset}, without decoding the payload or verifying any signature.
+     * Only the header segment is converted to a String.  See {@link #peekHeader(String)} for the conditions and warnings
+     * that apply.
+     *
+     * @param jwt    the array containing the compact serialized JWT as US-ASCII bytes
+     * @param offset the index of the first byte of the JWT in the array
+     * @param length the number of bytes of the JWT
+     * @return the unverified, immutable header of the specified JWT or JWS.
+     * @throws MalformedJwtException    if the specified JWT does not contain exactly two period characters, is
+     *                                  missing a payload, has no header, or its header is not a valid JSON object.
+     * @throws IllegalArgumentException if the specified array is {@code null}, the specified range is out of bounds,
+     *                                  or the range is empty or only whitespace.
+     * @see #peekHeader(String)
+     * @since 0.12.0
+     */
+    JwsHeader peekHeader(byte[] jwt, int offset, int length) throws MalformedJwtException, IllegalArgumentException;
+
+    /**
+     * Parses and verifies every specified Claims JWS exactly as {@link #parseClaimsJws(String)} would, in parallel,
+     * and returns one result per JWS in the collection's iteration order.
+     *
+     * <p>A JWS that is rejected does not affect the others: its result simply carries the {@link JwtException}
+     * (such as a {@link SignatureException} or an {@link ExpiredJwtException}) that {@code parseClaimsJws} would have
+     * thrown for it.  The JWSs are parsed on a shared fork-join pool with one worker per available processor, and
+     * signature validators and their JCA engines are reused across the whole batch.</p>
+     *
+     * <p>Any configured {@link SigningKeyResolver} is invoked concurrently from several threads and must therefore be
+     * thread-safe.</p>
+     *
+     * @param claimsJwss the compact serialized Claims JWSs to parse
+     * @return one result per JWS, in the collection's iteration order.
+     * @throws IllegalArgumentException if the collection is {@code null}
+     * @see #parseAll(Collection, JwtHandler)
+     * @since 0.12.0
+     */
+    List<ParseResult<Jws<Claims>>> parseAll(Collection<String> claimsJwss) throws IllegalArgumentException;
+
+    /**
+     * Parses every specified JWT exactly as {@link #parse(String, JwtHandler)} would, in parallel, and returns one
+     * result per JWT in the collection's iteration order.  A JWT that is rejected with a {@link JwtException} does
+     * not affect the others; see {@link #parseAll(Collection)} for details.
+     *
+     * <p>The handler is invoked concurrently from several threads and must therefore be thread-safe.  Exceptions
+     * thrown by the handler that are not {@code JwtException}s are not captured and abort the batch.</p>
+     *
+     * @param jwts    the compact serialized JWTs to parse
+     * @param handler the handler to invoke for each successfully parsed JWT
+     * @param <T>     the type of the value returned by the handler
+     * @return one result per JWT, in the collection's iteration order.
+     * @throws IllegalArgumentException if the collection or the handler is {@code null}
+     * @since 0.12.0
+     */
+    <T> List<ParseResult<T>> parseAll(Collection<String> jwts, JwtHandler<T> handler) throws IllegalArgumentException;
+
+    /**
+     * Parses and verifies the specified Claims JWS exactly as {@link #parseClaimsJws(String)} would, without blocking
+     * the calling thread on expensive signature verification.  This is equivalent to
+     * {@link #parseClaimsJwsAsync(String, ParseCallback) parseClaimsJwsAsync(claimsJws, null)}.
+     *
+     * @param claimsJws the compact serialized Claims JWS to parse
+     * @return a {@code Future} for the parsed JWS.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the parse
+     * @since 0.12.0
+     */
+    Future<Jws<Claims>> parseClaimsJwsAsync(String claimsJws);
+
+    /**
+     * Parses and verifies the specified Claims JWS exactly as {@link #parseClaimsJws(String)} would, without blocking
+     * the calling thread on expensive signature verification, and passes the outcome to the specified callback.
+     * This is intended for event-loop servers, where a slow RSA or EC verification would stall every connection
+     * handled by the same loop.
+     *
+     * <p>The cheap steps - splitting the JWS, reading its header (using the
+     * {@link JwtParserBuilder#setHeaderCacheSize(int) header cache} if enabled) and looking it up in the
+     * {@link JwtParserBuilder#setVerifiedJwsCacheSize(int) verified JWS cache} - always run on the calling thread.
+     * Only a JWS that still needs an RSA or Elliptic Curve signature verified is handed to the
+     * {@link JwtParserBuilder#setAsyncExecutor(java.util.concurrent.Executor) configured executor}; everything else
+     * (including HMAC-signed and malformed JWSs) is completed before this method returns.</p>
+     *
+     * <p>The returned {@code Future}'s {@code get} methods throw an {@code ExecutionException} whose cause is the
+     * exception {@code parseClaimsJws} would have thrown.  Offload counts, queue depth and latency are available via
+     * {@link #getAsyncParseStatistics()}.</p>
+     *
+     * @param claimsJws the compact serialized Claims JWS to parse
+     * @param callback  the callback to pass the outcome to, or {@code null} if only the returned {@code Future} is
+     *                  needed
+     * @return a {@code Future} for the parsed JWS.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the parse
+     * @since 0.12.0
+     */
+    Future<Jws<Claims>> parseClaimsJwsAsync(String claimsJws, ParseCallback<Jws<Claims>> callback);
+
+    /**
+     * Returns queue depth, offload counts and offload latency for this parser's
+     * {@link #parseClaimsJwsAsync(String, ParseCallback) asynchronous parses}.
+     *
+     * @return this parser's asynchronous parse statistics.
+     * @since 0.12.0
+     */
+    AsyncParseStatistics getAsyncParseStatistics();
+
+    /**
+     * Returns hit, miss and eviction counts for this parser's
+     * {@link JwtParserBuilder#setVerifiedJwsCacheSize(int) verified JWS cache}, or {@code null} if the cache is not
+     * enabled.
+     *
+     * @return the verified JWS cache statistics, or {@code null} if the cache is not enabled.
+     * @since 0.12.0
+     */
+    CacheStatistics getVerifiedJwsCacheStatistics();
+
+    /**
+     * Returns hit, miss and eviction counts for this parser's
+     * {@link JwtParserBuilder#setRejectedJwsCache(int, long) rejected JWS cache}, or {@code null} if the cache is not
+     * enabled.
+     *
+     * @return the rejected JWS cache statistics, or {@code null} if the cache is not enabled.
+     * @since 0.12.0
+     */
+    CacheStatistics getRejectedJwsCacheStatistics();
+
+    /**
+     * Returns hit, miss and eviction counts for this parser's
+     * {@link JwtParserBuilder#setHeaderCacheSize(int) header cache}, or {@code null} if the cache is not enabled.
+     *
+     * @return the header cache statistics, or {@code null} if the cache is not enabled.
+     * @since 0.12.0
+     */
+    CacheStatistics getHeaderCacheStatistics();
 }
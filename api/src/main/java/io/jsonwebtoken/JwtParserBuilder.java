@@ -21,6 +21,7 @@ import io.jsonwebtoken.io.Deserializer;
 import java.security.Key;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * A builder to construct a {@link JwtParser}. Example usage:
@@ -297,6 +298,149 @@ public interface JwtParserBuilder {
      */
     JwtParserBuilder deserializeJsonWith(Deserializer<Map<String,?>> deserializer);
 
+    /**
+     * Sets whether or not a JWS signature is verified before the JWS payload is deserialized.  The default is
+     * {@code false}, in which case the payload is decoded, decompressed and (if it is a JSON object) deserialized
+     * into {@link Claims} before the signature is checked.
+     *
+     * <p>When {@code true}, the header is decoded and the signing key is resolved and used to verify the signature
+     * before the payload is deserialized, so forged or corrupted tokens are rejected without ever reaching the JSON
+     * {@link #deserializeJsonWith(Deserializer) deserializer}.  If a {@link SigningKeyResolver} is used, the payload
+     * is decoded first so the resolver can inspect it, but the {@code Claims} given to the resolver are only
+     * deserialized if the resolver actually reads them.</p>
+     *
+     * <p>Because of this reordering, a JWS with both an invalid signature and a malformed payload will fail with a
+     * {@link io.jsonwebtoken.security.SignatureException SignatureException} instead of a
+     * {@link MalformedJwtException}.  Unsigned JWTs are not affected by this setting.</p>
+     *
+     * @param verifySignatureFirst whether or not to verify JWS signatures before deserializing the payload.
+     * @return the parser builder for method chaining.
+     * @since 0.12.0
+     */
+    JwtParserBuilder setVerifySignatureFirst(boolean verifySignatureFirst);
+
+    /**
+     * Sets whether or not JSON {@link Claims} are deserialized lazily, only when first needed.  The default is
+     * {@code false}, in which case every claim is deserialized into a {@code Map} as soon as the payload is decoded.
+     *
+     * <p>When {@code true}, the parser scans the decoded JSON once, without creating any objects for it, and extracts
+     * only the top-level {@code exp}, {@code nbf}, {@code iat}, {@code iss}, {@code sub} and {@code jti} claims
+     * when they are simple JSON numbers or strings.  Those values are enough for the parser's own {@code exp} and
+     * {@code nbf} checks, and for the matching {@code Claims} accessors, so a token with large custom claims (for
+     * example, {@code roles} or {@code permissions} arrays) is only fully deserialized if the application reads one
+     * of those other claims.  If any {@link #require(String, Object) expected claims} are configured, the claims are
+     * deserialized before they are asserted, as before.</p>
+     *
+     * <p>The scan also checks that the payload is well-formed JSON, and if it is not (or if it cannot extract one of
+     * the claims above, for example because it is a string date or is specified more than once), the claims are
+     * deserialized immediately, so malformed payloads are still reported by the {@code parse} methods.</p>
+     *
+     * @param lazyClaims whether or not to deserialize claims only when first needed.
+     * @return the parser builder for method chaining.
+     * @since 0.12.0
+     */
+    JwtParserBuilder setLazyClaims(boolean lazyClaims);
+
+    /**
+     * Enables a cache of up to {@code maxSize} successfully verified {@link Jws Jws&lt;Claims&gt;} results so that a
+     * JWS string that is parsed repeatedly is only decoded, deserialized and cryptographically verified once.  The
+     * default is {@code 0}, which disables caching.
+     *
+     * <p>This is the same as calling {@link #setVerifiedJwsCache(int, long) setVerifiedJwsCache(maxSize, 300)}, so
+     * each result is cached for at most five minutes.</p>
+     *
+     * @param maxSize the maximum number of verified JWS results to cache, or {@code 0} to disable caching.
+     * @return the parser builder for method chaining.
+     * @see #setVerifiedJwsCache(int, long)
+     * @since 0.12.0
+     */
+    JwtParserBuilder setVerifiedJwsCacheSize(int maxSize);
+
+    /**
+     * Enables a cache of up to {@code maxSize} successfully verified {@link Jws Jws&lt;Claims&gt;} results, each for
+     * at most {@code maxAgeSeconds} seconds, so that a JWS string that is parsed repeatedly is only decoded,
+     * deserialized and cryptographically verified once in that time.  The default {@code maxSize} is {@code 0},
+     * which disables caching.
+     *
+     * <p>Entries are keyed by a SHA-256 digest of the entire compact JWS string, so the cache does not retain the
+     * token strings themselves.  An entry is never used at or after the JWS {@code exp} time, nor more than
+     * {@code maxAgeSeconds} after it was cached (even if the JWS has no {@code exp} claim), and the
+     * {@link #setClock(Clock) clock} and {@link #setAllowedClockSkewSeconds(long) clock skew} checks are still
+     * performed on every cache hit.  Each hit returns a new copy of the cached header and claims.  When the cache is
+     * full, the least recently used entries are evicted.  Hit, miss and eviction counts are available via
+     * {@link JwtParser#getVerifiedJwsCacheStatistics()}.</p>
+     *
+     * <p>Only {@link JwtParser#parse(String)}, {@link JwtParser#parse(String, JwtHandler)} and
+     * {@link JwtParser#parseClaimsJws(String)} consult the cache.</p>
+     *
+     * <p><b>NOTE:</b> a cached result is reused until it expires, reaches {@code maxAgeSeconds} or is evicted, even if
+     * the key returned by a {@link #setSigningKeyResolver(SigningKeyResolver) SigningKeyResolver} for that JWS would
+     * have changed in the meantime (for example, because the key was revoked).  Choose {@code maxAgeSeconds} no
+     * longer than the delay you can accept between revoking a key and rejecting the tokens it signed.</p>
+     *
+     * @param maxSize       the maximum number of verified JWS results to cache, or {@code 0} to disable caching.
+     * @param maxAgeSeconds the maximum number of seconds each result is cached; must be positive if the cache is
+     *                      enabled.
+     * @return the parser builder for method chaining.
+     * @since 0.12.0
+     */
+    JwtParserBuilder setVerifiedJwsCache(int maxSize, long maxAgeSeconds);
+
+    /**
+     * Enables a cache that remembers up to {@code maxSize} JWS strings whose signature failed verification, for
+     * {@code ttlSeconds} seconds each, so that a replayed forgery is rejected with a
+     * {@link io.jsonwebtoken.security.SignatureException SignatureException} in constant time, before any decoding,
+     * deserialization or cryptographic work is performed.  The default {@code maxSize} is {@code 0}, which disables
+     * the cache.
+     *
+     * <p>Only SHA-256 digests of the rejected strings are retained, and when the cache is full the least recently
+     * used entries are evicted, so memory use stays bounded no matter how many distinct forgeries are presented.
+     * Only signature mismatches are remembered; malformed, expired or otherwise invalid tokens are not.  Hit, miss
+     * and eviction counts are available via {@link JwtParser#getRejectedJwsCacheStatistics()}.</p>
+     *
+     * <p><b>NOTE:</b> if a {@link #setSigningKeyResolver(SigningKeyResolver) SigningKeyResolver} can return a
+     * different key for the same JWS over time (for example, while a new key is being rolled out), a JWS rejected
+     * with the old key will continue to be rejected until its entry expires.</p>
+     *
+     * @param maxSize    the maximum number of rejected JWS strings to remember, or {@code 0} to disable the cache.
+     * @param ttlSeconds the number of seconds each rejection is remembered; must be positive if the cache is enabled.
+     * @return the parser builder for method chaining.
+     * @since 0.12.0
+     */
+    JwtParserBuilder setRejectedJwsCache(int maxSize, long ttlSeconds);
+
+    /**
+     * Enables a cache of up to {@code maxSize} decoded JWT headers, keyed by the exact Base64Url-encoded header
+     * string, so that the header of a token is not decoded and deserialized again when another token with an
+     * identical header is parsed.  This is very common, because all tokens from the same issuer and key usually have
+     * a byte-for-byte identical header, such as <code>{"alg":"RS256","kid":"k1"}</code>.  The default is
+     * {@code 0}, which disables the cache.
+     *
+     * <p>Along with the header parameters, the cache retains the {@link CompressionCodec} returned by the
+     * {@link #setCompressionCodecResolver(CompressionCodecResolver) CompressionCodecResolver} and the
+     * {@link io.jsonwebtoken.SignatureAlgorithm SignatureAlgorithm} named by the header, so those are not resolved
+     * again either.  Every parse result still gets its own copy of the header.  Headers containing anything other
+     * than string, number or boolean values (for example an embedded JWK) are never cached.  When the cache is full,
+     * the least recently used entries are evicted.  Hit, miss and eviction counts are available via
+     * {@link JwtParser#getHeaderCacheStatistics()}.</p>
+     *
+     * @param maxSize the maximum number of decoded headers to cache, or {@code 0} to disable caching.
+     * @return the parser builder for method chaining.
+     * @since 0.12.0
+     */
+    JwtParserBuilder setHeaderCacheSize(int maxSize);
+
+    /**
+     * Sets the executor that {@link JwtParser#parseClaimsJwsAsync(String, ParseCallback)} hands expensive signature
+     * verifications to.  If not set, a virtual thread per verification is used on JVMs that support virtual threads,
+     * and otherwise a shared pool of daemon threads, one per available processor.
+     *
+     * @param executor the executor to run offloaded verifications on
+     * @return the parser builder for method chaining.
+     * @since 0.12.0
+     */
+    JwtParserBuilder setAsyncExecutor(Executor executor);
+
     /**
      * Returns an immutable/thread-safe {@link JwtParser} created from the configuration from this JwtParserBuilder.
      * @return an immutable/thread-safe JwtParser created from the configuration from this JwtParserBuilder.
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken;
+
+import java.util.Date;
+
+/**
+ * A precompiled {@link JwtBuilder} for issuing many JWTs that differ only in their {@code sub}, {@code iat},
+ * {@code exp} and {@code jti} claims, created with {@link JwtBuilder#toTemplate()}.
+ *
+ * <p>The header and all other claims are serialized and encoded once, when the template is created; each call to
+ * {@link #compact(String, Date, Date, String) compact} only writes the per-token claims, compresses (if the builder
+ * was configured to) and signs.  The result is exactly the String that the builder would have produced with</p>
+ *
+ * <pre>{@code
+ * builder.setSubject(subject).setIssuedAt(issuedAt).setExpiration(expiration).setId(id).compact()}</pre>
+ *
+ * <p>Templates are immutable snapshots of the builder - later changes to the builder do not affect them - and are
+ * safe to share between threads.</p>
+ *
+ * @since 0.12.0
+ */
+public interface JwtTemplate {
+
+    /**
+     * Creates a compact JWT from this template and the specified per-token claims.  A {@code null} argument omits
+     * that claim.
+     *
+     * @param subject    the {@code sub} claim value, or {@code null}
+     * @param issuedAt   the {@code iat} claim value, or {@code null}
+     * @param expiration the {@code exp} claim value, or {@code null}
+     * @param id         the {@code jti} claim value, or {@code null}
+     * @return a compact URL-safe JWT string.
+     * @throws IllegalStateException if the template has no claims and all arguments are {@code null}
+     */
+    String compact(String subject, Date issuedAt, Date expiration, String id);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken;
+
+/**
+ * Receives the outcome of an {@link JwtParser#parseClaimsJwsAsync(String, ParseCallback) asynchronous parse}.
+ *
+ * <p>The callback is invoked exactly once, unless the returned {@code Future} is cancelled first, on whichever
+ * thread completed the parse: the executor's thread if the work was offloaded, otherwise the calling thread before
+ * {@code parseClaimsJwsAsync} returns.  Callbacks should therefore be quick and hand further work to their own
+ * event loop or executor.  On Java 8 and later, a callback can complete a {@code CompletableFuture}:</p>
+ *
+ * <pre>{@code
+ * CompletableFuture<Jws<Claims>> future = new CompletableFuture<>();
+ * parser.parseClaimsJwsAsync(jws, result -> {
+ *     if (result.isSuccess()) {
+ *         future.complete(result.getValue());
+ *     } else {
+ *         future.completeExceptionally(result.getException());
+ *     }
+ * });}</pre>
+ *
+ * @param <T> the type of the parsed value
+ * @since 0.12.0
+ */
+public interface ParseCallback<T> {
+
+    /**
+     * Invoked with the outcome of the parse.
+     *
+     * @param result the parsed value or the exception the JWT was rejected with
+     */
+    void onComplete(ParseResult<T> result);
+}
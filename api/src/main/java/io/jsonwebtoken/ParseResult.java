@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken;
+
+import java.util.Collection;
+
+/**
+ * The outcome of parsing a single JWT as part of a batch, as returned by {@link JwtParser#parseAll(Collection)}:
+ * either the parsed value or the {@link JwtException} explaining why the JWT was rejected.
+ *
+ * @param <T> the type of the parsed value
+ * @since 0.12.0
+ */
+public interface ParseResult<T> {
+
+    /**
+     * Returns the compact JWT that was parsed.
+     *
+     * @return the compact JWT that was parsed.
+     */
+    String getJwt();
+
+    /**
+     * Returns {@code true} if the JWT was parsed (and, if signed, verified) successfully, {@code false} if it was
+     * rejected.
+     *
+     * @return {@code true} if the JWT was parsed successfully, {@code false} if it was rejected.
+     */
+    boolean isSuccess();
+
+    /**
+     * Returns the parsed value, or {@code null} if the JWT was rejected.
+     *
+     * @return the parsed value, or {@code null} if the JWT was rejected.
+     */
+    T getValue();
+
+    /**
+     * Returns the exception the JWT was rejected with, or {@code null} if it was parsed successfully.  A
+     * {@code null} or empty JWT is reported as a {@link MalformedJwtException}.
+     *
+     * @return the exception the JWT was rejected with, or {@code null} if it was parsed successfully.
+     */
+    JwtException getException();
+}
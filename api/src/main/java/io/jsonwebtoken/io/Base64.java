@@ -108,8 +108,26 @@ final class Base64 { //final and package-protected on purpose
 
         char[] dArr = new char[urlsafe ? (dLen - padCount) : dLen];
 
+        int s = 0, d = 0;
+
+        // Without line separators, encode six bytes (48 bits) into eight chars at a time.
+        if (!lineSep) {
+            for (int e6Len = (sLen / 6) * 6; s < e6Len; s += 6, d += 8) {
+                long i = (sArr[s] & 0xffL) << 40 | (sArr[s + 1] & 0xffL) << 32 | (sArr[s + 2] & 0xffL) << 24 |
+                    (sArr[s + 3] & 0xff) << 16 | (sArr[s + 4] & 0xff) << 8 | (sArr[s + 5] & 0xff);
+                dArr[d] = ALPHABET[(int) (i >>> 42) & 0x3f];
+                dArr[d + 1] = ALPHABET[(int) (i >>> 36) & 0x3f];
+                dArr[d + 2] = ALPHABET[(int) (i >>> 30) & 0x3f];
+                dArr[d + 3] = ALPHABET[(int) (i >>> 24) & 0x3f];
+                dArr[d + 4] = ALPHABET[(int) (i >>> 18) & 0x3f];
+                dArr[d + 5] = ALPHABET[(int) (i >>> 12) & 0x3f];
+                dArr[d + 6] = ALPHABET[(int) (i >>> 6) & 0x3f];
+                dArr[d + 7] = ALPHABET[(int) i & 0x3f];
+            }
+        }
+
         // Encode even 24-bits
-        for (int s = 0, d = 0, cc = 0; s < eLen; ) {
+        for (int cc = 0; s < eLen; ) {
 
             // Copy next three bytes into lower 24 bits of int, paying attension to sign.
             int i = (sArr[s++] & 0xff) << 16 | (sArr[s++] & 0xff) << 8 | (sArr[s++] & 0xff);
@@ -150,6 +168,90 @@ final class Base64 { //final and package-protected on purpose
         return dArr;
     }
 
+    /**
+     * Returns the exact number of US-ASCII bytes that {@link #encode(byte[], int, int, byte[], int)} writes for the
+     * specified number of source bytes.
+     *
+     * @param sLen The number of bytes to encode.
+     * @return the exact number of encoded bytes.
+     * @throws IllegalArgumentException if {@code sLen} is negative
+     * @since 0.12.0
+     */
+    final int encodedLength(int sLen) {
+        if (sLen < 0) {
+            throw new IllegalArgumentException("Invalid source length: " + sLen);
+        }
+        int left = sLen % 3;
+        int padded = (sLen / 3 + (left > 0 ? 1 : 0)) << 2;
+        return urlsafe && left > 0 ? padded - (3 - left) : padded;
+    }
+
+    /**
+     * Encodes a range of raw bytes as US-ASCII BASE64 characters, without line separators, into the specified buffer.
+     *
+     * @param sArr The bytes to encode.
+     * @param sOff The index of the first byte to encode.
+     * @param sLen The number of bytes to encode.
+     * @param dArr The destination buffer.
+     * @param dOff The index in the destination buffer of the first encoded character.
+     * @return the number of encoded characters (bytes) written.
+     * @throws IllegalArgumentException if either range is invalid
+     * @since 0.12.0
+     */
+    final int encode(byte[] sArr, int sOff, int sLen, byte[] dArr, int dOff) {
+        if (sOff < 0 || sLen < 0 || sOff > sArr.length - sLen) {
+            throw new IllegalArgumentException("Invalid source offset/length [" + sOff + ", " + sLen + "] for a source " +
+                "of length " + sArr.length + ".");
+        }
+        int dLen = encodedLength(sLen);
+        if (dOff < 0 || dOff > dArr.length - dLen) {
+            throw new IllegalArgumentException("Invalid destination offset/length [" + dOff + ", " + dLen + "] for a " +
+                "destination of length " + dArr.length + ".");
+        }
+
+        int s = sOff, d = dOff;
+
+        // Encode six bytes (48 bits) into eight chars at a time.
+        for (int e6 = sOff + (sLen / 6) * 6; s < e6; s += 6, d += 8) {
+            long i = (sArr[s] & 0xffL) << 40 | (sArr[s + 1] & 0xffL) << 32 | (sArr[s + 2] & 0xffL) << 24 |
+                (sArr[s + 3] & 0xff) << 16 | (sArr[s + 4] & 0xff) << 8 | (sArr[s + 5] & 0xff);
+            dArr[d] = (byte) ALPHABET[(int) (i >>> 42) & 0x3f];
+            dArr[d + 1] = (byte) ALPHABET[(int) (i >>> 36) & 0x3f];
+            dArr[d + 2] = (byte) ALPHABET[(int) (i >>> 30) & 0x3f];
+            dArr[d + 3] = (byte) ALPHABET[(int) (i >>> 24) & 0x3f];
+            dArr[d + 4] = (byte) ALPHABET[(int) (i >>> 18) & 0x3f];
+            dArr[d + 5] = (byte) ALPHABET[(int) (i >>> 12) & 0x3f];
+            dArr[d + 6] = (byte) ALPHABET[(int) (i >>> 6) & 0x3f];
+            dArr[d + 7] = (byte) ALPHABET[(int) i & 0x3f];
+        }
+
+        // Encode any remaining even 24-bits
+        for (int e3 = sOff + (sLen / 3) * 3; s < e3; s += 3, d += 4) {
+            int i = (sArr[s] & 0xff) << 16 | (sArr[s + 1] & 0xff) << 8 | (sArr[s + 2] & 0xff);
+            dArr[d] = (byte) ALPHABET[(i >>> 18) & 0x3f];
+            dArr[d + 1] = (byte) ALPHABET[(i >>> 12) & 0x3f];
+            dArr[d + 2] = (byte) ALPHABET[(i >>> 6) & 0x3f];
+            dArr[d + 3] = (byte) ALPHABET[i & 0x3f];
+        }
+
+        // Pad and encode last bits if source isn't even 24 bits.
+        int left = sOff + sLen - s;
+        if (left > 0) {
+            int i = ((sArr[s] & 0xff) << 10) | (left == 2 ? ((sArr[s + 1] & 0xff) << 2) : 0);
+            dArr[d++] = (byte) ALPHABET[i >> 12];
+            dArr[d++] = (byte) ALPHABET[(i >>> 6) & 0x3f];
+            if (left == 2) {
+                dArr[d++] = (byte) ALPHABET[i & 0x3f];
+            } else if (!urlsafe) {
+                dArr[d++] = '=';
+            }
+            if (!urlsafe) {
+                dArr[d] = '=';
+            }
+        }
+        return dLen;
+    }
+
     /*
      * Decodes a BASE64 encoded char array. All illegal characters will be ignored and can handle both arrays with
      * and without line separators.
@@ -214,6 +316,89 @@ final class Base64 { //final and package-protected on purpose
     }
     */
 
+    // ****************************************************************************************
+    // *  Eight-character blocks (since 0.12.0)
+    // *
+    // *  Clean input is decoded eight characters (48 bits, six bytes) at a time: the eight sextets are looked up without
+    // *  any per-character branches, illegal characters are detected with a single sign test of all sextets OR'd
+    // *  together, and the bits are assembled in a long.  Only a block that contains an illegal character is decoded
+    // *  again one character at a time, so that it fails with exactly the same exception as before.
+    // ****************************************************************************************
+
+    // IALPHABET value for c, or -1 (without branching) if c is outside the table:
+    private int sextet(char c) {
+        return IALPHABET[c & IALPHABET_MAX_INDEX] | ((IALPHABET_MAX_INDEX - c) >> 31);
+    }
+
+    private static void putBlock(byte[] dArr, int d, long bits) {
+        dArr[d] = (byte) (bits >> 40);
+        dArr[d + 1] = (byte) (bits >> 32);
+        dArr[d + 2] = (byte) (bits >> 24);
+        dArr[d + 3] = (byte) (bits >> 16);
+        dArr[d + 4] = (byte) (bits >> 8);
+        dArr[d + 5] = (byte) bits;
+    }
+
+    // throws the same exception that the one-character-at-a-time loop would for the first illegal character:
+    private void assertLegal(char c0, char c1, char c2, char c3, char c4, char c5, char c6, char c7) {
+        ctoi(c0);
+        ctoi(c1);
+        ctoi(c2);
+        ctoi(c3);
+        ctoi(c4);
+        ctoi(c5);
+        ctoi(c6);
+        ctoi(c7);
+    }
+
+    private int decodeBlocks(char[] sArr, int sIx, byte[] dArr, int d, int dEnd) {
+        for (; d < dEnd; sIx += 8, d += 6) {
+            int i0 = sextet(sArr[sIx]), i1 = sextet(sArr[sIx + 1]), i2 = sextet(sArr[sIx + 2]),
+                i3 = sextet(sArr[sIx + 3]), i4 = sextet(sArr[sIx + 4]), i5 = sextet(sArr[sIx + 5]),
+                i6 = sextet(sArr[sIx + 6]), i7 = sextet(sArr[sIx + 7]);
+            if ((i0 | i1 | i2 | i3 | i4 | i5 | i6 | i7) < 0) {
+                assertLegal(sArr[sIx], sArr[sIx + 1], sArr[sIx + 2], sArr[sIx + 3], sArr[sIx + 4], sArr[sIx + 5],
+                    sArr[sIx + 6], sArr[sIx + 7]);
+            }
+            putBlock(dArr, d, (long) i0 << 42 | (long) i1 << 36 | (long) i2 << 30 | (long) i3 << 24 |
+                i4 << 18 | i5 << 12 | i6 << 6 | i7);
+        }
+        return sIx;
+    }
+
+    private int decodeBlocks(CharSequence s, int sIx, byte[] dArr, int d, int dEnd) {
+        for (; d < dEnd; sIx += 8, d += 6) {
+            char c0 = s.charAt(sIx), c1 = s.charAt(sIx + 1), c2 = s.charAt(sIx + 2), c3 = s.charAt(sIx + 3),
+                c4 = s.charAt(sIx + 4), c5 = s.charAt(sIx + 5), c6 = s.charAt(sIx + 6), c7 = s.charAt(sIx + 7);
+            int i0 = sextet(c0), i1 = sextet(c1), i2 = sextet(c2), i3 = sextet(c3),
+                i4 = sextet(c4), i5 = sextet(c5), i6 = sextet(c6), i7 = sextet(c7);
+            if ((i0 | i1 | i2 | i3 | i4 | i5 | i6 | i7) < 0) {
+                assertLegal(c0, c1, c2, c3, c4, c5, c6, c7);
+            }
+            putBlock(dArr, d, (long) i0 << 42 | (long) i1 << 36 | (long) i2 << 30 | (long) i3 << 24 |
+                i4 << 18 | i5 << 12 | i6 << 6 | i7);
+        }
+        return sIx;
+    }
+
+    private int decodeBlocks(byte[] sArr, int sIx, byte[] dArr, int d, int dEnd) {
+        for (; d < dEnd; sIx += 8, d += 6) {
+            // bytes are masked to 0..255, so every one of them is inside the table:
+            int i0 = IALPHABET[sArr[sIx] & 0xff], i1 = IALPHABET[sArr[sIx + 1] & 0xff],
+                i2 = IALPHABET[sArr[sIx + 2] & 0xff], i3 = IALPHABET[sArr[sIx + 3] & 0xff],
+                i4 = IALPHABET[sArr[sIx + 4] & 0xff], i5 = IALPHABET[sArr[sIx + 5] & 0xff],
+                i6 = IALPHABET[sArr[sIx + 6] & 0xff], i7 = IALPHABET[sArr[sIx + 7] & 0xff];
+            if ((i0 | i1 | i2 | i3 | i4 | i5 | i6 | i7) < 0) {
+                assertLegal((char) (sArr[sIx] & 0xff), (char) (sArr[sIx + 1] & 0xff), (char) (sArr[sIx + 2] & 0xff),
+                    (char) (sArr[sIx + 3] & 0xff), (char) (sArr[sIx + 4] & 0xff), (char) (sArr[sIx + 5] & 0xff),
+                    (char) (sArr[sIx + 6] & 0xff), (char) (sArr[sIx + 7] & 0xff));
+            }
+            putBlock(dArr, d, (long) i0 << 42 | (long) i1 << 36 | (long) i2 << 30 | (long) i3 << 24 |
+                i4 << 18 | i5 << 12 | i6 << 6 | i7);
+        }
+        return sIx;
+    }
+
     private int ctoi(char c) {
         int i = c > IALPHABET_MAX_INDEX ? -1 : IALPHABET[c];
         if (i < 0) {
@@ -262,8 +447,14 @@ final class Base64 { //final and package-protected on purpose
         int len = ((cCnt - sepCnt) * 6 >> 3) - pad; // The number of decoded bytes
         byte[] dArr = new byte[len];       // Preallocate byte[] of exact length
 
-        // Decode all but the last 0 - 2 bytes.
+        // Without line separators, decode six bytes at a time first.
         int d = 0;
+        if (sepCnt == 0) {
+            d = (len / 6) * 6;
+            sIx = decodeBlocks(sArr, sIx, dArr, 0, d);
+        }
+
+        // Decode all but the last 0 - 2 bytes.
         for (int cc = 0, eLen = (len / 3) * 3; d < eLen; ) {
 
             // Assemble three bytes into an int from four "valid" characters.
@@ -520,6 +711,244 @@ final class Base64 { //final and package-protected on purpose
     }
     */
 
+    // ****************************************************************************************
+    // *  CharSequence and US-ASCII byte[] range versions (since 0.12.0)
+    // *
+    // *  These follow the same rules as decodeFast(char[]) but decode a sub-range of the input into a caller-supplied
+    // *  buffer, so neither the encoded range nor the decoded result needs its own array.
+    // ****************************************************************************************
+
+    private static void assertRange(int arrayLength, int off, int len, String name) {
+        if (off < 0 || len < 0 || off > arrayLength - len) {
+            String msg = "Invalid " + name + " offset/length [" + off + ", " + len + "] for a " + name +
+                " of length " + arrayLength + ".";
+            throw new DecodingException(msg);
+        }
+    }
+
+    private boolean isIllegal(int c) {
+        return c > IALPHABET_MAX_INDEX || IALPHABET[c] < 0;
+    }
+
+    private static int decodedLength(int cCnt, int sepCnt, int pad) {
+        int len = ((cCnt - sepCnt) * 6 >> 3) - pad; // The number of decoded bytes
+        if (len < 0) {
+            throw new DecodingException("Invalid base64 padding.");
+        }
+        return len;
+    }
+
+    /**
+     * Returns the exact number of bytes that {@link #decodeFast(CharSequence, int, int, byte[], int)} would decode
+     * from the specified range.
+     *
+     * @param s   The source characters.
+     * @param off The index of the first character in the range.
+     * @param len The number of characters in the range.
+     * @return the exact number of decoded bytes.
+     * @throws DecodingException if the range is invalid
+     * @since 0.12.0
+     */
+    final int decodedLength(CharSequence s, int off, int len) throws DecodingException {
+        assertRange(s.length(), off, len, "source");
+        if (len == 0) {
+            return 0;
+        }
+        int sIx = off, eIx = off + len - 1;
+        while (sIx < eIx && isIllegal(s.charAt(sIx))) {
+            sIx++;
+        }
+        while (eIx > sIx && isIllegal(s.charAt(eIx))) {
+            eIx--;
+        }
+        int pad = s.charAt(eIx) == '=' ? (eIx > sIx && s.charAt(eIx - 1) == '=' ? 2 : 1) : 0;
+        int cCnt = eIx - sIx + 1;
+        int sepCnt = len > 76 ? (s.charAt(off + 76) == '\r' ? cCnt / 78 : 0) << 1 : 0;
+        return decodedLength(cCnt, sepCnt, pad);
+    }
+
+    /**
+     * Decodes a range of BASE64 encoded characters that is known to be reasonably well formatted (see
+     * {@link #decodeFast(char[])}) into the specified buffer.
+     *
+     * @param s    The source characters.
+     * @param off  The index of the first character in the range.
+     * @param len  The number of characters in the range.
+     * @param dArr The destination buffer.
+     * @param dOff The index in the destination buffer of the first decoded byte.
+     * @return the number of decoded bytes.
+     * @throws DecodingException on illegal input or if the destination buffer is too small
+     * @since 0.12.0
+     */
+    final int decodeFast(CharSequence s, int off, int len, byte[] dArr, int dOff) throws DecodingException {
+        assertRange(s.length(), off, len, "source");
+        if (len == 0) {
+            return 0;
+        }
+
+        int sIx = off, eIx = off + len - 1;    // Start and end index after trimming.
+        while (sIx < eIx && isIllegal(s.charAt(sIx))) {
+            sIx++;
+        }
+        while (eIx > sIx && isIllegal(s.charAt(eIx))) {
+            eIx--;
+        }
+
+        int pad = s.charAt(eIx) == '=' ? (eIx > sIx && s.charAt(eIx - 1) == '=' ? 2 : 1) : 0;
+        int cCnt = eIx - sIx + 1;
+        int sepCnt = len > 76 ? (s.charAt(off + 76) == '\r' ? cCnt / 78 : 0) << 1 : 0;
+
+        int dLen = decodedLength(cCnt, sepCnt, pad);
+        assertRange(dArr.length, dOff, dLen, "destination");
+
+        // Without line separators, decode six bytes at a time first.
+        int d = dOff, dEnd = dOff + dLen;
+        if (sepCnt == 0) {
+            d = dOff + (dLen / 6) * 6;
+            sIx = decodeBlocks(s, sIx, dArr, dOff, d);
+        }
+
+        // Decode all but the last 0 - 2 bytes.
+        for (int cc = 0, eLen = dOff + (dLen / 3) * 3; d < eLen; ) {
+
+            // Assemble three bytes into an int from four "valid" characters.
+            int i = ctoi(s.charAt(sIx++)) << 18 | ctoi(s.charAt(sIx++)) << 12 | ctoi(s.charAt(sIx++)) << 6 |
+                ctoi(s.charAt(sIx++));
+
+            // Add the bytes
+            dArr[d++] = (byte) (i >> 16);
+            dArr[d++] = (byte) (i >> 8);
+            dArr[d++] = (byte) i;
+
+            // If line separator, jump over it.
+            if (sepCnt > 0 && ++cc == 19) {
+                sIx += 2;
+                cc = 0;
+            }
+        }
+
+        if (d < dEnd) {
+            // Decode last 1-3 bytes (incl '=') into 1-3 bytes
+            int i = 0;
+            for (int j = 0; sIx <= eIx - pad; j++) {
+                i |= ctoi(s.charAt(sIx++)) << (18 - j * 6);
+            }
+
+            for (int r = 16; d < dEnd; r -= 8) {
+                dArr[d++] = (byte) (i >> r);
+            }
+        }
+
+        return dLen;
+    }
+
+    /**
+     * Returns the exact number of bytes that {@link #decodeFast(byte[], int, int, byte[], int)} would decode from the
+     * specified range.
+     *
+     * @param sArr The source US-ASCII bytes.
+     * @param off  The index of the first byte in the range.
+     * @param len  The number of bytes in the range.
+     * @return the exact number of decoded bytes.
+     * @throws DecodingException if the range is invalid
+     * @since 0.12.0
+     */
+    final int decodedLength(byte[] sArr, int off, int len) throws DecodingException {
+        assertRange(sArr.length, off, len, "source");
+        if (len == 0) {
+            return 0;
+        }
+        int sIx = off, eIx = off + len - 1;
+        while (sIx < eIx && isIllegal(sArr[sIx] & 0xff)) {
+            sIx++;
+        }
+        while (eIx > sIx && isIllegal(sArr[eIx] & 0xff)) {
+            eIx--;
+        }
+        int pad = sArr[eIx] == '=' ? (eIx > sIx && sArr[eIx - 1] == '=' ? 2 : 1) : 0;
+        int cCnt = eIx - sIx + 1;
+        int sepCnt = len > 76 ? (sArr[off + 76] == '\r' ? cCnt / 78 : 0) << 1 : 0;
+        return decodedLength(cCnt, sepCnt, pad);
+    }
+
+    /**
+     * Decodes a range of BASE64 encoded US-ASCII bytes that is known to be reasonably well formatted (see
+     * {@link #decodeFast(char[])}) into the specified buffer.
+     *
+     * @param sArr The source US-ASCII bytes.
+     * @param off  The index of the first byte in the range.
+     * @param len  The number of bytes in the range.
+     * @param dArr The destination buffer.
+     * @param dOff The index in the destination buffer of the first decoded byte.
+     * @return the number of decoded bytes.
+     * @throws DecodingException on illegal input or if the destination buffer is too small
+     * @since 0.12.0
+     */
+    final int decodeFast(byte[] sArr, int off, int len, byte[] dArr, int dOff) throws DecodingException {
+        assertRange(sArr.length, off, len, "source");
+        if (len == 0) {
+            return 0;
+        }
+
+        int sIx = off, eIx = off + len - 1;    // Start and end index after trimming.
+        while (sIx < eIx && isIllegal(sArr[sIx] & 0xff)) {
+            sIx++;
+        }
+        while (eIx > sIx && isIllegal(sArr[eIx] & 0xff)) {
+            eIx--;
+        }
+
+        int pad = sArr[eIx] == '=' ? (eIx > sIx && sArr[eIx - 1] == '=' ? 2 : 1) : 0;
+        int cCnt = eIx - sIx + 1;
+        int sepCnt = len > 76 ? (sArr[off + 76] == '\r' ? cCnt / 78 : 0) << 1 : 0;
+
+        int dLen = decodedLength(cCnt, sepCnt, pad);
+        assertRange(dArr.length, dOff, dLen, "destination");
+
+        // Without line separators, decode six bytes at a time first.
+        int d = dOff, dEnd = dOff + dLen;
+        if (sepCnt == 0) {
+            d = dOff + (dLen / 6) * 6;
+            sIx = decodeBlocks(sArr, sIx, dArr, dOff, d);
+        }
+
+        // Decode all but the last 0 - 2 bytes.
+        for (int cc = 0, eLen = dOff + (dLen / 3) * 3; d < eLen; ) {
+
+            // Assemble three bytes into an int from four "valid" characters.
+            int i = btoi(sArr[sIx++]) << 18 | btoi(sArr[sIx++]) << 12 | btoi(sArr[sIx++]) << 6 | btoi(sArr[sIx++]);
+
+            // Add the bytes
+            dArr[d++] = (byte) (i >> 16);
+            dArr[d++] = (byte) (i >> 8);
+            dArr[d++] = (byte) i;
+
+            // If line separator, jump over it.
+            if (sepCnt > 0 && ++cc == 19) {
+                sIx += 2;
+                cc = 0;
+            }
+        }
+
+        if (d < dEnd) {
+            // Decode last 1-3 bytes (incl '=') into 1-3 bytes
+            int i = 0;
+            for (int j = 0; sIx <= eIx - pad; j++) {
+                i |= btoi(sArr[sIx++]) << (18 - j * 6);
+            }
+
+            for (int r = 16; d < dEnd; r -= 8) {
+                dArr[d++] = (byte) (i >> r);
+            }
+        }
+
+        return dLen;
+    }
+
+    private int btoi(byte b) {
+        return ctoi((char) (b & 0xff));
+    }
+
     // ****************************************************************************************
     // * String version
     // ****************************************************************************************
@@ -20,7 +20,7 @@ import io.jsonwebtoken.lang.Assert;
 /**
  * @since 0.10.0
  */
-class Base64Decoder extends Base64Support implements Decoder<String, byte[]> {
+class Base64Decoder extends Base64Support implements Decoder<String, byte[]>, BufferDecoder {
 
     Base64Decoder() {
         super(Base64.DEFAULT);
@@ -35,4 +35,42 @@ class Base64Decoder extends Base64Support implements Decoder<String, byte[]> {
         Assert.notNull(s, "String argument cannot be null");
         return this.base64.decodeFast(s.toCharArray());
     }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public int decodedLength(CharSequence s, int offset, int length) throws DecodingException {
+        Assert.notNull(s, "CharSequence argument cannot be null");
+        return this.base64.decodedLength(s, offset, length);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public int decode(CharSequence s, int offset, int length, byte[] dest, int destOffset) throws DecodingException {
+        Assert.notNull(s, "CharSequence argument cannot be null");
+        Assert.notNull(dest, "Destination byte array cannot be null");
+        return this.base64.decodeFast(s, offset, length, dest, destOffset);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public int decodedLength(byte[] ascii, int offset, int length) throws DecodingException {
+        Assert.notNull(ascii, "byte array argument cannot be null");
+        return this.base64.decodedLength(ascii, offset, length);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public int decode(byte[] ascii, int offset, int length, byte[] dest, int destOffset) throws DecodingException {
+        Assert.notNull(ascii, "byte array argument cannot be null");
+        Assert.notNull(dest, "Destination byte array cannot be null");
+        return this.base64.decodeFast(ascii, offset, length, dest, destOffset);
+    }
 }
\ No newline at end of file
@@ -20,7 +20,7 @@ import io.jsonwebtoken.lang.Assert;
 /**
  * @since 0.10.0
  */
-class Base64Encoder extends Base64Support implements Encoder<byte[], String> {
+class Base64Encoder extends Base64Support implements Encoder<byte[], String>, BufferEncoder {
 
     Base64Encoder() {
         super(Base64.DEFAULT);
@@ -35,4 +35,22 @@ class Base64Encoder extends Base64Support implements Encoder<byte[], String> {
         Assert.notNull(bytes, "byte array argument cannot be null");
         return this.base64.encodeToString(bytes, false);
     }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public int encodedLength(int length) throws EncodingException {
+        return this.base64.encodedLength(length);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public int encode(byte[] src, int offset, int length, byte[] dest, int destOffset) throws EncodingException {
+        Assert.notNull(src, "byte array argument cannot be null");
+        Assert.notNull(dest, "Destination byte array cannot be null");
+        return this.base64.encode(src, offset, length, dest, destOffset);
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.io;
+
+/**
+ * A text decoder that can decode a range of a {@code CharSequence} or of a US-ASCII {@code byte[]} directly into a
+ * caller-supplied buffer.  This avoids both copying the encoded range into its own {@code String} first and allocating
+ * a new array for every decoded result: callers can compute the exact {@link #decodedLength(CharSequence, int, int)
+ * decoded length} up front and decode many inputs into a single reusable buffer.
+ *
+ * <p>The {@link Decoders#BASE64 Decoders.BASE64} and {@link Decoders#BASE64URL Decoders.BASE64URL} instances
+ * implement this interface.</p>
+ *
+ * @since 0.12.0
+ */
+public interface BufferDecoder {
+
+    /**
+     * Returns the exact number of bytes that decoding the specified range of characters would produce.
+     *
+     * @param s      the encoded characters
+     * @param offset the index of the first character to decode
+     * @param length the number of characters to decode
+     * @return the exact number of bytes that decoding the specified range would produce.
+     * @throws DecodingException if the range cannot be decoded
+     */
+    int decodedLength(CharSequence s, int offset, int length) throws DecodingException;
+
+    /**
+     * Decodes the specified range of characters into {@code dest} starting at {@code destOffset}, and returns the
+     * number of bytes written, which is always equal to {@link #decodedLength(CharSequence, int, int)}.
+     *
+     * @param s          the encoded characters
+     * @param offset     the index of the first character to decode
+     * @param length     the number of characters to decode
+     * @param dest       the buffer to write the decoded bytes to
+     * @param destOffset the index in {@code dest} of the first decoded byte
+     * @return the number of decoded bytes written to {@code dest}.
+     * @throws DecodingException if the range cannot be decoded or {@code dest} is too small
+     */
+    int decode(CharSequence s, int offset, int length, byte[] dest, int destOffset) throws DecodingException;
+
+    /**
+     * Returns the exact number of bytes that decoding the specified range of US-ASCII bytes would produce.
+     *
+     * @param ascii  the encoded US-ASCII bytes
+     * @param offset the index of the first byte to decode
+     * @param length the number of bytes to decode
+     * @return the exact number of bytes that decoding the specified range would produce.
+     * @throws DecodingException if the range cannot be decoded
+     */
+    int decodedLength(byte[] ascii, int offset, int length) throws DecodingException;
+
+    /**
+     * Decodes the specified range of US-ASCII bytes into {@code dest} starting at {@code destOffset}, and returns the
+     * number of bytes written, which is always equal to {@link #decodedLength(byte[], int, int)}.  {@code dest} may be
+     * the same array as {@code ascii} only if the decoded range does not overlap the encoded range.
+     *
+     * @param ascii      the encoded US-ASCII bytes
+     * @param offset     the index of the first byte to decode
+     * @param length     the number of bytes to decode
+     * @param dest       the buffer to write the decoded bytes to
+     * @param destOffset the index in {@code dest} of the first decoded byte
+     * @return the number of decoded bytes written to {@code dest}.
+     * @throws DecodingException if the range cannot be decoded or {@code dest} is too small
+     */
+    int decode(byte[] ascii, int offset, int length, byte[] dest, int destOffset) throws DecodingException;
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.io;
+
+/**
+ * A binary-to-text encoder that can encode a range of a {@code byte[]} as US-ASCII characters directly into a
+ * caller-supplied buffer, the counterpart of {@link BufferDecoder}.  This allows callers to assemble text such as a
+ * compact JWT in a single byte buffer instead of concatenating intermediate Strings.
+ *
+ * <p>The {@link Encoders#BASE64 Encoders.BASE64} and {@link Encoders#BASE64URL Encoders.BASE64URL} instances
+ * implement this interface.</p>
+ *
+ * @since 0.12.0
+ */
+public interface BufferEncoder {
+
+    /**
+     * Returns the exact number of US-ASCII characters that encoding the specified number of bytes produces.
+     *
+     * @param length the number of bytes to encode
+     * @return the exact number of US-ASCII characters that encoding the specified number of bytes produces.
+     * @throws EncodingException if {@code length} is negative
+     */
+    int encodedLength(int length) throws EncodingException;
+
+    /**
+     * Encodes the specified range of bytes into {@code dest} as US-ASCII characters (one byte per character) starting
+     * at {@code destOffset}, and returns the number of characters written, which is always equal to
+     * {@link #encodedLength(int)}.
+     *
+     * @param src        the bytes to encode
+     * @param offset     the index of the first byte to encode
+     * @param length     the number of bytes to encode
+     * @param dest       the buffer to write the encoded characters to
+     * @param destOffset the index in {@code dest} of the first encoded character
+     * @return the number of encoded characters written to {@code dest}.
+     * @throws EncodingException if either range is invalid
+     */
+    int encode(byte[] src, int offset, int length, byte[] dest, int destOffset) throws EncodingException;
+}
@@ -20,8 +20,15 @@ package io.jsonwebtoken.io;
  */
 public final class Decoders {
 
-    public static final Decoder<String, byte[]> BASE64 = new ExceptionPropagatingDecoder<>(new Base64Decoder());
-    public static final Decoder<String, byte[]> BASE64URL = new ExceptionPropagatingDecoder<>(new Base64UrlDecoder());
+    /**
+     * Decodes Base64 text.  Since 0.12.0, this instance also implements {@link BufferDecoder}.
+     */
+    public static final Decoder<String, byte[]> BASE64 = new ExceptionPropagatingBufferDecoder(new Base64Decoder());
+
+    /**
+     * Decodes Base64URL text.  Since 0.12.0, this instance also implements {@link BufferDecoder}.
+     */
+    public static final Decoder<String, byte[]> BASE64URL = new ExceptionPropagatingBufferDecoder(new Base64UrlDecoder());
 
     private Decoders() { //prevent instantiation
     }
@@ -20,8 +20,15 @@ package io.jsonwebtoken.io;
  */
 public final class Encoders {
 
-    public static final Encoder<byte[], String> BASE64 = new ExceptionPropagatingEncoder<>(new Base64Encoder());
-    public static final Encoder<byte[], String> BASE64URL = new ExceptionPropagatingEncoder<>(new Base64UrlEncoder());
+    /**
+     * Encodes bytes as Base64 text.  Since 0.12.0, this instance also implements {@link BufferEncoder}.
+     */
+    public static final Encoder<byte[], String> BASE64 = new ExceptionPropagatingBufferEncoder(new Base64Encoder());
+
+    /**
+     * Encodes bytes as Base64URL text.  Since 0.12.0, this instance also implements {@link BufferEncoder}.
+     */
+    public static final Encoder<byte[], String> BASE64URL = new ExceptionPropagatingBufferEncoder(new Base64UrlEncoder());
 
     private Encoders() { //prevent instantiation
     }
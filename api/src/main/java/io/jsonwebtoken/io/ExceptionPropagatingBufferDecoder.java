@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.io;
+
+/**
+ * An {@link ExceptionPropagatingDecoder} that also propagates exceptions from the {@link BufferDecoder} methods of the
+ * decoder it wraps.
+ *
+ * @since 0.12.0
+ */
+class ExceptionPropagatingBufferDecoder extends ExceptionPropagatingDecoder<String, byte[]> implements BufferDecoder {
+
+    private final Base64Decoder decoder;
+
+    ExceptionPropagatingBufferDecoder(Base64Decoder decoder) {
+        super(decoder);
+        this.decoder = decoder;
+    }
+
+    private static DecodingException wrap(Exception e) {
+        String msg = "Unable to decode input: " + e.getMessage();
+        return new DecodingException(msg, e);
+    }
+
+    @Override
+    public int decodedLength(CharSequence s, int offset, int length) throws DecodingException {
+        try {
+            return decoder.decodedLength(s, offset, length);
+        } catch (DecodingException e) {
+            throw e; //propagate
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public int decode(CharSequence s, int offset, int length, byte[] dest, int destOffset) throws DecodingException {
+        try {
+            return decoder.decode(s, offset, length, dest, destOffset);
+        } catch (DecodingException e) {
+            throw e; //propagate
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public int decodedLength(byte[] ascii, int offset, int length) throws DecodingException {
+        try {
+            return decoder.decodedLength(ascii, offset, length);
+        } catch (DecodingException e) {
+            throw e; //propagate
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public int decode(byte[] ascii, int offset, int length, byte[] dest, int destOffset) throws DecodingException {
+        try {
+            return decoder.decode(ascii, offset, length, dest, destOffset);
+        } catch (DecodingException e) {
+            throw e; //propagate
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.io;
+
+/**
+ * An {@link ExceptionPropagatingEncoder} that also propagates exceptions from the {@link BufferEncoder} methods of the
+ * encoder it wraps.
+ *
+ * @since 0.12.0
+ */
+class ExceptionPropagatingBufferEncoder extends ExceptionPropagatingEncoder<byte[], String> implements BufferEncoder {
+
+    private final Base64Encoder encoder;
+
+    ExceptionPropagatingBufferEncoder(Base64Encoder encoder) {
+        super(encoder);
+        this.encoder = encoder;
+    }
+
+    private static EncodingException wrap(Exception e) {
+        String msg = "Unable to encode input: " + e.getMessage();
+        return new EncodingException(msg, e);
+    }
+
+    @Override
+    public int encodedLength(int length) throws EncodingException {
+        try {
+            return encoder.encodedLength(length);
+        } catch (EncodingException e) {
+            throw e; //propagate
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public int encode(byte[] src, int offset, int length, byte[] dest, int destOffset) throws EncodingException {
+        try {
+            return encoder.encode(src, offset, length, dest, destOffset);
+        } catch (EncodingException e) {
+            throw e; //propagate
+        } catch (Exception e) {
+            throw wrap(e);
+        }
+    }
+}
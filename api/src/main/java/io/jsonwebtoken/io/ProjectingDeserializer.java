@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.io;
+
+import java.util.Collection;
+
+/**
+ * A {@link Deserializer} that only materializes a selected set of the top-level members of a JSON object, skipping
+ * all others without creating objects for them.
+ *
+ * <p>When a {@code ProjectingDeserializer} is given to a {@link io.jsonwebtoken.JwtParserBuilder JwtParserBuilder},
+ * the parser calls {@link #including(Collection)} with the names of any claims it has been configured to
+ * {@link io.jsonwebtoken.JwtParserBuilder#require(String, Object) require}, so that those claims can always be
+ * asserted.</p>
+ *
+ * @param <T> the type of object returned by the deserializer
+ * @since 0.12.0
+ */
+public interface ProjectingDeserializer<T> extends Deserializer<T> {
+
+    /**
+     * Returns a deserializer that materializes the specified top-level member names in addition to the names already
+     * materialized by this deserializer.  This deserializer is not modified.
+     *
+     * @param names the additional top-level member names to materialize
+     * @return a deserializer that also materializes the specified names.
+     */
+    ProjectingDeserializer<T> including(Collection<String> names);
+}
@@ -150,6 +150,191 @@ class Base64Test {
         return new String(bytes, Strings.UTF_8)
     }
 
+    @Test
+    void testDecodeRangeIntoBuffer() {
+        def random = new Random(42)
+        for (int n = 0; n < 200; n++) {
+            byte[] data = new byte[n]
+            random.nextBytes(data)
+            [Base64.DEFAULT, Base64.URL_SAFE].each { Base64 base64 ->
+                [false, true].each { boolean lineSep ->
+                    String encoded = base64.encodeToString(data, lineSep)
+                    String padded = '..' + encoded + '...'
+                    byte[] ascii = padded.getBytes('US-ASCII')
+
+                    assertEquals n, base64.decodedLength(padded, 2, encoded.length())
+                    assertEquals n, base64.decodedLength(ascii, 2, encoded.length())
+
+                    byte[] dest = new byte[n + 3]
+                    assertEquals n, base64.decodeFast(padded, 2, encoded.length(), dest, 1)
+                    assertArrayEquals data, Arrays.copyOfRange(dest, 1, n + 1)
+
+                    dest = new byte[n + 3]
+                    assertEquals n, base64.decodeFast(ascii, 2, encoded.length(), dest, 2)
+                    assertArrayEquals data, Arrays.copyOfRange(dest, 2, n + 2)
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEncodeDecodeMatchesReferenceCodec() {
+        def random = new Random(7)
+        for (int n = 0; n < 300; n++) {
+            byte[] data = new byte[n]
+            random.nextBytes(data)
+
+            String encoded = Base64.DEFAULT.encodeToString(data, false)
+            assertEquals data.encodeBase64().toString(), encoded
+            assertArrayEquals data, Base64.DEFAULT.decodeFast(encoded.toCharArray())
+
+            String urlEncoded = Base64.URL_SAFE.encodeToString(data, false)
+            assertEquals data.encodeBase64Url().toString(), urlEncoded
+            assertArrayEquals data, Base64.URL_SAFE.decodeFast(urlEncoded.toCharArray())
+        }
+    }
+
+    @Test
+    void testIllegalCharacterAtEveryPosition() {
+        byte[] data = new byte[48]
+        new Random(11).nextBytes(data)
+        String encoded = Base64.URL_SAFE.encodeToString(data, false) // 64 chars, no padding
+        // the first and last characters are never decoded: illegal characters there are trimmed instead
+        for (int i = 1; i < encoded.length() - 1; i++) {
+            ['*', '\u00e9', '\u4e16'].each { String illegal ->
+                String s = encoded.substring(0, i) + illegal + encoded.substring(i + 1)
+                String msg = "Illegal base64url character: '" + illegal + "'"
+                try {
+                    Base64.URL_SAFE.decodeFast(s.toCharArray())
+                    fail()
+                } catch (DecodingException expected) {
+                    assertEquals msg, expected.getMessage()
+                }
+                try {
+                    Base64.URL_SAFE.decodeFast(s, 0, s.length(), new byte[48], 0)
+                    fail()
+                } catch (DecodingException expected) {
+                    assertEquals msg, expected.getMessage()
+                }
+                if (illegal.charAt(0) < 256) {
+                    byte[] ascii = s.getBytes('ISO-8859-1')
+                    try {
+                        Base64.URL_SAFE.decodeFast(ascii, 0, ascii.length, new byte[48], 0)
+                        fail()
+                    } catch (DecodingException expected) {
+                        assertEquals msg, expected.getMessage()
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testEncodeRangeIntoBuffer() {
+        def random = new Random(3)
+        for (int n = 0; n < 100; n++) {
+            byte[] data = new byte[n + 3]
+            random.nextBytes(data)
+            byte[] range = Arrays.copyOfRange(data, 2, n + 2)
+            [Base64.DEFAULT, Base64.URL_SAFE].each { Base64 base64 ->
+                String expected = base64.encodeToString(range, false)
+                assertEquals expected.length(), base64.encodedLength(n)
+                byte[] dest = new byte[expected.length() + 4]
+                assertEquals expected.length(), base64.encode(data, 2, n, dest, 3)
+                assertEquals expected, new String(dest, 3, expected.length(), 'US-ASCII')
+            }
+        }
+    }
+
+    @Test
+    void testEncodeInvalidRange() {
+        [[-1, 1, 0], [0, 4, 0], [0, 3, 2], [0, -1, 0]].each { List<Integer> args ->
+            try {
+                Base64.URL_SAFE.encode(new byte[3], args[0], args[1], new byte[5], args[2])
+                fail()
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    void testDecodeRangeInPlace() {
+        byte[] ascii = 'Zm9vYmFy'.getBytes('US-ASCII')
+        assertEquals 6, Base64.URL_SAFE.decodeFast(ascii, 0, ascii.length, ascii, 0)
+        assertEquals 'foobar', new String(ascii, 0, 6, 'US-ASCII')
+    }
+
+    @Test
+    void testDecodeRangeWithSurroundingIllegalCharacters() {
+        def encoded = '***SGVsbG8g5LiW55WM!!!'
+        byte[] dest = new byte[Base64.DEFAULT.decodedLength(encoded, 0, encoded.length())]
+        Base64.DEFAULT.decodeFast(encoded, 0, encoded.length(), dest, 0)
+        assertEquals 'Hello 世界', new String(dest, Strings.UTF_8)
+    }
+
+    @Test
+    void testDecodeRangeWithIllegalCharacters() {
+        ['SGVsbG8g*5LiW55WM', 'SGVsbG8g\u4e165LiW55WM'].each { String encoded ->
+            byte[] ascii = encoded.getBytes(Strings.UTF_8)
+            byte[] dest = new byte[64]
+            try {
+                Base64.DEFAULT.decodeFast(encoded, 0, encoded.length(), dest, 0)
+                fail()
+            } catch (DecodingException expected) {
+                assertTrue expected.getMessage().startsWith('Illegal base64 character')
+            }
+            try {
+                Base64.DEFAULT.decodeFast(ascii, 0, ascii.length, dest, 0)
+                fail()
+            } catch (DecodingException expected) {
+                assertTrue expected.getMessage().startsWith('Illegal base64 character')
+            }
+        }
+    }
+
+    @Test
+    void testDecodeEmptyRange() {
+        assertEquals 0, Base64.URL_SAFE.decodedLength('abc', 1, 0)
+        assertEquals 0, Base64.URL_SAFE.decodeFast('abc', 1, 0, new byte[0], 0)
+        assertEquals 0, Base64.URL_SAFE.decodeFast(new byte[3], 3, 0, new byte[0], 0)
+    }
+
+    @Test
+    void testDecodeInvalidRange() {
+        [[-1, 2], [0, 5], [3, 2], [1, -1]].each { List<Integer> range ->
+            try {
+                Base64.URL_SAFE.decodedLength('abcd', range[0], range[1])
+                fail()
+            } catch (DecodingException expected) {
+            }
+            try {
+                Base64.URL_SAFE.decodeFast('abcd'.getBytes(Strings.UTF_8), range[0], range[1], new byte[3], 0)
+                fail()
+            } catch (DecodingException expected) {
+            }
+        }
+    }
+
+    @Test
+    void testDecodeIntoTooSmallBuffer() {
+        try {
+            Base64.URL_SAFE.decodeFast('Zm9vYmFy', 0, 8, new byte[6], 1)
+            fail()
+        } catch (DecodingException expected) {
+            assertEquals 'Invalid destination offset/length [1, 6] for a destination of length 6.', expected.getMessage()
+        }
+    }
+
+    @Test
+    void testDecodeRangeWithOnlyPadding() {
+        try {
+            Base64.DEFAULT.decodedLength('=', 0, 1)
+            fail()
+        } catch (DecodingException expected) {
+            assertEquals 'Invalid base64 padding.', expected.getMessage()
+        }
+    }
+
     @Test // https://tools.ietf.org/html/rfc4648#page-12
     void testRfc4648Base64TestVectors() {
 
@@ -34,4 +34,42 @@ class DecodersTest {
         assertTrue Decoders.BASE64URL.decoder instanceof Base64UrlDecoder
     }
 
+    @Test
+    void testBufferDecoders() {
+        [Decoders.BASE64, Decoders.BASE64URL].each { Decoder decoder ->
+            assertTrue decoder instanceof BufferDecoder
+            BufferDecoder bd = (BufferDecoder) decoder
+            byte[] dest = new byte[3]
+            assertEquals 3, bd.decodedLength('.Zm9v.', 1, 4)
+            assertEquals 3, bd.decode('.Zm9v.', 1, 4, dest, 0)
+            assertEquals 'foo', new String(dest, 'US-ASCII')
+            assertEquals 3, bd.decodedLength('.Zm9v.'.getBytes('US-ASCII'), 1, 4)
+            assertEquals 3, bd.decode('.Zm9v.'.getBytes('US-ASCII'), 1, 4, dest, 0)
+        }
+    }
+
+    @Test
+    void testBufferDecoderPropagatesExceptions() {
+        BufferDecoder decoder = (BufferDecoder) Decoders.BASE64URL
+        [
+            { decoder.decodedLength((CharSequence) null, 0, 0) },
+            { decoder.decode('Zm9v', 0, 4, null, 0) },
+            { decoder.decodedLength((byte[]) null, 0, 0) },
+            { decoder.decode('Zm9v'.getBytes('US-ASCII'), 0, 4, null, 0) },
+        ].each { Closure c ->
+            try {
+                c.call()
+                fail()
+            } catch (DecodingException expected) {
+                assertTrue expected.getCause() instanceof IllegalArgumentException
+            }
+        }
+        try {
+            decoder.decode('Zm*v', 0, 4, new byte[8], 0)
+            fail()
+        } catch (DecodingException expected) {
+            assertNull expected.getCause()
+        }
+    }
+
 }
@@ -33,4 +33,35 @@ class EncodersTest {
         assertTrue Encoders.BASE64URL instanceof ExceptionPropagatingEncoder
         assertTrue Encoders.BASE64URL.encoder instanceof Base64UrlEncoder
     }
+
+    @Test
+    void testBufferEncoders() {
+        [Encoders.BASE64, Encoders.BASE64URL].each { Encoder encoder ->
+            assertTrue encoder instanceof BufferEncoder
+            BufferEncoder be = (BufferEncoder) encoder
+            byte[] data = 'foob'.getBytes('US-ASCII')
+            String expected = encoder.encode(data)
+            byte[] dest = new byte[expected.length() + 2]
+            assertEquals expected.length(), be.encodedLength(4)
+            assertEquals expected.length(), be.encode(data, 0, 4, dest, 1)
+            assertEquals expected, new String(dest, 1, expected.length(), 'US-ASCII')
+        }
+    }
+
+    @Test
+    void testBufferEncoderPropagatesExceptions() {
+        BufferEncoder encoder = (BufferEncoder) Encoders.BASE64URL
+        [
+            { encoder.encode(null, 0, 0, new byte[0], 0) },
+            { encoder.encode(new byte[3], 0, 3, new byte[3], 0) },
+            { encoder.encodedLength(-1) },
+        ].each { Closure c ->
+            try {
+                c.call()
+                fail()
+            } catch (EncodingException expected) {
+                assertTrue expected.getCause() instanceof IllegalArgumentException
+            }
+        }
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.benchmarks;
+
+import io.jsonwebtoken.io.BufferDecoder;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JJWT's Base64URL codec against its one-character-at-a-time predecessor ({@link ScalarBase64Url}) and
+ * {@code java.util.Base64}, for inputs the size of typical JWT segments: a header, a small and a large claims
+ * payload, and an oversized token.
+ *
+ * <p>Run with, for example, {@code java -jar benchmarks/target/benchmarks.jar Base64UrlBenchmark} after
+ * {@code mvn -Pbenchmarks package -DskipTests}.</p>
+ *
+ * @since 0.12.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Base64UrlBenchmark {
+
+    @Param({"32", "256", "1024", "8192"})
+    public int size;
+
+    private byte[] data;
+    private String encoded;
+    private byte[] encodedAscii;
+    private byte[] buffer;
+
+    private final BufferDecoder bufferDecoder = (BufferDecoder) Decoders.BASE64URL;
+    private final Base64.Encoder jdkEncoder = Base64.getUrlEncoder().withoutPadding();
+    private final Base64.Decoder jdkDecoder = Base64.getUrlDecoder();
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+        encoded = Encoders.BASE64URL.encode(data);
+        encodedAscii = jdkEncoder.encode(data);
+        buffer = new byte[size];
+        if (!encoded.equals(ScalarBase64Url.encode(data)) || !encoded.equals(jdkEncoder.encodeToString(data))) {
+            throw new IllegalStateException("Codecs disagree.");
+        }
+    }
+
+    @Benchmark
+    public String encodeJjwt() {
+        return Encoders.BASE64URL.encode(data);
+    }
+
+    @Benchmark
+    public String encodeScalar() {
+        return ScalarBase64Url.encode(data);
+    }
+
+    @Benchmark
+    public String encodeJdk() {
+        return jdkEncoder.encodeToString(data);
+    }
+
+    @Benchmark
+    public byte[] decodeJjwt() {
+        return Decoders.BASE64URL.decode(encoded);
+    }
+
+    @Benchmark
+    public int decodeJjwtIntoBuffer() {
+        return bufferDecoder.decode(encoded, 0, encoded.length(), buffer, 0);
+    }
+
+    @Benchmark
+    public int decodeJjwtAsciiIntoBuffer() {
+        return bufferDecoder.decode(encodedAscii, 0, encodedAscii.length, buffer, 0);
+    }
+
+    @Benchmark
+    public byte[] decodeScalar() {
+        return ScalarBase64Url.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] decodeJdk() {
+        return jdkDecoder.decode(encoded);
+    }
+}
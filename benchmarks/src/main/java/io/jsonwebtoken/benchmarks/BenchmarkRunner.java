@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the benchmarks with a fixed configuration and writes the results as JMH JSON, so that the results of two
+ * releases (or two commits) can be compared with any JMH result viewer or a plain JSON diff.
+ *
+ * <p>Usage, after {@code mvn -Pbenchmarks package -DskipTests}:</p>
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar io.jsonwebtoken.benchmarks.BenchmarkRunner [result.json] [regex]</pre>
+ *
+ * <p>{@code result.json} defaults to {@code jmh-result.json} and {@code regex} (which selects the benchmarks to run)
+ * defaults to {@link JwtBenchmark}.  Every benchmark runs in two forks with the same heap settings, warmup and
+ * measurement iterations and reports the average time per operation, whatever the benchmark classes' own annotations
+ * say.  Only the JVM and hardware need to be kept the same between runs for the results to be comparable.</p>
+ *
+ * @since 0.12.0
+ */
+public final class BenchmarkRunner {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    static Options options(String resultFile, String include) {
+        return new OptionsBuilder()
+            .include(include)
+            .forks(2)
+            .jvmArgs("-Xms1g", "-Xmx1g")
+            .warmupIterations(5)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .mode(Mode.AverageTime)
+            .timeUnit(TimeUnit.MICROSECONDS)
+            .threads(1)
+            .shouldFailOnError(true)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : DEFAULT_RESULT_FILE;
+        String include = args.length > 1 ? args[1] : JwtBenchmark.class.getSimpleName();
+        new Runner(options(resultFile, include)).run();
+    }
+}
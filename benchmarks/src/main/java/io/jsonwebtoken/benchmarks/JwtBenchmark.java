@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.CompressionCodec;
+import io.jsonwebtoken.CompressionCodecs;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.gson.io.GsonDeserializer;
+import io.jsonwebtoken.gson.io.GsonSerializer;
+import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonDeserializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
+import io.jsonwebtoken.orgjson.io.OrgJsonDeserializer;
+import io.jsonwebtoken.orgjson.io.OrgJsonSerializer;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code Jwts.builder()...compact()} and {@code JwtParser.parseClaimsJws} for every signature algorithm,
+ * claim set size, compression codec and JSON backend.
+ *
+ * <p>Claim sets are deterministic, so the same parameters always produce tokens of the same size and shape.  The
+ * {@code small} set is a typical access token (~120 bytes of JSON), {@code medium} adds profile and role claims
+ * (~700 bytes) and {@code large} adds an embedded authorization document (~10 KB).</p>
+ *
+ * <p>The full matrix is large; use {@code -p} to restrict it when running ad hoc, for example
+ * {@code java -jar benchmarks/target/benchmarks.jar JwtBenchmark -p algorithm=RS256 -p json=jackson}.  See
+ * {@link BenchmarkRunner} for the reproducible run whose JSON results can be compared between releases.</p>
+ *
+ * @since 0.12.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    // fixed instants so that every run creates identical tokens; EXPIRATION is far enough away to never expire:
+    private static final long ISSUED_AT = 1577836800L; // 2020-01-01T00:00:00Z
+    private static final long EXPIRATION = 4102444800L; // 2100-01-01T00:00:00Z
+
+    @Param({"HS256", "HS384", "HS512", "RS256", "RS384", "RS512", "ES256", "ES384", "ES512", "PS256", "PS384", "PS512"})
+    public String algorithm;
+
+    @Param({"small", "medium", "large"})
+    public String claims;
+
+    @Param({"none", "DEF", "GZIP"})
+    public String compression;
+
+    @Param({"jackson", "gson", "orgjson"})
+    public String json;
+
+    private SignatureAlgorithm alg;
+    private Key signingKey;
+    private Map<String, Object> claimsMap;
+    private CompressionCodec codec;
+    private Serializer<Map<String, ?>> serializer;
+    private JwtParser parser;
+    private String jws;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        alg = SignatureAlgorithm.forName(algorithm);
+        Key verificationKey;
+        if (alg.isHmac()) {
+            signingKey = Keys.secretKeyFor(alg);
+            verificationKey = signingKey;
+        } else {
+            KeyPair pair = Keys.keyPairFor(alg);
+            signingKey = pair.getPrivate();
+            verificationKey = pair.getPublic();
+        }
+        claimsMap = claims(claims);
+        codec = codec(compression);
+
+        Deserializer<Map<String, ?>> deserializer;
+        if ("jackson".equals(json)) {
+            serializer = new JacksonSerializer<>();
+            deserializer = new JacksonDeserializer<>();
+        } else if ("gson".equals(json)) {
+            serializer = new GsonSerializer<>();
+            deserializer = new GsonDeserializer<>();
+        } else if ("orgjson".equals(json)) {
+            serializer = new OrgJsonSerializer<>();
+            deserializer = (Deserializer) new OrgJsonDeserializer(); // a Deserializer<Object> that reads JSON objects as Maps
+        } else {
+            throw new IllegalArgumentException("Unknown json backend: " + json);
+        }
+
+        parser = Jwts.parserBuilder().setSigningKey(verificationKey).deserializeJsonWith(deserializer).build();
+        jws = compact();
+        parseClaimsJws(); // fail fast if the matrix entry is not supported at all
+    }
+
+    private static CompressionCodec codec(String name) {
+        if ("none".equals(name)) {
+            return null;
+        }
+        if ("DEF".equals(name)) {
+            return CompressionCodecs.DEFLATE;
+        }
+        if ("GZIP".equals(name)) {
+            return CompressionCodecs.GZIP;
+        }
+        throw new IllegalArgumentException("Unknown compression: " + name);
+    }
+
+    static Map<String, Object> claims(String size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(Claims.ISSUER, "https://issuer.example.com");
+        map.put(Claims.SUBJECT, "248289761001");
+        map.put(Claims.AUDIENCE, "https://api.example.com");
+        map.put(Claims.ISSUED_AT, ISSUED_AT);
+        map.put(Claims.EXPIRATION, EXPIRATION);
+        if ("small".equals(size)) {
+            return map;
+        }
+        map.put(Claims.ID, "3d2f9a2e-6c1b-4f3e-9a57-0f4b5b8e1c42");
+        map.put("name", "Jane Doe");
+        map.put("email", "jane.doe@example.com");
+        map.put("email_verified", true);
+        map.put("locale", "en-US");
+        map.put("scope", "openid profile email read:orders write:orders read:invoices");
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            roles.add("role-" + i);
+        }
+        map.put("roles", roles);
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("street_address", "1234 Hollywood Blvd.");
+        address.put("locality", "Los Angeles");
+        address.put("region", "CA");
+        address.put("postal_code", "90210");
+        address.put("country", "US");
+        map.put("address", address);
+        if ("medium".equals(size)) {
+            return map;
+        }
+        if (!"large".equals(size)) {
+            throw new IllegalArgumentException("Unknown claims size: " + size);
+        }
+        List<Map<String, Object>> permissions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> permission = new LinkedHashMap<>();
+            permission.put("resource", "urn:example:resource:" + i);
+            permission.put("actions", Arrays.asList("read", "write", "delete"));
+            permission.put("expires", EXPIRATION - i);
+            permissions.add(permission);
+        }
+        map.put("permissions", permissions);
+        return map;
+    }
+
+    @Benchmark
+    public String compact() {
+        JwtBuilder builder = Jwts.builder()
+            .setClaims(claimsMap)
+            .serializeToJsonWith(serializer)
+            .signWith(signingKey, alg);
+        if (codec != null) {
+            builder.compressWith(codec);
+        }
+        return builder.compact();
+    }
+
+    @Benchmark
+    public Jws<Claims> parseClaimsJws() {
+        Jws<Claims> result = parser.parseClaimsJws(jws);
+        result.getBody().getSubject(); // read a claim, as an application would
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.benchmarks;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.crypto.MacSigner;
+import io.jsonwebtoken.lang.Strings;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares computing an HMAC with a new {@code Mac} obtained and keyed for every signature (how {@code MacSigner}
+ * worked before 0.12.0) against {@link MacSigner}'s pool of pre-keyed {@code Mac} instances, both from a single
+ * long-lived signer and from a new signer per signature (as {@code JwtBuilder#compact} creates one per token).
+ *
+ * <p>Run with, for example, {@code java -jar benchmarks/target/benchmarks.jar MacSignerBenchmark -t 4} after
+ * {@code mvn -Pbenchmarks package -DskipTests}.</p>
+ *
+ * @since 0.12.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MacSignerBenchmark {
+
+    // a typical header.payload signing input:
+    private static final String SIGNING_INPUT = "eyJhbGciOiJIUzI1NiJ9." +
+        "eyJpc3MiOiJodHRwczovL2lzc3Vlci5leGFtcGxlLmNvbSIsInN1YiI6IjEyMzQ1Njc4OTAiLCJhdWQiOiJhcGkiLCJpYXQiOjE1" +
+        "MTYyMzkwMjIsImV4cCI6MTUxNjI0MjYyMiwic2NvcGUiOiJyZWFkIHdyaXRlIn0";
+
+    @Param({"HS256", "HS384", "HS512"})
+    public String algorithm;
+
+    private SignatureAlgorithm alg;
+    private SecretKey key;
+    private byte[] data;
+    private MacSigner signer;
+
+    @Setup
+    public void setup() {
+        alg = SignatureAlgorithm.forName(algorithm);
+        key = Keys.secretKeyFor(alg);
+        data = SIGNING_INPUT.getBytes(Strings.UTF_8);
+        signer = new MacSigner(alg, key);
+    }
+
+    @Benchmark
+    public byte[] newMacPerSignature() throws Exception {
+        Mac mac = Mac.getInstance(alg.getJcaName());
+        mac.init(key);
+        return mac.doFinal(data);
+    }
+
+    @Benchmark
+    public byte[] pooledMac() {
+        return signer.sign(data);
+    }
+
+    @Benchmark
+    public byte[] pooledMacNewSignerPerSignature() {
+        return new MacSigner(alg, key).sign(data);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * The one-character-at-a-time Base64URL loops of {@code io.jsonwebtoken.io.Base64} as they were before 0.12.0
+ * (without line separator support), kept only as a baseline for {@link Base64UrlBenchmark}.
+ *
+ * @since 0.12.0
+ */
+final class ScalarBase64Url {
+
+    private static final char[] ALPHABET =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final int[] IALPHABET = new int[256];
+
+    static {
+        Arrays.fill(IALPHABET, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            IALPHABET[ALPHABET[i]] = i;
+        }
+        IALPHABET['='] = 0;
+    }
+
+    private ScalarBase64Url() {
+    }
+
+    static String encode(byte[] sArr) {
+        int sLen = sArr.length;
+        int eLen = (sLen / 3) * 3;
+        int left = sLen - eLen;
+        int dLen = ((sLen - 1) / 3 + 1) << 2;
+        int padCount = left == 2 ? 1 : left == 1 ? 2 : 0;
+        char[] dArr = new char[dLen - padCount];
+
+        for (int s = 0, d = 0; s < eLen; ) {
+            int i = (sArr[s++] & 0xff) << 16 | (sArr[s++] & 0xff) << 8 | (sArr[s++] & 0xff);
+            dArr[d++] = ALPHABET[(i >>> 18) & 0x3f];
+            dArr[d++] = ALPHABET[(i >>> 12) & 0x3f];
+            dArr[d++] = ALPHABET[(i >>> 6) & 0x3f];
+            dArr[d++] = ALPHABET[i & 0x3f];
+        }
+
+        if (left > 0) {
+            int i = ((sArr[eLen] & 0xff) << 10) | (left == 2 ? ((sArr[sLen - 1] & 0xff) << 2) : 0);
+            dArr[dLen - 4] = ALPHABET[i >> 12];
+            dArr[dLen - 3] = ALPHABET[(i >>> 6) & 0x3f];
+            if (left == 2) {
+                dArr[dLen - 2] = ALPHABET[i & 0x3f];
+            }
+        }
+        return new String(dArr);
+    }
+
+    private static int ctoi(char c) {
+        int i = c > 255 ? -1 : IALPHABET[c];
+        if (i < 0) {
+            throw new IllegalArgumentException("Illegal base64url character: '" + c + "'");
+        }
+        return i;
+    }
+
+    static byte[] decode(String s) {
+        char[] sArr = s.toCharArray();
+        int sLen = sArr.length;
+        if (sLen == 0) {
+            return new byte[0];
+        }
+
+        int sIx = 0, eIx = sLen - 1;
+        while (sIx < eIx && IALPHABET[sArr[sIx]] < 0) {
+            sIx++;
+        }
+        while (eIx > 0 && IALPHABET[sArr[eIx]] < 0) {
+            eIx--;
+        }
+
+        int pad = sArr[eIx] == '=' ? (sArr[eIx - 1] == '=' ? 2 : 1) : 0;
+        int cCnt = eIx - sIx + 1;
+        int len = (cCnt * 6 >> 3) - pad;
+        byte[] dArr = new byte[len];
+
+        int d = 0;
+        for (int eLen = (len / 3) * 3; d < eLen; ) {
+            int i = ctoi(sArr[sIx++]) << 18 | ctoi(sArr[sIx++]) << 12 | ctoi(sArr[sIx++]) << 6 | ctoi(sArr[sIx++]);
+            dArr[d++] = (byte) (i >> 16);
+            dArr[d++] = (byte) (i >> 8);
+            dArr[d++] = (byte) i;
+        }
+
+        if (d < len) {
+            int i = 0;
+            for (int j = 0; sIx <= eIx - pad; j++) {
+                i |= ctoi(sArr[sIx++]) << (18 - j * 6);
+            }
+            for (int r = 16; d < len; r -= 8) {
+                dArr[d++] = (byte) (i >> r);
+            }
+        }
+        return dArr;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.benchmarks
+
+import org.junit.Test
+import org.openjdk.jmh.profile.GCProfiler
+import org.openjdk.jmh.results.RunResult
+import org.openjdk.jmh.runner.Runner
+import org.openjdk.jmh.runner.options.OptionsBuilder
+import org.openjdk.jmh.runner.options.TimeValue
+
+import static org.junit.Assert.fail
+
+/**
+ * Fails the build when {@code compact()} or {@code parseClaimsJws} allocates noticeably more bytes per call than the
+ * checked-in baselines in {@code allocation-baselines.properties}.
+ *
+ * <p>Only runs with the {@code allocation-gate} profile: {@code mvn -Pbenchmarks,allocation-gate verify}.  The
+ * allowed increase defaults to 10% and can be changed with {@code -Dallocation.tolerance=0.05}.  After an intended
+ * change, run with {@code -Dallocation.baselines.write=true} and copy the measured values from
+ * {@code benchmarks/target/allocation-baselines.properties} over the checked-in file.</p>
+ *
+ * @since 0.12.0
+ */
+class AllocationRegressionIT {
+
+    // JMH's GC profiler reports the normalized allocation rate under this name:
+    private static final String ALLOC_NORM = '\u00b7gc.alloc.rate.norm'
+
+    private static final String BASELINES = 'allocation-baselines.properties'
+
+    static Map<String, Double> measure() {
+        def options = new OptionsBuilder()
+            .include(JwtBenchmark.name + '\\.(compact|parseClaimsJws)$')
+            .param('algorithm', 'HS256', 'RS256', 'ES256')
+            .param('claims', 'small', 'large')
+            .param('compression', 'none')
+            .param('json', 'jackson')
+            .addProfiler(GCProfiler)
+            .forks(1)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(1))
+            .shouldFailOnError(true)
+            .build()
+        Map<String, Double> measured = new TreeMap<>()
+        for (RunResult result : new Runner(options).run()) {
+            def params = result.params
+            String key = [params.benchmark.substring(params.benchmark.lastIndexOf('.') + 1),
+                          params.getParam('algorithm'), params.getParam('claims')].join('.')
+            measured.put(key, result.secondaryResults.get(ALLOC_NORM).score)
+        }
+        return measured
+    }
+
+    @Test
+    void testAllocationsDoNotExceedBaselines() {
+        def baselines = new Properties()
+        def stream = getClass().getResourceAsStream(BASELINES)
+        try {
+            baselines.load(stream)
+        } finally {
+            stream.close()
+        }
+        double tolerance = Double.parseDouble(System.getProperty('allocation.tolerance', '0.10'))
+
+        Map<String, Double> measured = measure()
+
+        if (Boolean.getBoolean('allocation.baselines.write')) {
+            def file = new File('target', BASELINES)
+            file.withWriter('ISO-8859-1') { w ->
+                measured.each { k, v -> w.write("${k}=${Math.round(v)}\n") }
+            }
+        }
+
+        List<String> failures = []
+        measured.each { String key, Double bytes ->
+            String baseline = baselines.getProperty(key)
+            if (baseline == null) {
+                failures << "$key: no baseline (measured ${Math.round(bytes)} bytes/op)".toString()
+            } else if (bytes > Long.parseLong(baseline) * (1 + tolerance)) {
+                failures << "$key: ${Math.round(bytes)} bytes/op exceeds the baseline of $baseline bytes/op by more than ${Math.round(tolerance * 100)}%".toString()
+            }
+        }
+        if (failures) {
+            fail('Allocation regression:\n' + failures.join('\n'))
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.jackson.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.io.DeserializationException;
+import io.jsonwebtoken.io.ProjectingDeserializer;
+import io.jsonwebtoken.lang.Assert;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A streaming Jackson {@link ProjectingDeserializer} that reads a JSON object with Jackson's {@link JsonParser} and
+ * only materializes the values of the top-level members it has been asked for.  The values of all other members -
+ * no matter how large or deeply nested - are skipped token by token, without creating any objects for them.
+ *
+ * <p>This is useful when tokens carry large claims (for example, embedded authorization documents) that the
+ * application never reads.  For example:</p>
+ *
+ * <pre>{@code
+ * JwtParser parser = Jwts.parserBuilder()
+ *     .deserializeJsonWith(new ProjectingJacksonDeserializer(Arrays.asList("sub", "scope")))
+ *     ...
+ *     .build();}</pre>
+ *
+ * <p>Because the same deserializer is used for both JWT headers and claims, the following names are always
+ * materialized in addition to the requested names:</p>
+ * <ul>
+ *     <li>the registered {@link Claims#EXPIRATION exp}, {@link Claims#NOT_BEFORE nbf} and
+ *     {@link Claims#ISSUED_AT iat} claims, which the parser validates, and</li>
+ *     <li>all registered JWT and JWS header parameter names (such as {@code alg}, {@code kid} and {@code zip}).
+ *     Custom header parameters must be requested explicitly if they are needed.</li>
+ * </ul>
+ * <p>Claims asserted via {@link io.jsonwebtoken.JwtParserBuilder#require(String, Object) JwtParserBuilder.require*}
+ * methods are added automatically when the parser is built.</p>
+ *
+ * <p>Members that are materialized are read with the configured {@code ObjectMapper}, so any custom deserializers
+ * registered with it still apply.  Only JSON objects can be deserialized; any other JSON value is rejected.</p>
+ *
+ * @since 0.12.0
+ */
+public class ProjectingJacksonDeserializer implements ProjectingDeserializer<Map<String, ?>> {
+
+    private static final Collection<String> ALWAYS_INCLUDED = Arrays.asList(
+        Claims.EXPIRATION, Claims.NOT_BEFORE, Claims.ISSUED_AT,
+        Header.TYPE, Header.CONTENT_TYPE, Header.COMPRESSION_ALGORITHM, Header.DEPRECATED_COMPRESSION_ALGORITHM,
+        JwsHeader.ALGORITHM, JwsHeader.JWK_SET_URL, JwsHeader.JSON_WEB_KEY, JwsHeader.KEY_ID, JwsHeader.X509_URL,
+        JwsHeader.X509_CERT_CHAIN, JwsHeader.X509_CERT_SHA1_THUMBPRINT, JwsHeader.X509_CERT_SHA256_THUMBPRINT,
+        JwsHeader.CRITICAL);
+
+    private final ObjectMapper objectMapper;
+
+    private final Set<String> names;
+
+    /**
+     * Creates a deserializer that materializes the specified top-level names (in addition to those that are always
+     * materialized) using JJWT's default {@code ObjectMapper}.
+     *
+     * @param names the top-level member names to materialize
+     */
+    public ProjectingJacksonDeserializer(Collection<String> names) {
+        this(JacksonSerializer.DEFAULT_OBJECT_MAPPER, names);
+    }
+
+    /**
+     * Creates a deserializer that materializes the specified top-level names (in addition to those that are always
+     * materialized) using the specified {@code ObjectMapper}.
+     *
+     * @param objectMapper the ObjectMapper used to read the materialized values
+     * @param names        the top-level member names to materialize
+     */
+    public ProjectingJacksonDeserializer(ObjectMapper objectMapper, Collection<String> names) {
+        Assert.notNull(objectMapper, "ObjectMapper cannot be null.");
+        Assert.notNull(names, "names cannot be null.");
+        this.objectMapper = objectMapper;
+        Set<String> set = new LinkedHashSet<>(ALWAYS_INCLUDED);
+        set.addAll(names);
+        this.names = Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Returns the top-level member names whose values are materialized, including those that are always
+     * materialized.
+     *
+     * @return the top-level member names whose values are materialized.
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+
+    @Override
+    public ProjectingJacksonDeserializer including(Collection<String> names) {
+        Assert.notNull(names, "names cannot be null.");
+        if (this.names.containsAll(names)) {
+            return this;
+        }
+        Set<String> set = new LinkedHashSet<>(this.names);
+        set.addAll(names);
+        return new ProjectingJacksonDeserializer(objectMapper, set);
+    }
+
+    @Override
+    public Map<String, ?> deserialize(byte[] bytes) throws DeserializationException {
+        try {
+            return readValue(bytes);
+        } catch (IOException e) {
+            String msg = "Unable to deserialize bytes into a " + Map.class.getName() + " instance: " + e.getMessage();
+            throw new DeserializationException(msg, e);
+        }
+    }
+
+    protected Map<String, ?> readValue(byte[] bytes) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(bytes)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object.");
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken(); // move to the value
+                if (names.contains(name)) {
+                    map.put(name, objectMapper.readValue(parser, Object.class));
+                } else {
+                    parser.skipChildren(); // a no-op for scalar values
+                }
+            }
+            if (token != JsonToken.END_OBJECT) {
+                throw new IOException("Unexpected token " + token + " in JSON object.");
+            }
+            return map;
+        }
+    }
+}
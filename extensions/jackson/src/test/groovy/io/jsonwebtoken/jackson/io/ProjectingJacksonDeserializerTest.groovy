@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.jackson.io
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.jsonwebtoken.io.DeserializationException
+import io.jsonwebtoken.lang.Strings
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class ProjectingJacksonDeserializerTest {
+
+    private static Map<String, ?> deserialize(ProjectingJacksonDeserializer d, String json) {
+        return d.deserialize(json.getBytes(Strings.UTF_8))
+    }
+
+    @Test
+    void testMaterializesOnlyRequestedAndRegisteredNames() {
+        def d = new ProjectingJacksonDeserializer(['sub', 'scope'])
+        def result = deserialize(d, '{"sub":"joe","exp":1,"nbf":2,"iat":3,"iss":"me",' +
+            '"authz":{"roles":["a","b"],"docs":[{"x":[1,2,{"y":null}]}]},"scope":["read","write"],"n":1.5,"b":true}')
+        assertEquals([sub: 'joe', exp: 1, nbf: 2, iat: 3, scope: ['read', 'write']], result)
+        assertEquals(['sub', 'exp', 'nbf', 'iat', 'scope'], new ArrayList(result.keySet()))
+    }
+
+    @Test
+    void testRegisteredHeaderParameters() {
+        def d = new ProjectingJacksonDeserializer([])
+        def result = deserialize(d, '{"alg":"RS256","kid":"k1","typ":"JWT","zip":"DEF","custom":"x"}')
+        assertEquals([alg: 'RS256', kid: 'k1', typ: 'JWT', zip: 'DEF'], result)
+    }
+
+    @Test
+    void testIncluding() {
+        def d = new ProjectingJacksonDeserializer(['sub'])
+        assertSame d, d.including(['sub', 'exp'])
+
+        def d2 = d.including(['tenant'])
+        assertNotSame d, d2
+        assertTrue d2.getNames().containsAll(['sub', 'tenant'])
+        assertFalse d.getNames().contains('tenant')
+        assertEquals([sub: 'joe', tenant: 'acme'], deserialize(d2, '{"sub":"joe","tenant":"acme","other":1}'))
+    }
+
+    @Test
+    void testUsesObjectMapper() {
+        def om = new ObjectMapper()
+        def d = new ProjectingJacksonDeserializer(om, ['big'])
+        def result = deserialize(d, '{"big":12345678901234567890}')
+        assertEquals new BigInteger('12345678901234567890'), result.big
+    }
+
+    @Test
+    void testEmptyObject() {
+        assertEquals([:], deserialize(new ProjectingJacksonDeserializer([]), ' { } '))
+    }
+
+    @Test
+    void testMalformedJson() {
+        def d = new ProjectingJacksonDeserializer(['sub'])
+        ['[1]', '"sub"', '{"sub":"joe"', '{"other":{"a":1}', '{"other":[1,}', ''].each {
+            try {
+                deserialize(d, it)
+                fail(it)
+            } catch (DeserializationException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullNames() {
+        new ProjectingJacksonDeserializer((Collection<String>) null)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullObjectMapper() {
+        new ProjectingJacksonDeserializer(null, ['sub'])
+    }
+}
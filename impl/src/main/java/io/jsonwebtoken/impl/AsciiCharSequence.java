@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.lang.Assert;
+
+import java.nio.charset.Charset;
+
+/**
+ * A {@link CharSequence} view over a range of single-byte (US-ASCII) characters.  The bytes are not copied; each
+ * byte is widened to a {@code char} on access, so characters outside of the ASCII range are seen as their
+ * ISO-8859-1 equivalents (which are never valid in a compact JWT and are rejected during decoding).
+ *
+ * @since 0.12.0
+ */
+final class AsciiCharSequence implements CharSequence {
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    AsciiCharSequence(byte[] bytes, int offset, int length) {
+        Assert.notNull(bytes, "byte array cannot be null.");
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            String msg = "Invalid offset/length [" + offset + ", " + length + "] for a byte array of length " +
+                bytes.length + ".";
+            throw new IllegalArgumentException(msg);
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) (bytes[offset + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new AsciiCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, ISO_8859_1);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.io.BufferEncoder;
+import io.jsonwebtoken.io.Encoder;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A growable buffer of US-ASCII characters, stored one byte per character, used to assemble a compact JWT without
+ * any intermediate Strings: encoded segments are written straight into the buffer, the signing input can be read
+ * from it in place, and the final String is created only once.
+ *
+ * @since 0.12.0
+ */
+final class AsciiStringBuilder {
+
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private byte[] bytes;
+    private int length;
+
+    AsciiStringBuilder(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(minCapacity, bytes.length * 2));
+        }
+    }
+
+    AsciiStringBuilder append(char c) {
+        if (c > 0x7f) {
+            throw new IllegalArgumentException("Character '" + c + "' is not a US-ASCII character.");
+        }
+        ensureCapacity(length + 1);
+        bytes[length++] = (byte) c;
+        return this;
+    }
+
+    AsciiStringBuilder append(CharSequence s) {
+        int n = s.length();
+        ensureCapacity(length + n);
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c > 0x7f) {
+                throw new IllegalArgumentException("Character '" + c + "' is not a US-ASCII character.");
+            }
+            bytes[length + i] = (byte) c;
+        }
+        length += n;
+        return this;
+    }
+
+    /**
+     * Appends the encoding of the specified bytes.  If the encoder is a {@link BufferEncoder}, the bytes are encoded
+     * directly into this buffer; otherwise the encoded String is copied into it.
+     *
+     * @param encoder the encoder to use
+     * @param data    the bytes to encode
+     * @return this builder, for method chaining
+     */
+    AsciiStringBuilder appendEncoded(Encoder<byte[], String> encoder, byte[] data) {
+        if (encoder instanceof BufferEncoder) {
+            BufferEncoder bufferEncoder = (BufferEncoder) encoder;
+            ensureCapacity(length + bufferEncoder.encodedLength(data.length));
+            length += bufferEncoder.encode(data, 0, data.length, bytes, length);
+            return this;
+        }
+        return append(encoder.encode(data));
+    }
+
+    /**
+     * Returns the internal buffer, which is only valid until the next append.  The characters are the first
+     * {@link #length()} bytes.
+     *
+     * @return the internal buffer.
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, US_ASCII);
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.AsyncParseStatistics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtHandler;
+import io.jsonwebtoken.JwtHandlerAdapter;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ParseCallback;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implements {@link JwtParser#parseClaimsJwsAsync(String, ParseCallback)} for any parser.  A JWS is parsed on the
+ * calling thread up to the verification of its signature; an RSA or Elliptic Curve signature is then verified on an
+ * {@link Executor}, where the parse also completes, and any other JWS completes on the calling thread.
+ *
+ * @since 0.12.0
+ */
+final class AsyncParser implements AsyncParseStatistics {
+
+    private static final long IDLE_SECONDS = 60;
+
+    private static final JwtHandler<Jws<Claims>> CLAIMS_JWS = new JwtHandlerAdapter<Jws<Claims>>() {
+        @Override
+        public Jws<Claims> onClaimsJws(Jws<Claims> jws) {
+            return jws;
+        }
+    };
+
+    private final Executor executor; // null to use the default executor
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong inlineCount = new AtomicLong();
+    private final AtomicLong offloadedCount = new AtomicLong();
+    private final AtomicLong totalOffloadLatencyNanos = new AtomicLong();
+    private final AtomicLong maxOffloadLatencyNanos = new AtomicLong();
+
+    AsyncParser(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * The default executor is only created if a JWS is ever offloaded without an executor being configured.
+     */
+    private static final class DefaultExecutorHolder {
+        static final Executor EXECUTOR = createDefaultExecutor();
+    }
+
+    /**
+     * Returns a virtual thread per task executor on JVMs that have one (Java 21 and later), otherwise a pool of
+     * daemon threads, one per available processor, that shrinks to nothing when idle.
+     */
+    static Executor createDefaultExecutor() {
+        try {
+            Method m = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) m.invoke(null);
+        } catch (Exception e) { // virtual threads are not available in this JVM
+            int threads = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory());
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "jjwt-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static boolean requiresOffload(SignatureAlgorithm algorithm) {
+        return algorithm != null && (algorithm.isRsa() || algorithm.isEllipticCurve());
+    }
+
+    /**
+     * Returns {@code true} if parsing the specified JWS with a parser that cannot be
+     * {@link DefaultJwtParser#prepare(String) prepared} requires verifying an RSA or Elliptic Curve signature.  Only
+     * the header is read to decide; a JWS whose header cannot be read is rejected so quickly that it is never
+     * offloaded.
+     */
+    private static boolean requiresOffload(JwtParser parser, String jws) {
+        try {
+            JwsHeader header = parser.peekHeader(jws);
+            String alg = header != null ? header.getAlgorithm() : null;
+            if (alg == null) {
+                return false;
+            }
+            return requiresOffload(SignatureAlgorithm.forName(alg));
+        } catch (RuntimeException e) { // malformed JWS or unsupported algorithm, parsing will report it
+            return false;
+        }
+    }
+
+    Future<Jws<Claims>> parseClaimsJws(JwtParser parser, String claimsJws, ParseCallback<Jws<Claims>> callback) {
+        return parseClaimsJws(parser, claimsJws, null, null, callback);
+    }
+
+    /**
+     * Parses the specified JWS and, if it is valid and a cache is specified, caches the result under the specified
+     * fingerprint.  Tokenizing, reading the header, resolving the key and, unless the parser verifies signatures
+     * first, reading the payload all happen on the calling thread, so the executor only verifies the signature and
+     * then validates the claims.
+     */
+    Future<Jws<Claims>> parseClaimsJws(final JwtParser parser, final String claimsJws, final VerifiedJwsCache cache,
+                                       final TokenFingerprint fingerprint, ParseCallback<Jws<Claims>> callback) {
+        if (parser.getClass() != DefaultJwtParser.class) {
+            // a subclass may override any part of parsing, so the whole parse happens wherever the signature is verified:
+            return submit(claimsJws, new Callable<Jws<Claims>>() {
+                @Override
+                public Jws<Claims> call() {
+                    Jws<Claims> jws = parser.parseClaimsJws(claimsJws);
+                    if (cache != null) {
+                        cache.put(fingerprint, jws);
+                    }
+                    return jws;
+                }
+            }, requiresOffload(parser, claimsJws), callback);
+        }
+
+        final DefaultJwtParser.PreparedJwt prepared;
+        try {
+            prepared = ((DefaultJwtParser) parser).prepare(claimsJws);
+        } catch (RuntimeException e) {
+            return fail(claimsJws, e, callback);
+        }
+        return submit(claimsJws, new Callable<Jws<Claims>>() {
+            @Override
+            public Jws<Claims> call() {
+                prepared.verify();
+                Jws<Claims> jws = DefaultJwtParser.handle(prepared.complete(), CLAIMS_JWS);
+                if (cache != null) {
+                    cache.put(fingerprint, jws);
+                }
+                return jws;
+            }
+        }, requiresOffload(prepared.getAlgorithm()), callback);
+    }
+
+    /**
+     * Completes with the specified result on the calling thread.
+     */
+    <T> Future<T> complete(String jwt, final T result, ParseCallback<T> callback) {
+        return submit(jwt, new Callable<T>() {
+            @Override
+            public T call() {
+                return result;
+            }
+        }, false, callback);
+    }
+
+    /**
+     * Fails with the specified exception on the calling thread.
+     */
+    <T> Future<T> fail(String jwt, final RuntimeException e, ParseCallback<T> callback) {
+        return submit(jwt, new Callable<T>() {
+            @Override
+            public T call() {
+                throw e;
+            }
+        }, false, callback);
+    }
+
+    /**
+     * Runs the specified parse on the executor if {@code offload} is {@code true}, otherwise on the calling thread
+     * before returning.
+     */
+    private <T> Future<T> submit(String jwt, Callable<T> parse, boolean offload, ParseCallback<T> callback) {
+        ParseTask<T> task = new ParseTask<>(jwt, parse, callback);
+        if (!offload) {
+            inlineCount.incrementAndGet();
+            task.run();
+            return task;
+        }
+        offloadedCount.incrementAndGet();
+        queueDepth.incrementAndGet();
+        task.submittedAt = System.nanoTime();
+        try {
+            (executor != null ? executor : DefaultExecutorHolder.EXECUTOR).execute(task);
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            offloadedCount.decrementAndGet();
+            throw e;
+        }
+        return task;
+    }
+
+    private void started(long submittedAt) {
+        queueDepth.decrementAndGet();
+        long latency = System.nanoTime() - submittedAt;
+        totalOffloadLatencyNanos.addAndGet(latency);
+        long max;
+        while (latency > (max = maxOffloadLatencyNanos.get())) {
+            if (maxOffloadLatencyNanos.compareAndSet(max, latency)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    @Override
+    public long getInlineCount() {
+        return inlineCount.get();
+    }
+
+    @Override
+    public long getOffloadedCount() {
+        return offloadedCount.get();
+    }
+
+    @Override
+    public long getTotalOffloadLatencyNanos() {
+        return totalOffloadLatencyNanos.get();
+    }
+
+    @Override
+    public long getMaxOffloadLatencyNanos() {
+        return maxOffloadLatencyNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "queueDepth=" + getQueueDepth() + ", inline=" + getInlineCount() + ", offloaded=" +
+            getOffloadedCount() + ", maxOffloadLatencyNanos=" + getMaxOffloadLatencyNanos();
+    }
+
+    private final class ParseTask<T> extends FutureTask<T> {
+
+        private final String jwt;
+        private final ParseCallback<T> callback;
+        private volatile long submittedAt; // 0 if run on the calling thread
+
+        ParseTask(String jwt, Callable<T> parse, ParseCallback<T> callback) {
+            super(parse);
+            this.jwt = jwt;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (submittedAt != 0) {
+                started(submittedAt);
+            }
+            super.run();
+        }
+
+        @Override
+        protected void done() {
+            if (callback == null || isCancelled()) {
+                return;
+            }
+            DefaultParseResult<T> result;
+            try {
+                result = DefaultParseResult.success(jwt, get());
+            } catch (ExecutionException e) {
+                result = DefaultParseResult.failure(jwt, toJwtException(e.getCause()));
+            } catch (InterruptedException e) { // cannot happen, the task is done
+                Thread.currentThread().interrupt();
+                return;
+            }
+            callback.onComplete(result);
+        }
+    }
+
+    private static JwtException toJwtException(Throwable t) {
+        if (t instanceof JwtException) {
+            return (JwtException) t;
+        }
+        if (t instanceof IllegalArgumentException) { // a null, empty or whitespace-only JWS
+            return new MalformedJwtException(t.getMessage(), t);
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new JwtException(t.getMessage(), t);
+    }
+}
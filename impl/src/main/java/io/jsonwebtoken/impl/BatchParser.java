@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtHandler;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ParseResult;
+import io.jsonwebtoken.lang.Assert;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Implements {@link JwtParser#parseAll(Collection)} and {@link JwtParser#parseAll(Collection, JwtHandler)} for any
+ * parser by splitting the batch into ranges that are parsed on a shared {@link ForkJoinPool}.
+ *
+ * @since 0.12.0
+ */
+final class BatchParser {
+
+    // ranges are split until each worker has about this many ranges to parse, so that a worker that finishes early
+    // (for example because its tokens were rejected quickly) can steal work from the others:
+    private static final int RANGES_PER_WORKER = 4;
+
+    private BatchParser() {
+    }
+
+    /**
+     * The pool is only created if a batch is ever parsed.  Its worker threads are daemon threads, so it never
+     * prevents the JVM from exiting.
+     */
+    private static final class PoolHolder {
+        static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+
+    /**
+     * Returns the pool batches are parsed on, which is also used by {@link BulkCompactor}.
+     */
+    static ForkJoinPool pool() {
+        return PoolHolder.POOL;
+    }
+
+    /**
+     * Parses a single JWT.
+     */
+    private interface Parse<T> {
+        T apply(String jwt);
+    }
+
+    static List<ParseResult<Jws<Claims>>> parseAll(final JwtParser parser, Collection<String> claimsJwss) {
+        return parseAll(claimsJwss, new Parse<Jws<Claims>>() {
+            @Override
+            public Jws<Claims> apply(String jwt) {
+                return parser.parseClaimsJws(jwt);
+            }
+        });
+    }
+
+    static <T> List<ParseResult<T>> parseAll(final JwtParser parser, Collection<String> jwts,
+                                             final JwtHandler<T> handler) {
+        Assert.notNull(handler, "JwtHandler argument cannot be null.");
+        return parseAll(jwts, new Parse<T>() {
+            @Override
+            public T apply(String jwt) {
+                return parser.parse(jwt, handler);
+            }
+        });
+    }
+
+    private static <T> List<ParseResult<T>> parseAll(Collection<String> jwts, Parse<T> parse) {
+        Assert.notNull(jwts, "JWT collection cannot be null.");
+        String[] array = jwts.toArray(new String[0]);
+        if (array.length == 0) {
+            return Collections.emptyList();
+        }
+        @SuppressWarnings("unchecked")
+        ParseResult<T>[] results = new ParseResult[array.length];
+        ForkJoinPool pool = pool();
+        int threshold = Math.max(1, array.length / (pool.getParallelism() * RANGES_PER_WORKER));
+        ParseTask<T> task = new ParseTask<>(parse, array, results, 0, array.length, threshold);
+        if (array.length <= threshold) {
+            task.compute(); // not worth handing off to the pool
+        } else {
+            pool.invoke(task);
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    private static <T> ParseResult<T> parseOne(Parse<T> parse, String jwt) {
+        try {
+            return DefaultParseResult.success(jwt, parse.apply(jwt));
+        } catch (JwtException e) {
+            return DefaultParseResult.failure(jwt, e);
+        } catch (IllegalArgumentException e) { // a null, empty or whitespace-only JWT
+            return DefaultParseResult.failure(jwt, new MalformedJwtException(e.getMessage(), e));
+        }
+    }
+
+    private static final class ParseTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Parse<T> parse;
+        private final String[] jwts;
+        private final ParseResult<T>[] results;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ParseTask(Parse<T> parse, String[] jwts, ParseResult<T>[] results, int from, int to, int threshold) {
+            this.parse = parse;
+            this.jwts = jwts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    results[i] = parseOne(parse, jwts[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParseTask<>(parse, jwts, results, from, mid, threshold),
+                new ParseTask<>(parse, jwts, results, mid, to, threshold));
+        }
+    }
+}
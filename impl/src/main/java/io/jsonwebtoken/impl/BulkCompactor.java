@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.lang.Assert;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Implements {@link io.jsonwebtoken.JwtBuilder#compactAll(Iterator)}: claim sets are read from the source iterator
+ * only as fast as the caller consumes the resulting JWTs, and up to {@code maxInFlight} of them are serialized and
+ * signed concurrently on the pool shared with {@link BatchParser}.  The JWTs are returned in source order.
+ *
+ * @since 0.12.0
+ */
+final class BulkCompactor implements Iterator<String> {
+
+    // claim sets read ahead per pool thread, enough to keep every thread busy while the caller consumes results:
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
+    private final DefaultJwtTemplate template;
+    private final Iterator<? extends Map<String, ?>> claimSets;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+    private final Queue<Future<String>> inFlight;
+
+    BulkCompactor(DefaultJwtTemplate template, Iterator<? extends Map<String, ?>> claimSets) {
+        Assert.notNull(claimSets, "claimSets iterator cannot be null.");
+        this.template = template;
+        this.claimSets = claimSets;
+        this.pool = BatchParser.pool();
+        this.maxInFlight = maxInFlight(pool);
+        this.inFlight = new ArrayDeque<>(maxInFlight);
+    }
+
+    static int maxInFlight(ForkJoinPool pool) {
+        return pool.getParallelism() * IN_FLIGHT_PER_THREAD;
+    }
+
+    private void fill() {
+        while (inFlight.size() < maxInFlight && claimSets.hasNext()) {
+            final Map<String, ?> claimSet = claimSets.next();
+            // a FutureTask rather than pool.submit, so that get() reports the original exception, not a copy:
+            FutureTask<String> task = new FutureTask<>(new Callable<String>() {
+                @Override
+                public String call() {
+                    return template.compact(claimSet);
+                }
+            });
+            pool.execute(task);
+            inFlight.add(task);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !inFlight.isEmpty() || claimSets.hasNext();
+    }
+
+    @Override
+    public String next() {
+        fill();
+        Future<String> next = inFlight.poll();
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return next.get();
+                } catch (InterruptedException e) {
+                    interrupted = true; // the JWT is still needed, keep waiting
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+}
@@ -21,6 +21,7 @@ import io.jsonwebtoken.Header;
 import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtTemplate;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.impl.crypto.DefaultJwtSigner;
 import io.jsonwebtoken.impl.crypto.JwtSigner;
@@ -38,7 +39,10 @@ import io.jsonwebtoken.security.InvalidKeyException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.security.Key;
+import java.security.interfaces.RSAKey;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class DefaultJwtBuilder implements JwtBuilder {
@@ -290,15 +294,19 @@ public class DefaultJwtBuilder implements JwtBuilder {
         return this;
     }
 
-    @Override
-    public String compact() {
-
+    private void ensureSerializer() {
         if (this.serializer == null) {
             // try to find one based on the services available
             // TODO: This util class will throw a UnavailableImplementationException here to retain behavior of previous version, remove in v1.0
             // use the previous commented out line instead
             this.serializer = LegacyServices.loadFirst(Serializer.class);
         }
+    }
+
+    @Override
+    public String compact() {
+
+        ensureSerializer();
 
         if (payload == null && Collections.isEmpty(claims)) {
             throw new IllegalStateException("Either 'payload' or 'claims' must be specified.");
@@ -308,6 +316,107 @@ public class DefaultJwtBuilder implements JwtBuilder {
             throw new IllegalStateException("Both 'payload' and 'claims' cannot both be specified. Choose either one.");
         }
 
+        String encodedHeader = encodedHeader();
+
+        byte[] bytes;
+        try {
+            bytes = this.payload != null ? payload.getBytes(Strings.UTF_8) : toJson(claims);
+        } catch (SerializationException e) {
+            throw new IllegalArgumentException("Unable to serialize claims object to json: " + e.getMessage(), e);
+        }
+
+        if (compressionCodec != null) {
+            bytes = compressionCodec.compress(bytes);
+        }
+
+        // since 0.12.0: the token is assembled in a single buffer, sized up front, and signed in place:
+        int capacity = encodedHeader.length() + encodedLength(bytes.length) + 2;
+        if (key != null) {
+            capacity += encodedLength(signatureLength(algorithm, key));
+        }
+        AsciiStringBuilder jwt = new AsciiStringBuilder(capacity);
+
+        jwt.append(encodedHeader).append(JwtParser.SEPARATOR_CHAR).appendEncoded(base64UrlEncoder, bytes);
+
+        if (key != null) { //jwt must be signed:
+
+            JwtSigner signer = createSigner(algorithm, key);
+
+            String base64UrlSignature = sign(signer, jwt);
+
+            jwt.append(JwtParser.SEPARATOR_CHAR).append(base64UrlSignature);
+        } else {
+            // no signature (plaintext), but must terminate w/ a period, see
+            // https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-25#section-6.1
+            jwt.append(JwtParser.SEPARATOR_CHAR);
+        }
+
+        return jwt.toString();
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public JwtTemplate toTemplate() {
+
+        ensureSerializer();
+
+        if (payload != null) {
+            throw new IllegalStateException("A template cannot have a plaintext 'payload', only claims.");
+        }
+
+        Map<String, Object> staticClaims = new LinkedHashMap<>();
+        if (claims != null) {
+            staticClaims.putAll(claims);
+        }
+        for (String name : DefaultJwtTemplate.DYNAMIC_CLAIMS) {
+            if (staticClaims.containsKey(name)) {
+                throw new IllegalStateException("The '" + name + "' claim is supplied to each " +
+                    "JwtTemplate.compact call and cannot be part of the template.");
+            }
+        }
+
+        return newTemplate(staticClaims);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public Iterator<String> compactAll(Iterator<? extends Map<String, ?>> claimSets) {
+        Assert.notNull(claimSets, "claimSets iterator cannot be null.");
+
+        ensureSerializer();
+
+        if (payload != null) {
+            throw new IllegalStateException("compactAll cannot be used with a plaintext 'payload', only claims.");
+        }
+
+        Map<String, Object> baseClaims = new LinkedHashMap<>();
+        if (claims != null) {
+            baseClaims.putAll(claims);
+        }
+        return new BulkCompactor(newTemplate(baseClaims), claimSets);
+    }
+
+    private DefaultJwtTemplate newTemplate(Map<String, Object> staticClaims) {
+
+        String encodedHeader = encodedHeader() + JwtParser.SEPARATOR_CHAR;
+
+        JwtSigner signer = key != null ? createSigner(algorithm, key) : null;
+        int signatureLength = key != null ? encodedLength(signatureLength(algorithm, key)) : 0;
+
+        return new DefaultJwtTemplate(serializer, base64UrlEncoder, encodedHeader, staticClaims,
+            compressionCodec, signer, signatureLength);
+    }
+
+    // since 0.12.0: each compact() encodes the header again; toTemplate() and compactAll encode it only once:
+    private String encodedHeader() {
+        return base64UrlEncode(prepareHeader(), "Unable to serialize header to json.");
+    }
+
+    private JwsHeader prepareHeader() {
         Header header = ensureHeader();
 
         JwsHeader jwsHeader;
@@ -329,37 +438,32 @@ public class DefaultJwtBuilder implements JwtBuilder {
             jwsHeader.setCompressionAlgorithm(compressionCodec.getAlgorithmName());
         }
 
-        String base64UrlEncodedHeader = base64UrlEncode(jwsHeader, "Unable to serialize header to json.");
-
-        byte[] bytes;
-        try {
-            bytes = this.payload != null ? payload.getBytes(Strings.UTF_8) : toJson(claims);
-        } catch (SerializationException e) {
-            throw new IllegalArgumentException("Unable to serialize claims object to json: " + e.getMessage(), e);
-        }
+        return jwsHeader;
+    }
 
-        if (compressionCodec != null) {
-            bytes = compressionCodec.compress(bytes);
+    /**
+     * Signs the {@code header.payload} assembled so far, directly from the buffer if the signer is the library's own.
+     * A signer returned by an overridden {@link #createSigner(SignatureAlgorithm, Key)} might only implement
+     * {@link JwtSigner#sign(String)}, so it is given a String as before.
+     */
+    static String sign(JwtSigner signer, AsciiStringBuilder jwt) {
+        if (signer.getClass() == DefaultJwtSigner.class) {
+            return ((DefaultJwtSigner) signer).sign(jwt.getBytes(), 0, jwt.length());
         }
+        return signer.sign(jwt.toString());
+    }
 
-        String base64UrlEncodedBody = base64UrlEncoder.encode(bytes);
-
-        String jwt = base64UrlEncodedHeader + JwtParser.SEPARATOR_CHAR + base64UrlEncodedBody;
-
-        if (key != null) { //jwt must be signed:
-
-            JwtSigner signer = createSigner(algorithm, key);
-
-            String base64UrlSignature = signer.sign(jwt);
+    // the (padded) Base64 length, which is never less than the Base64URL length:
+    static int encodedLength(int byteLength) {
+        return (byteLength + 2) / 3 * 4;
+    }
 
-            jwt += JwtParser.SEPARATOR_CHAR + base64UrlSignature;
-        } else {
-            // no signature (plaintext), but must terminate w/ a period, see
-            // https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-25#section-6.1
-            jwt += JwtParser.SEPARATOR_CHAR;
+    // the signature length in bytes for RSA keys, otherwise enough for any HMAC or ECDSA signature:
+    private static int signatureLength(SignatureAlgorithm alg, Key key) {
+        if (alg.isRsa() && key instanceof RSAKey) {
+            return (((RSAKey) key).getModulus().bitLength() + 7) / 8;
         }
-
-        return jwt;
+        return 132; // ES512
     }
 
     /*
@@ -15,6 +15,8 @@
  */
 package io.jsonwebtoken.impl;
 
+import io.jsonwebtoken.AsyncParseStatistics;
+import io.jsonwebtoken.CacheStatistics;
 import io.jsonwebtoken.ClaimJwtException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Clock;
@@ -32,6 +34,8 @@ import io.jsonwebtoken.JwtHandlerAdapter;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.ParseCallback;
+import io.jsonwebtoken.ParseResult;
 import io.jsonwebtoken.PrematureJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.SigningKeyResolver;
@@ -39,7 +43,10 @@ import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver;
 import io.jsonwebtoken.impl.crypto.DefaultJwtSignatureValidator;
 import io.jsonwebtoken.impl.crypto.JwtSignatureValidator;
+import io.jsonwebtoken.impl.crypto.SigningInput;
+import io.jsonwebtoken.impl.lang.BoundedCache;
 import io.jsonwebtoken.impl.lang.LegacyServices;
+import io.jsonwebtoken.io.BufferDecoder;
 import io.jsonwebtoken.io.Decoder;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.DeserializationException;
@@ -53,15 +60,29 @@ import io.jsonwebtoken.security.SignatureException;
 import io.jsonwebtoken.security.WeakKeyException;
 
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.security.Key;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 @SuppressWarnings("unchecked")
 public class DefaultJwtParser implements JwtParser {
 
     private static final int MILLISECONDS_PER_SECOND = 1000;
 
+    /**
+     * Maximum number of (algorithm, key) pairs whose signature validators are retained by a parser.  A parser with a
+     * fixed signing key needs only one; this bound exists for parsers whose SigningKeyResolver returns many keys.
+     */
+    private static final int SIGNATURE_VALIDATOR_CACHE_SIZE = 64;
+
+    private static final String SIGNATURE_MISMATCH_MSG = "JWT signature does not match locally computed signature. " +
+        "JWT validity cannot be asserted and should not be trusted.";
+
     // TODO: make the folling fields final for v1.0
     private byte[] keyBytes;
 
@@ -81,6 +102,23 @@ public class DefaultJwtParser implements JwtParser {
 
     private long allowedClockSkewMillis = 0;
 
+    private boolean verifySignatureFirst = false;
+
+    private boolean lazyClaimsEnabled = false;
+
+    private BoundedCache<TokenFingerprint, Boolean> rejectedJwsCache;
+
+    private long rejectedJwsCacheTtlMillis;
+
+    private BoundedCache<ValidatorCacheKey, JwtSignatureValidator> signatureValidators;
+
+    private BoundedCache<String, CachedHeader> headerCache;
+
+    private final AsyncParser asyncParser = new AsyncParser(null);
+
+    // since 0.12.0: JSON is deserialized straight from the decoded bytes unless a subclass still expects a String:
+    private final boolean readValueOverridden = isReadValueOverridden(getClass());
+
     /**
      * TODO: remove this constructor before 1.0
      * @deprecated for backward compatibility only, see other constructors.
@@ -96,7 +134,12 @@ public class DefaultJwtParser implements JwtParser {
                      Claims expectedClaims,
                      Decoder<String, byte[]> base64UrlDecoder,
                      Deserializer<Map<String, ?>> deserializer,
-                     CompressionCodecResolver compressionCodecResolver) {
+                     CompressionCodecResolver compressionCodecResolver,
+                     boolean verifySignatureFirst,
+                     boolean lazyClaims,
+                     int rejectedJwsCacheSize,
+                     long rejectedJwsCacheTtlMillis,
+                     int headerCacheSize) {
         this.signingKeyResolver = signingKeyResolver;
         this.key = key;
         this.keyBytes = keyBytes;
@@ -106,6 +149,17 @@ public class DefaultJwtParser implements JwtParser {
         this.base64UrlDecoder = base64UrlDecoder;
         this.deserializer = deserializer;
         this.compressionCodecResolver = compressionCodecResolver;
+        this.verifySignatureFirst = verifySignatureFirst;
+        this.lazyClaimsEnabled = lazyClaims;
+        // validators can only be reused when the configuration they were created with can never change:
+        this.signatureValidators = new BoundedCache<>(SIGNATURE_VALIDATOR_CACHE_SIZE);
+        if (rejectedJwsCacheSize > 0) {
+            this.rejectedJwsCache = new BoundedCache<>(rejectedJwsCacheSize);
+            this.rejectedJwsCacheTtlMillis = rejectedJwsCacheTtlMillis;
+        }
+        if (headerCacheSize > 0) {
+            this.headerCache = new BoundedCache<>(headerCacheSize);
+        }
     }
 
     @Override
@@ -246,7 +300,60 @@ public class DefaultJwtParser implements JwtParser {
 
     @Override
     public Jwt parse(String jwt) throws ExpiredJwtException, MalformedJwtException, SignatureException {
+        Assert.hasText(jwt, "JWT String argument cannot be null or empty.");
+        return parseTokenized(TokenizedJwt.tokenize(jwt));
+    }
+
+    @Override
+    public Jwt parse(byte[] jwt, int offset, int length) throws ExpiredJwtException, MalformedJwtException, SignatureException {
+        Assert.notNull(jwt, "JWT byte array argument cannot be null.");
+        CharSequence seq = new AsciiCharSequence(jwt, offset, length);
+        Assert.isTrue(Strings.hasText(seq), "JWT byte array argument cannot be empty.");
+        return parseTokenized(TokenizedJwt.tokenize(seq));
+    }
+
+    @Override
+    public Jwt parseAscii(ByteBuffer jwt) throws ExpiredJwtException, MalformedJwtException, SignatureException {
+        Assert.notNull(jwt, "JWT ByteBuffer argument cannot be null.");
+        if (jwt.hasArray()) {
+            return parse(jwt.array(), jwt.arrayOffset() + jwt.position(), jwt.remaining());
+        }
+        byte[] bytes = new byte[jwt.remaining()];
+        jwt.duplicate().get(bytes);
+        return parse(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public JwsHeader peekHeader(String jwt) throws MalformedJwtException {
+        Assert.hasText(jwt, "JWT String argument cannot be null or empty.");
+        return peekHeader(TokenizedJwt.tokenize(jwt));
+    }
+
+    @Override
+    public JwsHeader peekHeader(byte[] jwt, int offset, int length) throws MalformedJwtException {
+        Assert.notNull(jwt, "JWT byte array argument cannot be null.");
+        CharSequence seq = new AsciiCharSequence(jwt, offset, length);
+        Assert.isTrue(Strings.hasText(seq), "JWT byte array argument cannot be empty.");
+        return peekHeader(TokenizedJwt.tokenize(seq));
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    private JwsHeader peekHeader(TokenizedJwt tokenized) throws MalformedJwtException {
+        String base64UrlEncodedHeader = tokenized.getHeader();
+        if (base64UrlEncodedHeader == null) {
+            throw new MalformedJwtException("JWT string has no header.");
+        }
+        CachedHeader cached = headerCache != null ? headerCache.get(base64UrlEncodedHeader, 0) : null;
+        if (cached != null) {
+            return new ImmutableJwsHeader(cached.params);
+        }
+        ensureDeserializer();
+        return new ImmutableJwsHeader(readHeader(base64UrlEncodedHeader));
+    }
 
+    private void ensureDeserializer() {
         // TODO, this logic is only need for a now deprecated code path
         // remove this block in v1.0 (the equivalent is already in DefaultJwtParserBuilder)
         if (this.deserializer == null) {
@@ -254,58 +361,67 @@ public class DefaultJwtParser implements JwtParser {
             // TODO: This util class will throw a UnavailableImplementationException here to retain behavior of previous version, remove in v1.0
             this.deserializer = LegacyServices.loadFirst(Deserializer.class);
         }
+    }
 
-        Assert.hasText(jwt, "JWT String argument cannot be null or empty.");
-
-        String base64UrlEncodedHeader = null;
-        String base64UrlEncodedPayload = null;
-        String base64UrlEncodedDigest = null;
-
-        int delimiterCount = 0;
-
-        StringBuilder sb = new StringBuilder(128);
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readHeader(String base64UrlEncodedHeader) {
+        byte[] bytes = base64UrlDecoder.decode(base64UrlEncodedHeader);
+        return (Map<String, Object>) readValue(bytes);
+    }
 
-        for (char c : jwt.toCharArray()) {
+    private Jwt parseTokenized(TokenizedJwt tokenized) throws ExpiredJwtException, MalformedJwtException, SignatureException {
+        PreparedJwt prepared = prepare(tokenized);
+        prepared.verify();
+        return prepared.complete();
+    }
 
-            if (c == SEPARATOR_CHAR) {
+    /**
+     * Parses the specified JWT on the calling thread up to, but not including, the verification of its signature.
+     * Used by {@link AsyncParser} to verify the signature on another thread.
+     *
+     * @since 0.12.0
+     */
+    PreparedJwt prepare(String jwt) throws MalformedJwtException, SignatureException {
+        Assert.hasText(jwt, "JWT String argument cannot be null or empty.");
+        return prepare(TokenizedJwt.tokenize(jwt));
+    }
 
-                CharSequence tokenSeq = Strings.clean(sb);
-                String token = tokenSeq != null ? tokenSeq.toString() : null;
+    /**
+     * Does everything that must happen before a JWS signature can be verified: the header is read, the signature
+     * algorithm and key are resolved and, unless the signature is to be verified first, the payload is read.
+     *
+     * @since 0.12.0
+     */
+    private PreparedJwt prepare(TokenizedJwt tokenized) throws MalformedJwtException, SignatureException {
 
-                if (delimiterCount == 0) {
-                    base64UrlEncodedHeader = token;
-                } else if (delimiterCount == 1) {
-                    base64UrlEncodedPayload = token;
-                }
+        ensureDeserializer();
 
-                delimiterCount++;
-                sb.setLength(0);
-            } else {
-                sb.append(c);
+        // since 0.12.0: reject a JWS whose signature recently failed verification before doing any other work:
+        TokenFingerprint fingerprint = null;
+        if (rejectedJwsCache != null && tokenized.hasDigest()) {
+            fingerprint = TokenFingerprint.of(tokenized.getJwt());
+            if (rejectedJwsCache.get(fingerprint, clock.now().getTime()) != null) {
+                throw new SignatureException(SIGNATURE_MISMATCH_MSG);
             }
         }
 
-        if (delimiterCount != 2) {
-            String msg = "JWT strings must contain exactly 2 period characters. Found: " + delimiterCount;
-            throw new MalformedJwtException(msg);
-        }
-        if (sb.length() > 0) {
-            base64UrlEncodedDigest = sb.toString();
-        }
-
-        if (base64UrlEncodedPayload == null) {
-            throw new MalformedJwtException("JWT string '" + jwt + "' is missing a body/payload.");
-        }
+        String base64UrlEncodedHeader = tokenized.getHeader();
+        String base64UrlEncodedDigest = tokenized.getDigest();
 
         // =============== Header =================
         Header header = null;
 
         CompressionCodec compressionCodec = null;
 
+        // since 0.12.0: a previously seen header segment does not need to be decoded or resolved again:
+        CachedHeader cachedHeader = null;
+        Map<String, Object> m = null;
+
         if (base64UrlEncodedHeader != null) {
-            byte[] bytes = base64UrlDecoder.decode(base64UrlEncodedHeader);
-            String origValue = new String(bytes, Strings.UTF_8);
-            Map<String, Object> m = (Map<String, Object>) readValue(origValue);
+            if (headerCache != null) {
+                cachedHeader = headerCache.get(base64UrlEncodedHeader, 0);
+            }
+            m = cachedHeader != null ? cachedHeader.params : readHeader(base64UrlEncodedHeader);
 
             if (base64UrlEncodedDigest != null) {
                 header = new DefaultJwsHeader(m);
@@ -313,35 +429,52 @@ public class DefaultJwtParser implements JwtParser {
                 header = new DefaultHeader(m);
             }
 
-            compressionCodec = compressionCodecResolver.resolveCompressionCodec(header);
+            if (cachedHeader != null) {
+                compressionCodec = cachedHeader.compressionCodec;
+            } else {
+                compressionCodec = compressionCodecResolver.resolveCompressionCodec(header);
+                if (base64UrlEncodedDigest == null) {
+                    cacheHeader(base64UrlEncodedHeader, m, compressionCodec, null);
+                }
+            }
         }
 
         // =============== Body =================
-        byte[] bytes = base64UrlDecoder.decode(base64UrlEncodedPayload);
-        if (compressionCodec != null) {
-            bytes = compressionCodec.decompress(bytes);
-        }
-        String payload = new String(bytes, Strings.UTF_8);
+        // since 0.12.0: when verifying the signature first, the payload of a JWS is only decoded before verification
+        // if a SigningKeyResolver needs it, and claims are only deserialized if that resolver actually reads them:
+        final boolean deferPayload = verifySignatureFirst && base64UrlEncodedDigest != null;
 
+        // since 0.12.0: the payload stays in its decoded UTF-8 form unless it turns out not to be JSON:
+        byte[] payload = null;
+        String plaintext = null;
         Claims claims = null;
+        LazyClaims lazyClaims = null;
 
-        if (payload.charAt(0) == '{' && payload.charAt(payload.length() - 1) == '}') { //likely to be json, parse it:
-            Map<String, Object> claimsMap = (Map<String, Object>) readValue(payload);
-            claims = new DefaultClaims(claimsMap);
+        if (!deferPayload) {
+            payload = decodePayload(tokenized, compressionCodec);
+            if (isJsonObject(payload)) { //likely to be json, parse it:
+                claims = readClaims(payload);
+            }
         }
 
         // =============== Signature =================
+        SignatureAlgorithm algorithm = null;
+        JwtSignatureValidator validator = null;
+
         if (base64UrlEncodedDigest != null) { //it is signed - validate the signature
 
             JwsHeader jwsHeader = (JwsHeader) header;
 
-            SignatureAlgorithm algorithm = null;
+            algorithm = cachedHeader != null ? cachedHeader.algorithm : null;
 
-            if (header != null) {
+            if (algorithm == null && header != null) {
                 String alg = jwsHeader.getAlgorithm();
                 if (Strings.hasText(alg)) {
                     algorithm = SignatureAlgorithm.forName(alg);
                 }
+                if (algorithm != null && algorithm != SignatureAlgorithm.NONE) {
+                    cacheHeader(base64UrlEncodedHeader, m, compressionCodec, algorithm);
+                }
             }
 
             if (algorithm == null || algorithm == SignatureAlgorithm.NONE) {
@@ -366,10 +499,19 @@ public class DefaultJwtParser implements JwtParser {
                 byte[] keyBytes = this.keyBytes;
 
                 if (Objects.isEmpty(keyBytes) && signingKeyResolver != null) { //use the signingKeyResolver
+                    if (deferPayload) {
+                        payload = decodePayload(tokenized, compressionCodec);
+                        if (isJsonObject(payload)) {
+                            lazyClaims = lazyClaims(payload);
+                        }
+                    }
                     if (claims != null) {
                         key = signingKeyResolver.resolveSigningKey(jwsHeader, claims);
+                    } else if (lazyClaims != null) {
+                        key = signingKeyResolver.resolveSigningKey(jwsHeader, lazyClaims);
                     } else {
-                        key = signingKeyResolver.resolveSigningKey(jwsHeader, payload);
+                        plaintext = new String(payload, Strings.UTF_8);
+                        key = signingKeyResolver.resolveSigningKey(jwsHeader, plaintext);
                     }
                 }
 
@@ -384,92 +526,358 @@ public class DefaultJwtParser implements JwtParser {
 
             Assert.notNull(key, "A signing key must be specified if the specified JWT is digitally signed.");
 
-            //re-create the jwt part without the signature.  This is what needs to be signed for verification:
-            String jwtWithoutSignature = base64UrlEncodedHeader + SEPARATOR_CHAR + base64UrlEncodedPayload;
-
-            JwtSignatureValidator validator;
-            try {
-                algorithm.assertValidVerificationKey(key); //since 0.10.0: https://github.com/jwtk/jjwt/issues/334
-                validator = createSignatureValidator(algorithm, key);
-            } catch (WeakKeyException e) {
-                throw e;
-            } catch (InvalidKeyException | IllegalArgumentException e) {
-                String algName = algorithm.getValue();
-                String msg = "The parsed JWT indicates it was signed with the " + algName + " signature " +
-                    "algorithm, but the specified signing key of type " + key.getClass().getName() +
-                    " may not be used to validate " + algName + " signatures.  Because the specified " +
-                    "signing key reflects a specific and expected algorithm, and the JWT does not reflect " +
-                    "this algorithm, it is likely that the JWT was not expected and therefore should not be " +
-                    "trusted.  Another possibility is that the parser was configured with the incorrect " +
-                    "signing key, but this cannot be assumed for security reasons.";
-                throw new UnsupportedJwtException(msg, e);
+            // since 0.12.0: a cached validator means this algorithm and key have already been asserted as compatible:
+            ValidatorCacheKey validatorCacheKey = null;
+            if (signatureValidators != null) {
+                validatorCacheKey = new ValidatorCacheKey(algorithm, key);
+                validator = signatureValidators.get(validatorCacheKey, 0);
             }
 
-            if (!validator.isValid(jwtWithoutSignature, base64UrlEncodedDigest)) {
-                String msg = "JWT signature does not match locally computed signature. JWT validity cannot be " +
-                    "asserted and should not be trusted.";
-                throw new SignatureException(msg);
+            if (validator == null) {
+                try {
+                    algorithm.assertValidVerificationKey(key); //since 0.10.0: https://github.com/jwtk/jjwt/issues/334
+                    validator = createSignatureValidator(algorithm, key);
+                    if (validatorCacheKey != null) {
+                        signatureValidators.put(validatorCacheKey, validator, BoundedCache.NEVER);
+                    }
+                } catch (WeakKeyException e) {
+                    throw e;
+                } catch (InvalidKeyException | IllegalArgumentException e) {
+                    String algName = algorithm.getValue();
+                    String msg = "The parsed JWT indicates it was signed with the " + algName + " signature " +
+                        "algorithm, but the specified signing key of type " + key.getClass().getName() +
+                        " may not be used to validate " + algName + " signatures.  Because the specified " +
+                        "signing key reflects a specific and expected algorithm, and the JWT does not reflect " +
+                        "this algorithm, it is likely that the JWT was not expected and therefore should not be " +
+                        "trusted.  Another possibility is that the parser was configured with the incorrect " +
+                        "signing key, but this cannot be assumed for security reasons.";
+                    throw new UnsupportedJwtException(msg, e);
+                }
             }
         }
 
-        final boolean allowSkew = this.allowedClockSkewMillis > 0;
+        return new PreparedJwt(tokenized, fingerprint, header, compressionCodec, deferPayload, payload, plaintext,
+            claims, lazyClaims, base64UrlEncodedDigest, algorithm, validator);
+    }
 
-        //since 0.3:
-        if (claims != null) {
+    /**
+     * A JWT that has been parsed up to the verification of its signature.  {@link #verify()} and then
+     * {@link #complete()} finish the parse, on any thread.
+     *
+     * @since 0.12.0
+     */
+    final class PreparedJwt {
+
+        private final TokenizedJwt tokenized;
+        private final TokenFingerprint fingerprint;
+        private final Header header;
+        private final CompressionCodec compressionCodec;
+        private final boolean deferPayload;
+        private byte[] payload;
+        private final String plaintext;
+        private Claims claims;
+        private final LazyClaims lazyClaims;
+        private final String base64UrlEncodedDigest;
+        private final SignatureAlgorithm algorithm;
+        private final JwtSignatureValidator validator;
+
+        private PreparedJwt(TokenizedJwt tokenized, TokenFingerprint fingerprint, Header header,
+                            CompressionCodec compressionCodec, boolean deferPayload, byte[] payload, String plaintext,
+                            Claims claims, LazyClaims lazyClaims, String base64UrlEncodedDigest,
+                            SignatureAlgorithm algorithm, JwtSignatureValidator validator) {
+            this.tokenized = tokenized;
+            this.fingerprint = fingerprint;
+            this.header = header;
+            this.compressionCodec = compressionCodec;
+            this.deferPayload = deferPayload;
+            this.payload = payload;
+            this.plaintext = plaintext;
+            this.claims = claims;
+            this.lazyClaims = lazyClaims;
+            this.base64UrlEncodedDigest = base64UrlEncodedDigest;
+            this.algorithm = algorithm;
+            this.validator = validator;
+        }
 
-            final Date now = this.clock.now();
-            long nowTime = now.getTime();
+        /**
+         * Returns the algorithm whose signature {@link #verify()} will verify, or {@code null} if the JWT is unsigned.
+         */
+        SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
 
-            //https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-30#section-4.1.4
-            //token MUST NOT be accepted on or after any specified exp time:
-            Date exp = claims.getExpiration();
-            if (exp != null) {
+        /**
+         * Verifies the signature of a JWS, or does nothing if the JWT is unsigned.
+         */
+        void verify() throws SignatureException {
+            if (validator == null) {
+                return;
+            }
 
-                long maxTime = nowTime - this.allowedClockSkewMillis;
-                Date max = allowSkew ? new Date(maxTime) : now;
-                if (max.after(exp)) {
-                    String expVal = DateFormats.formatIso8601(exp, false);
-                    String nowVal = DateFormats.formatIso8601(now, false);
+            //the jwt part without the signature.  This is what needs to be signed for verification:
+            boolean valid;
+            CharSequence jwt = tokenized.getJwt();
+            if (validator.getClass() != DefaultJwtSignatureValidator.class) {
+                //a validator from an overridden createSignatureValidator might only implement isValid(String, String):
+                valid = validator.isValid(tokenized.getSignedContent(), base64UrlEncodedDigest);
+            } else if (jwt instanceof AsciiCharSequence && tokenized.isSignedContentContiguous()) {
+                //verify directly over the original header.payload bytes:
+                AsciiCharSequence ascii = (AsciiCharSequence) jwt;
+                int offset = ascii.getOffset() + tokenized.getHeaderOffset();
+                valid = ((DefaultJwtSignatureValidator) validator).isValid(ascii.getBytes(), offset,
+                    tokenized.getSignedContentLength(), base64UrlEncodedDigest);
+            } else {
+                //feed the header, separator and payload to the validator separately instead of joining them:
+                SigningInput input = SigningInput.of(jwt, tokenized.getHeaderOffset(), tokenized.getHeaderLength(),
+                    tokenized.getPayloadOffset(), tokenized.getPayloadLength());
+                valid = ((DefaultJwtSignatureValidator) validator).isValid(input, base64UrlEncodedDigest);
+            }
 
-                    long differenceMillis = maxTime - exp.getTime();
+            if (!valid) {
+                if (fingerprint != null) {
+                    long expiresAt = clock.now().getTime() + rejectedJwsCacheTtlMillis;
+                    rejectedJwsCache.put(fingerprint, Boolean.TRUE, expiresAt);
+                }
+                throw new SignatureException(SIGNATURE_MISMATCH_MSG);
+            }
+        }
 
-                    String msg = "JWT expired at " + expVal + ". Current time: " + nowVal + ", a difference of " +
-                        differenceMillis + " milliseconds.  Allowed clock skew: " +
-                        this.allowedClockSkewMillis + " milliseconds.";
-                    throw new ExpiredJwtException(header, claims, msg);
+        /**
+         * Reads the payload if it was deferred until after verification, validates the claims and returns the
+         * parsed JWT.  Must only be called after {@link #verify()} returns.
+         */
+        Jwt complete() throws ExpiredJwtException, MalformedJwtException {
+            if (deferPayload) { //the signature is valid, so the payload can now be trusted enough to deserialize:
+                if (lazyClaims instanceof PayloadClaims) {
+                    claims = lazyClaims; //still only loaded if and when needed
+                } else if (lazyClaims != null) {
+                    claims = lazyClaims.getClaims();
+                } else {
+                    if (payload == null) {
+                        payload = decodePayload(tokenized, compressionCodec);
+                    }
+                    if (isJsonObject(payload)) {
+                        claims = readClaims(payload);
+                    }
                 }
             }
 
-            //https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-30#section-4.1.5
-            //token MUST NOT be accepted before any specified nbf time:
-            Date nbf = claims.getNotBefore();
-            if (nbf != null) {
+            //since 0.3:
+            if (claims != null) {
+                validateTimestamps(header, claims);
+                validateExpectedClaims(header, claims);
+            }
 
-                long minTime = nowTime + this.allowedClockSkewMillis;
-                Date min = allowSkew ? new Date(minTime) : now;
-                if (min.before(nbf)) {
-                    String nbfVal = DateFormats.formatIso8601(nbf, false);
-                    String nowVal = DateFormats.formatIso8601(now, false);
+            Object body = claims;
+            if (body == null) {
+                body = plaintext != null ? plaintext : new String(payload, Strings.UTF_8);
+            }
 
-                    long differenceMillis = nbf.getTime() - minTime;
+            if (base64UrlEncodedDigest != null) {
+                return new DefaultJws<>((JwsHeader) header, body, base64UrlEncodedDigest);
+            } else {
+                return new DefaultJwt<>(header, body);
+            }
+        }
+    }
 
-                    String msg = "JWT must not be accepted before " + nbfVal + ". Current time: " + nowVal +
-                        ", a difference of " +
-                        differenceMillis + " milliseconds.  Allowed clock skew: " +
-                        this.allowedClockSkewMillis + " milliseconds.";
-                    throw new PrematureJwtException(header, claims, msg);
-                }
+    /**
+     * Asserts that the current time, adjusted by the allowed clock skew, is not on or after any {@code exp} time and
+     * not before any {@code nbf} time in the specified claims.
+     *
+     * @since 0.12.0
+     */
+    void validateTimestamps(Header header, Claims claims) {
+
+        final boolean allowSkew = this.allowedClockSkewMillis > 0;
+        final Date now = this.clock.now();
+        long nowTime = now.getTime();
+
+        //https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-30#section-4.1.4
+        //token MUST NOT be accepted on or after any specified exp time:
+        Date exp = claims.getExpiration();
+        if (exp != null) {
+
+            long maxTime = nowTime - this.allowedClockSkewMillis;
+            Date max = allowSkew ? new Date(maxTime) : now;
+            if (max.after(exp)) {
+                String expVal = DateFormats.formatIso8601(exp, false);
+                String nowVal = DateFormats.formatIso8601(now, false);
+
+                long differenceMillis = maxTime - exp.getTime();
+
+                String msg = "JWT expired at " + expVal + ". Current time: " + nowVal + ", a difference of " +
+                    differenceMillis + " milliseconds.  Allowed clock skew: " +
+                    this.allowedClockSkewMillis + " milliseconds.";
+                throw new ExpiredJwtException(header, claims, msg);
             }
+        }
+
+        //https://tools.ietf.org/html/draft-ietf-oauth-json-web-token-30#section-4.1.5
+        //token MUST NOT be accepted before any specified nbf time:
+        Date nbf = claims.getNotBefore();
+        if (nbf != null) {
+
+            long minTime = nowTime + this.allowedClockSkewMillis;
+            Date min = allowSkew ? new Date(minTime) : now;
+            if (min.before(nbf)) {
+                String nbfVal = DateFormats.formatIso8601(nbf, false);
+                String nowVal = DateFormats.formatIso8601(now, false);
 
-            validateExpectedClaims(header, claims);
+                long differenceMillis = nbf.getTime() - minTime;
+
+                String msg = "JWT must not be accepted before " + nbfVal + ". Current time: " + nowVal +
+                    ", a difference of " +
+                    differenceMillis + " milliseconds.  Allowed clock skew: " +
+                    this.allowedClockSkewMillis + " milliseconds.";
+                throw new PrematureJwtException(header, claims, msg);
+            }
         }
+    }
 
-        Object body = claims != null ? claims : payload;
+    private byte[] decodePayload(TokenizedJwt tokenized, CompressionCodec compressionCodec) {
+        byte[] bytes = decodeSegment(tokenized, tokenized.getPayloadOffset(), tokenized.getPayloadLength());
+        if (compressionCodec != null) {
+            bytes = compressionCodec.decompress(bytes);
+        }
+        return bytes;
+    }
 
-        if (base64UrlEncodedDigest != null) {
-            return new DefaultJws<>((JwsHeader) header, body, base64UrlEncodedDigest);
+    /**
+     * Decodes the specified range of the tokenized JWT.  If the configured decoder is a {@link BufferDecoder}, the
+     * range is decoded straight from the original characters (or bytes) instead of from a copy of them.
+     *
+     * @since 0.12.0
+     */
+    private byte[] decodeSegment(TokenizedJwt tokenized, int offset, int length) {
+        CharSequence jwt = tokenized.getJwt();
+        if (!(base64UrlDecoder instanceof BufferDecoder)) {
+            return base64UrlDecoder.decode(jwt.subSequence(offset, offset + length).toString());
+        }
+        BufferDecoder decoder = (BufferDecoder) base64UrlDecoder;
+        byte[] bytes;
+        if (jwt instanceof AsciiCharSequence) {
+            AsciiCharSequence ascii = (AsciiCharSequence) jwt;
+            int start = ascii.getOffset() + offset;
+            bytes = new byte[decoder.decodedLength(ascii.getBytes(), start, length)];
+            decoder.decode(ascii.getBytes(), start, length, bytes, 0);
         } else {
-            return new DefaultJwt<>(header, body);
+            bytes = new byte[decoder.decodedLength(jwt, offset, length)];
+            decoder.decode(jwt, offset, length, bytes, 0);
+        }
+        return bytes;
+    }
+
+    // '{' and '}' are single bytes in UTF-8, so there is no need to decode the payload to check for them:
+    private static boolean isJsonObject(byte[] payload) {
+        return payload.length > 0 && payload[0] == '{' && payload[payload.length - 1] == '}';
+    }
+
+    /**
+     * Returns the claims in the specified JSON object payload, deserialized immediately unless lazy claims are
+     * enabled and the payload can be scanned.
+     *
+     * @since 0.12.0
+     */
+    private Claims readClaims(byte[] payload) {
+        if (lazyClaimsEnabled) {
+            PayloadClaims claims = PayloadClaims.scan(this, payload);
+            if (claims != null) {
+                return claims;
+            }
+        }
+        return new DefaultClaims(readValue(payload));
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    private LazyClaims lazyClaims(final byte[] payload) {
+        if (lazyClaimsEnabled) {
+            PayloadClaims claims = PayloadClaims.scan(this, payload);
+            if (claims != null) {
+                return claims;
+            }
+        }
+        return new LazyClaims() {
+            @Override
+            protected Map<String, ?> load() {
+                return readValue(payload);
+            }
+        };
+    }
+
+    /**
+     * Caches the specified header parameters and what was resolved from them.  Headers with any non-scalar parameter
+     * values (such as an embedded {@code jwk}) are not cached, because every parse result gets its own shallow copy of
+     * the cached parameters and nested values could otherwise be modified by one caller and seen by another.
+     *
+     * @since 0.12.0
+     */
+    private void cacheHeader(String base64UrlEncodedHeader, Map<String, Object> params,
+                             CompressionCodec compressionCodec, SignatureAlgorithm algorithm) {
+        if (headerCache == null) {
+            return;
+        }
+        for (Object value : params.values()) {
+            if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+                return;
+            }
+        }
+        CachedHeader cached = new CachedHeader(params, compressionCodec, algorithm);
+        headerCache.put(base64UrlEncodedHeader, cached, BoundedCache.NEVER);
+    }
+
+    /**
+     * Decoded header parameters, never modified after construction, together with the compression codec and (for a
+     * JWS) the signature algorithm resolved from them.
+     *
+     * @since 0.12.0
+     */
+    private static final class CachedHeader {
+
+        private final Map<String, Object> params;
+        private final CompressionCodec compressionCodec;
+        private final SignatureAlgorithm algorithm; // null if not yet resolved
+
+        CachedHeader(Map<String, Object> params, CompressionCodec compressionCodec, SignatureAlgorithm algorithm) {
+            this.params = Collections.unmodifiableMap(params);
+            this.compressionCodec = compressionCodec;
+            this.algorithm = algorithm;
+        }
+    }
+
+    /**
+     * Identifies the signature validator for a specific algorithm and verification key.  Keys are compared with
+     * {@link Key#equals(Object)} so that equivalent keys (for example, a {@link SecretKeySpec} re-created from the
+     * same key bytes on every parse) share a validator.
+     *
+     * @since 0.12.0
+     */
+    private static final class ValidatorCacheKey {
+
+        private final SignatureAlgorithm algorithm;
+        private final Key key;
+        private final int hashCode;
+
+        ValidatorCacheKey(SignatureAlgorithm algorithm, Key key) {
+            this.algorithm = algorithm;
+            this.key = key;
+            this.hashCode = 31 * algorithm.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ValidatorCacheKey)) {
+                return false;
+            }
+            ValidatorCacheKey other = (ValidatorCacheKey) obj;
+            return algorithm == other.algorithm && key.equals(other.key);
         }
     }
 
@@ -525,6 +933,13 @@ public class DefaultJwtParser implements JwtParser {
         }
     }
 
+    /**
+     * @since 0.12.0
+     */
+    Clock getClock() {
+        return this.clock;
+    }
+
     /*
      * @since 0.5 mostly to allow testing overrides
      */
@@ -538,8 +953,15 @@ public class DefaultJwtParser implements JwtParser {
         Assert.notNull(handler, "JwtHandler argument cannot be null.");
         Assert.hasText(compact, "JWT String argument cannot be null or empty.");
 
-        Jwt jwt = parse(compact);
+        return handle(parse(compact), handler);
+    }
 
+    /**
+     * Invokes the {@code handler} method that corresponds to the type of the specified parsed JWT.
+     *
+     * @since 0.12.0
+     */
+    static <T> T handle(Jwt jwt, JwtHandler<T> handler) {
         if (jwt instanceof Jws) {
             Jws jws = (Jws) jwt;
             Object body = jws.getBody();
@@ -606,12 +1028,123 @@ public class DefaultJwtParser implements JwtParser {
         });
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public List<ParseResult<Jws<Claims>>> parseAll(Collection<String> claimsJwss) {
+        return BatchParser.parseAll(this, claimsJwss);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public <T> List<ParseResult<T>> parseAll(Collection<String> jwts, JwtHandler<T> handler) {
+        return BatchParser.parseAll(this, jwts, handler);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public Future<Jws<Claims>> parseClaimsJwsAsync(String claimsJws) {
+        return parseClaimsJwsAsync(claimsJws, null);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public Future<Jws<Claims>> parseClaimsJwsAsync(String claimsJws, ParseCallback<Jws<Claims>> callback) {
+        return asyncParser.parseClaimsJws(this, claimsJws, callback);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public AsyncParseStatistics getAsyncParseStatistics() {
+        return asyncParser;
+    }
+
+    /**
+     * Always returns {@code null}: verified JWS caching is only available to parsers created via
+     * {@link io.jsonwebtoken.JwtParserBuilder#build()}.
+     *
+     * @since 0.12.0
+     */
+    @Override
+    public CacheStatistics getVerifiedJwsCacheStatistics() {
+        return null;
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public CacheStatistics getRejectedJwsCacheStatistics() {
+        return rejectedJwsCache;
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    @Override
+    public CacheStatistics getHeaderCacheStatistics() {
+        return headerCache;
+    }
+
+    /**
+     * Deserializes the specified JSON.  As of 0.12.0, the parser deserializes decoded header and payload bytes
+     * directly and only decodes them into a {@code String} for this method if a subclass overrides it.
+     *
+     * @param val the JSON to deserialize
+     * @return the deserialized JSON object
+     * @throws MalformedJwtException if {@code val} cannot be deserialized
+     */
     protected Map<String, ?> readValue(String val) {
+        return deserialize(val.getBytes(Strings.UTF_8));
+    }
+
+    /**
+     * Deserializes the specified UTF-8 JSON bytes, through {@link #readValue(String)} if a subclass overrides it.
+     *
+     * @since 0.12.0
+     */
+    Map<String, ?> readValue(byte[] bytes) {
+        if (readValueOverridden) {
+            return readValue(new String(bytes, Strings.UTF_8));
+        }
+        return deserialize(bytes);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    private static boolean isReadValueOverridden(Class<?> clazz) {
+        for (Class<?> c = clazz; c != DefaultJwtParser.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("readValue", String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden here, try the superclass
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deserializes the specified UTF-8 JSON bytes.  The bytes are only decoded into a {@code String} if they cannot
+     * be deserialized, for the exception message.
+     *
+     * @since 0.12.0
+     */
+    private Map<String, ?> deserialize(byte[] bytes) {
         try {
-            byte[] bytes = val.getBytes(Strings.UTF_8);
             return deserializer.deserialize(bytes);
         } catch (DeserializationException e) {
+            String val = new String(bytes, Strings.UTF_8);
             throw new MalformedJwtException("Unable to read JSON value: " + val, e);
         }
     }
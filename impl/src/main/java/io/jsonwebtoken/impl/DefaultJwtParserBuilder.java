@@ -25,12 +25,14 @@ import io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver;
 import io.jsonwebtoken.io.Decoder;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.io.ProjectingDeserializer;
 import io.jsonwebtoken.lang.Assert;
 import io.jsonwebtoken.impl.lang.Services;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * @since 0.11.0
@@ -39,6 +41,9 @@ public class DefaultJwtParserBuilder implements JwtParserBuilder {
 
     private static final int MILLISECONDS_PER_SECOND = 1000;
 
+    // since 0.12.0: bounds how long a cached JWS outlives a key revocation when the JWS has no (or a distant) exp:
+    private static final long DEFAULT_VERIFIED_JWS_MAX_AGE_SECONDS = 300;
+
     private byte[] keyBytes;
 
     private Key key;
@@ -57,6 +62,21 @@ public class DefaultJwtParserBuilder implements JwtParserBuilder {
 
     private long allowedClockSkewMillis = 0;
 
+    private boolean verifySignatureFirst = false;
+
+    private boolean lazyClaims = false;
+
+    private int verifiedJwsCacheSize = 0;
+
+    private long verifiedJwsCacheMaxAgeMillis = 0;
+
+    private int rejectedJwsCacheSize = 0;
+
+    private long rejectedJwsCacheTtlMillis = 0;
+
+    private int headerCacheSize = 0;
+
+    private Executor asyncExecutor; // null to use AsyncParser's default
 
     @Override
     public JwtParserBuilder deserializeJsonWith(Deserializer<Map<String, ?>> deserializer) {
@@ -171,6 +191,56 @@ public class DefaultJwtParserBuilder implements JwtParserBuilder {
     }
 
     @Override
+    public JwtParserBuilder setVerifySignatureFirst(boolean verifySignatureFirst) {
+        this.verifySignatureFirst = verifySignatureFirst;
+        return this;
+    }
+
+    @Override
+    public JwtParserBuilder setLazyClaims(boolean lazyClaims) {
+        this.lazyClaims = lazyClaims;
+        return this;
+    }
+
+    @Override
+    public JwtParserBuilder setVerifiedJwsCacheSize(int maxSize) {
+        return setVerifiedJwsCache(maxSize, DEFAULT_VERIFIED_JWS_MAX_AGE_SECONDS);
+    }
+
+    @Override
+    public JwtParserBuilder setVerifiedJwsCache(int maxSize, long maxAgeSeconds) {
+        Assert.isTrue(maxSize >= 0, "maxSize cannot be negative.");
+        Assert.isTrue(maxSize == 0 || maxAgeSeconds > 0, "maxAgeSeconds must be greater than zero.");
+        this.verifiedJwsCacheSize = maxSize;
+        this.verifiedJwsCacheMaxAgeMillis = maxAgeSeconds * MILLISECONDS_PER_SECOND;
+        return this;
+    }
+
+    @Override
+    public JwtParserBuilder setRejectedJwsCache(int maxSize, long ttlSeconds) {
+        Assert.isTrue(maxSize >= 0, "maxSize cannot be negative.");
+        Assert.isTrue(maxSize == 0 || ttlSeconds > 0, "ttlSeconds must be greater than zero.");
+        this.rejectedJwsCacheSize = maxSize;
+        this.rejectedJwsCacheTtlMillis = ttlSeconds * MILLISECONDS_PER_SECOND;
+        return this;
+    }
+
+    @Override
+    public JwtParserBuilder setHeaderCacheSize(int maxSize) {
+        Assert.isTrue(maxSize >= 0, "maxSize cannot be negative.");
+        this.headerCacheSize = maxSize;
+        return this;
+    }
+
+    @Override
+    public JwtParserBuilder setAsyncExecutor(Executor executor) {
+        Assert.notNull(executor, "executor cannot be null.");
+        this.asyncExecutor = executor;
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
     public JwtParser build() {
 
         // Only lookup the deserializer IF it is null. It is possible a Deserializer implementation was set
@@ -180,15 +250,32 @@ public class DefaultJwtParserBuilder implements JwtParserBuilder {
             this.deserializer = Services.loadFirst(Deserializer.class);
         }
 
-        return new ImmutableJwtParser(
-                new DefaultJwtParser(signingKeyResolver,
-                                     key,
-                                     keyBytes,
-                                     clock,
-                                     allowedClockSkewMillis,
-                                     expectedClaims,
-                                     base64UrlDecoder,
-                                     deserializer,
-                                     compressionCodecResolver));
+        // since 0.12.0: a projecting deserializer must not skip any claims the parser asserts:
+        Deserializer<Map<String, ?>> deserializer = this.deserializer;
+        if (deserializer instanceof ProjectingDeserializer && !expectedClaims.isEmpty()) {
+            deserializer = ((ProjectingDeserializer<Map<String, ?>>) deserializer).including(expectedClaims.keySet());
+        }
+
+        DefaultJwtParser jwtParser = new DefaultJwtParser(signingKeyResolver,
+                                                          key,
+                                                          keyBytes,
+                                                          clock,
+                                                          allowedClockSkewMillis,
+                                                          expectedClaims,
+                                                          base64UrlDecoder,
+                                                          deserializer,
+                                                          compressionCodecResolver,
+                                                          verifySignatureFirst,
+                                                          lazyClaims,
+                                                          rejectedJwsCacheSize,
+                                                          rejectedJwsCacheTtlMillis,
+                                                          headerCacheSize);
+
+        VerifiedJwsCache verifiedJwsCache = null;
+        if (verifiedJwsCacheSize > 0) {
+            verifiedJwsCache = new VerifiedJwsCache(jwtParser, verifiedJwsCacheSize, verifiedJwsCacheMaxAgeMillis);
+        }
+
+        return new ImmutableJwtParser(jwtParser, verifiedJwsCache, asyncExecutor);
     }
 }
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.CompressionCodec;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtTemplate;
+import io.jsonwebtoken.impl.crypto.JwtSigner;
+import io.jsonwebtoken.io.Encoder;
+import io.jsonwebtoken.io.SerializationException;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.lang.Strings;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A {@link JwtTemplate} that keeps the builder's header pre-encoded and its static claims pre-serialized as a JSON
+ * fragment, and writes only the per-token claims into the claims JSON.
+ *
+ * <p>Simple per-token values are written directly; any string the configured {@link Serializer} might escape is
+ * serialized by it on its own and spliced in, so the output is identical to {@link DefaultJwtBuilder#compact()}.  If
+ * the serializer's output cannot be spliced at all (for example because it reorders or indents members), every token's
+ * claims are serialized as a whole instead, which still saves serializing and encoding the header.</p>
+ *
+ * @since 0.12.0
+ */
+final class DefaultJwtTemplate implements JwtTemplate {
+
+    static final String[] DYNAMIC_CLAIMS = {Claims.SUBJECT, Claims.ISSUED_AT, Claims.EXPIRATION, Claims.ID};
+
+    private static final byte[][] NAMES = new byte[DYNAMIC_CLAIMS.length][];
+
+    static {
+        for (int i = 0; i < DYNAMIC_CLAIMS.length; i++) {
+            NAMES[i] = ('"' + DYNAMIC_CLAIMS[i] + "\":").getBytes(Strings.UTF_8);
+        }
+    }
+
+    private final Serializer<Map<String, ?>> serializer;
+    private final Encoder<byte[], String> base64UrlEncoder;
+    private final String encodedHeader; // including the trailing separator
+    private final Map<String, Object> staticClaims;
+    private final byte[] staticFragment; // the static claims' JSON without the enclosing braces, null if not spliceable
+    private final CompressionCodec compressionCodec;
+    private final JwtSigner signer; // null if unsigned
+    private final int encodedSignatureLength;
+
+    DefaultJwtTemplate(Serializer<Map<String, ?>> serializer, Encoder<byte[], String> base64UrlEncoder,
+                       String encodedHeader, Map<String, Object> staticClaims, CompressionCodec compressionCodec,
+                       JwtSigner signer, int encodedSignatureLength) {
+        this.serializer = serializer;
+        this.base64UrlEncoder = base64UrlEncoder;
+        this.encodedHeader = encodedHeader;
+        this.staticClaims = staticClaims;
+        this.compressionCodec = compressionCodec;
+        this.signer = signer;
+        this.encodedSignatureLength = encodedSignatureLength;
+        this.staticFragment = spliceableFragment();
+    }
+
+    /**
+     * Returns the static claims' JSON without its braces if spliced claims JSON matches the serializer's own output
+     * for both directly written and separately serialized values, otherwise {@code null}.
+     */
+    private byte[] spliceableFragment() {
+        byte[] json = serialize(staticClaims);
+        if (json.length < 2 || json[0] != '{' || json[json.length - 1] != '}') {
+            return null;
+        }
+        byte[] fragment = Arrays.copyOfRange(json, 1, json.length - 1);
+        Date date = new Date(1000L);
+        String[][] samples = {{"joe", "id"}, {"</\"é", " '&"}};
+        for (String[] sample : samples) {
+            byte[] spliced = splice(fragment, sample[0], date, date, sample[1]);
+            if (spliced == null || !Arrays.equals(spliced, serialize(claims(sample[0], date, date, sample[1])))) {
+                return null;
+            }
+        }
+        return fragment;
+    }
+
+    @Override
+    public String compact(String subject, Date issuedAt, Date expiration, String id) {
+
+        if (staticClaims.isEmpty() && subject == null && issuedAt == null && expiration == null && id == null) {
+            throw new IllegalStateException("Either 'payload' or 'claims' must be specified.");
+        }
+
+        byte[] bytes = null;
+        if (staticFragment != null) {
+            bytes = splice(staticFragment, subject, issuedAt, expiration, id);
+        }
+        if (bytes == null) {
+            bytes = serialize(claims(subject, issuedAt, expiration, id));
+        }
+
+        return assemble(bytes);
+    }
+
+    /**
+     * Creates a compact JWT whose claims are this template's static claims plus the specified claims, exactly as a
+     * builder would after {@link io.jsonwebtoken.JwtBuilder#addClaims(Map) addClaims(claimSet)}.  Used by
+     * {@link DefaultJwtBuilder#compactAll(java.util.Iterator)}.
+     */
+    String compact(Map<String, ?> claimSet) {
+        DefaultClaims claims = new DefaultClaims(staticClaims);
+        if (claimSet != null) {
+            claims.putAll(claimSet);
+        }
+        if (claims.isEmpty()) {
+            throw new IllegalStateException("Either 'payload' or 'claims' must be specified.");
+        }
+        return assemble(serialize(claims));
+    }
+
+    private String assemble(byte[] bytes) {
+
+        if (compressionCodec != null) {
+            bytes = compressionCodec.compress(bytes);
+        }
+
+        int capacity = encodedHeader.length() + DefaultJwtBuilder.encodedLength(bytes.length) + 1 +
+            encodedSignatureLength;
+        AsciiStringBuilder jwt = new AsciiStringBuilder(capacity);
+
+        jwt.append(encodedHeader).appendEncoded(base64UrlEncoder, bytes);
+
+        if (signer != null) {
+            String base64UrlSignature = DefaultJwtBuilder.sign(signer, jwt);
+            jwt.append(JwtParser.SEPARATOR_CHAR).append(base64UrlSignature);
+        } else {
+            jwt.append(JwtParser.SEPARATOR_CHAR);
+        }
+
+        return jwt.toString();
+    }
+
+    private Map<String, Object> claims(String subject, Date issuedAt, Date expiration, String id) {
+        DefaultClaims claims = new DefaultClaims(staticClaims);
+        claims.setSubject(subject);
+        claims.setIssuedAt(issuedAt);
+        claims.setExpiration(expiration);
+        claims.setId(id);
+        return claims;
+    }
+
+    private byte[] serialize(Map<String, ?> claims) {
+        try {
+            return serializer.serialize(claims);
+        } catch (SerializationException e) {
+            throw new IllegalArgumentException("Unable to serialize claims object to json: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the claims JSON with the per-token claims appended to the static fragment, or {@code null} if a value
+     * could not be spliced.
+     */
+    private byte[] splice(byte[] fragment, String subject, Date issuedAt, Date expiration, String id) {
+        Object[] values = {subject, seconds(issuedAt), seconds(expiration), id};
+        JsonWriter w = new JsonWriter(fragment.length + 128);
+        w.write((byte) '{').write(fragment);
+        boolean first = fragment.length == 0;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                w.write((byte) ',');
+            }
+            first = false;
+            if (value instanceof Long) {
+                w.write(NAMES[i]).writeLong((Long) value);
+            } else if (!w.write(NAMES[i]).writeSimpleString((String) value)) {
+                byte[] member = serialize(Collections.singletonMap(DYNAMIC_CLAIMS[i], value));
+                if (member.length < 2 || member[0] != '{' || member[member.length - 1] != '}') {
+                    return null;
+                }
+                w.rewind(NAMES[i].length).write(member, 1, member.length - 2);
+            }
+        }
+        return w.write((byte) '}').toByteArray();
+    }
+
+    // JwtMap stores dates as seconds since the epoch:
+    private static Long seconds(Date date) {
+        return date != null ? date.getTime() / 1000 : null;
+    }
+
+    /**
+     * A minimal growable JSON byte buffer.
+     */
+    private static final class JsonWriter {
+
+        private byte[] buf;
+        private int count;
+
+        JsonWriter(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            if (minCapacity > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(minCapacity, buf.length * 2));
+            }
+        }
+
+        JsonWriter write(byte b) {
+            ensureCapacity(count + 1);
+            buf[count++] = b;
+            return this;
+        }
+
+        JsonWriter write(byte[] b) {
+            return write(b, 0, b.length);
+        }
+
+        JsonWriter write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+            return this;
+        }
+
+        JsonWriter writeLong(long value) {
+            String s = Long.toString(value);
+            int n = s.length();
+            ensureCapacity(count + n);
+            for (int i = 0; i < n; i++) {
+                buf[count++] = (byte) s.charAt(i);
+            }
+            return this;
+        }
+
+        /**
+         * Writes the string as a quoted JSON string if it consists only of printable ASCII characters that no
+         * serializer escapes, otherwise writes nothing and returns {@code false}.
+         */
+        boolean writeSimpleString(String s) {
+            int n = s.length();
+            for (int i = 0; i < n; i++) {
+                char c = s.charAt(i);
+                if (c < 0x20 || c > 0x7e || c == '"' || c == '\\' || c == '/' || c == '<' || c == '>' ||
+                    c == '&' || c == '=' || c == '\'') {
+                    return false;
+                }
+            }
+            ensureCapacity(count + n + 2);
+            buf[count++] = '"';
+            for (int i = 0; i < n; i++) {
+                buf[count++] = (byte) s.charAt(i);
+            }
+            buf[count++] = '"';
+            return true;
+        }
+
+        JsonWriter rewind(int n) {
+            count -= n;
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, count);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.ParseResult;
+
+/**
+ * @since 0.12.0
+ */
+final class DefaultParseResult<T> implements ParseResult<T> {
+
+    private final String jwt;
+    private final T value;
+    private final JwtException exception;
+
+    private DefaultParseResult(String jwt, T value, JwtException exception) {
+        this.jwt = jwt;
+        this.value = value;
+        this.exception = exception;
+    }
+
+    static <T> DefaultParseResult<T> success(String jwt, T value) {
+        return new DefaultParseResult<>(jwt, value, null);
+    }
+
+    static <T> DefaultParseResult<T> failure(String jwt, JwtException exception) {
+        return new DefaultParseResult<>(jwt, null, exception);
+    }
+
+    @Override
+    public String getJwt() {
+        return jwt;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    @Override
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public JwtException getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "success: " + value : "failure: " + exception;
+    }
+}
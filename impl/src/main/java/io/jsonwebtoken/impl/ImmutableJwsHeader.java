@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.JwsHeader;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only {@link JwsHeader} view of a header that has not been (and may never be) verified.  All mutator methods
+ * throw {@link UnsupportedOperationException}.
+ *
+ * @since 0.12.0
+ */
+final class ImmutableJwsHeader implements JwsHeader<ImmutableJwsHeader> {
+
+    private static final String IMMUTABLE_MSG = "Headers returned by JwtParser.peekHeader are unverified and " +
+        "cannot be modified.";
+
+    private final DefaultJwsHeader header;
+
+    ImmutableJwsHeader(Map<String, Object> map) {
+        this.header = new DefaultJwsHeader(map);
+    }
+
+    private static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException(IMMUTABLE_MSG);
+    }
+
+    @Override
+    public String getType() {
+        return header.getType();
+    }
+
+    @Override
+    public ImmutableJwsHeader setType(String typ) {
+        throw immutable();
+    }
+
+    @Override
+    public String getContentType() {
+        return header.getContentType();
+    }
+
+    @Override
+    public ImmutableJwsHeader setContentType(String cty) {
+        throw immutable();
+    }
+
+    @Override
+    public String getCompressionAlgorithm() {
+        return header.getCompressionAlgorithm();
+    }
+
+    @Override
+    public ImmutableJwsHeader setCompressionAlgorithm(String zip) {
+        throw immutable();
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return header.getAlgorithm();
+    }
+
+    @Override
+    public ImmutableJwsHeader setAlgorithm(String alg) {
+        throw immutable();
+    }
+
+    @Override
+    public String getKeyId() {
+        return header.getKeyId();
+    }
+
+    @Override
+    public ImmutableJwsHeader setKeyId(String kid) {
+        throw immutable();
+    }
+
+    @Override
+    public int size() {
+        return header.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return header.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return header.containsKey(o);
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return header.containsValue(o);
+    }
+
+    @Override
+    public Object get(Object o) {
+        return header.get(o);
+    }
+
+    @Override
+    public Object put(String s, Object o) {
+        throw immutable();
+    }
+
+    @Override
+    public Object remove(Object o) {
+        throw immutable();
+    }
+
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        throw immutable();
+    }
+
+    @Override
+    public void clear() {
+        throw immutable();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(header.keySet());
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return Collections.unmodifiableCollection(header.values());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.unmodifiableMap(header).entrySet();
+    }
+
+    @Override
+    public String toString() {
+        return header.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return header.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return header.equals(obj);
+    }
+}
@@ -15,25 +15,38 @@
  */
 package io.jsonwebtoken.impl;
 
+import io.jsonwebtoken.AsyncParseStatistics;
+import io.jsonwebtoken.CacheStatistics;
+import io.jsonwebtoken.ClaimJwtException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Clock;
 import io.jsonwebtoken.CompressionCodecResolver;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Header;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwt;
 import io.jsonwebtoken.JwtHandler;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.ParseCallback;
+import io.jsonwebtoken.ParseResult;
 import io.jsonwebtoken.SigningKeyResolver;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoder;
 import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.lang.Assert;
+import io.jsonwebtoken.lang.Strings;
 import io.jsonwebtoken.security.SignatureException;
 
+import java.nio.ByteBuffer;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * This JwtParser implementation exists as a stop gap until the mutable methods are removed from JwtParser.
@@ -44,8 +57,21 @@ class ImmutableJwtParser implements JwtParser {
 
     private final JwtParser jwtParser;
 
+    private final VerifiedJwsCache verifiedJwsCache;
+
+    private final AsyncParser asyncParser;
+
     ImmutableJwtParser(JwtParser jwtParser) {
+        this(jwtParser, null, null);
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    ImmutableJwtParser(JwtParser jwtParser, VerifiedJwsCache verifiedJwsCache, Executor asyncExecutor) {
         this.jwtParser = jwtParser;
+        this.verifiedJwsCache = verifiedJwsCache;
+        this.asyncParser = new AsyncParser(asyncExecutor);
     }
 
     private IllegalStateException doNotMutate() {
@@ -145,12 +171,36 @@ class ImmutableJwtParser implements JwtParser {
 
     @Override
     public Jwt parse(String jwt) throws ExpiredJwtException, MalformedJwtException, SignatureException, IllegalArgumentException {
-        return this.jwtParser.parse(jwt);
+        if (this.verifiedJwsCache == null || !Strings.hasText(jwt)) {
+            return this.jwtParser.parse(jwt);
+        }
+        TokenFingerprint fingerprint = TokenFingerprint.of(jwt);
+        Jwt result = this.verifiedJwsCache.get(fingerprint);
+        if (result == null) {
+            result = this.jwtParser.parse(jwt);
+            this.verifiedJwsCache.put(fingerprint, result);
+        }
+        return result;
+    }
+
+    @Override
+    public Jwt parse(byte[] jwt, int offset, int length) throws ExpiredJwtException, MalformedJwtException, SignatureException, IllegalArgumentException {
+        return this.jwtParser.parse(jwt, offset, length);
+    }
+
+    @Override
+    public Jwt parseAscii(ByteBuffer jwt) throws ExpiredJwtException, MalformedJwtException, SignatureException, IllegalArgumentException {
+        return this.jwtParser.parseAscii(jwt);
     }
 
     @Override
     public <T> T parse(String jwt, JwtHandler<T> handler) throws ExpiredJwtException, UnsupportedJwtException, MalformedJwtException, SignatureException, IllegalArgumentException {
-        return this.jwtParser.parse(jwt, handler);
+        if (this.verifiedJwsCache == null) {
+            return this.jwtParser.parse(jwt, handler);
+        }
+        Assert.notNull(handler, "JwtHandler argument cannot be null.");
+        Assert.hasText(jwt, "JWT String argument cannot be null or empty.");
+        return DefaultJwtParser.handle(parse(jwt), handler);
     }
 
     @Override
@@ -170,6 +220,79 @@ class ImmutableJwtParser implements JwtParser {
 
     @Override
     public Jws<Claims> parseClaimsJws(String claimsJws) throws ExpiredJwtException, UnsupportedJwtException, MalformedJwtException, SignatureException, IllegalArgumentException {
-        return this.jwtParser.parseClaimsJws(claimsJws);
+        if (this.verifiedJwsCache == null || !Strings.hasText(claimsJws)) {
+            return this.jwtParser.parseClaimsJws(claimsJws);
+        }
+        TokenFingerprint fingerprint = TokenFingerprint.of(claimsJws);
+        Jws<Claims> result = this.verifiedJwsCache.get(fingerprint);
+        if (result == null) {
+            result = this.jwtParser.parseClaimsJws(claimsJws);
+            this.verifiedJwsCache.put(fingerprint, result);
+        }
+        return result;
+    }
+
+    @Override
+    public JwsHeader peekHeader(String jwt) throws MalformedJwtException, IllegalArgumentException {
+        return this.jwtParser.peekHeader(jwt);
+    }
+
+    @Override
+    public JwsHeader peekHeader(byte[] jwt, int offset, int length) throws MalformedJwtException, IllegalArgumentException {
+        return this.jwtParser.peekHeader(jwt, offset, length);
+    }
+
+    @Override
+    public List<ParseResult<Jws<Claims>>> parseAll(Collection<String> claimsJwss) {
+        return BatchParser.parseAll(this, claimsJwss); // parse through this instance to use the verified JWS cache
+    }
+
+    @Override
+    public <T> List<ParseResult<T>> parseAll(Collection<String> jwts, JwtHandler<T> handler) {
+        return BatchParser.parseAll(this, jwts, handler);
+    }
+
+    @Override
+    public Future<Jws<Claims>> parseClaimsJwsAsync(String claimsJws) {
+        return parseClaimsJwsAsync(claimsJws, null);
+    }
+
+    @Override
+    public Future<Jws<Claims>> parseClaimsJwsAsync(String claimsJws, ParseCallback<Jws<Claims>> callback) {
+        if (this.verifiedJwsCache == null || !Strings.hasText(claimsJws)) {
+            return this.asyncParser.parseClaimsJws(this.jwtParser, claimsJws, callback);
+        }
+        // a cache lookup is cheap, so it always happens on the calling thread:
+        TokenFingerprint fingerprint = TokenFingerprint.of(claimsJws);
+        Jws<Claims> cached;
+        try {
+            cached = this.verifiedJwsCache.get(fingerprint);
+        } catch (ClaimJwtException e) { // cached, but no longer valid
+            return this.asyncParser.fail(claimsJws, e, callback);
+        }
+        if (cached != null) {
+            return this.asyncParser.complete(claimsJws, cached, callback);
+        }
+        return this.asyncParser.parseClaimsJws(this.jwtParser, claimsJws, this.verifiedJwsCache, fingerprint, callback);
+    }
+
+    @Override
+    public AsyncParseStatistics getAsyncParseStatistics() {
+        return this.asyncParser;
+    }
+
+    @Override
+    public CacheStatistics getVerifiedJwsCacheStatistics() {
+        return this.verifiedJwsCache != null ? this.verifiedJwsCache.getStatistics() : null;
+    }
+
+    @Override
+    public CacheStatistics getRejectedJwsCacheStatistics() {
+        return this.jwtParser.getRejectedJwsCacheStatistics();
+    }
+
+    @Override
+    public CacheStatistics getHeaderCacheStatistics() {
+        return this.jwtParser.getHeaderCacheStatistics();
     }
 }
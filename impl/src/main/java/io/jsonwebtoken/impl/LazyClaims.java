@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link Claims} view whose backing map is only loaded (typically deserialized from JSON) the first time any
+ * claim is accessed.  Subclasses implement {@link #load()}; any exception it throws propagates to the caller that
+ * triggered the load, and the load will be attempted again on the next access.
+ *
+ * <p>Like {@link DefaultClaims}, this class is not safe for concurrent modification.  If two threads trigger the
+ * load at the same time, each may load its own copy of the claims, but both will see fully loaded claims.</p>
+ *
+ * @since 0.12.0
+ */
+abstract class LazyClaims implements Claims {
+
+    private DefaultClaims claims;
+
+    /**
+     * Returns the claims map that backs this view.
+     *
+     * @return the claims map that backs this view.
+     */
+    protected abstract Map<String, ?> load();
+
+    /**
+     * Returns {@code true} if the backing claims have already been loaded, {@code false} otherwise.
+     *
+     * @return {@code true} if the backing claims have already been loaded, {@code false} otherwise.
+     */
+    boolean isLoaded() {
+        return claims != null;
+    }
+
+    /**
+     * Returns the fully materialized claims, loading them first if necessary.
+     *
+     * @return the fully materialized claims.
+     */
+    DefaultClaims getClaims() {
+        if (claims == null) {
+            claims = new DefaultClaims(load());
+        }
+        return claims;
+    }
+
+    @Override
+    public String getIssuer() {
+        return getClaims().getIssuer();
+    }
+
+    @Override
+    public Claims setIssuer(String iss) {
+        getClaims().setIssuer(iss);
+        return this;
+    }
+
+    @Override
+    public String getSubject() {
+        return getClaims().getSubject();
+    }
+
+    @Override
+    public Claims setSubject(String sub) {
+        getClaims().setSubject(sub);
+        return this;
+    }
+
+    @Override
+    public String getAudience() {
+        return getClaims().getAudience();
+    }
+
+    @Override
+    public Claims setAudience(String aud) {
+        getClaims().setAudience(aud);
+        return this;
+    }
+
+    @Override
+    public Date getExpiration() {
+        return getClaims().getExpiration();
+    }
+
+    @Override
+    public Claims setExpiration(Date exp) {
+        getClaims().setExpiration(exp);
+        return this;
+    }
+
+    @Override
+    public Date getNotBefore() {
+        return getClaims().getNotBefore();
+    }
+
+    @Override
+    public Claims setNotBefore(Date nbf) {
+        getClaims().setNotBefore(nbf);
+        return this;
+    }
+
+    @Override
+    public Date getIssuedAt() {
+        return getClaims().getIssuedAt();
+    }
+
+    @Override
+    public Claims setIssuedAt(Date iat) {
+        getClaims().setIssuedAt(iat);
+        return this;
+    }
+
+    @Override
+    public String getId() {
+        return getClaims().getId();
+    }
+
+    @Override
+    public Claims setId(String jti) {
+        getClaims().setId(jti);
+        return this;
+    }
+
+    @Override
+    public <T> T get(String claimName, Class<T> requiredType) {
+        return getClaims().get(claimName, requiredType);
+    }
+
+    @Override
+    public int size() {
+        return getClaims().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getClaims().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object o) {
+        return getClaims().containsKey(o);
+    }
+
+    @Override
+    public boolean containsValue(Object o) {
+        return getClaims().containsValue(o);
+    }
+
+    @Override
+    public Object get(Object o) {
+        return getClaims().get(o);
+    }
+
+    @Override
+    public Object put(String s, Object o) {
+        return getClaims().put(s, o);
+    }
+
+    @Override
+    public Object remove(Object o) {
+        return getClaims().remove(o);
+    }
+
+    @SuppressWarnings("NullableProblems")
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        getClaims().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        getClaims().clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return getClaims().keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return getClaims().values();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return getClaims().entrySet();
+    }
+
+    @Override
+    public String toString() {
+        return getClaims().toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClaims().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return getClaims().equals(obj);
+    }
+}
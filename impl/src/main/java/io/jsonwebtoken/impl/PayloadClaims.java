@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.lang.Strings;
+
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * {@link LazyClaims} backed by the decoded UTF-8 bytes of a JSON payload that is only deserialized when a claim other than {@code exp},
+ * {@code nbf}, {@code iat}, {@code iss}, {@code sub} or {@code jti} is accessed.
+ *
+ * <p>Instances are created by {@link #scan(DefaultJwtParser, byte[])}, which makes a single, non-allocating pass over
+ * the JSON to check that it is well-formed and to extract those registered claims from the top-level object.  If a
+ * registered claim is not a plain JSON number (for the time claims) or an unescaped JSON string (for the others), or
+ * appears more than once, no instance is created and the caller should deserialize the payload as usual.</p>
+ *
+ * @since 0.12.0
+ */
+final class PayloadClaims extends LazyClaims {
+
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    // every scanned claim name has exactly this many characters:
+    private static final int NAME_LENGTH = 3;
+
+    private static final String[] NAMES = {
+        Claims.EXPIRATION, Claims.NOT_BEFORE, Claims.ISSUED_AT, Claims.ISSUER, Claims.SUBJECT, Claims.ID
+    };
+
+    private static final int EXP = 0;
+    private static final int NBF = 1;
+    private static final int IAT = 2;
+    private static final int ISS = 3;
+    private static final int SUB = 4;
+    private static final int JTI = 5;
+
+    // larger values would overflow when converted to milliseconds, so leave them to the deserializer:
+    private static final int MAX_SECONDS_DIGITS = 15;
+
+    // deeper payloads are left to the deserializer instead of risking a stack overflow here:
+    private static final int MAX_DEPTH = 256;
+
+    private final DefaultJwtParser parser;
+
+    private final byte[] payload;
+
+    // Long seconds for the time claims, Strings for the others, or null if the claim is absent:
+    private final Object[] values;
+
+    private PayloadClaims(DefaultJwtParser parser, byte[] payload, Object[] values) {
+        this.parser = parser;
+        this.payload = payload;
+        this.values = values;
+    }
+
+    /**
+     * Returns claims backed by the specified JSON object payload, or {@code null} if the payload is malformed or its
+     * registered claims cannot be extracted without deserializing it.
+     *
+     * @param parser  the parser whose deserializer will be used if the claims need to be loaded
+     * @param payload the decoded UTF-8 JSON payload bytes, which must not be modified afterwards
+     * @return claims backed by the payload, or {@code null} if the payload must be deserialized immediately.
+     */
+    static PayloadClaims scan(DefaultJwtParser parser, byte[] payload) {
+        Object[] values = new Object[NAMES.length];
+        return new Scanner(payload, values).scanObject() ? new PayloadClaims(parser, payload, values) : null;
+    }
+
+    @Override
+    protected Map<String, ?> load() {
+        return parser.readValue(payload);
+    }
+
+    /**
+     * Returns new, not yet loaded claims backed by the same payload, regardless of whether these claims have been
+     * loaded or modified.
+     *
+     * @return new, not yet loaded claims backed by the same payload.
+     */
+    PayloadClaims copy() {
+        return new PayloadClaims(parser, payload, values);
+    }
+
+    private static Date toDate(Object seconds) {
+        return seconds != null ? new Date((Long) seconds * 1000) : null;
+    }
+
+    @Override
+    public Date getExpiration() {
+        return isLoaded() ? super.getExpiration() : toDate(values[EXP]);
+    }
+
+    @Override
+    public Date getNotBefore() {
+        return isLoaded() ? super.getNotBefore() : toDate(values[NBF]);
+    }
+
+    @Override
+    public Date getIssuedAt() {
+        return isLoaded() ? super.getIssuedAt() : toDate(values[IAT]);
+    }
+
+    @Override
+    public String getIssuer() {
+        return isLoaded() ? super.getIssuer() : (String) values[ISS];
+    }
+
+    @Override
+    public String getSubject() {
+        return isLoaded() ? super.getSubject() : (String) values[SUB];
+    }
+
+    @Override
+    public String getId() {
+        return isLoaded() ? super.getId() : (String) values[JTI];
+    }
+
+    /**
+     * A minimal RFC 8259 syntax checker that records the scanned registered claims of the top-level object as it
+     * goes.  Every method returns {@code false} as soon as it finds something it cannot (or should not) handle.
+     */
+    private static final class Scanner {
+
+        private final byte[] json;
+        private final int length;
+        private final Object[] values;
+
+        private int pos;
+        private int seen; // bit mask of the scanned claims encountered so far
+        private boolean escaped; // whether the most recently scanned string contained an escape sequence
+
+        Scanner(byte[] json, Object[] values) {
+            this.json = json;
+            this.length = json.length;
+            this.values = values;
+        }
+
+        boolean scanObject() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    int nameStart = pos + 1;
+                    if (!skipString() || escaped) { // an escaped name could spell a scanned claim in disguise
+                        return false;
+                    }
+                    int slot = slotOf(nameStart, pos - 1 - nameStart);
+                    skipWhitespace();
+                    if (!consume(':')) {
+                        return false;
+                    }
+                    skipWhitespace();
+                    if (slot < 0) {
+                        if (!skipValue(1)) {
+                            return false;
+                        }
+                    } else {
+                        if ((seen & (1 << slot)) != 0) { // duplicates are resolved differently by each deserializer
+                            return false;
+                        }
+                        seen |= 1 << slot;
+                        if (!scanClaim(slot)) {
+                            return false;
+                        }
+                    }
+                    skipWhitespace();
+                } while (consume(','));
+                if (!consume('}')) {
+                    return false;
+                }
+            }
+            skipWhitespace();
+            return pos == length;
+        }
+
+        private int slotOf(int start, int len) {
+            if (len == NAME_LENGTH) {
+                for (int i = 0; i < NAMES.length; i++) {
+                    if (regionMatches(start, NAMES[i])) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean scanClaim(int slot) {
+            if (skipLiteral("null")) {
+                return true; // same as an absent claim
+            }
+            int start = pos;
+            if (slot <= IAT) {
+                if (!skipNumber()) {
+                    return false;
+                }
+                return scanSeconds(slot, start, pos);
+            }
+            if (!skipString() || escaped) {
+                return false;
+            }
+            return scanString(slot, start + 1, pos - 1);
+        }
+
+        private boolean scanString(int slot, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (json[i] < 0) { // not US-ASCII, but skipString already checked that it is well-formed UTF-8
+                    values[slot] = new String(json, start, end - start, Strings.UTF_8);
+                    return true;
+                }
+            }
+            values[slot] = new String(json, start, end - start, US_ASCII);
+            return true;
+        }
+
+        private boolean scanSeconds(int slot, int start, int end) {
+            boolean negative = json[start] == '-';
+            int i = negative ? start + 1 : start;
+            if (end - i > MAX_SECONDS_DIGITS) {
+                return false;
+            }
+            long seconds = 0;
+            for (; i < end; i++) {
+                byte c = json[i];
+                if (c < '0' || c > '9') { // a fraction or exponent: leave the conversion to the deserializer
+                    return false;
+                }
+                seconds = seconds * 10 + (c - '0');
+            }
+            values[slot] = negative ? -seconds : seconds;
+            return true;
+        }
+
+        private boolean skipValue(int depth) {
+            if (pos >= length || depth > MAX_DEPTH) {
+                return false;
+            }
+            switch (json[pos]) {
+                case '"':
+                    return skipString();
+                case '{':
+                    return skipContainer('}', true, depth);
+                case '[':
+                    return skipContainer(']', false, depth);
+                case 't':
+                    return skipLiteral("true");
+                case 'f':
+                    return skipLiteral("false");
+                case 'n':
+                    return skipLiteral("null");
+                default:
+                    return skipNumber();
+            }
+        }
+
+        private boolean skipContainer(char close, boolean object, int depth) {
+            pos++; // opening bracket
+            skipWhitespace();
+            if (consume(close)) {
+                return true;
+            }
+            do {
+                skipWhitespace();
+                if (object) {
+                    if (!skipString()) {
+                        return false;
+                    }
+                    skipWhitespace();
+                    if (!consume(':')) {
+                        return false;
+                    }
+                    skipWhitespace();
+                }
+                if (!skipValue(depth + 1)) {
+                    return false;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume(close);
+        }
+
+        private boolean skipString() {
+            escaped = false;
+            if (!consume('"')) {
+                return false;
+            }
+            while (pos < length) {
+                byte c = json[pos++];
+                if (c == '"') {
+                    return true;
+                }
+                if (c < 0) { // a deserializer reading bytes would reject malformed UTF-8 only when the claims load
+                    if (!skipMultiByteSequence(c)) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (c < 0x20) {
+                    return false;
+                }
+                if (c == '\\') {
+                    escaped = true;
+                    if (pos >= length) {
+                        return false;
+                    }
+                    c = json[pos++];
+                    if (c == 'u') {
+                        for (int i = 0; i < 4; i++) {
+                            if (pos >= length || Character.digit(json[pos++], 16) < 0) {
+                                return false;
+                            }
+                        }
+                    } else if ("\"\\/bfnrt".indexOf(c) < 0) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Skips the continuation bytes of the multi-byte UTF-8 sequence that starts with the specified lead byte,
+         * which has already been consumed.  Returns {@code false} if the sequence is not well-formed as defined by
+         * RFC 3629: truncated, overlong, a surrogate or beyond U+10FFFF.
+         */
+        private boolean skipMultiByteSequence(byte lead) {
+            int b = lead & 0xff;
+            int count;
+            int min = 0x80; // the range of the first continuation byte, which excludes the ill-formed sequences
+            int max = 0xbf;
+            if (b >= 0xc2 && b <= 0xdf) {
+                count = 1;
+            } else if (b >= 0xe0 && b <= 0xef) {
+                count = 2;
+                if (b == 0xe0) {
+                    min = 0xa0;
+                } else if (b == 0xed) {
+                    max = 0x9f;
+                }
+            } else if (b >= 0xf0 && b <= 0xf4) {
+                count = 3;
+                if (b == 0xf0) {
+                    min = 0x90;
+                } else if (b == 0xf4) {
+                    max = 0x8f;
+                }
+            } else {
+                return false;
+            }
+            if (pos + count > length) {
+                return false;
+            }
+            int c = json[pos] & 0xff;
+            if (c < min || c > max) {
+                return false;
+            }
+            for (int i = 1; i < count; i++) {
+                c = json[pos + i] & 0xff;
+                if (c < 0x80 || c > 0xbf) {
+                    return false;
+                }
+            }
+            pos += count;
+            return true;
+        }
+
+        private boolean skipNumber() {
+            consume('-');
+            if (consume('0')) {
+                if (pos < length && isDigit(json[pos])) {
+                    return false; // leading zeros are not allowed
+                }
+            } else if (!skipDigits()) {
+                return false;
+            }
+            if (consume('.') && !skipDigits()) {
+                return false;
+            }
+            if (consume('e') || consume('E')) {
+                if (!consume('+')) {
+                    consume('-');
+                }
+                return skipDigits();
+            }
+            return true;
+        }
+
+        private boolean skipDigits() {
+            int start = pos;
+            while (pos < length && isDigit(json[pos])) {
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private boolean skipLiteral(String literal) {
+            if (regionMatches(pos, literal)) {
+                pos += literal.length();
+                return true;
+            }
+            return false;
+        }
+
+        // whether the bytes at the specified position are the US-ASCII encoding of the specified string:
+        private boolean regionMatches(int start, String s) {
+            int n = s.length();
+            if (start + n > length) {
+                return false;
+            }
+            for (int i = 0; i < n; i++) {
+                if (json[start + i] != s.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (pos < length) {
+                byte c = json[pos];
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private boolean consume(char c) {
+            if (pos < length && json[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isDigit(byte c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
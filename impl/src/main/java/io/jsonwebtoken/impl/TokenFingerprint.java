@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.lang.Strings;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A SHA-256 digest of the UTF-8 encoding of an entire compact JWT, suitable for use as a fixed-size cache key.  Two
+ * fingerprints are equal only if their digests are equal, which (barring a SHA-256 collision) means the original
+ * character sequences were equal.
+ *
+ * @since 0.12.0
+ */
+final class TokenFingerprint {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final byte[] digest;
+
+    private final int hashCode;
+
+    private TokenFingerprint(byte[] digest) {
+        this.digest = digest;
+        // the digest is already uniformly distributed, so its leading bytes are a perfectly good hash code:
+        this.hashCode = (digest[0] & 0xff) << 24 | (digest[1] & 0xff) << 16 | (digest[2] & 0xff) << 8 | (digest[3] & 0xff);
+    }
+
+    static TokenFingerprint of(CharSequence jwt) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform is required to support " + ALGORITHM + ".", e);
+        }
+        if (jwt instanceof AsciiCharSequence && isAscii((AsciiCharSequence) jwt)) {
+            // US-ASCII bytes are already their own UTF-8 encoding, so they can be digested in place:
+            AsciiCharSequence ascii = (AsciiCharSequence) jwt;
+            md.update(ascii.getBytes(), ascii.getOffset(), ascii.length());
+        } else {
+            md.update(jwt.toString().getBytes(Strings.UTF_8));
+        }
+        return new TokenFingerprint(md.digest());
+    }
+
+    private static boolean isAscii(AsciiCharSequence seq) {
+        byte[] bytes = seq.getBytes();
+        for (int i = seq.getOffset(), end = i + seq.length(); i < end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof TokenFingerprint && MessageDigest.isEqual(digest, ((TokenFingerprint) obj).digest);
+    }
+}
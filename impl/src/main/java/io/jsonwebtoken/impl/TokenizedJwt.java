@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.MalformedJwtException;
+
+/**
+ * Offset/length view of the three segments of a compact JWT.  The segments are located in place by scanning the
+ * original character sequence once; no characters are copied until a segment is explicitly requested as a
+ * {@code String}.
+ *
+ * <p>Segment boundaries follow the same rules the parser has always applied: the header and payload segments are
+ * trimmed of surrounding whitespace (and considered absent if nothing remains), while the digest segment is taken
+ * verbatim and is only absent if it is empty.</p>
+ *
+ * @since 0.12.0
+ */
+final class TokenizedJwt {
+
+    private static final char SEPARATOR_CHAR = JwtParser.SEPARATOR_CHAR;
+
+    private final CharSequence jwt;
+
+    private final int headerOffset;
+    private final int headerLength;
+    private final int payloadOffset;
+    private final int payloadLength;
+    private final int digestOffset;
+    private final int digestLength;
+
+    private TokenizedJwt(CharSequence jwt,
+                         int headerOffset, int headerLength,
+                         int payloadOffset, int payloadLength,
+                         int digestOffset, int digestLength) {
+        this.jwt = jwt;
+        this.headerOffset = headerOffset;
+        this.headerLength = headerLength;
+        this.payloadOffset = payloadOffset;
+        this.payloadLength = payloadLength;
+        this.digestOffset = digestOffset;
+        this.digestLength = digestLength;
+    }
+
+    /**
+     * Locates the header, payload and digest segments of the specified compact JWT.
+     *
+     * @param jwt the compact JWT to tokenize
+     * @return the located segments
+     * @throws MalformedJwtException if the JWT does not contain exactly two separators or is missing a payload.
+     */
+    static TokenizedJwt tokenize(CharSequence jwt) throws MalformedJwtException {
+
+        final int len = jwt.length();
+
+        int first = -1;
+        int second = -1;
+        int delimiterCount = 0;
+
+        for (int i = 0; i < len; i++) {
+            if (jwt.charAt(i) == SEPARATOR_CHAR) {
+                if (delimiterCount == 0) {
+                    first = i;
+                } else if (delimiterCount == 1) {
+                    second = i;
+                }
+                delimiterCount++;
+            }
+        }
+
+        if (delimiterCount != 2) {
+            String msg = "JWT strings must contain exactly 2 period characters. Found: " + delimiterCount;
+            throw new MalformedJwtException(msg);
+        }
+
+        // header: [0, first), trimmed
+        int hStart = trimStart(jwt, 0, first);
+        int hEnd = trimEnd(jwt, hStart, first);
+
+        // payload: (first, second), trimmed
+        int pStart = trimStart(jwt, first + 1, second);
+        int pEnd = trimEnd(jwt, pStart, second);
+
+        if (pStart == pEnd) {
+            throw new MalformedJwtException("JWT string '" + jwt + "' is missing a body/payload.");
+        }
+
+        // digest: (second, len), verbatim
+        int dStart = second + 1;
+
+        return new TokenizedJwt(jwt, hStart, hEnd - hStart, pStart, pEnd - pStart, dStart, len - dStart);
+    }
+
+    private static int trimStart(CharSequence s, int start, int end) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence s, int start, int end) {
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private String segment(int offset, int length) {
+        return length > 0 ? jwt.subSequence(offset, offset + length).toString() : null;
+    }
+
+    CharSequence getJwt() {
+        return jwt;
+    }
+
+    boolean hasHeader() {
+        return headerLength > 0;
+    }
+
+    boolean hasDigest() {
+        return digestLength > 0;
+    }
+
+    int getHeaderOffset() {
+        return headerOffset;
+    }
+
+    int getHeaderLength() {
+        return headerLength;
+    }
+
+    int getPayloadOffset() {
+        return payloadOffset;
+    }
+
+    int getPayloadLength() {
+        return payloadLength;
+    }
+
+    int getDigestOffset() {
+        return digestOffset;
+    }
+
+    int getDigestLength() {
+        return digestLength;
+    }
+
+    /**
+     * Returns the trimmed Base64URL-encoded header segment, or {@code null} if there is no header.
+     *
+     * @return the trimmed Base64URL-encoded header segment, or {@code null} if there is no header.
+     */
+    String getHeader() {
+        return segment(headerOffset, headerLength);
+    }
+
+    /**
+     * Returns the trimmed Base64URL-encoded payload segment.  Never {@code null}.
+     *
+     * @return the trimmed Base64URL-encoded payload segment.
+     */
+    String getPayload() {
+        return segment(payloadOffset, payloadLength);
+    }
+
+    /**
+     * Returns the Base64URL-encoded digest segment, or {@code null} if the JWT is unsigned.
+     *
+     * @return the Base64URL-encoded digest segment, or {@code null} if the JWT is unsigned.
+     */
+    String getDigest() {
+        return segment(digestOffset, digestLength);
+    }
+
+    /**
+     * Returns {@code true} if the trimmed header, the separator and the trimmed payload are adjacent in the original
+     * sequence, i.e. the signed {@code header.payload} content is exactly the range starting at
+     * {@link #getHeaderOffset()} with length {@link #getSignedContentLength()}.
+     *
+     * @return {@code true} if the signed content is a contiguous range of the original sequence.
+     */
+    boolean isSignedContentContiguous() {
+        return headerOffset + headerLength + 1 == payloadOffset;
+    }
+
+    int getSignedContentLength() {
+        return headerLength + 1 + payloadLength;
+    }
+
+    /**
+     * Returns the {@code header.payload} text that a JWS signature is computed over.  If neither segment needed
+     * trimming, this is a single copy of the original characters; otherwise the trimmed segments are joined.
+     *
+     * @return the {@code header.payload} text that a JWS signature is computed over.
+     */
+    String getSignedContent() {
+        if (isSignedContentContiguous()) {
+            return jwt.subSequence(headerOffset, headerOffset + getSignedContentLength()).toString();
+        }
+        return getHeader() + SEPARATOR_CHAR + getPayload();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl;
+
+import io.jsonwebtoken.CacheStatistics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwt;
+import io.jsonwebtoken.impl.lang.BoundedCache;
+import io.jsonwebtoken.lang.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size-bounded cache of successfully parsed and verified {@code Jws<Claims>} results, keyed by a
+ * {@link TokenFingerprint} of the compact JWS string.
+ *
+ * <p>An entry is never returned at or after the JWS {@code exp} time, nor once it is older than the configured
+ * maximum age.  Because a hit skips key resolution, the maximum age also bounds how long a JWS without an {@code exp}
+ * claim is still accepted after its signing key is revoked.  The parser's {@code exp}/{@code nbf}
+ * checks (with its configured clock and allowed clock skew) are re-run on every hit.  Expected claim assertions are
+ * not repeated because they depend only on the claims themselves, which a cache hit guarantees are identical.</p>
+ *
+ * <p>Cached results are never handed out directly: a deep copy of the header and claims is stored and another is
+ * returned for each hit, so that callers cannot modify what other callers will see, not even through nested
+ * collections such as a {@code roles} list.  Lazy claims that have not been loaded are stored as another unloaded
+ * view of the same payload bytes instead, so that caching them does not force them to be deserialized.</p>
+ *
+ * @since 0.12.0
+ */
+final class VerifiedJwsCache {
+
+    private final DefaultJwtParser parser;
+
+    private final long maxAgeMillis;
+
+    private final BoundedCache<TokenFingerprint, Jws<Claims>> cache;
+
+    VerifiedJwsCache(DefaultJwtParser parser, int maxSize, long maxAgeMillis) {
+        Assert.notNull(parser, "parser cannot be null.");
+        Assert.isTrue(maxAgeMillis > 0, "maxAgeMillis must be greater than zero.");
+        this.parser = parser;
+        this.maxAgeMillis = maxAgeMillis;
+        this.cache = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * Returns a copy of the verified JWS cached for the specified fingerprint, or {@code null} if there is none.
+     *
+     * @param fingerprint the fingerprint of the compact JWS
+     * @return a copy of the cached JWS or {@code null} if there is no cached JWS.
+     * @throws io.jsonwebtoken.ClaimJwtException if the cached JWS is no longer valid at the parser's current time.
+     */
+    Jws<Claims> get(TokenFingerprint fingerprint) {
+        Jws<Claims> cached = cache.get(fingerprint, parser.getClock().now().getTime());
+        if (cached == null) {
+            return null;
+        }
+        Jws<Claims> jws = copy(cached);
+        parser.validateTimestamps(jws.getHeader(), jws.getBody());
+        return jws;
+    }
+
+    /**
+     * Caches the specified parse result, until the earlier of its {@code exp} time and the maximum age, if it is a
+     * {@code Jws<Claims>} that has not yet expired.  Any other result is ignored.
+     *
+     * @param fingerprint the fingerprint of the compact JWS
+     * @param jwt         the result of successfully parsing the compact JWS
+     */
+    @SuppressWarnings("unchecked")
+    void put(TokenFingerprint fingerprint, Jwt jwt) {
+        if (!(jwt instanceof Jws) || !(jwt.getBody() instanceof Claims)) {
+            return;
+        }
+        Jws<Claims> jws = (Jws<Claims>) jwt;
+        long now = parser.getClock().now().getTime();
+        long expiresAt = maxAgeMillis > BoundedCache.NEVER - now ? BoundedCache.NEVER : now + maxAgeMillis;
+        Date exp = jws.getBody().getExpiration();
+        if (exp != null) {
+            expiresAt = Math.min(expiresAt, exp.getTime());
+        }
+        if (expiresAt > now) {
+            cache.put(fingerprint, copy(jws), expiresAt);
+        }
+    }
+
+    CacheStatistics getStatistics() {
+        return cache;
+    }
+
+    private static Jws<Claims> copy(Jws<Claims> jws) {
+        return new DefaultJws<Claims>(new DefaultJwsHeader(deepCopy(jws.getHeader())), copy(jws.getBody()),
+            jws.getSignature());
+    }
+
+    private static Claims copy(Claims claims) {
+        if (claims instanceof PayloadClaims && !((PayloadClaims) claims).isLoaded()) {
+            return ((PayloadClaims) claims).copy();
+        }
+        return new DefaultClaims(deepCopy(claims));
+    }
+
+    private static Map<String, Object> deepCopy(Map<String, ?> map) {
+        Map<String, Object> copy = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            copy.put(entry.getKey(), deepCopyValue(entry.getValue()));
+        }
+        return copy;
+    }
+
+    // copies the mutable types a deserializer may produce; anything else is assumed to be immutable:
+    @SuppressWarnings("unchecked")
+    private static Object deepCopyValue(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), deepCopyValue(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof Collection) {
+            Collection<?> c = (Collection<?>) value;
+            Collection<Object> copy = c instanceof Set ? new LinkedHashSet<>(c.size() * 4 / 3 + 1) :
+                new ArrayList<>(c.size());
+            for (Object element : c) {
+                copy.add(deepCopyValue(element));
+            }
+            return copy;
+        }
+        if (value instanceof Object[]) {
+            Object[] copy = ((Object[]) value).clone();
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = deepCopyValue(copy[i]);
+            }
+            return copy;
+        }
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        }
+        return value;
+    }
+}
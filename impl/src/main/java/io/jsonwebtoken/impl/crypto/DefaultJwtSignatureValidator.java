@@ -60,4 +60,45 @@ public class DefaultJwtSignatureValidator implements JwtSignatureValidator {
 
         return this.signatureValidator.isValid(data, signature);
     }
+
+    /**
+     * Validates the signature over the {@code length} US-ASCII bytes of {@code jwtWithoutSignature} starting at
+     * {@code offset}, without first converting them to a String.  This is not part of the
+     * {@link JwtSignatureValidator} interface so that existing implementations of that interface remain valid.
+     *
+     * @param jwtWithoutSignature       the buffer containing the signed {@code header.payload} bytes
+     * @param offset                    the index of the first signed byte
+     * @param length                    the number of signed bytes
+     * @param base64UrlEncodedSignature the Base64URL-encoded signature to validate
+     * @return {@code true} if the signature is valid, {@code false} otherwise
+     * @since 0.12.0
+     */
+    public boolean isValid(byte[] jwtWithoutSignature, int offset, int length, String base64UrlEncodedSignature) {
+
+        byte[] signature = base64UrlDecoder.decode(base64UrlEncodedSignature);
+
+        if (this.signatureValidator instanceof SegmentSignatureValidator) {
+            return ((SegmentSignatureValidator) this.signatureValidator).isValid(jwtWithoutSignature, offset, length, signature);
+        }
+        byte[] data = SignatureProvider.copyOfRange(jwtWithoutSignature, offset, length);
+        return this.signatureValidator.isValid(data, signature);
+    }
+
+    /**
+     * Validates the signature over the specified header and payload segments without concatenating them first.
+     *
+     * @param input                     the signed header and payload segments
+     * @param base64UrlEncodedSignature the Base64URL-encoded signature to validate
+     * @return {@code true} if the signature is valid, {@code false} otherwise
+     * @since 0.12.0
+     */
+    public boolean isValid(SigningInput input, String base64UrlEncodedSignature) {
+
+        byte[] signature = base64UrlDecoder.decode(base64UrlEncodedSignature);
+
+        if (this.signatureValidator instanceof SegmentSignatureValidator) {
+            return ((SegmentSignatureValidator) this.signatureValidator).isValid(input, signature);
+        }
+        return this.signatureValidator.isValid(input.toBytes(), signature);
+    }
 }
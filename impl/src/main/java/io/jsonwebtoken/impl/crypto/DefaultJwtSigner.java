@@ -60,4 +60,39 @@ public class DefaultJwtSigner implements JwtSigner {
 
         return base64UrlEncoder.encode(signature);
     }
+
+    /**
+     * Signs the {@code length} US-ASCII bytes of {@code jwtWithoutSignature} starting at {@code offset}, without first
+     * converting them to a String.  This is not part of the {@link JwtSigner} interface so that existing
+     * implementations of that interface remain valid.
+     *
+     * @param jwtWithoutSignature the buffer containing the {@code header.payload} bytes to sign
+     * @param offset              the index of the first byte to sign
+     * @param length              the number of bytes to sign
+     * @return the Base64URL-encoded signature
+     * @since 0.12.0
+     */
+    public String sign(byte[] jwtWithoutSignature, int offset, int length) {
+
+        byte[] signature = signer instanceof SegmentSigner ?
+            ((SegmentSigner) signer).sign(jwtWithoutSignature, offset, length) :
+            signer.sign(SignatureProvider.copyOfRange(jwtWithoutSignature, offset, length));
+
+        return base64UrlEncoder.encode(signature);
+    }
+
+    /**
+     * Signs the specified header and payload segments without concatenating them first.
+     *
+     * @param input the header and payload segments to sign
+     * @return the Base64URL-encoded signature
+     * @since 0.12.0
+     */
+    public String sign(SigningInput input) {
+
+        byte[] signature = signer instanceof SegmentSigner ?
+            ((SegmentSigner) signer).sign(input) : signer.sign(input.toBytes());
+
+        return base64UrlEncoder.encode(signature);
+    }
 }
@@ -25,6 +25,7 @@ import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.SecureRandom;
 import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -170,6 +171,41 @@ public abstract class EllipticCurveProvider extends SignatureProvider {
     }
 
 
+
+    /**
+     * The length of the longest ASN.1/DER-encoded signature that
+     * {@link #transcodeSignatureToDER(byte[], int, int, byte[], int)} can produce: a sequence of at most 255 bytes
+     * plus its 3-byte header.  A buffer of this length can hold the DER form of any ECDSA JWS signature.
+     *
+     * @since 0.12.0
+     */
+    public static final int MAX_DER_SIGNATURE_LENGTH = 258;
+
+    // since 0.12.0: idle DER signature buffers, so that signing and verifying do not each allocate one:
+    private final EnginePool<byte[]> derBuffers = new EnginePool<>();
+
+    /**
+     * Returns a scratch buffer of {@link #MAX_DER_SIGNATURE_LENGTH} bytes.  Callers should
+     * {@link #releaseDerBuffer(byte[]) release} it when done; buffers are not cleared between uses.
+     *
+     * @since 0.12.0
+     */
+    byte[] acquireDerBuffer() {
+        byte[] buffer = derBuffers.poll();
+        return buffer != null ? buffer : new byte[MAX_DER_SIGNATURE_LENGTH];
+    }
+
+    /**
+     * @since 0.12.0
+     */
+    void releaseDerBuffer(byte[] buffer) {
+        derBuffers.offer(buffer);
+    }
+
+    private static JwtException invalidSignatureFormat() {
+        return new JwtException("Invalid ECDSA signature format");
+    }
+
     /**
      * Transcodes the JCA ASN.1/DER-encoded signature into the concatenated
      * R + S format expected by ECDSA JWS.
@@ -180,52 +216,102 @@ public abstract class EllipticCurveProvider extends SignatureProvider {
      * @throws JwtException If the ASN.1/DER signature format is invalid.
      */
     public static byte[] transcodeSignatureToConcat(final byte[] derSignature, int outputLength) throws JwtException {
+        return transcodeSignatureToConcat(derSignature, 0, derSignature.length, outputLength);
+    }
 
-        if (derSignature.length < 8 || derSignature[0] != 48) {
-            throw new JwtException("Invalid ECDSA signature format");
-        }
+    /**
+     * Transcodes the specified range of a JCA ASN.1/DER-encoded signature into a new array, in the concatenated
+     * R + S format expected by ECDSA JWS.
+     *
+     * @param der          the array containing the ASN.1/DER-encoded signature. Must not be {@code null}.
+     * @param offset       the index of the first byte of the signature
+     * @param length       the length of the signature in bytes
+     * @param outputLength The expected length of the ECDSA JWS signature.
+     * @return The ECDSA JWS encoded signature.
+     * @throws JwtException If the ASN.1/DER signature format is invalid.
+     * @since 0.12.0
+     */
+    public static byte[] transcodeSignatureToConcat(byte[] der, int offset, int length, int outputLength)
+        throws JwtException {
+        byte[] concat = new byte[concatSignatureLength(der, offset, length, outputLength)];
+        transcodeSignatureToConcat(der, offset, length, outputLength, concat, 0);
+        return concat;
+    }
 
-        int offset;
-        if (derSignature[1] > 0) {
-            offset = 2;
-        } else if (derSignature[1] == (byte) 0x81) {
-            offset = 3;
-        } else {
-            throw new JwtException("Invalid ECDSA signature format");
-        }
+    /**
+     * Transcodes the specified range of a JCA ASN.1/DER-encoded signature into the concatenated R + S format
+     * expected by ECDSA JWS, writing it into {@code dest} without allocating.  The signature written is
+     * {@code outputLength} bytes long, unless R or S is longer than half of that, in which case both are written with
+     * the length of the longer one (exactly as {@link #transcodeSignatureToConcat(byte[], int)} does).
+     *
+     * @param der          the array containing the ASN.1/DER-encoded signature. Must not be {@code null}.
+     * @param offset       the index of the first byte of the signature
+     * @param length       the length of the signature in bytes
+     * @param outputLength The expected length of the ECDSA JWS signature.
+     * @param dest         the array to write the ECDSA JWS signature into
+     * @param destOffset   the index in {@code dest} to write the first byte to
+     * @return the number of bytes written to {@code dest}.
+     * @throws JwtException             If the ASN.1/DER signature format is invalid.
+     * @throws IllegalArgumentException if {@code dest} is too small to hold the ECDSA JWS signature.
+     * @since 0.12.0
+     */
+    public static int transcodeSignatureToConcat(byte[] der, int offset, int length, int outputLength,
+                                                 byte[] dest, int destOffset) throws JwtException {
+        int r = integerOffset(der, offset, length);
+        int rEnd = r + 2 + der[r + 1];
+        int end = offset + length;
+        int rLength = significantLength(der, r + 2, rEnd);
+        int sLength = significantLength(der, rEnd + 2, end);
+        int half = Math.max(Math.max(rLength, sLength), outputLength / 2);
+        Assert.isTrue(destOffset >= 0 && dest.length - destOffset >= 2 * half,
+            "dest is too small for the ECDSA JWS signature.");
+
+        Arrays.fill(dest, destOffset, destOffset + 2 * half, (byte) 0);
+        System.arraycopy(der, rEnd - rLength, dest, destOffset + half - rLength, rLength);
+        System.arraycopy(der, end - sLength, dest, destOffset + 2 * half - sLength, sLength);
+        return 2 * half;
+    }
 
-        byte rLength = derSignature[offset + 1];
+    private static int concatSignatureLength(byte[] der, int offset, int length, int outputLength) {
+        int r = integerOffset(der, offset, length);
+        int rEnd = r + 2 + der[r + 1];
+        int rLength = significantLength(der, r + 2, rEnd);
+        int sLength = significantLength(der, rEnd + 2, offset + length);
+        return 2 * Math.max(Math.max(rLength, sLength), outputLength / 2);
+    }
 
-        int i = rLength;
-        while ((i > 0) && (derSignature[(offset + 2 + rLength) - i] == 0)) {
-            i--;
+    /**
+     * Validates the structure of a DER {@code SEQUENCE} of two {@code INTEGER}s occupying exactly the specified
+     * range, and returns the index of the first {@code INTEGER}'s tag.  As before 0.12.0, the sequence length may
+     * use the long form even when shorter than 128 bytes.
+     */
+    private static int integerOffset(byte[] der, int offset, int length) throws JwtException {
+        if (offset < 0 || length < 8 || length > der.length - offset || der[offset] != 48) {
+            throw invalidSignatureFormat();
         }
-
-        byte sLength = derSignature[offset + 2 + rLength + 1];
-
-        int j = sLength;
-        while ((j > 0) && (derSignature[(offset + 2 + rLength + 2 + sLength) - j] == 0)) {
-            j--;
+        int end = offset + length;
+        int lengthByte = der[offset + 1];
+        // 2 for the short form (1 to 127), 3 for the 1-byte long form (0x81), 0 for anything else:
+        int header = (lengthByte > 0 ? 2 : 0) | (lengthByte == (byte) 0x81 ? 3 : 0);
+        int r = offset + header;
+        if (header == 0 || (der[r - 1] & 0xff) != end - r || der[r] != 2) {
+            throw invalidSignatureFormat();
         }
-
-        int rawLen = Math.max(i, j);
-        rawLen = Math.max(rawLen, outputLength / 2);
-
-        if ((derSignature[offset - 1] & 0xff) != derSignature.length - offset
-            || (derSignature[offset - 1] & 0xff) != 2 + rLength + 2 + sLength
-            || derSignature[offset] != 2
-            || derSignature[offset + 2 + rLength] != 2) {
-            throw new JwtException("Invalid ECDSA signature format");
+        int s = r + 2 + der[r + 1];
+        // a negative R length makes s < r + 2, which the first comparison rejects:
+        if (s < r + 2 || s + 2 > end || der[s] != 2 || s + 2 + der[s + 1] != end || der[s + 1] < 0) {
+            throw invalidSignatureFormat();
         }
-
-        final byte[] concatSignature = new byte[2 * rawLen];
-
-        System.arraycopy(derSignature, (offset + 2 + rLength) - i, concatSignature, rawLen - i, i);
-        System.arraycopy(derSignature, (offset + 2 + rLength + 2 + sLength) - j, concatSignature, 2 * rawLen - j, j);
-
-        return concatSignature;
+        return r;
     }
 
+    // the number of bytes in the range after skipping leading zero bytes:
+    private static int significantLength(byte[] b, int from, int to) {
+        while (from < to && b[from] == 0) {
+            from++;
+        }
+        return to - from;
+    }
 
     /**
      * Transcodes the ECDSA JWS signature into ASN.1/DER format for use by
@@ -238,66 +324,74 @@ public abstract class EllipticCurveProvider extends SignatureProvider {
      * @throws JwtException If the ECDSA JWS signature format is invalid.
      */
     public static byte[] transcodeSignatureToDER(byte[] jwsSignature) throws JwtException {
+        byte[] der = new byte[MAX_DER_SIGNATURE_LENGTH];
+        int length = transcodeSignatureToDER(jwsSignature, 0, jwsSignature.length, der, 0);
+        return Arrays.copyOf(der, length);
+    }
 
-        int rawLen = jwsSignature.length / 2;
-
-        int i = rawLen;
-
-        while ((i > 0) && (jwsSignature[rawLen - i] == 0)) {
-            i--;
-        }
-
-        int j = i;
+    /**
+     * Transcodes the specified range of an ECDSA JWS signature, consisting of the concatenated R and S values, into
+     * ASN.1/DER format for use by the JCA verifier, writing it into {@code dest} without allocating.  A {@code dest}
+     * with at least {@link #MAX_DER_SIGNATURE_LENGTH} bytes after {@code destOffset} is always large enough.
+     *
+     * @param jws        the array containing the JWS signature. Must not be {@code null}.
+     * @param offset     the index of the first byte of the signature
+     * @param length     the length of the signature in bytes
+     * @param dest       the array to write the ASN.1/DER encoded signature into
+     * @param destOffset the index in {@code dest} to write the first byte to
+     * @return the number of bytes written to {@code dest}.
+     * @throws JwtException             If the ECDSA JWS signature format is invalid.
+     * @throws IllegalArgumentException if {@code dest} is too small to hold the ASN.1/DER encoded signature.
+     * @since 0.12.0
+     */
+    public static int transcodeSignatureToDER(byte[] jws, int offset, int length, byte[] dest, int destOffset)
+        throws JwtException {
 
-        if (jwsSignature[rawLen - i] < 0) {
-            j += 1;
+        if (offset < 0 || length < 1 || length > jws.length - offset) {
+            throw invalidSignatureFormat();
         }
 
-        int k = rawLen;
+        int half = length / 2;
+        int rEnd = offset + half;
+        int sEnd = rEnd + half; // an odd trailing byte is ignored
+        int rLength = significantLength(jws, offset, rEnd);
+        int sLength = significantLength(jws, rEnd, sEnd);
 
-        while ((k > 0) && (jwsSignature[2 * rawLen - k] == 0)) {
-            k--;
+        // As before 0.12.0, a zero R is padded if the first byte of S is negative, and a zero S if the ignored
+        // trailing byte is; an all-zero S in a signature of even length has no such byte and is invalid:
+        if (sEnd - sLength >= offset + length) {
+            throw invalidSignatureFormat();
         }
+        int rPad = (jws[rEnd - rLength] >>> 31) & 1; // 1 if negative, so that the INTEGER stays positive
+        int sPad = (jws[sEnd - sLength] >>> 31) & 1;
 
-        int l = k;
-
-        if (jwsSignature[2 * rawLen - k] < 0) {
-            l += 1;
+        int sequenceLength = 2 + rLength + rPad + 2 + sLength + sPad;
+        if (sequenceLength > 255) {
+            throw invalidSignatureFormat();
         }
-
-        int len = 2 + j + 2 + l;
-
-        if (len > 255) {
-            throw new JwtException("Invalid ECDSA signature format");
+        int headerLength = sequenceLength < 128 ? 2 : 3;
+        int total = headerLength + sequenceLength;
+        Assert.isTrue(destOffset >= 0 && dest.length - destOffset >= total,
+            "dest is too small for the ASN.1/DER signature.");
+
+        int i = destOffset;
+        dest[i++] = 48;
+        if (headerLength == 3) {
+            dest[i++] = (byte) 0x81;
         }
+        dest[i++] = (byte) sequenceLength;
+        i = writeInteger(jws, rEnd - rLength, rLength, rPad, dest, i);
+        writeInteger(jws, sEnd - sLength, sLength, sPad, dest, i);
+        return total;
+    }
 
-        int offset;
-
-        final byte derSignature[];
-
-        if (len < 128) {
-            derSignature = new byte[2 + 2 + j + 2 + l];
-            offset = 1;
-        } else {
-            derSignature = new byte[3 + 2 + j + 2 + l];
-            derSignature[1] = (byte) 0x81;
-            offset = 2;
+    private static int writeInteger(byte[] src, int from, int length, int pad, byte[] dest, int i) {
+        dest[i++] = 2;
+        dest[i++] = (byte) (length + pad);
+        if (pad != 0) {
+            dest[i++] = 0;
         }
-
-        derSignature[0] = 48;
-        derSignature[offset++] = (byte) len;
-        derSignature[offset++] = 2;
-        derSignature[offset++] = (byte) j;
-
-        System.arraycopy(jwsSignature, rawLen - i, derSignature, (offset + j) - i, i);
-
-        offset += j;
-
-        derSignature[offset++] = 2;
-        derSignature[offset++] = (byte) l;
-
-        System.arraycopy(jwsSignature, 2 * rawLen - k, derSignature, (offset + l) - k, k);
-
-        return derSignature;
+        System.arraycopy(src, from, dest, i, length);
+        return i + length;
     }
 }
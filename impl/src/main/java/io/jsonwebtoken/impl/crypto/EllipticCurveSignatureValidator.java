@@ -15,6 +15,7 @@
  */
 package io.jsonwebtoken.impl.crypto;
 
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.lang.Assert;
 import io.jsonwebtoken.security.SignatureException;
@@ -25,7 +26,7 @@ import java.security.PublicKey;
 import java.security.Signature;
 import java.security.interfaces.ECPublicKey;
 
-public class EllipticCurveSignatureValidator extends EllipticCurveProvider implements SignatureValidator {
+public class EllipticCurveSignatureValidator extends EllipticCurveProvider implements SignatureValidator, SegmentSignatureValidator {
 
     private static final String EC_PUBLIC_KEY_REQD_MSG =
         "Elliptic Curve signature validation requires an ECPublicKey instance.";
@@ -37,25 +38,86 @@ public class EllipticCurveSignatureValidator extends EllipticCurveProvider imple
 
     @Override
     public boolean isValid(byte[] data, byte[] signature) {
-        Signature sig = createSignatureInstance();
+        return verify(data, 0, data.length, signature);
+    }
+
+    @Override
+    public boolean isValid(byte[] data, int offset, int length, byte[] signature) {
+        if (getClass() != EllipticCurveSignatureValidator.class) { // subclasses may override isValid(byte[], byte[])
+            return isValid(copyOfRange(data, offset, length), signature);
+        }
+        return verify(data, offset, length, signature);
+    }
+
+    private boolean verify(byte[] data, int offset, int length, byte[] signature) {
         PublicKey publicKey = (PublicKey) key;
         try {
-            int expectedSize = getSignatureByteArrayLength(alg);
-            /**
-             *
-             * If the expected size is not valid for JOSE, fall back to ASN.1 DER signature.
-             * This fallback is for backwards compatibility ONLY (to support tokens generated by previous versions of jjwt)
-             * and backwards compatibility will possibly be removed in a future version of this library.
-             *
-             * **/
-            byte[] derSignature = expectedSize != signature.length && signature[0] == 0x30 ? signature : EllipticCurveProvider.transcodeSignatureToDER(signature);
-            return doVerify(sig, publicKey, data, derSignature);
+            if (getClass() != EllipticCurveSignatureValidator.class) {
+                // subclasses may override doVerify, which initializes a new instance itself, as it always has:
+                byte[] bytes = copyOfRange(data, offset, length);
+                return doVerify(createSignatureInstance(), publicKey, bytes, toDerSignature(signature));
+            }
+            Signature sig = acquireSignatureInstance(); //already initialized for verification
+            sig.update(data, offset, length);
+            return verifyUpdated(sig, signature);
+        } catch (Exception e) {
+            String msg = "Unable to verify Elliptic Curve signature using configured ECPublicKey. " + e.getMessage();
+            throw new SignatureException(msg, e);
+        }
+    }
+
+    @Override
+    public boolean isValid(SigningInput input, byte[] signature) {
+        if (getClass() != EllipticCurveSignatureValidator.class) { // subclasses may override isValid(byte[], byte[])
+            return isValid(input.toBytes(), signature);
+        }
+        try {
+            Signature sig = acquireSignatureInstance(); //already initialized for verification
+            input.update(sig);
+            return verifyUpdated(sig, signature);
         } catch (Exception e) {
             String msg = "Unable to verify Elliptic Curve signature using configured ECPublicKey. " + e.getMessage();
             throw new SignatureException(msg, e);
         }
     }
 
+    private boolean isDerSignature(byte[] signature) throws JwtException {
+        int expectedSize = getSignatureByteArrayLength(alg);
+        /**
+         *
+         * If the expected size is not valid for JOSE, fall back to ASN.1 DER signature.
+         * This fallback is for backwards compatibility ONLY (to support tokens generated by previous versions of jjwt)
+         * and backwards compatibility will possibly be removed in a future version of this library.
+         *
+         * **/
+        return expectedSize != signature.length && signature[0] == 0x30;
+    }
+
+    private byte[] toDerSignature(byte[] signature) throws JwtException {
+        return isDerSignature(signature) ? signature : EllipticCurveProvider.transcodeSignatureToDER(signature);
+    }
+
+    // sig has already been updated with the signed data:
+    private boolean verifyUpdated(Signature sig, byte[] signature)
+        throws JwtException, java.security.SignatureException {
+        if (isDerSignature(signature)) {
+            boolean valid = sig.verify(signature);
+            releaseSignatureInstance(sig); //verify() resets sig whether or not the signature was valid
+            return valid;
+        }
+        return verifyFromBuffer(sig, signature);
+    }
+
+    private boolean verifyFromBuffer(Signature sig, byte[] signature)
+        throws JwtException, java.security.SignatureException {
+        byte[] der = acquireDerBuffer();
+        int derLength = transcodeSignatureToDER(signature, 0, signature.length, der, 0);
+        boolean valid = sig.verify(der, 0, derLength);
+        releaseSignatureInstance(sig); //verify() resets sig whether or not the signature was valid
+        releaseDerBuffer(der);
+        return valid;
+    }
+
     protected boolean doVerify(Signature sig, PublicKey publicKey, byte[] data, byte[] signature)
         throws InvalidKeyException, java.security.SignatureException {
         sig.initVerify(publicKey);
@@ -25,7 +25,7 @@ import java.security.PrivateKey;
 import java.security.Signature;
 import java.security.interfaces.ECKey;
 
-public class EllipticCurveSigner extends EllipticCurveProvider implements Signer {
+public class EllipticCurveSigner extends EllipticCurveProvider implements Signer, SegmentSigner {
 
     public EllipticCurveSigner(SignatureAlgorithm alg, Key key) {
         super(alg, key);
@@ -49,11 +49,62 @@ public class EllipticCurveSigner extends EllipticCurveProvider implements Signer
         }
     }
 
+    @Override
+    public byte[] sign(byte[] data, int offset, int length) {
+        if (getClass() != EllipticCurveSigner.class) { // subclasses may override sign(byte[]) or doSign(byte[])
+            return sign(copyOfRange(data, offset, length));
+        }
+        try {
+            return signWithPooledInstance(data, offset, length);
+        } catch (InvalidKeyException e) {
+            throw new SignatureException("Invalid Elliptic Curve PrivateKey. " + e.getMessage(), e);
+        } catch (java.security.SignatureException e) {
+            throw new SignatureException("Unable to calculate signature using Elliptic Curve PrivateKey. " + e.getMessage(), e);
+        } catch (JwtException e) {
+            throw new SignatureException("Unable to convert signature to JOSE format. " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public byte[] sign(SigningInput input) {
+        if (getClass() != EllipticCurveSigner.class) { // subclasses may override sign(byte[]) or doSign(byte[])
+            return sign(input.toBytes());
+        }
+        try {
+            return signWithPooledInstance(input);
+        } catch (InvalidKeyException e) {
+            throw new SignatureException("Invalid Elliptic Curve PrivateKey. " + e.getMessage(), e);
+        } catch (java.security.SignatureException e) {
+            throw new SignatureException("Unable to calculate signature using Elliptic Curve PrivateKey. " + e.getMessage(), e);
+        } catch (JwtException e) {
+            throw new SignatureException("Unable to convert signature to JOSE format. " + e.getMessage(), e);
+        }
+    }
+
     protected byte[] doSign(byte[] data) throws InvalidKeyException, java.security.SignatureException, JwtException {
-        PrivateKey privateKey = (PrivateKey)key;
-        Signature sig = createSignatureInstance();
-        sig.initSign(privateKey);
-        sig.update(data);
-        return transcodeSignatureToConcat(sig.sign(), getSignatureByteArrayLength(alg));
+        return signWithPooledInstance(data, 0, data.length);
+    }
+
+    private byte[] signWithPooledInstance(SigningInput input) throws InvalidKeyException, java.security.SignatureException, JwtException {
+        Signature sig = acquireSignatureInstance();
+        input.update(sig);
+        return signToConcat(sig);
+    }
+
+    private byte[] signWithPooledInstance(byte[] data, int offset, int length) throws InvalidKeyException, java.security.SignatureException, JwtException {
+        Signature sig = acquireSignatureInstance();
+        sig.update(data, offset, length);
+        return signToConcat(sig);
+    }
+
+    // since 0.12.0: the DER signature is written to a pooled buffer and transcoded from there, so the JOSE signature
+    // is the only array allocated here:
+    private byte[] signToConcat(Signature sig) throws java.security.SignatureException, JwtException {
+        byte[] der = acquireDerBuffer();
+        int derLength = sig.sign(der, 0, der.length);
+        releaseSignatureInstance(sig);
+        byte[] signature = transcodeSignatureToConcat(der, 0, derLength, getSignatureByteArrayLength(alg));
+        releaseDerBuffer(der);
+        return signature;
     }
 }
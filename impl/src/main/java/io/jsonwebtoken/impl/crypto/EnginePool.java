@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto;
+
+import io.jsonwebtoken.lang.Assert;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A small, fixed-capacity, lock-free pool of idle JCA engine instances ({@code Mac}, {@code Signature}, etc).
+ *
+ * <p>Engines are neither created nor validated by the pool: callers {@link #poll() poll} for an idle engine, create
+ * one themselves if none is available, and {@link #offer(Object) offer} it back only once it is known to be in a
+ * clean, reusable state.  If the pool is full, an offered engine is simply dropped for the garbage collector.</p>
+ *
+ * <p>The pool never blocks and never allocates after construction, and it does not depend on thread identity (as a
+ * {@code ThreadLocal} would), so it behaves the same whether it is used from a few long-lived platform threads or
+ * from very many short-lived virtual threads.</p>
+ *
+ * @param <T> the type of pooled engine
+ * @since 0.12.0
+ */
+final class EnginePool<T> {
+
+    /**
+     * Default pool capacity.  Engines are only held while computing a single signature, so the number in use at once
+     * is bounded by the number of threads actually running on a CPU, not the total number of threads.
+     */
+    static final int DEFAULT_CAPACITY = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final AtomicReferenceArray<T> slots;
+
+    EnginePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    EnginePool(int capacity) {
+        Assert.isTrue(capacity > 0, "capacity must be greater than zero.");
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    // spread concurrent callers across the slots so they rarely compete for the same one:
+    private int start() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id ^ (id >>> 32)) & 0x7fffffff) % slots.length();
+    }
+
+    /**
+     * Removes and returns an idle engine, or returns {@code null} if there are no idle engines.
+     *
+     * @return an idle engine, or {@code null} if there are no idle engines.
+     */
+    T poll() {
+        final int n = slots.length();
+        int i = start();
+        for (int tries = 0; tries < n; tries++) {
+            T engine = slots.get(i);
+            if (engine != null && slots.compareAndSet(i, engine, null)) {
+                return engine;
+            }
+            if (++i == n) {
+                i = 0;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the specified engine to the pool if there is room for it.
+     *
+     * @param engine an engine in a clean, reusable state
+     * @return {@code true} if the engine was pooled, {@code false} if the pool was full and the engine was dropped.
+     */
+    boolean offer(T engine) {
+        Assert.notNull(engine, "engine cannot be null.");
+        final int n = slots.length();
+        int i = start();
+        for (int tries = 0; tries < n; tries++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, engine)) {
+                return true;
+            }
+            if (++i == n) {
+                i = 0;
+            }
+        }
+        return false;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -16,6 +16,7 @@
 package io.jsonwebtoken.impl.crypto;
 
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.lang.BoundedCache;
 import io.jsonwebtoken.lang.Assert;
 import io.jsonwebtoken.security.SignatureException;
 
@@ -26,7 +27,21 @@ import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 
-public class MacSigner extends MacProvider implements Signer {
+public class MacSigner extends MacProvider implements Signer, SegmentSigner {
+
+    /**
+     * Maximum number of distinct algorithm/key pairs whose {@link MacPool}s are shared by all {@code MacSigner}s.
+     * Least recently used pools are evicted beyond this.
+     *
+     * @since 0.12.0
+     */
+    static final int MAX_SHARED_POOLS = 64;
+
+    // since 0.12.0: keyed Mac pools shared by every MacSigner (and so every MacValidator) for the same algorithm and
+    // key, so that signers created per token, as JwtBuilder#compact does, still reuse keyed Macs:
+    private static final BoundedCache<PoolKey, MacPool> SHARED_POOLS = new BoundedCache<>(MAX_SHARED_POOLS);
+
+    private final MacPool pool;
 
     public MacSigner(SignatureAlgorithm alg, byte[] key) {
         this(alg, new SecretKeySpec(key, alg.getJcaName()));
@@ -40,12 +55,102 @@ public class MacSigner extends MacProvider implements Signer {
                          "type " + key.getClass().getName() + " is not a SecretKey.";
             throw new IllegalArgumentException(msg);
         }
+        // subclasses may override how Macs are created, so they never share (or pollute) another signer's pool:
+        this.pool = getClass() == MacSigner.class ? sharedPool(alg, key) : new MacPool();
+    }
+
+    private static MacPool sharedPool(SignatureAlgorithm alg, Key key) {
+        PoolKey poolKey = new PoolKey(alg.getJcaName(), key);
+        MacPool pool = SHARED_POOLS.get(poolKey, 0);
+        if (pool == null) {
+            pool = new MacPool();
+            SHARED_POOLS.put(poolKey, pool, BoundedCache.NEVER); //benign race: the last pool put is the one shared
+        }
+        return pool;
     }
 
     @Override
     public byte[] sign(byte[] data) {
-        Mac mac = getMacInstance();
-        return mac.doFinal(data);
+        Mac mac = acquireMac();
+        byte[] result = mac.doFinal(data);
+        releaseMac(mac); //doFinal resets the Mac, so it is ready for reuse with the same key
+        return result;
+    }
+
+    @Override
+    public byte[] sign(byte[] data, int offset, int length) {
+        if (getClass() != MacSigner.class) { // subclasses may override sign(byte[])
+            return sign(copyOfRange(data, offset, length));
+        }
+        Mac mac = acquireMac();
+        mac.update(data, offset, length);
+        byte[] result = mac.doFinal();
+        releaseMac(mac);
+        return result;
+    }
+
+    @Override
+    public byte[] sign(SigningInput input) {
+        if (getClass() != MacSigner.class) { // subclasses may override sign(byte[])
+            return sign(input.toBytes());
+        }
+        Mac mac = acquireMac();
+        input.update(mac);
+        byte[] result = mac.doFinal();
+        releaseMac(mac);
+        return result;
+    }
+
+    /**
+     * Returns an idle pooled Mac if available, otherwise a new one: the first Mac a pool needs is created via
+     * {@link #getMacInstance()} and returned as-is, so that a signer used only once does no extra work.  Later misses
+     * (when every pooled Mac is in use) clone a keyed prototype if the JCA provider supports cloning, which copies
+     * the key schedule instead of computing it again.  A Mac that fails during use is never returned to the pool.
+     *
+     * @return a keyed Mac, ready for use
+     * @throws SignatureException if a new Mac cannot be created
+     * @since 0.12.0
+     */
+    Mac acquireMac() throws SignatureException {
+        MacPool pool = this.pool;
+        Mac mac = pool.idle.poll();
+        if (mac != null) {
+            return mac;
+        }
+        if (!pool.used) {
+            pool.used = true;
+            return getMacInstance();
+        }
+        if (pool.cloneable) {
+            Mac prototype = pool.prototype;
+            if (prototype == null) {
+                mac = getMacInstance();
+                try {
+                    pool.prototype = (Mac) mac.clone(); //benign race: concurrent callers may each set a prototype
+                } catch (CloneNotSupportedException e) {
+                    pool.cloneable = false;
+                }
+                return mac;
+            }
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                pool.cloneable = false;
+                pool.prototype = null;
+            }
+        }
+        return getMacInstance();
+    }
+
+    /**
+     * Makes a Mac obtained from {@link #acquireMac()} available for reuse.  This must only be called after
+     * {@code doFinal} returned normally, since that resets the Mac to its freshly keyed state.
+     *
+     * @param mac the Mac to reuse
+     * @since 0.12.0
+     */
+    void releaseMac(Mac mac) {
+        pool.idle.offer(mac);
     }
 
     protected Mac getMacInstance() throws SignatureException {
@@ -65,4 +170,49 @@ public class MacSigner extends MacProvider implements Signer {
         mac.init(key);
         return mac;
     }
+
+    /**
+     * Idle, already-keyed Mac instances for a single algorithm and key, along with a keyed prototype that is never
+     * used itself, only cloned.
+     *
+     * @since 0.12.0
+     */
+    static final class MacPool {
+
+        private final EnginePool<Mac> idle = new EnginePool<>();
+
+        private volatile boolean used;
+
+        private volatile Mac prototype;
+
+        private volatile boolean cloneable = true;
+    }
+
+    private static final class PoolKey {
+
+        private final String jcaName;
+        private final Key key;
+
+        private PoolKey(String jcaName, Key key) {
+            this.jcaName = jcaName;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) o;
+            return jcaName.equals(other.jcaName) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * jcaName.hashCode() + key.hashCode();
+        }
+    }
 }
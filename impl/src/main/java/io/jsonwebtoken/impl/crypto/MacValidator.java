@@ -20,7 +20,7 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import java.security.Key;
 import java.security.MessageDigest;
 
-public class MacValidator implements SignatureValidator {
+public class MacValidator implements SignatureValidator, SegmentSignatureValidator {
 
     private final MacSigner signer;
 
@@ -33,4 +33,22 @@ public class MacValidator implements SignatureValidator {
         byte[] computed = this.signer.sign(data);
         return MessageDigest.isEqual(computed, signature);
     }
+
+    @Override
+    public boolean isValid(byte[] data, int offset, int length, byte[] signature) {
+        if (getClass() != MacValidator.class) { // subclasses may override isValid(byte[], byte[])
+            return isValid(SignatureProvider.copyOfRange(data, offset, length), signature);
+        }
+        byte[] computed = this.signer.sign(data, offset, length);
+        return MessageDigest.isEqual(computed, signature);
+    }
+
+    @Override
+    public boolean isValid(SigningInput input, byte[] signature) {
+        if (getClass() != MacValidator.class) { // subclasses may override isValid(byte[], byte[])
+            return isValid(input.toBytes(), signature);
+        }
+        byte[] computed = this.signer.sign(input);
+        return MessageDigest.isEqual(computed, signature);
+    }
 }
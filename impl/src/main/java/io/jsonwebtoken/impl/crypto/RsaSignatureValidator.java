@@ -28,7 +28,7 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Arrays;
 
-public class RsaSignatureValidator extends RsaProvider implements SignatureValidator {
+public class RsaSignatureValidator extends RsaProvider implements SignatureValidator, SegmentSignatureValidator {
 
     private final RsaSigner SIGNER;
 
@@ -41,18 +41,61 @@ public class RsaSignatureValidator extends RsaProvider implements SignatureValid
 
     @Override
     public boolean isValid(byte[] data, byte[] signature) {
+        return verify(data, 0, data.length, signature);
+    }
+
+    @Override
+    public boolean isValid(byte[] data, int offset, int length, byte[] signature) {
+        if (getClass() != RsaSignatureValidator.class) { // subclasses may override isValid(byte[], byte[])
+            return isValid(copyOfRange(data, offset, length), signature);
+        }
+        return verify(data, offset, length, signature);
+    }
+
+    private boolean verify(byte[] data, int offset, int length, byte[] signature) {
         if (key instanceof PublicKey) {
-            Signature sig = createSignatureInstance();
             PublicKey publicKey = (PublicKey) key;
             try {
-                return doVerify(sig, publicKey, data, signature);
+                if (getClass() != RsaSignatureValidator.class) {
+                    // subclasses may override doVerify, which initializes a new instance itself, as it always has:
+                    byte[] bytes = copyOfRange(data, offset, length);
+                    return doVerify(createSignatureInstance(), publicKey, bytes, signature);
+                }
+                Signature sig = acquireSignatureInstance(); //already initialized for verification
+                sig.update(data, offset, length);
+                boolean valid = sig.verify(signature);
+                releaseSignatureInstance(sig); //verify() resets sig whether or not the signature was valid
+                return valid;
+            } catch (Exception e) {
+                String msg = "Unable to verify RSA signature using configured PublicKey. " + e.getMessage();
+                throw new SignatureException(msg, e);
+            }
+        } else {
+            Assert.notNull(this.SIGNER, "RSA Signer instance cannot be null.  This is a bug.  Please report it.");
+            byte[] computed = this.SIGNER.sign(data, offset, length);
+            return MessageDigest.isEqual(computed, signature);
+        }
+    }
+
+    @Override
+    public boolean isValid(SigningInput input, byte[] signature) {
+        if (getClass() != RsaSignatureValidator.class) { // subclasses may override isValid(byte[], byte[])
+            return isValid(input.toBytes(), signature);
+        }
+        if (key instanceof PublicKey) {
+            try {
+                Signature sig = acquireSignatureInstance(); //already initialized for verification
+                input.update(sig);
+                boolean valid = sig.verify(signature);
+                releaseSignatureInstance(sig); //verify() resets sig whether or not the signature was valid
+                return valid;
             } catch (Exception e) {
                 String msg = "Unable to verify RSA signature using configured PublicKey. " + e.getMessage();
                 throw new SignatureException(msg, e);
             }
         } else {
             Assert.notNull(this.SIGNER, "RSA Signer instance cannot be null.  This is a bug.  Please report it.");
-            byte[] computed = this.SIGNER.sign(data);
+            byte[] computed = this.SIGNER.sign(input);
             return MessageDigest.isEqual(computed, signature);
         }
     }
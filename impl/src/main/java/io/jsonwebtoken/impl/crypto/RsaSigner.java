@@ -24,7 +24,7 @@ import java.security.PrivateKey;
 import java.security.Signature;
 import java.security.interfaces.RSAKey;
 
-public class RsaSigner extends RsaProvider implements Signer {
+public class RsaSigner extends RsaProvider implements Signer, SegmentSigner {
 
     public RsaSigner(SignatureAlgorithm alg, Key key) {
         super(alg, key);
@@ -48,12 +48,52 @@ public class RsaSigner extends RsaProvider implements Signer {
         }
     }
 
+    @Override
+    public byte[] sign(byte[] data, int offset, int length) {
+        if (getClass() != RsaSigner.class) { // subclasses may override sign(byte[]) or doSign(byte[])
+            return sign(copyOfRange(data, offset, length));
+        }
+        try {
+            return signWithPooledInstance(data, offset, length);
+        } catch (InvalidKeyException e) {
+            throw new SignatureException("Invalid RSA PrivateKey. " + e.getMessage(), e);
+        } catch (java.security.SignatureException e) {
+            throw new SignatureException("Unable to calculate signature using RSA PrivateKey. " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public byte[] sign(SigningInput input) {
+        if (getClass() != RsaSigner.class) { // subclasses may override sign(byte[]) or doSign(byte[])
+            return sign(input.toBytes());
+        }
+        try {
+            return signWithPooledInstance(input);
+        } catch (InvalidKeyException e) {
+            throw new SignatureException("Invalid RSA PrivateKey. " + e.getMessage(), e);
+        } catch (java.security.SignatureException e) {
+            throw new SignatureException("Unable to calculate signature using RSA PrivateKey. " + e.getMessage(), e);
+        }
+    }
+
     protected byte[] doSign(byte[] data) throws InvalidKeyException, java.security.SignatureException {
-        PrivateKey privateKey = (PrivateKey)key;
-        Signature sig = createSignatureInstance();
-        sig.initSign(privateKey);
-        sig.update(data);
-        return sig.sign();
+        return signWithPooledInstance(data, 0, data.length);
+    }
+
+    private byte[] signWithPooledInstance(SigningInput input) throws InvalidKeyException, java.security.SignatureException {
+        Signature sig = acquireSignatureInstance();
+        input.update(sig);
+        byte[] signature = sig.sign();
+        releaseSignatureInstance(sig);
+        return signature;
+    }
+
+    private byte[] signWithPooledInstance(byte[] data, int offset, int length) throws InvalidKeyException, java.security.SignatureException {
+        Signature sig = acquireSignatureInstance();
+        sig.update(data, offset, length);
+        byte[] signature = sig.sign();
+        releaseSignatureInstance(sig);
+        return signature;
     }
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto;
+
+/**
+ * A {@link SignatureValidator} that can also verify a range of a larger array, or separate header and payload
+ * segments, without first copying them into a new array.
+ *
+ * <p>This is deliberately not part of the {@code SignatureValidator} SPI, so that {@code SignatureValidator}s
+ * returned by custom {@link SignatureValidatorFactory} implementations remain valid.
+ * {@link DefaultJwtSignatureValidator} only verifies ranges and segments directly when its
+ * {@code SignatureValidator} implements this interface, and copies them for the single-array method otherwise.</p>
+ *
+ * @since 0.12.0
+ */
+interface SegmentSignatureValidator {
+
+    /**
+     * Returns {@code true} if the specified signature is valid for the {@code length} bytes of {@code data} starting
+     * at {@code offset}, {@code false} otherwise.
+     *
+     * @param data      the buffer containing the signed bytes
+     * @param offset    the index of the first signed byte
+     * @param length    the number of signed bytes
+     * @param signature the signature to verify
+     * @return {@code true} if the signature is valid, {@code false} otherwise
+     */
+    boolean isValid(byte[] data, int offset, int length, byte[] signature);
+
+    /**
+     * Returns {@code true} if the specified signature is valid for the specified header and payload segments,
+     * {@code false} otherwise.  The segments are fed to the underlying engine one after the other instead of being
+     * concatenated first.
+     *
+     * @param input     the signed header and payload segments
+     * @param signature the signature to verify
+     * @return {@code true} if the signature is valid, {@code false} otherwise
+     */
+    boolean isValid(SigningInput input, byte[] signature);
+}
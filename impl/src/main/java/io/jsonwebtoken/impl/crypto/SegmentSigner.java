@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto;
+
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * A {@link Signer} that can also sign a range of a larger array, or separate header and payload segments, without
+ * first copying them into a new array.
+ *
+ * <p>This is deliberately not part of the {@code Signer} SPI, so that {@code Signer}s returned by custom
+ * {@link SignerFactory} implementations remain valid.  {@link DefaultJwtSigner} only signs ranges and segments
+ * directly when its {@code Signer} implements this interface, and copies them for the single-array method
+ * otherwise.</p>
+ *
+ * @since 0.12.0
+ */
+interface SegmentSigner {
+
+    /**
+     * Signs the {@code length} bytes of {@code data} starting at {@code offset}.
+     *
+     * @param data   the buffer containing the bytes to sign
+     * @param offset the index of the first byte to sign
+     * @param length the number of bytes to sign
+     * @return the resulting signature
+     * @throws SignatureException if the signature cannot be computed
+     */
+    byte[] sign(byte[] data, int offset, int length) throws SignatureException;
+
+    /**
+     * Signs the specified header and payload segments, feeding them to the underlying engine one after the other
+     * instead of concatenating them first.
+     *
+     * @param input the header and payload segments to sign
+     * @return the resulting signature
+     * @throws SignatureException if the signature cannot be computed
+     */
+    byte[] sign(SigningInput input) throws SignatureException;
+}
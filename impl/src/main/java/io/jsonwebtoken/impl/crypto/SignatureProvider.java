@@ -20,10 +20,14 @@ import io.jsonwebtoken.lang.Assert;
 import io.jsonwebtoken.lang.RuntimeEnvironment;
 import io.jsonwebtoken.security.SignatureException;
 
+import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.Signature;
+import java.util.Arrays;
 
 abstract class SignatureProvider {
 
@@ -50,6 +54,9 @@ abstract class SignatureProvider {
     protected final SignatureAlgorithm alg;
     protected final Key key;
 
+    // since 0.12.0: idle Signature instances, already initialized with this provider's key, ready for reuse:
+    private final EnginePool<Signature> signatures = new EnginePool<>();
+
     protected SignatureProvider(SignatureAlgorithm alg, Key key) {
         Assert.notNull(alg, "SignatureAlgorithm cannot be null.");
         Assert.notNull(key, "Key cannot be null.");
@@ -69,6 +76,58 @@ abstract class SignatureProvider {
         }
     }
 
+    /**
+     * Returns an idle pooled {@code Signature} instance if available, otherwise a new one from
+     * {@link #createSignatureInstance()}.  Either way the instance is already initialized with this provider's key:
+     * for signing if the key is a {@link PrivateKey}, for verification if it is a {@link PublicKey}.
+     *
+     * <p>Callers should {@link #releaseSignatureInstance(Signature) release} the instance after {@code sign()} or
+     * {@code verify()} returns, and simply discard it if any {@code Signature} method throws an exception.</p>
+     *
+     * @return a {@code Signature} instance initialized with this provider's key
+     * @throws InvalidKeyException if a new instance cannot be initialized with this provider's key
+     * @since 0.12.0
+     */
+    Signature acquireSignatureInstance() throws InvalidKeyException {
+        Signature sig = signatures.poll();
+        if (sig == null) {
+            sig = createSignatureInstance();
+            if (key instanceof PrivateKey) {
+                sig.initSign((PrivateKey) key);
+            } else {
+                sig.initVerify((PublicKey) key);
+            }
+        }
+        return sig;
+    }
+
+    /**
+     * Returns a {@code Signature} instance obtained from {@link #acquireSignatureInstance()} to the pool.  This must
+     * only be called after {@code sign()} or {@code verify()} returned normally - even when {@code verify()} returns
+     * {@code false} - because both reset the instance to the state it was in immediately after initialization.  After
+     * an exception, the instance's state is undefined and it must not be reused.
+     *
+     * @param sig the instance to make available for reuse
+     * @since 0.12.0
+     */
+    void releaseSignatureInstance(Signature sig) {
+        signatures.offer(sig);
+    }
+
+    /**
+     * Returns the {@code length} bytes of {@code data} starting at {@code offset} as an exact-length array, for
+     * passing a range to the single-array methods that subclasses and custom implementations may override.
+     *
+     * @param data   the buffer containing the range
+     * @param offset the index of the first byte of the range
+     * @param length the number of bytes in the range
+     * @return {@code data} itself if the range covers the whole array, otherwise a copy of the range
+     * @since 0.12.0
+     */
+    static byte[] copyOfRange(byte[] data, int offset, int length) {
+        return offset == 0 && length == data.length ? data : Arrays.copyOfRange(data, offset, offset + length);
+    }
+
     protected Signature getSignatureInstance() throws NoSuchAlgorithmException {
         return Signature.getInstance(alg.getJcaName());
     }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.lang.Assert;
+
+import javax.crypto.Mac;
+import java.security.Signature;
+import java.security.SignatureException;
+
+/**
+ * The content a JWS signature is computed over - the encoded header, a period and the encoded payload - described as
+ * two separate segments of a larger buffer.  Signers and validators feed the segments and the separator to
+ * {@code Mac.update} or {@code Signature.update} one after the other, so the {@code header.payload} concatenation is
+ * never built.
+ *
+ * <p>Segments of a US-ASCII {@code byte[]} are passed to the engine as-is.  Segments of a {@code CharSequence} are
+ * converted to US-ASCII through a small buffer that is reused for each chunk, replacing any non-ASCII character with
+ * {@code '?'} exactly as {@code String.getBytes(US_ASCII)} would.</p>
+ *
+ * @since 0.12.0
+ */
+public final class SigningInput {
+
+    private static final int MAX_CHUNK_SIZE = 1024;
+
+    private static final byte SEPARATOR = (byte) JwtParser.SEPARATOR_CHAR;
+
+    private final byte[] ascii;
+    private final CharSequence chars;
+    private final int headerOffset;
+    private final int headerLength;
+    private final int payloadOffset;
+    private final int payloadLength;
+
+    private SigningInput(byte[] ascii, CharSequence chars, int sourceLength,
+                         int headerOffset, int headerLength, int payloadOffset, int payloadLength) {
+        Assert.isTrue(headerOffset >= 0 && headerLength >= 0 && headerOffset + headerLength <= sourceLength &&
+            payloadOffset >= 0 && payloadLength >= 0 && payloadOffset + payloadLength <= sourceLength,
+            "Header and payload segments must be within the bounds of the source.");
+        this.ascii = ascii;
+        this.chars = chars;
+        this.headerOffset = headerOffset;
+        this.headerLength = headerLength;
+        this.payloadOffset = payloadOffset;
+        this.payloadLength = payloadLength;
+    }
+
+    /**
+     * Returns the signing input formed by the specified header and payload segments of a US-ASCII byte array.
+     *
+     * @param ascii         the US-ASCII bytes containing both segments
+     * @param headerOffset  the index of the first encoded header byte
+     * @param headerLength  the number of encoded header bytes
+     * @param payloadOffset the index of the first encoded payload byte
+     * @param payloadLength the number of encoded payload bytes
+     * @return the signing input formed by the specified segments.
+     */
+    public static SigningInput of(byte[] ascii, int headerOffset, int headerLength,
+                                  int payloadOffset, int payloadLength) {
+        Assert.notNull(ascii, "ascii bytes cannot be null.");
+        return new SigningInput(ascii, null, ascii.length, headerOffset, headerLength, payloadOffset, payloadLength);
+    }
+
+    /**
+     * Returns the signing input formed by the specified header and payload segments of a character sequence.
+     *
+     * @param chars         the characters containing both segments
+     * @param headerOffset  the index of the first encoded header character
+     * @param headerLength  the number of encoded header characters
+     * @param payloadOffset the index of the first encoded payload character
+     * @param payloadLength the number of encoded payload characters
+     * @return the signing input formed by the specified segments.
+     */
+    public static SigningInput of(CharSequence chars, int headerOffset, int headerLength,
+                                  int payloadOffset, int payloadLength) {
+        Assert.notNull(chars, "chars cannot be null.");
+        return new SigningInput(null, chars, chars.length(), headerOffset, headerLength, payloadOffset, payloadLength);
+    }
+
+    /**
+     * Returns the total number of bytes in the signing input, including the separator.
+     *
+     * @return the total number of bytes in the signing input, including the separator.
+     */
+    public int length() {
+        return headerLength + 1 + payloadLength;
+    }
+
+    /**
+     * Returns the {@code header.payload} concatenation as a new US-ASCII array, for {@code Signer}s and
+     * {@code SignatureValidator}s that can only sign or verify a single array.
+     *
+     * @return the {@code header.payload} concatenation as a new US-ASCII array
+     */
+    byte[] toBytes() {
+        byte[] bytes = new byte[length()];
+        copy(headerOffset, headerLength, bytes, 0);
+        bytes[headerLength] = SEPARATOR;
+        copy(payloadOffset, payloadLength, bytes, headerLength + 1);
+        return bytes;
+    }
+
+    private void copy(int offset, int length, byte[] dest, int destOffset) {
+        if (ascii != null) {
+            System.arraycopy(ascii, offset, dest, destOffset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(offset + i);
+            dest[destOffset + i] = c > 0x7f ? (byte) '?' : (byte) c;
+        }
+    }
+
+    private byte[] newChunk() {
+        return ascii != null ? null : new byte[Math.min(Math.max(headerLength, payloadLength), MAX_CHUNK_SIZE)];
+    }
+
+    // copies as many characters as fit in the chunk, starting at offset, and returns the number copied:
+    private int fill(byte[] chunk, int offset, int end) {
+        int n = Math.min(chunk.length, end - offset);
+        for (int i = 0; i < n; i++) {
+            char c = chars.charAt(offset + i);
+            chunk[i] = c > 0x7f ? (byte) '?' : (byte) c;
+        }
+        return n;
+    }
+
+    void update(Mac mac) {
+        byte[] chunk = newChunk();
+        update(mac, headerOffset, headerLength, chunk);
+        mac.update(SEPARATOR);
+        update(mac, payloadOffset, payloadLength, chunk);
+    }
+
+    private void update(Mac mac, int offset, int length, byte[] chunk) {
+        if (ascii != null) {
+            mac.update(ascii, offset, length);
+            return;
+        }
+        for (int end = offset + length; offset < end; ) {
+            int n = fill(chunk, offset, end);
+            mac.update(chunk, 0, n);
+            offset += n;
+        }
+    }
+
+    void update(Signature sig) throws SignatureException {
+        byte[] chunk = newChunk();
+        update(sig, headerOffset, headerLength, chunk);
+        sig.update(SEPARATOR);
+        update(sig, payloadOffset, payloadLength, chunk);
+    }
+
+    private void update(Signature sig, int offset, int length, byte[] chunk) throws SignatureException {
+        if (ascii != null) {
+            sig.update(ascii, offset, length);
+            return;
+        }
+        for (int end = offset + length; offset < end; ) {
+            int n = fill(chunk, offset, end);
+            sig.update(chunk, 0, n);
+            offset += n;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.lang;
+
+import io.jsonwebtoken.CacheStatistics;
+import io.jsonwebtoken.lang.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe, size-bounded, least-recently-used cache with optional per-entry expiration.
+ *
+ * <p>Entries are spread across a fixed number of independently locked segments so that concurrent lookups of
+ * different keys rarely contend.  Each segment evicts its own least-recently-used entry when it is full, so the total
+ * number of entries never exceeds {@link #getMaxSize() maxSize}, although the evicted entry is only the least recently
+ * used within its segment.</p>
+ *
+ * <p>Expiration times are supplied by the caller and compared against a caller-supplied 'now' so that the cache
+ * honors whatever {@link io.jsonwebtoken.Clock Clock} the caller is configured with.  Expired entries are removed
+ * lazily, when they are next looked up or when they are the eldest entry in a full segment.</p>
+ *
+ * @param <K> the type of cache keys
+ * @param <V> the type of cached values
+ * @since 0.12.0
+ */
+public final class BoundedCache<K, V> implements CacheStatistics {
+
+    /**
+     * Expiration time used for entries that never expire.
+     */
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize) {
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+        int count = Math.min(MAX_SEGMENTS, maxSize);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // distribute the remainder so that the segment capacities add up to exactly maxSize:
+            int capacity = maxSize / count + (i < maxSize % count ? 1 : 0);
+            this.segments[i] = new Segment<>(capacity, this.evictions);
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[(h & 0x7fffffff) % segments.length];
+    }
+
+    /**
+     * Returns the value cached for the specified key, or {@code null} if there is no such value or it expired at or
+     * before {@code nowMillis}.
+     *
+     * @param key       the cache key
+     * @param nowMillis the current time, in milliseconds since the epoch
+     * @return the value cached for the specified key, or {@code null} if there is no unexpired value.
+     */
+    public V get(K key, long nowMillis) {
+        Assert.notNull(key, "key cannot be null.");
+        V value = segmentFor(key).get(key, nowMillis);
+        if (value != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Caches the specified value, replacing any existing value for the same key, until {@code expiresAtMillis}, or
+     * indefinitely (subject to size-based eviction) if {@code expiresAtMillis} is {@link #NEVER}.
+     *
+     * @param key             the cache key
+     * @param value           the value to cache
+     * @param expiresAtMillis the time at which the value expires, in milliseconds since the epoch
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        Assert.notNull(key, "key cannot be null.");
+        Assert.notNull(value, "value cannot be null.");
+        segmentFor(key).put(key, value, expiresAtMillis);
+    }
+
+    /**
+     * Removes any value cached for the specified key.
+     *
+     * @param key the cache key
+     * @return the removed value, or {@code null} if there was no cached value.
+     */
+    public V remove(K key) {
+        Assert.notNull(key, "key cannot be null.");
+        return segmentFor(key).remove(key);
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache{size=" + getSize() + ", maxSize=" + maxSize + ", hits=" + getHitCount() +
+            ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "}";
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Segment<K, V> {
+
+        private final LinkedHashMap<K, Entry<V>> map;
+
+        private final AtomicLong evictions;
+
+        Segment(final int capacity, final AtomicLong evictions) {
+            this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            this.evictions = evictions;
+        }
+
+        synchronized V get(K key, long now) {
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                map.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(K key, V value, long expiresAt) {
+            map.put(key, new Entry<>(value, expiresAt));
+        }
+
+        synchronized V remove(K key) {
+            Entry<V> entry = map.remove(key);
+            return entry != null ? entry.value : null;
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
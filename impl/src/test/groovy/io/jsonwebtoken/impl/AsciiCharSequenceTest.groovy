@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class AsciiCharSequenceTest {
+
+    @Test
+    void testView() {
+        byte[] bytes = 'xxhello.worldxx'.getBytes('US-ASCII')
+        def seq = new AsciiCharSequence(bytes, 2, 11)
+        assertEquals 11, seq.length()
+        assertEquals 'h' as char, seq.charAt(0)
+        assertEquals 'd' as char, seq.charAt(10)
+        assertEquals 'hello.world', seq.toString()
+        assertEquals 'world', seq.subSequence(6, 11).toString()
+        assertSame bytes, seq.bytes
+        assertEquals 2, seq.offset
+    }
+
+    @Test
+    void testHighBytesAreWidened() {
+        def seq = new AsciiCharSequence([(byte) 0xE9] as byte[], 0, 1)
+        assertEquals((char) 0xE9, seq.charAt(0))
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testInvalidRange() {
+        new AsciiCharSequence(new byte[4], 3, 2)
+    }
+
+    @Test(expected = IndexOutOfBoundsException)
+    void testCharAtOutOfBounds() {
+        new AsciiCharSequence(new byte[4], 1, 2).charAt(2)
+    }
+
+    @Test(expected = IndexOutOfBoundsException)
+    void testSubSequenceOutOfBounds() {
+        new AsciiCharSequence(new byte[4], 1, 2).subSequence(1, 3)
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.io.Encoder
+import io.jsonwebtoken.io.Encoders
+import io.jsonwebtoken.io.EncodingException
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class AsciiStringBuilderTest {
+
+    @Test
+    void testAppendAndGrow() {
+        def b = new AsciiStringBuilder(0)
+        for (int i = 0; i < 10; i++) {
+            b.append('abc').append('.' as char)
+        }
+        assertEquals 40, b.length()
+        assertEquals 'abc.' * 10, b.toString()
+        assertEquals 'abc.' * 10, new String(b.getBytes(), 0, b.length(), 'US-ASCII')
+    }
+
+    @Test
+    void testAppendEncodedWithBufferEncoder() {
+        byte[] data = 'hello world'.getBytes('US-ASCII')
+        def b = new AsciiStringBuilder(4).append('x.').appendEncoded(Encoders.BASE64URL, data)
+        assertEquals 'x.' + Encoders.BASE64URL.encode(data), b.toString()
+    }
+
+    @Test
+    void testAppendEncodedWithOtherEncoder() {
+        def encoder = new Encoder<byte[], String>() {
+            @Override
+            String encode(byte[] bytes) throws EncodingException {
+                return 'n=' + bytes.length
+            }
+        }
+        assertEquals 'n=3', new AsciiStringBuilder(16).appendEncoded(encoder, new byte[3]).toString()
+    }
+
+    @Test
+    void testNonAsciiCharactersAreRejected() {
+        def b = new AsciiStringBuilder(16).append('ok')
+        try {
+            b.append('é' as char)
+            fail()
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            b.append('ab世')
+            fail()
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals 'ok', b.toString()
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.Clock
+import io.jsonwebtoken.ExpiredJwtException
+import io.jsonwebtoken.Jws
+import io.jsonwebtoken.JwtParser
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.MalformedJwtException
+import io.jsonwebtoken.ParseCallback
+import io.jsonwebtoken.ParseResult
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.io.DeserializationException
+import io.jsonwebtoken.io.Deserializer
+import io.jsonwebtoken.jackson.io.JacksonDeserializer
+import io.jsonwebtoken.security.Keys
+import io.jsonwebtoken.security.SignatureException
+import org.junit.Test
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+import static org.junit.Assert.*
+
+class AsyncParserTest {
+
+    private static final def HMAC_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+    private static final def RSA_PAIR = Keys.keyPairFor(SignatureAlgorithm.RS256)
+
+    /**
+     * Queues tasks until they are explicitly run, so tests can observe queue depth and callback threads.
+     */
+    private static class ManualExecutor implements Executor {
+        final List<Runnable> tasks = []
+
+        @Override
+        void execute(Runnable command) {
+            tasks << command
+        }
+
+        void runAll() {
+            def copy = new ArrayList(tasks)
+            tasks.clear()
+            copy*.run()
+        }
+    }
+
+    private static class RecordingCallback implements ParseCallback<Jws<Claims>> {
+        final List<ParseResult<Jws<Claims>>> results = []
+        Thread thread
+
+        @Override
+        void onComplete(ParseResult<Jws<Claims>> result) {
+            thread = Thread.currentThread()
+            results << result
+        }
+    }
+
+    private static String hs(String subject) {
+        return Jwts.builder().setSubject(subject).signWith(HMAC_KEY).compact()
+    }
+
+    private static String rs(String subject) {
+        return Jwts.builder().setSubject(subject).signWith(RSA_PAIR.private).compact()
+    }
+
+    private static JwtParser rsaParser(Executor executor) {
+        return Jwts.parserBuilder().setSigningKey(RSA_PAIR.public).setAsyncExecutor(executor).build()
+    }
+
+    @Test
+    void testHmacCompletesOnCallingThread() {
+        def executor = new ManualExecutor()
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(HMAC_KEY).setAsyncExecutor(executor).build()
+        def callback = new RecordingCallback()
+
+        def future = parser.parseClaimsJwsAsync(hs('joe'), callback)
+
+        assertTrue future.isDone()
+        assertTrue executor.tasks.isEmpty()
+        assertEquals 'joe', future.get().body.getSubject()
+        assertSame Thread.currentThread(), callback.thread
+        assertTrue callback.results[0].success
+        assertEquals 1, parser.asyncParseStatistics.inlineCount
+        assertEquals 0, parser.asyncParseStatistics.offloadedCount
+    }
+
+    @Test
+    void testRsaIsOffloaded() {
+        def executor = new ManualExecutor()
+        JwtParser parser = rsaParser(executor)
+        def callback = new RecordingCallback()
+        String jws = rs('joe')
+
+        def future = parser.parseClaimsJwsAsync(jws, callback)
+
+        assertFalse future.isDone()
+        assertTrue callback.results.isEmpty()
+        assertEquals 1, parser.asyncParseStatistics.queueDepth
+        assertEquals 1, parser.asyncParseStatistics.offloadedCount
+
+        executor.runAll()
+
+        assertTrue future.isDone()
+        assertEquals 'joe', future.get().body.getSubject()
+        assertEquals 1, callback.results.size()
+        assertSame jws, callback.results[0].jwt
+        assertEquals 'joe', callback.results[0].value.body.getSubject()
+        assertEquals 0, parser.asyncParseStatistics.queueDepth
+        assertEquals 0, parser.asyncParseStatistics.inlineCount
+        assertTrue parser.asyncParseStatistics.maxOffloadLatencyNanos > 0
+        assertTrue parser.asyncParseStatistics.totalOffloadLatencyNanos >= parser.asyncParseStatistics.maxOffloadLatencyNanos
+    }
+
+    // records the JSON it deserializes:
+    private static Deserializer<Map<String, ?>> recordingDeserializer(List<String> json) {
+        def delegate = new JacksonDeserializer<Map<String, ?>>()
+        return new Deserializer<Map<String, ?>>() {
+            @Override
+            Map<String, ?> deserialize(byte[] bytes) throws DeserializationException {
+                json << new String(bytes, 'UTF-8')
+                return delegate.deserialize(bytes)
+            }
+        }
+    }
+
+    @Test
+    void testOnlyVerificationIsOffloaded() {
+        def executor = new ManualExecutor()
+        def json = []
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(RSA_PAIR.public).setAsyncExecutor(executor)
+            .deserializeJsonWith(recordingDeserializer(json)).build()
+
+        def future = parser.parseClaimsJwsAsync(rs('joe'))
+
+        assertEquals 2, json.size() // the header and the payload, each read once, before anything is offloaded
+        assertTrue json[0].contains('"alg"')
+        assertTrue json[1].contains('"sub"')
+        assertEquals 1, executor.tasks.size()
+
+        executor.runAll()
+
+        assertEquals 'joe', future.get().body.getSubject()
+        assertEquals 2, json.size()
+    }
+
+    @Test
+    void testPayloadIsReadAfterOffloadedVerificationWhenVerifyingFirst() {
+        def executor = new ManualExecutor()
+        def json = []
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(RSA_PAIR.public).setAsyncExecutor(executor)
+            .deserializeJsonWith(recordingDeserializer(json)).setVerifySignatureFirst(true).build()
+
+        def future = parser.parseClaimsJwsAsync(rs('joe'))
+
+        assertEquals 1, json.size()
+        assertTrue json[0].contains('"alg"')
+
+        executor.runAll()
+
+        assertEquals 'joe', future.get().body.getSubject()
+        assertEquals 2, json.size()
+    }
+
+    @Test
+    void testUnsupportedJwsFailsAfterVerification() {
+        def executor = new ManualExecutor()
+        def callback = new RecordingCallback()
+        String jws = Jwts.builder().setPayload('plain').signWith(RSA_PAIR.private).compact()
+
+        rsaParser(executor).parseClaimsJwsAsync(jws, callback)
+        executor.runAll()
+
+        assertTrue callback.results[0].exception instanceof io.jsonwebtoken.UnsupportedJwtException
+    }
+
+    @Test
+    void testSubclassParseIsUsed() {
+        def parser = new DefaultJwtParser() {
+            @Override
+            Jws<Claims> parseClaimsJws(String claimsJws) {
+                def jws = super.parseClaimsJws(claimsJws)
+                jws.body.put('seen', true)
+                return jws
+            }
+        }
+        parser.setSigningKey(HMAC_KEY)
+
+        assertEquals true, parser.parseClaimsJwsAsync(hs('joe')).get().body.get('seen')
+    }
+
+    @Test
+    void testOffloadedFailure() {
+        def executor = new ManualExecutor()
+        def callback = new RecordingCallback()
+        String jws = rs('joe')
+        String tampered = jws.substring(0, jws.length() - 2) + (jws.endsWith('AA') ? 'BB' : 'AA')
+
+        def future = rsaParser(executor).parseClaimsJwsAsync(tampered, callback)
+        executor.runAll()
+
+        assertTrue callback.results[0].exception instanceof SignatureException
+        try {
+            future.get()
+            fail()
+        } catch (ExecutionException e) {
+            assertTrue e.cause instanceof SignatureException
+        }
+    }
+
+    @Test
+    void testMalformedCompletesOnCallingThread() {
+        def executor = new ManualExecutor()
+        JwtParser parser = rsaParser(executor)
+        def callbacks = (0..<3).collect { new RecordingCallback() }
+
+        parser.parseClaimsJwsAsync('not a jwt', callbacks[0])
+        parser.parseClaimsJwsAsync('', callbacks[1])
+        parser.parseClaimsJwsAsync(null, callbacks[2])
+
+        assertTrue executor.tasks.isEmpty()
+        callbacks.each {
+            assertFalse it.results[0].success
+            assertTrue it.results[0].exception instanceof MalformedJwtException
+        }
+        assertEquals 3, parser.asyncParseStatistics.inlineCount
+    }
+
+    @Test
+    void testVerifiedCacheHitCompletesOnCallingThread() {
+        def executor = new ManualExecutor()
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(RSA_PAIR.public).setVerifiedJwsCacheSize(10)
+            .setAsyncExecutor(executor).build()
+        String jws = rs('joe')
+
+        parser.parseClaimsJwsAsync(jws)
+        executor.runAll()
+        def future = parser.parseClaimsJwsAsync(jws)
+
+        assertTrue future.isDone()
+        assertTrue executor.tasks.isEmpty()
+        assertEquals 'joe', future.get().body.getSubject()
+        assertEquals 1, parser.verifiedJwsCacheStatistics.hitCount
+        assertEquals 1, parser.verifiedJwsCacheStatistics.missCount
+        assertEquals 1, parser.asyncParseStatistics.offloadedCount
+        assertEquals 1, parser.asyncParseStatistics.inlineCount
+    }
+
+    @Test
+    void testExpiredCacheEntryFailsOnCallingThread() {
+        long now = System.currentTimeMillis()
+        Date current = new Date(now)
+        def clock = { current } as Clock
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(HMAC_KEY).setVerifiedJwsCacheSize(10).setClock(clock)
+            .build()
+        String jws = Jwts.builder().setExpiration(new Date(now + 60000)).signWith(HMAC_KEY).compact()
+        parser.parseClaimsJws(jws)
+        current = new Date(now + 120000)
+        def callback = new RecordingCallback()
+
+        parser.parseClaimsJwsAsync(jws, callback)
+
+        assertTrue callback.results[0].exception instanceof ExpiredJwtException
+    }
+
+    @Test
+    void testRejectedExecution() {
+        JwtParser parser = rsaParser(new Executor() {
+            @Override
+            void execute(Runnable command) {
+                throw new RejectedExecutionException('full')
+            }
+        })
+        try {
+            parser.parseClaimsJwsAsync(rs('joe'))
+            fail()
+        } catch (RejectedExecutionException expected) {
+        }
+        assertEquals 0, parser.asyncParseStatistics.queueDepth
+        assertEquals 0, parser.asyncParseStatistics.offloadedCount
+    }
+
+    @Test
+    void testDefaultExecutor() {
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(RSA_PAIR.public).build()
+        def callback = new RecordingCallback()
+
+        def future = parser.parseClaimsJwsAsync(rs('joe'), callback)
+
+        assertEquals 'joe', future.get(10, TimeUnit.SECONDS).body.getSubject()
+        assertEquals 1, parser.asyncParseStatistics.offloadedCount
+    }
+
+    @Test
+    void testMutableParser() {
+        def future = new DefaultJwtParser().setSigningKey(HMAC_KEY).parseClaimsJwsAsync(hs('joe'))
+
+        assertTrue future.isDone()
+        assertEquals 'joe', future.get().body.getSubject()
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullExecutor() {
+        Jwts.parserBuilder().setAsyncExecutor(null)
+    }
+}
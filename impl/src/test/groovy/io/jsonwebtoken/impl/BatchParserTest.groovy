@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.ExpiredJwtException
+import io.jsonwebtoken.Jws
+import io.jsonwebtoken.JwtHandlerAdapter
+import io.jsonwebtoken.JwtParser
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.MalformedJwtException
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.UnsupportedJwtException
+import io.jsonwebtoken.security.Keys
+import io.jsonwebtoken.security.SignatureException
+import org.junit.Test
+
+import java.util.concurrent.ConcurrentHashMap
+
+import static org.junit.Assert.*
+
+class BatchParserTest {
+
+    private static final def KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+
+    private static String jws(String subject) {
+        return Jwts.builder().setSubject(subject).signWith(KEY).compact()
+    }
+
+    private static JwtParser parser() {
+        return Jwts.parserBuilder().setSigningKey(KEY).build()
+    }
+
+    @Test
+    void testFailuresDoNotAbortTheBatch() {
+        String valid = jws('joe')
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith('AA') ? 'BB' : 'AA')
+        String expired = Jwts.builder().setSubject('old').setExpiration(new Date(1000)).signWith(KEY).compact()
+        String unsigned = Jwts.builder().setSubject('plain').compact()
+
+        def results = parser().parseAll([valid, tampered, expired, 'not a jwt', '', null, unsigned, valid])
+
+        assertEquals 8, results.size()
+        assertTrue results[0].success
+        assertEquals 'joe', results[0].value.body.getSubject()
+        assertNull results[0].exception
+        assertSame valid, results[0].jwt
+        assertTrue results[1].exception instanceof SignatureException
+        assertTrue results[2].exception instanceof ExpiredJwtException
+        assertTrue results[3].exception instanceof MalformedJwtException
+        assertTrue results[4].exception instanceof MalformedJwtException
+        assertTrue results[5].exception instanceof MalformedJwtException
+        assertNull results[5].jwt
+        assertTrue results[6].exception instanceof UnsupportedJwtException
+        assertTrue results[7].success
+        results[1..6].each {
+            assertFalse it.success
+            assertNull it.value
+        }
+    }
+
+    @Test
+    void testResultsAreInIterationOrder() {
+        def subjects = (0..<2000).collect { "subject-$it".toString() }
+        def jwss = subjects.collect { jws(it) }
+
+        def results = parser().parseAll(jwss)
+
+        assertEquals subjects, results.collect { it.value.body.getSubject() }
+        assertSame jwss[1234], results[1234].jwt
+    }
+
+    @Test
+    void testParsesOnSeveralThreads() {
+        def threads = Collections.newSetFromMap(new ConcurrentHashMap())
+        def handler = new JwtHandlerAdapter<String>() {
+            @Override
+            String onClaimsJws(Jws<Claims> jws) {
+                threads.add(Thread.currentThread())
+                Thread.sleep(1) // long enough for idle workers to steal some of the ranges
+                return jws.body.getSubject()
+            }
+        }
+
+        def results = parser().parseAll((0..<200).collect { jws("$it") }, handler)
+
+        assertEquals((0..<200).collect { "$it".toString() }, results.collect { it.value })
+        if (Runtime.runtime.availableProcessors() > 1) {
+            assertTrue threads.size() > 1
+        }
+    }
+
+    @Test
+    void testHandlerRejection() {
+        def results = parser().parseAll([jws('joe')], new JwtHandlerAdapter<Object>())
+
+        assertTrue results[0].exception instanceof UnsupportedJwtException
+    }
+
+    @Test(expected = IllegalStateException)
+    void testHandlerExceptionsAbortTheBatch() {
+        parser().parseAll([jws('joe')], new JwtHandlerAdapter<Object>() {
+            @Override
+            Object onClaimsJws(Jws<Claims> jws) {
+                throw new IllegalStateException('handler bug')
+            }
+        })
+    }
+
+    @Test
+    void testEmptyBatch() {
+        assertTrue parser().parseAll([]).isEmpty()
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullCollection() {
+        parser().parseAll(null)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullHandler() {
+        parser().parseAll([jws('joe')], null)
+    }
+
+    @Test
+    void testMutableParser() {
+        def results = new DefaultJwtParser().setSigningKey(KEY).parseAll([jws('joe'), 'a.b.c'])
+
+        assertEquals 'joe', results[0].value.body.getSubject()
+        assertFalse results[1].success
+    }
+
+    @Test
+    void testUsesVerifiedJwsCache() {
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(KEY).setVerifiedJwsCacheSize(10).build()
+        String jws = jws('joe')
+
+        parser.parseAll([jws])
+        parser.parseAll([jws])
+
+        assertEquals 1, parser.verifiedJwsCacheStatistics.hitCount
+    }
+}
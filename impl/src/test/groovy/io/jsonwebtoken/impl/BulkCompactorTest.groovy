@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.CompressionCodecs
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.security.Keys
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class BulkCompactorTest {
+
+    private static final def KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+
+    private static List<Map<String, ?>> claimSets(int n) {
+        return (0..<n).collect { [sub: "device-$it".toString(), n: it, exp: new Date(4102444800000L + it * 1000L)] }
+    }
+
+    @Test
+    void testSameAsCompactAndInOrder() {
+        def sets = claimSets(1000)
+        def builder = Jwts.builder().setHeaderParam('kid', 'k1').setIssuer('factory')
+            .compressWith(CompressionCodecs.DEFLATE).signWith(KEY)
+
+        def jwts = builder.compactAll(sets.iterator()).collect()
+
+        assertEquals sets.size(), jwts.size()
+        sets.eachWithIndex { Map<String, ?> set, int i ->
+            def expected = Jwts.builder().setHeaderParam('kid', 'k1').setIssuer('factory')
+                .compressWith(CompressionCodecs.DEFLATE).signWith(KEY).addClaims(set).compact()
+            assertEquals expected, jwts[i]
+        }
+    }
+
+    @Test
+    void testRsaSignedTokensVerify() {
+        def pair = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        def parser = Jwts.parserBuilder().setSigningKey(pair.public).build()
+
+        def jwts = Jwts.builder().signWith(pair.private).compactAll(claimSets(50).iterator()).collect()
+
+        jwts.eachWithIndex { String jwt, int i ->
+            assertEquals "device-$i".toString(), parser.parseClaimsJws(jwt).body.getSubject()
+        }
+    }
+
+    @Test
+    void testClaimSetsAreReadLazily() {
+        int read = 0
+        def source = new Iterator<Map<String, ?>>() {
+            @Override
+            boolean hasNext() {
+                return true // endless
+            }
+
+            @Override
+            Map<String, ?> next() {
+                return [n: read++]
+            }
+
+            @Override
+            void remove() {
+            }
+        }
+        def jwts = Jwts.builder().signWith(KEY).compactAll(source)
+        int max = BulkCompactor.maxInFlight(BatchParser.pool())
+
+        for (int i = 0; i < 3 * max; i++) {
+            jwts.next()
+            assertTrue read <= i + max
+        }
+    }
+
+    @Test
+    void testFailedClaimSetDoesNotEndIteration() {
+        def sets = claimSets(3)
+        sets[1] = [bad: new Object()] // not serializable to JSON
+        def jwts = Jwts.builder().signWith(KEY).compactAll(sets.iterator())
+
+        assertNotNull jwts.next()
+        try {
+            jwts.next()
+            fail()
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals 'device-2', Jwts.parserBuilder().setSigningKey(KEY).build().parseClaimsJws(jwts.next())
+            .body.getSubject()
+        assertFalse jwts.hasNext()
+    }
+
+    @Test
+    void testEmptyClaimSetWithoutBuilderClaims() {
+        def jwts = Jwts.builder().signWith(KEY).compactAll([[:]].iterator())
+        try {
+            jwts.next()
+            fail()
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    void testBuilderChangesDoNotAffectIterator() {
+        def builder = Jwts.builder().setIssuer('factory').signWith(KEY)
+        def jwts = builder.compactAll(claimSets(1).iterator())
+        builder.setIssuer('someone else')
+
+        assertEquals 'factory', Jwts.parserBuilder().setSigningKey(KEY).build().parseClaimsJws(jwts.next())
+            .body.getIssuer()
+    }
+
+    @Test
+    void testEmptySource() {
+        def jwts = Jwts.builder().signWith(KEY).compactAll(Collections.<Map<String, ?>> emptyIterator())
+        assertFalse jwts.hasNext()
+        try {
+            jwts.next()
+            fail()
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    @Test(expected = IllegalStateException)
+    void testPayloadIsRejected() {
+        Jwts.builder().setPayload('hello').compactAll(claimSets(1).iterator())
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullSource() {
+        Jwts.builder().compactAll(null)
+    }
+
+    @Test(expected = UnsupportedOperationException)
+    void testRemove() {
+        Jwts.builder().signWith(KEY).compactAll(claimSets(1).iterator()).remove()
+    }
+}
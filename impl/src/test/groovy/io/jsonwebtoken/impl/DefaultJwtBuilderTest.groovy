@@ -19,7 +19,10 @@ import com.fasterxml.jackson.databind.ObjectMapper
 import io.jsonwebtoken.CompressionCodecs
 import io.jsonwebtoken.Jwts
 import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.impl.crypto.JwtSigner
+import io.jsonwebtoken.impl.crypto.RsaProvider
 import io.jsonwebtoken.io.Encoder
+import io.jsonwebtoken.io.Encoders
 import io.jsonwebtoken.io.EncodingException
 import io.jsonwebtoken.io.SerializationException
 import io.jsonwebtoken.io.Serializer
@@ -28,6 +31,7 @@ import org.junit.Test
 
 import javax.crypto.KeyGenerator
 import javax.crypto.SecretKeyFactory
+import java.security.Key
 import java.security.KeyFactory
 
 import static org.junit.Assert.*
@@ -356,6 +360,28 @@ class DefaultJwtBuilderTest {
         assertSame encoder, b.base64UrlEncoder
     }
 
+    @Test
+    void testCompactWithStringOnlyEncoder() {
+        def encoder = new Encoder<byte[], String>() { // not a BufferEncoder
+            @Override
+            String encode(byte[] bytes) throws EncodingException {
+                return io.jsonwebtoken.io.Encoders.BASE64URL.encode(bytes)
+            }
+        }
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = new DefaultJwtBuilder().base64UrlEncodeWith(encoder).setSubject('joe').signWith(key).compact()
+        String expected = new DefaultJwtBuilder().setSubject('joe').signWith(key).compact()
+        assertEquals expected, jws
+    }
+
+    @Test
+    void testCompactRsaJwsWith4096BitKey() {
+        def pair = RsaProvider.generateKeyPair(4096)
+        String jws = new DefaultJwtBuilder().setSubject('joe').signWith(pair.private).compact()
+        assertEquals 'joe', Jwts.parserBuilder().setSigningKey(pair.public).build().parseClaimsJws(jws).body.getSubject()
+        assertEquals 683, jws.substring(jws.lastIndexOf('.') + 1).length() // 512 signature bytes
+    }
+
     @Test(expected = IllegalArgumentException)
     void testSerializeToJsonWithNullArgument() {
         new DefaultJwtBuilder().serializeToJsonWith(null)
@@ -382,4 +408,161 @@ class DefaultJwtBuilderTest {
         assertEquals 'bar', Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jws).getBody().get('foo')
     }
 
+    // a serializer that records the headers (maps with an 'alg' member) it serializes:
+    private static Serializer<Map<String, ?>> headerCountingSerializer(List headers) {
+        return new Serializer<Map<String, ?>>() {
+            @Override
+            byte[] serialize(Map<String, ?> m) throws SerializationException {
+                if (m.containsKey('alg')) {
+                    headers << new LinkedHashMap(m)
+                }
+                return objectMapper.writeValueAsBytes(m)
+            }
+        }
+    }
+
+    @Test
+    void testEachCompactEncodesTheHeaderWhileTemplatesEncodeItOnce() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        def headers = []
+        def builder = Jwts.builder().serializeToJsonWith(headerCountingSerializer(headers))
+            .setHeaderParam('kid', 'one').signWith(key)
+
+        String first = builder.setSubject('a').compact()
+        String second = builder.setSubject('b').compact()
+        assertEquals 2, headers.size()
+        assertEquals first.substring(0, first.indexOf('.')), second.substring(0, second.indexOf('.'))
+
+        def template = Jwts.builder().serializeToJsonWith(headerCountingSerializer(headers))
+            .setHeaderParam('kid', 'one').signWith(key).toTemplate()
+        template.compact('a', null, null, null)
+        String third = template.compact('b', null, null, null)
+
+        assertEquals 3, headers.size()
+        assertEquals 'one', Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(third).header.getKeyId()
+    }
+
+    @Test
+    void testHeaderIsEncodedByEachBuilder() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        def headers = []
+        def serializer = headerCountingSerializer(headers)
+
+        Jwts.builder().serializeToJsonWith(serializer).setHeaderParam('kid', 'one').setSubject('a').signWith(key).compact()
+        Jwts.builder().serializeToJsonWith(serializer).setHeaderParam('kid', 'one').setSubject('b').signWith(key).compact()
+
+        assertEquals 2, headers.size()
+    }
+
+    @Test
+    void testChangingSerializerOrEncoderAppliesToTheHeader() {
+        def headers = []
+        def builder = Jwts.builder().setSubject('joe').serializeToJsonWith(headerCountingSerializer(headers))
+        builder.compact()
+
+        builder.serializeToJsonWith(headerCountingSerializer(headers)).compact()
+        assertEquals 2, headers.size()
+
+        String jwt = builder.base64UrlEncodeWith(new Encoder<byte[], String>() {
+            @Override
+            String encode(byte[] bytes) throws EncodingException {
+                return 'e' + Encoders.BASE64URL.encode(bytes)
+            }
+        }).compact()
+        assertEquals 3, headers.size()
+        assertTrue jwt.startsWith('e')
+    }
+
+    @Test
+    void testChangedHeaderIsEncodedAgain() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        def parser = Jwts.parserBuilder().setSigningKey(key).build()
+        def builder = Jwts.builder().setSubject('joe').signWith(key).setHeaderParam('kid', 'one')
+        builder.compact()
+
+        String jws = builder.setHeaderParam('kid', 'two').compact()
+        assertEquals 'two', parser.parseClaimsJws(jws).header.getKeyId()
+
+        jws = builder.compressWith(CompressionCodecs.DEFLATE).compact()
+        assertEquals 'DEF', parser.parseClaimsJws(jws).header.getCompressionAlgorithm()
+
+        // the same header params in a different order serialize differently:
+        String ab = Jwts.builder().setHeaderParam('a', 'x').setHeaderParam('b', 'y').setSubject('joe').compact()
+        String ba = Jwts.builder().setHeaderParam('b', 'y').setHeaderParam('a', 'x').setSubject('joe').compact()
+        assertNotEquals ab, ba
+    }
+
+    @Test
+    void testHeaderWithMutableValueIsEncodedWhenCompacted() {
+        def headers = []
+        def crit = ['exp']
+        def builder = Jwts.builder().serializeToJsonWith(headerCountingSerializer(headers))
+            .setHeaderParam('crit', crit).setSubject('joe')
+
+        builder.compact()
+        crit << 'nbf'
+        String jwt = builder.compact()
+
+        assertEquals 2, headers.size()
+        assertEquals(['exp', 'nbf'], Jwts.parserBuilder().build().parseClaimsJwt(jwt).header.crit)
+    }
+
+    @Test
+    void testSubclassToJsonIsUsedForEachCompact() {
+        def calls = 0
+        def b = new DefaultJwtBuilder() {
+            @Override
+            protected byte[] toJson(Object o) throws SerializationException {
+                calls++
+                return super.toJson(o)
+            }
+        }
+        b.setSubject('joe').compact()
+        b.compact()
+
+        assertEquals 4, calls // the header and claims, twice
+    }
+
+    @Test
+    void testOverriddenCreateSignerOnlyImplementingSignString() {
+        def signed = []
+        def b = new DefaultJwtBuilder() {
+            @Override
+            protected JwtSigner createSigner(SignatureAlgorithm alg, Key key) {
+                return new JwtSigner() {
+                    @Override
+                    String sign(String jwtWithoutSignature) {
+                        signed << jwtWithoutSignature
+                        return 'signature'
+                    }
+                }
+            }
+        }
+        b.setSubject('joe').signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256))
+
+        String jws = b.compact()
+        String templated = b.setSubject(null).toTemplate().compact('jane', null, null, null)
+
+        assertEquals 2, signed.size()
+        assertEquals signed[0] + '.signature', jws
+        assertEquals signed[1] + '.signature', templated
+    }
+
+    @Test
+    void testOverriddenBase64UrlEncodeIsUsedForTheHeader() {
+        def encoded = []
+        def b = new DefaultJwtBuilder() {
+            @Override
+            protected String base64UrlEncode(Object o, String errMsg) {
+                encoded << o
+                return super.base64UrlEncode(o, errMsg)
+            }
+        }
+
+        String jwt = b.setSubject('joe').compact()
+
+        assertEquals 1, encoded.size()
+        assertEquals 'none', encoded[0].alg
+        assertEquals 'joe', Jwts.parserBuilder().build().parseClaimsJwt(jwt).body.getSubject()
+    }
 }
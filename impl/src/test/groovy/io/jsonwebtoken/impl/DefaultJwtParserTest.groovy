@@ -16,19 +16,41 @@
 package io.jsonwebtoken.impl
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.Clock
+import io.jsonwebtoken.CompressionCodec
+import io.jsonwebtoken.CompressionCodecResolver
+import io.jsonwebtoken.CompressionCodecs
+import io.jsonwebtoken.ExpiredJwtException
+import io.jsonwebtoken.Header
+import io.jsonwebtoken.Jws
+import io.jsonwebtoken.JwsHeader
 import io.jsonwebtoken.Jwts
 import io.jsonwebtoken.MalformedJwtException
 import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.SigningKeyResolver
+import io.jsonwebtoken.SigningKeyResolverAdapter
+import io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver
+import io.jsonwebtoken.impl.crypto.JwtSignatureValidator
+import io.jsonwebtoken.jackson.io.JacksonDeserializer
+import io.jsonwebtoken.jackson.io.ProjectingJacksonDeserializer
 import io.jsonwebtoken.io.*
 import io.jsonwebtoken.lang.Strings
 import io.jsonwebtoken.security.Keys
+import io.jsonwebtoken.security.SignatureException
 import org.junit.Test
 
 import javax.crypto.Mac
 import javax.crypto.SecretKey
+import java.nio.ByteBuffer
+import java.security.Key
 
 import static org.junit.Assert.assertEquals
+import static org.junit.Assert.assertFalse
+import static org.junit.Assert.assertNull
 import static org.junit.Assert.assertSame
+import static org.junit.Assert.assertTrue
+import static org.junit.Assert.fail
 
 // NOTE to the casual reader: even though this test class appears mostly empty, the DefaultJwtParser
 // implementation is tested to 100% coverage.  The vast majority of its tests are in the JwtsTest class.  This class
@@ -131,4 +153,827 @@ class DefaultJwtParserTest {
 
         new DefaultJwtParser().setSigningKey(key).parseClaimsJws(invalidJws)
     }
+
+    @Test
+    void testParseBytes() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        byte[] bytes = ('Bearer ' + jws + '\r\n').getBytes('US-ASCII')
+
+        def parser = Jwts.parserBuilder().setSigningKey(key).build()
+
+        Jws<Claims> parsed = parser.parse(bytes, 7, jws.length()) as Jws<Claims>
+        assertEquals 'joe', parsed.body.getSubject()
+        assertEquals jws.substring(jws.lastIndexOf('.') + 1), parsed.signature
+    }
+
+    @Test
+    void testParseBytesWithTrimmedSegments() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        int i = jws.indexOf('.')
+        byte[] bytes = (jws.substring(0, i) + ' ' + jws.substring(i)).getBytes('US-ASCII')
+
+        def parsed = Jwts.parserBuilder().setSigningKey(key).build().parse(bytes, 0, bytes.length)
+        assertEquals 'joe', ((Claims) parsed.body).getSubject()
+    }
+
+    @Test
+    void testParseBytesWithInvalidSignature() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        byte[] bytes = jws.getBytes('US-ASCII')
+        bytes[bytes.length - 2] = (byte) (bytes[bytes.length - 2] == (byte) 'A' ? 'B' : 'A')
+
+        try {
+            Jwts.parserBuilder().setSigningKey(key).build().parse(bytes, 0, bytes.length)
+            fail()
+        } catch (SignatureException expected) {
+        }
+    }
+
+    @Test
+    void testParseEcBytes() {
+        def pair = Keys.keyPairFor(SignatureAlgorithm.ES256)
+        String jws = Jwts.builder().setSubject('joe').signWith(pair.private).compact()
+        byte[] bytes = ('..' + jws).getBytes('US-ASCII')
+
+        def parsed = Jwts.parserBuilder().setSigningKey(pair.public).build().parse(bytes, 2, jws.length())
+        assertEquals 'joe', ((Claims) parsed.body).getSubject()
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testParseNullBytes() {
+        new DefaultJwtParser().parse((byte[]) null, 0, 0)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testParseWhitespaceBytes() {
+        new DefaultJwtParser().parse('   '.getBytes('US-ASCII'), 0, 3)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testParseBytesOutOfBounds() {
+        new DefaultJwtParser().parse('a.b.c'.getBytes('US-ASCII'), 2, 5)
+    }
+
+    @Test
+    void testParseHeapByteBuffer() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        ByteBuffer buf = ByteBuffer.wrap(('xx' + jws).getBytes('US-ASCII'))
+        buf.position(2)
+
+        def parsed = Jwts.parserBuilder().setSigningKey(key).build().parseAscii(buf)
+        assertEquals 'joe', ((Claims) parsed.body).getSubject()
+        assertEquals 2, buf.position() //not consumed
+    }
+
+    @Test
+    void testParseDirectByteBuffer() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        byte[] bytes = jws.getBytes('US-ASCII')
+        ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length)
+        buf.put(bytes)
+        buf.flip()
+
+        def parsed = Jwts.parserBuilder().setSigningKey(key).build().parseAscii(buf)
+        assertEquals 'joe', ((Claims) parsed.body).getSubject()
+        assertEquals 0, buf.position() //not consumed
+    }
+
+    private static Deserializer<Map<String, ?>> countingDeserializer(final List<String> calls) {
+        return new Deserializer<Map<String, ?>>() {
+            @Override
+            Map<String, ?> deserialize(byte[] bytes) throws DeserializationException {
+                calls.add(new String(bytes, Strings.UTF_8))
+                return OBJECT_MAPPER.readValue(bytes, Map.class)
+            }
+        }
+    }
+
+    @Test
+    void testPayloadDecodedFromOriginalCharacters() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+
+        def decoded = []
+        def ranges = []
+        def decoder = new BufferDecoder() {
+            @Override
+            int decodedLength(CharSequence s, int offset, int length) {
+                ranges.add(s)
+                return ((BufferDecoder) Decoders.BASE64URL).decodedLength(s, offset, length)
+            }
+
+            @Override
+            int decode(CharSequence s, int offset, int length, byte[] dest, int destOffset) {
+                return ((BufferDecoder) Decoders.BASE64URL).decode(s, offset, length, dest, destOffset)
+            }
+
+            @Override
+            int decodedLength(byte[] ascii, int offset, int length) {
+                ranges.add(ascii)
+                return ((BufferDecoder) Decoders.BASE64URL).decodedLength(ascii, offset, length)
+            }
+
+            @Override
+            int decode(byte[] ascii, int offset, int length, byte[] dest, int destOffset) {
+                return ((BufferDecoder) Decoders.BASE64URL).decode(ascii, offset, length, dest, destOffset)
+            }
+        }
+        def combined = [decode: { String s -> decoded.add(s); Decoders.BASE64URL.decode(s) }] as Decoder
+        combined = new ProxyDecoder(combined, decoder)
+
+        def parser = Jwts.parserBuilder().setSigningKey(key).base64UrlDecodeWith(combined).build()
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        byte[] bytes = jws.getBytes('US-ASCII')
+        assertEquals 'joe', ((Claims) parser.parse(bytes, 0, bytes.length).getBody()).getSubject()
+
+        assertEquals 2, ranges.size() //the payload of each token
+        assertSame jws, ranges[0]
+        assertSame bytes, ranges[1]
+        assertEquals 4, decoded.size() //the header and signature of each token
+        assertFalse decoded.contains(jws.split('\\.')[1])
+    }
+
+    private static class ProxyDecoder implements Decoder<String, byte[]>, BufferDecoder {
+        private final Decoder<String, byte[]> decoder
+        private final BufferDecoder bufferDecoder
+
+        ProxyDecoder(Decoder<String, byte[]> decoder, BufferDecoder bufferDecoder) {
+            this.decoder = decoder
+            this.bufferDecoder = bufferDecoder
+        }
+
+        @Override
+        byte[] decode(String s) throws DecodingException {
+            return decoder.decode(s)
+        }
+
+        @Override
+        int decodedLength(CharSequence s, int offset, int length) throws DecodingException {
+            return bufferDecoder.decodedLength(s, offset, length)
+        }
+
+        @Override
+        int decode(CharSequence s, int offset, int length, byte[] dest, int destOffset) throws DecodingException {
+            return bufferDecoder.decode(s, offset, length, dest, destOffset)
+        }
+
+        @Override
+        int decodedLength(byte[] ascii, int offset, int length) throws DecodingException {
+            return bufferDecoder.decodedLength(ascii, offset, length)
+        }
+
+        @Override
+        int decode(byte[] ascii, int offset, int length, byte[] dest, int destOffset) throws DecodingException {
+            return bufferDecoder.decode(ascii, offset, length, dest, destOffset)
+        }
+    }
+
+    @Test
+    void testDeserializerReceivesDecodedPayloadBytes() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('Jos\u00e9').claim('city', '\u6771\u4eac').signWith(key).compact()
+        String[] parts = jws.split('\\.')
+
+        def received = []
+        def deserializer = new Deserializer<Map<String, ?>>() {
+            @Override
+            Map<String, ?> deserialize(byte[] bytes) throws DeserializationException {
+                received.add(bytes)
+                return OBJECT_MAPPER.readValue(bytes, Map.class)
+            }
+        }
+        def claims = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(deserializer).build()
+            .parseClaimsJws(jws).getBody()
+
+        assertEquals 'Jos\u00e9', claims.getSubject()
+        assertEquals '\u6771\u4eac', claims.get('city')
+        assertEquals 2, received.size()
+        assertTrue Arrays.equals(Decoders.BASE64URL.decode(parts[0]), (byte[]) received[0])
+        assertTrue Arrays.equals(Decoders.BASE64URL.decode(parts[1]), (byte[]) received[1])
+    }
+
+    @Test
+    void testNonJsonPayloadIsNotDeserialized() {
+        def calls = []
+        def parser = Jwts.parserBuilder().deserializeJsonWith(countingDeserializer(calls)).build()
+
+        assertEquals 'h\u00e9llo', parser.parsePlaintextJwt(Jwts.builder().setPayload('h\u00e9llo').compact()).getBody()
+        assertEquals 1, calls.size() //header only
+    }
+
+    @Test
+    void testMalformedJsonPayloadMessage() {
+        String jwt = Encoders.BASE64URL.encode('{"alg":"none"}'.getBytes(Strings.UTF_8)) + '.' +
+            Encoders.BASE64URL.encode('{"sub":}'.getBytes(Strings.UTF_8)) + '.'
+        try {
+            Jwts.parserBuilder().build().parse(jwt)
+            fail()
+        } catch (MalformedJwtException expected) {
+            assertEquals 'Unable to read JSON value: {"sub":}', expected.getMessage()
+        }
+    }
+
+    @Test
+    void testVerifySignatureFirstRejectsForgeryWithoutDeserializingClaims() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        String forged = jws.substring(0, jws.lastIndexOf('.') + 1) + Encoders.BASE64URL.encode(new byte[32])
+
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls))
+            .setVerifySignatureFirst(true).build()
+
+        try {
+            parser.parseClaimsJws(forged)
+            fail()
+        } catch (SignatureException expected) {
+        }
+        assertEquals 1, calls.size() //header only
+        assertTrue calls[0].contains('"alg"')
+
+        calls.clear()
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 2, calls.size()
+    }
+
+    @Test
+    void testDefaultModeDeserializesClaimsBeforeVerifyingSignature() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        String forged = jws.substring(0, jws.lastIndexOf('.') + 1) + Encoders.BASE64URL.encode(new byte[32])
+
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls)).build()
+
+        try {
+            parser.parseClaimsJws(forged)
+            fail()
+        } catch (SignatureException expected) {
+        }
+        assertEquals 2, calls.size()
+    }
+
+    @Test
+    void testVerifySignatureFirstWithResolverReadingHeaderOnly() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setHeaderParam('kid', 'k1').setSubject('joe').signWith(key).compact()
+
+        def calls = []
+        Claims resolverClaims = null
+        def parser = Jwts.parserBuilder().deserializeJsonWith(countingDeserializer(calls))
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    resolverClaims = claims
+                    assertEquals 1, calls.size() //header only, claims not yet deserialized
+                    assertFalse(((LazyClaims) claims).isLoaded())
+                    return key
+                }
+            })
+            .setVerifySignatureFirst(true).build()
+
+        def parsed = parser.parseClaimsJws(jws)
+        assertTrue resolverClaims instanceof LazyClaims
+        assertEquals 'joe', parsed.getBody().getSubject()
+        assertEquals DefaultClaims, parsed.getBody().getClass()
+        assertEquals 2, calls.size()
+    }
+
+    @Test
+    void testVerifySignatureFirstWithResolverReadingClaims() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+
+        def calls = []
+        def parser = Jwts.parserBuilder().deserializeJsonWith(countingDeserializer(calls))
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    assertEquals 'joe', claims.getSubject()
+                    return key
+                }
+            })
+            .setVerifySignatureFirst(true).build()
+
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 2, calls.size() //claims were deserialized once and reused after verification
+    }
+
+    @Test
+    void testVerifySignatureFirstWithResolverAndPlaintextPayload() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setPayload('hello').signWith(key).compact()
+
+        def parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                Key resolveSigningKey(JwsHeader header, String plaintext) {
+                    assertEquals 'hello', plaintext
+                    return key
+                }
+            })
+            .setVerifySignatureFirst(true).build()
+
+        assertEquals 'hello', parser.parsePlaintextJws(jws).getBody()
+    }
+
+    @Test
+    void testVerifySignatureFirstDoesNotAffectUnsignedJwts() {
+        String jwt = Jwts.builder().setSubject('joe').compact()
+        def parsed = Jwts.parserBuilder().setVerifySignatureFirst(true).build().parseClaimsJwt(jwt)
+        assertEquals 'joe', parsed.getBody().getSubject()
+    }
+
+    @Test
+    void testVerifySignatureFirstStillValidatesClaims() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(System.currentTimeMillis() - 60000))
+            .signWith(key).compact()
+
+        try {
+            Jwts.parserBuilder().setSigningKey(key).setVerifySignatureFirst(true).build().parseClaimsJws(jws)
+            fail()
+        } catch (ExpiredJwtException expected) {
+            assertEquals 'joe', expected.getClaims().getSubject()
+        }
+    }
+
+    private static String forge(String jws, int i = 0) {
+        byte[] sig = new byte[32]
+        sig[0] = (byte) i
+        sig[1] = (byte) (i >> 8)
+        return jws.substring(0, jws.lastIndexOf('.') + 1) + Encoders.BASE64URL.encode(sig)
+    }
+
+    @Test
+    void testRejectedJwsCacheRejectsReplayWithoutDecoding() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        String forged = forge(jws)
+
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls))
+            .setRejectedJwsCache(10, 60).build()
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                parser.parseClaimsJws(forged)
+                fail()
+            } catch (SignatureException expected) {
+            }
+        }
+        assertEquals 2, calls.size() //header and claims of the first attempt only
+
+        //the byte-oriented methods share the same remembered rejections:
+        byte[] bytes = forged.getBytes('US-ASCII')
+        try {
+            parser.parse(bytes, 0, bytes.length)
+            fail()
+        } catch (SignatureException expected) {
+        }
+        assertEquals 2, calls.size()
+
+        def stats = parser.rejectedJwsCacheStatistics
+        assertEquals 3, stats.hitCount
+        assertEquals 1, stats.missCount
+        assertEquals 1, stats.size
+
+        //valid tokens are unaffected:
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 1, parser.rejectedJwsCacheStatistics.size
+    }
+
+    @Test
+    void testRejectedJwsCacheEntriesExpire() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String forged = forge(Jwts.builder().setSubject('joe').signWith(key).compact())
+        long now = System.currentTimeMillis()
+        def clock = new Clock() {
+            @Override
+            Date now() {
+                return new Date(now)
+            }
+        }
+
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).setClock(clock)
+            .deserializeJsonWith(countingDeserializer(calls)).setRejectedJwsCache(10, 60).build()
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                parser.parseClaimsJws(forged)
+                fail()
+            } catch (SignatureException expected) {
+            }
+            now += 61000
+        }
+        assertEquals 4, calls.size() //fully re-verified after the rejection expired
+        assertEquals 1, parser.rejectedJwsCacheStatistics.evictionCount
+    }
+
+    @Test
+    void testRejectedJwsCacheIsBounded() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        def parser = Jwts.parserBuilder().setSigningKey(key).setRejectedJwsCache(10, 60).build()
+
+        for (int i = 0; i < 200; i++) {
+            try {
+                parser.parseClaimsJws(forge(jws, i))
+                fail()
+            } catch (SignatureException expected) {
+            }
+        }
+        assertEquals 10, parser.rejectedJwsCacheStatistics.size
+        assertEquals 190, parser.rejectedJwsCacheStatistics.evictionCount
+    }
+
+    @Test
+    void testRejectedJwsCacheIgnoresOtherFailures() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(System.currentTimeMillis() - 60000))
+            .signWith(key).compact()
+        def parser = Jwts.parserBuilder().setSigningKey(key).setRejectedJwsCache(10, 60).build()
+
+        try {
+            parser.parseClaimsJws(jws)
+            fail()
+        } catch (ExpiredJwtException expected) {
+        }
+        assertEquals 0, parser.rejectedJwsCacheStatistics.size
+    }
+
+    @Test
+    void testRejectedJwsCacheDisabledByDefault() {
+        assertNull Jwts.parserBuilder().build().rejectedJwsCacheStatistics
+        assertNull new DefaultJwtParser().rejectedJwsCacheStatistics
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testRejectedJwsCacheNegativeSize() {
+        Jwts.parserBuilder().setRejectedJwsCache(-1, 60)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testRejectedJwsCacheWithoutTtl() {
+        Jwts.parserBuilder().setRejectedJwsCache(10, 0)
+    }
+
+    private static DefaultJwtParser countingValidatorParser(Key key, byte[] keyBytes, SigningKeyResolver resolver,
+                                                           final List<SignatureAlgorithm> created) {
+        return new DefaultJwtParser(resolver, key, keyBytes, DefaultClock.INSTANCE, 0, new DefaultClaims(),
+            Decoders.BASE64URL, new JacksonDeserializer<Map<String, ?>>(), new DefaultCompressionCodecResolver(),
+            false, false, 0, 0, 0) {
+            @Override
+            protected JwtSignatureValidator createSignatureValidator(SignatureAlgorithm alg, Key k) {
+                created.add(alg)
+                return super.createSignatureValidator(alg, k)
+            }
+        }
+    }
+
+    @Test
+    void testSignatureValidatorIsReusedForSameKey() {
+        def pair = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        def created = []
+        def parser = countingValidatorParser(pair.public, null, null, created)
+
+        for (int i = 0; i < 3; i++) {
+            String jws = Jwts.builder().setSubject("user$i").signWith(pair.private).compact()
+            assertEquals "user$i".toString(), parser.parseClaimsJws(jws).getBody().getSubject()
+        }
+        assertEquals([SignatureAlgorithm.RS256], created)
+    }
+
+    @Test
+    void testSignatureValidatorIsReusedForEqualKeyBytes() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS384)
+        def created = []
+        def parser = countingValidatorParser(null, key.getEncoded(), null, created)
+
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        parser.parseClaimsJws(jws)
+        parser.parseClaimsJws(jws)
+        assertEquals([SignatureAlgorithm.HS384], created)
+    }
+
+    @Test
+    void testSignatureValidatorsAreKeyedByAlgorithmAndKey() {
+        def k1 = Keys.secretKeyFor(SignatureAlgorithm.HS512)
+        def k2 = Keys.secretKeyFor(SignatureAlgorithm.HS512)
+        def created = []
+        def parser = countingValidatorParser(null, null, new SigningKeyResolverAdapter() {
+            @Override
+            Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return header.getKeyId() == 'k1' ? k1 : k2
+            }
+        }, created)
+
+        String a = Jwts.builder().setHeaderParam('kid', 'k1').setSubject('a').signWith(k1, SignatureAlgorithm.HS512).compact()
+        String b = Jwts.builder().setHeaderParam('kid', 'k1').setSubject('b').signWith(k1, SignatureAlgorithm.HS256).compact()
+        String c = Jwts.builder().setHeaderParam('kid', 'k2').setSubject('c').signWith(k2, SignatureAlgorithm.HS512).compact()
+
+        [a, b, c, a, b, c].each { parser.parseClaimsJws(it) }
+        assertEquals([SignatureAlgorithm.HS512, SignatureAlgorithm.HS256, SignatureAlgorithm.HS512], created)
+
+        //a forged token must still fail with a cached validator:
+        try {
+            parser.parseClaimsJws(forge(a))
+            fail()
+        } catch (SignatureException expected) {
+        }
+    }
+
+    @Test
+    void testSignatureValidatorsAreNotCachedByMutableParser() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        def created = []
+        def parser = new DefaultJwtParser() {
+            @Override
+            protected JwtSignatureValidator createSignatureValidator(SignatureAlgorithm alg, Key k) {
+                created.add(alg)
+                return super.createSignatureValidator(alg, k)
+            }
+        }
+        parser.setSigningKey(key)
+
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+        parser.parseClaimsJws(jws)
+        parser.parseClaimsJws(jws)
+        assertEquals 2, created.size()
+    }
+
+    @Test
+    void testOverriddenCreateSignatureValidatorOnlyImplementingIsValidString() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        def validated = []
+        def parser = new DefaultJwtParser() {
+            @Override
+            protected JwtSignatureValidator createSignatureValidator(SignatureAlgorithm alg, Key k) {
+                def delegate = super.createSignatureValidator(alg, k)
+                return new JwtSignatureValidator() {
+                    @Override
+                    boolean isValid(String jwtWithoutSignature, String base64UrlEncodedSignature) {
+                        validated << jwtWithoutSignature
+                        return delegate.isValid(jwtWithoutSignature, base64UrlEncodedSignature)
+                    }
+                }
+            }
+        }
+        parser.setSigningKey(key)
+        String jws = Jwts.builder().setSubject('joe').signWith(key).compact()
+
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        byte[] bytes = jws.getBytes('US-ASCII')
+        assertEquals 'joe', ((Jws<Claims>) parser.parse(bytes, 0, bytes.length)).getBody().getSubject()
+        assertEquals([jws.substring(0, jws.lastIndexOf('.'))] * 2, validated)
+    }
+
+    @Test
+    void testOverriddenReadValueIsUsed() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        def values = []
+        def parser = new DefaultJwtParser() {
+            @Override
+            protected Map<String, ?> readValue(String val) {
+                values << val
+                def m = new LinkedHashMap(super.readValue(val))
+                if (m.containsKey('sub')) {
+                    m.put('seen', true)
+                }
+                return m
+            }
+        }
+        parser.setSigningKey(key)
+        String jws = Jwts.builder().setSubject('j\u00f6e').signWith(key).compact()
+
+        def claims = parser.parseClaimsJws(jws).getBody()
+
+        assertEquals 2, values.size()
+        assertTrue values[0].contains('"alg"')
+        assertEquals '{"sub":"j\u00f6e"}', values[1]
+        assertEquals 'j\u00f6e', claims.getSubject()
+        assertEquals true, claims.get('seen')
+    }
+
+    @Test
+    void testLazyClaimsOnlyDeserializedWhenNeeded() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        Date exp = new Date(System.currentTimeMillis() + 60000)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(exp).claim('roles', ['a', 'b', 'c'])
+            .signWith(key).compact()
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls))
+            .setLazyClaims(true).build()
+
+        Claims claims = parser.parseClaimsJws(jws).getBody()
+        assertEquals 1, calls.size() //header only
+        assertEquals 'joe', claims.getSubject()
+        assertEquals exp.getTime().intdiv(1000) * 1000, claims.getExpiration().getTime()
+        assertEquals 1, calls.size()
+
+        assertEquals(['a', 'b', 'c'], claims.get('roles'))
+        assertEquals 2, calls.size()
+    }
+
+    @Test
+    void testLazyClaimsExpiredWithoutDeserializing() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(System.currentTimeMillis() - 60000))
+            .signWith(key).compact()
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls))
+            .setLazyClaims(true).build()
+        try {
+            parser.parseClaimsJws(jws)
+            fail()
+        } catch (ExpiredJwtException expected) {
+            assertEquals 1, calls.size()
+            assertEquals 'joe', expected.getClaims().getSubject()
+        }
+    }
+
+    @Test
+    void testLazyClaimsWithExpectedClaims() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').claim('tenant', 'acme').signWith(key).compact()
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls))
+            .require('tenant', 'acme').setLazyClaims(true).build()
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 2, calls.size()
+    }
+
+    @Test
+    void testLazyClaimsWithVerifySignatureFirst() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setIssuer('me').setSubject('joe').claim('big', 'x' * 1000).signWith(key).compact()
+        def calls = []
+        def parser = Jwts.parserBuilder().deserializeJsonWith(countingDeserializer(calls))
+            .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                @Override
+                Key resolveSigningKey(JwsHeader header, Claims claims) {
+                    assertEquals 'me', claims.getIssuer()
+                    return key
+                }
+            })
+            .setVerifySignatureFirst(true).setLazyClaims(true).build()
+
+        Claims claims = parser.parseClaimsJws(jws).getBody()
+        assertEquals 'joe', claims.getSubject()
+        assertEquals 1, calls.size()
+        assertEquals 1000, claims.get('big', String).length()
+        assertEquals 2, calls.size()
+    }
+
+    @Test
+    void testLazyClaimsWithMalformedPayload() {
+        String header = Encoders.BASE64URL.encode('{"alg":"none"}'.getBytes(Strings.UTF_8))
+        String payload = Encoders.BASE64URL.encode('{"sub":"joe",}'.getBytes(Strings.UTF_8))
+        try {
+            Jwts.parserBuilder().setLazyClaims(true).build().parse(header + '.' + payload + '.')
+            fail()
+        } catch (MalformedJwtException expected) {
+        }
+    }
+
+    @Test
+    void testPeekHeader() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setHeaderParam('kid', 'k1').setHeaderParam('iss', 'me').setSubject('joe')
+            .signWith(key).compact()
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls)).build()
+
+        JwsHeader header = parser.peekHeader(jws)
+        assertEquals 'HS256', header.getAlgorithm()
+        assertEquals 'k1', header.getKeyId()
+        assertEquals 'me', header.get('iss')
+        assertEquals 1, calls.size() //header only
+
+        byte[] bytes = ('  ' + jws + '  ').getBytes(Strings.UTF_8)
+        assertEquals header, parser.peekHeader(bytes, 1, bytes.length - 2)
+
+        //a forged token is not verified when peeking:
+        assertEquals 'k1', parser.peekHeader(forge(jws, 0)).getKeyId()
+    }
+
+    @Test
+    void testPeekHeaderIsImmutable() {
+        JwsHeader header = Jwts.parserBuilder().build().peekHeader(Jwts.builder().setSubject('joe').compact())
+        assertEquals 'none', header.getAlgorithm()
+        [
+            { header.setAlgorithm('HS256') }, { header.setKeyId('k') }, { header.setType('JWT') },
+            { header.setContentType('x') }, { header.setCompressionAlgorithm('DEF') }, { header.put('a', 'b') },
+            { header.remove('alg') }, { header.putAll([a: 'b']) }, { header.clear() },
+            { header.keySet().clear() }, { header.values().clear() }, { header.entrySet().iterator().next().setValue('x') }
+        ].each {
+            try {
+                it.call()
+                fail()
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+        assertEquals([alg: 'none'], header)
+    }
+
+    @Test
+    void testPeekHeaderWithoutHeader() {
+        try {
+            Jwts.parserBuilder().build().peekHeader('.eyJzdWIiOiJqb2UifQ.')
+            fail()
+        } catch (MalformedJwtException expected) {
+            assertEquals 'JWT string has no header.', expected.getMessage()
+        }
+    }
+
+    @Test(expected = MalformedJwtException)
+    void testPeekHeaderWithoutPayload() {
+        Jwts.parserBuilder().build().peekHeader('eyJhbGciOiJub25lIn0..')
+    }
+
+    @Test
+    void testHeaderCacheSkipsDecodingRepeatedHeaders() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String a = Jwts.builder().setHeaderParam('kid', 'k1').setSubject('a').signWith(key).compact()
+        String b = Jwts.builder().setHeaderParam('kid', 'k1').setSubject('b').signWith(key).compact()
+        def calls = []
+        def parser = Jwts.parserBuilder().setSigningKey(key).deserializeJsonWith(countingDeserializer(calls))
+            .setHeaderCacheSize(10).build()
+
+        Jws<Claims> jws = parser.parseClaimsJws(a)
+        assertEquals 2, calls.size()
+        jws.getHeader().setKeyId('changed') //each result has its own copy of the header
+
+        jws = parser.parseClaimsJws(b)
+        assertEquals 3, calls.size() //payload only
+        assertEquals 'k1', jws.getHeader().getKeyId()
+        assertEquals 'b', jws.getBody().getSubject()
+        assertEquals 'k1', parser.peekHeader(a).getKeyId()
+        assertEquals 3, calls.size()
+
+        assertEquals 2, parser.getHeaderCacheStatistics().getHitCount()
+        assertEquals 1, parser.getHeaderCacheStatistics().getSize()
+
+        try {
+            parser.parseClaimsJws(forge(b))
+            fail()
+        } catch (SignatureException expected) {
+        }
+    }
+
+    @Test
+    void testHeaderCacheRetainsCompressionCodec() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').compressWith(CompressionCodecs.DEFLATE).signWith(key).compact()
+        int resolved = 0
+        def resolver = new CompressionCodecResolver() {
+            @Override
+            CompressionCodec resolveCompressionCodec(Header header) {
+                resolved++
+                return new DefaultCompressionCodecResolver().resolveCompressionCodec(header)
+            }
+        }
+        def parser = Jwts.parserBuilder().setSigningKey(key).setCompressionCodecResolver(resolver)
+            .setHeaderCacheSize(10).build()
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 1, resolved
+    }
+
+    @Test
+    void testHeaderCacheIgnoresNestedHeaderValues() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setHeaderParam('crit', ['exp']).setSubject('joe').signWith(key).compact()
+        def parser = Jwts.parserBuilder().setSigningKey(key).setHeaderCacheSize(10).build()
+
+        parser.parseClaimsJws(jws).getHeader().get('crit').add('nbf')
+        assertEquals(['exp'], parser.parseClaimsJws(jws).getHeader().get('crit'))
+        assertEquals 0, parser.getHeaderCacheStatistics().getSize()
+    }
+
+    @Test
+    void testHeaderCacheDisabledByDefault() {
+        assertNull Jwts.parserBuilder().build().getHeaderCacheStatistics()
+    }
+
+    @Test
+    void testProjectingDeserializerIncludesRequiredClaims() {
+        def key = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+        String jws = Jwts.builder().setSubject('joe').claim('tenant', 'acme').claim('roles', ['a', 'b'])
+            .setExpiration(new Date(System.currentTimeMillis() + 60000)).signWith(key).compact()
+        def parser = Jwts.parserBuilder().setSigningKey(key).require('tenant', 'acme')
+            .deserializeJsonWith(new ProjectingJacksonDeserializer(['sub'])).build()
+
+        Claims claims = parser.parseClaimsJws(jws).getBody()
+        assertEquals 'joe', claims.getSubject()
+        assertEquals 'acme', claims.get('tenant')
+        assertTrue claims.containsKey('exp')
+        assertFalse claims.containsKey('roles')
+    }
 }
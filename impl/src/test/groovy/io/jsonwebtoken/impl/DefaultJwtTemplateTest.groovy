@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.CompressionCodecs
+import io.jsonwebtoken.JwtBuilder
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.gson.io.GsonSerializer
+import io.jsonwebtoken.io.Serializer
+import io.jsonwebtoken.jackson.io.JacksonSerializer
+import io.jsonwebtoken.orgjson.io.OrgJsonSerializer
+import io.jsonwebtoken.security.Keys
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class DefaultJwtTemplateTest {
+
+    private static final def HMAC_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+
+    private static final List<Serializer> SERIALIZERS = [new JacksonSerializer(), new GsonSerializer(),
+                                                         new OrgJsonSerializer()]
+
+    private static final List<List> VALUES = [
+        ['joe', new Date(1600000000123L), new Date(1600003600999L), 'a1b2c3'],
+        ['</script>&"quoted"\\ é中\u0001', new Date(0), null, 'id=1\'2'],
+        [null, null, new Date(-1500L), null],
+        ['', new Date(1000), new Date(2000), '']
+    ]
+
+    private static JwtBuilder builder(Serializer serializer) {
+        return Jwts.builder().serializeToJsonWith(serializer).setHeaderParam('kid', 'key-1')
+            .setIssuer('https://issuer.example.com').setAudience('api').claim('scopes', ['read', 'write'])
+            .claim('n', 42)
+    }
+
+    private static String expected(JwtBuilder builder, List values) {
+        return builder.setSubject(values[0]).setIssuedAt(values[1]).setExpiration(values[2]).setId(values[3])
+            .compact()
+    }
+
+    @Test
+    void testByteCompatibleWithCompact() {
+        for (Serializer serializer : SERIALIZERS) {
+            for (List values : VALUES) {
+                def template = builder(serializer).signWith(HMAC_KEY).toTemplate()
+                if (!(serializer instanceof OrgJsonSerializer)) { // org.json does not keep the members' order
+                    assertNotNull serializer.class.simpleName, template.staticFragment // spliced, not re-serialized
+                }
+                String expected = expected(builder(serializer).signWith(HMAC_KEY), values)
+                assertEquals expected, template.compact(values[0], values[1], values[2], values[3])
+            }
+        }
+    }
+
+    @Test
+    void testUnsignedAndCompressed() {
+        def values = VALUES[0]
+        assertEquals expected(builder(new JacksonSerializer()), values),
+            builder(new JacksonSerializer()).toTemplate().compact(values[0], values[1], values[2], values[3])
+        assertEquals expected(builder(new JacksonSerializer()).compressWith(CompressionCodecs.DEFLATE), values),
+            builder(new JacksonSerializer()).compressWith(CompressionCodecs.DEFLATE).toTemplate()
+                .compact(values[0], values[1], values[2], values[3])
+    }
+
+    @Test
+    void testRsaSignedTokensParse() {
+        def pair = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        def template = Jwts.builder().setIssuer('me').signWith(pair.private).toTemplate()
+        def exp = new Date(System.currentTimeMillis() + 60000)
+
+        def jws = Jwts.parserBuilder().setSigningKey(pair.public).build()
+            .parseClaimsJws(template.compact('joe', null, exp, 'id'))
+
+        assertEquals 'RS256', jws.header.getAlgorithm()
+        assertEquals 'me', jws.body.getIssuer()
+        assertEquals 'joe', jws.body.getSubject()
+        assertEquals exp.time.intdiv(1000) * 1000, jws.body.getExpiration().time
+        assertEquals 'id', jws.body.getId()
+    }
+
+    @Test
+    void testUnspliceableSerializerFallsBackToFullSerialization() {
+        def pretty = new Serializer<Map<String, ?>>() {
+            @Override
+            byte[] serialize(Map<String, ?> m) {
+                return ('{\n' + new TreeMap(m).collect { k, v -> "  \"$k\": \"$v\"" }.join(',\n') + '\n}')
+                    .getBytes('UTF-8')
+            }
+        }
+        def values = VALUES[0]
+        def template = builder(pretty).signWith(HMAC_KEY).toTemplate()
+
+        assertNull template.staticFragment
+        assertEquals expected(builder(pretty).signWith(HMAC_KEY), values),
+            template.compact(values[0], values[1], values[2], values[3])
+    }
+
+    @Test
+    void testTemplateIsASnapshot() {
+        def builder = builder(new JacksonSerializer()).signWith(HMAC_KEY)
+        def template = builder.toTemplate()
+        String before = template.compact('joe', null, null, null)
+
+        builder.setIssuer('someone else').setSubject('joe')
+
+        assertEquals before, template.compact('joe', null, null, null)
+    }
+
+    @Test
+    void testOnlyDynamicClaims() {
+        String jwt = Jwts.builder().signWith(HMAC_KEY).toTemplate().compact('joe', null, null, null)
+
+        assertEquals 'joe', Jwts.parserBuilder().setSigningKey(HMAC_KEY).build().parseClaimsJws(jwt).body.getSubject()
+    }
+
+    @Test(expected = IllegalStateException)
+    void testNoClaims() {
+        Jwts.builder().signWith(HMAC_KEY).toTemplate().compact(null, null, null, null)
+    }
+
+    @Test(expected = IllegalStateException)
+    void testPayloadIsRejected() {
+        Jwts.builder().setPayload('hello').toTemplate()
+    }
+
+    @Test
+    void testDynamicClaimsInBuilderAreRejected() {
+        for (String name : DefaultJwtTemplate.DYNAMIC_CLAIMS) {
+            try {
+                Jwts.builder().claim(name, 'x').toTemplate()
+                fail()
+            } catch (IllegalStateException e) {
+                assertTrue e.message.contains("'$name'")
+            }
+        }
+    }
+}
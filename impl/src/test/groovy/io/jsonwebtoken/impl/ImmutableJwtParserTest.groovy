@@ -15,8 +15,11 @@
  */
 package io.jsonwebtoken.impl
 
+import io.jsonwebtoken.CacheStatistics
 import io.jsonwebtoken.Clock
 import io.jsonwebtoken.CompressionCodecResolver
+import io.jsonwebtoken.JwsHeader
+import io.jsonwebtoken.Jwt
 import io.jsonwebtoken.JwtHandler
 import io.jsonwebtoken.JwtParser
 import io.jsonwebtoken.SigningKeyResolver
@@ -24,6 +27,7 @@ import io.jsonwebtoken.io.Decoder
 import io.jsonwebtoken.io.Deserializer
 import org.junit.Test
 
+import java.nio.ByteBuffer
 import java.security.Key
 
 import static org.easymock.EasyMock.expect
@@ -57,6 +61,80 @@ class ImmutableJwtParserTest {
         verify(jwtParser)
     }
 
+    @Test
+    void parseBytesTest() {
+
+        byte[] bytes = "j.w.t".getBytes("US-ASCII")
+        JwtParser jwtParser = mock(JwtParser)
+        Jwt jwt = mock(Jwt)
+
+        expect(jwtParser.parse(bytes, 0, bytes.length)).andReturn(jwt)
+        replay(jwtParser)
+
+        assertThat new ImmutableJwtParser(jwtParser).parse(bytes, 0, bytes.length), is(jwt)
+
+        verify(jwtParser)
+    }
+
+    @Test
+    void peekHeaderTest() {
+
+        String jwt = "j.w.t"
+        JwtParser jwtParser = mock(JwtParser)
+        JwsHeader header = mock(JwsHeader)
+
+        expect(jwtParser.peekHeader(jwt)).andReturn(header)
+        replay(jwtParser)
+
+        assertThat new ImmutableJwtParser(jwtParser).peekHeader(jwt), is(header)
+
+        verify(jwtParser)
+    }
+
+    @Test
+    void peekHeaderBytesTest() {
+
+        byte[] bytes = "j.w.t".getBytes("US-ASCII")
+        JwtParser jwtParser = mock(JwtParser)
+        JwsHeader header = mock(JwsHeader)
+
+        expect(jwtParser.peekHeader(bytes, 0, bytes.length)).andReturn(header)
+        replay(jwtParser)
+
+        assertThat new ImmutableJwtParser(jwtParser).peekHeader(bytes, 0, bytes.length), is(header)
+
+        verify(jwtParser)
+    }
+
+    @Test
+    void getHeaderCacheStatisticsTest() {
+
+        JwtParser jwtParser = mock(JwtParser)
+        CacheStatistics statistics = mock(CacheStatistics)
+
+        expect(jwtParser.getHeaderCacheStatistics()).andReturn(statistics)
+        replay(jwtParser)
+
+        assertThat new ImmutableJwtParser(jwtParser).getHeaderCacheStatistics(), is(statistics)
+
+        verify(jwtParser)
+    }
+
+    @Test
+    void parseByteBufferTest() {
+
+        ByteBuffer buf = ByteBuffer.wrap("j.w.t".getBytes("US-ASCII"))
+        JwtParser jwtParser = mock(JwtParser)
+        Jwt jwt = mock(Jwt)
+
+        expect(jwtParser.parseAscii(buf)).andReturn(jwt)
+        replay(jwtParser)
+
+        assertThat new ImmutableJwtParser(jwtParser).parseAscii(buf), is(jwt)
+
+        verify(jwtParser)
+    }
+
     private ImmutableJwtParser jwtParser() {
         return new ImmutableJwtParser(mock(JwtParser))
     }
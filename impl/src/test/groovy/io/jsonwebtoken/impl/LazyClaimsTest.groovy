@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.MalformedJwtException
+import io.jsonwebtoken.io.Encoders
+import io.jsonwebtoken.lang.Strings
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class LazyClaimsTest {
+
+    private static class CountingLazyClaims extends LazyClaims {
+
+        int loads = 0
+        Map<String, ?> map
+
+        CountingLazyClaims(Map<String, ?> map) {
+            this.map = map
+        }
+
+        @Override
+        protected Map<String, ?> load() {
+            loads++
+            return map
+        }
+    }
+
+    @Test
+    void testLoadsOnFirstAccessOnly() {
+        def claims = new CountingLazyClaims([sub: 'joe', exp: 1000L])
+        assertFalse claims.isLoaded()
+        assertEquals 0, claims.@loads
+
+        assertEquals 'joe', claims.getSubject()
+        assertEquals new Date(1000L * 1000), claims.getExpiration()
+        assertEquals 2, claims.size()
+        assertTrue claims.isLoaded()
+        assertEquals 1, claims.@loads
+    }
+
+    @Test
+    void testMutatorsReturnView() {
+        def claims = new CountingLazyClaims([:])
+        Claims returned = claims.setIssuer('me').setSubject('joe').setAudience('you').setId('id')
+            .setIssuedAt(new Date(2000)).setNotBefore(new Date(3000)).setExpiration(new Date(4000))
+        assertSame claims, returned
+        assertEquals 'me', claims.getIssuer()
+        assertEquals 'you', claims.getAudience()
+        assertEquals 'id', claims.getId()
+        assertEquals 2L, claims.get(Claims.ISSUED_AT, Long)
+        assertEquals new Date(3000), claims.getNotBefore()
+        assertEquals new Date(2000), claims.getIssuedAt()
+    }
+
+    @Test
+    void testMapMethodsDelegate() {
+        def claims = new CountingLazyClaims([foo: 'bar'])
+        assertTrue claims.containsKey('foo')
+        assertTrue claims.containsValue('bar')
+        assertEquals 'bar', claims.get('foo')
+        assertEquals(['foo'] as Set, claims.keySet())
+        assertEquals(['bar'], claims.values() as List)
+        assertEquals 1, claims.entrySet().size()
+        assertEquals new DefaultClaims([foo: 'bar']), claims
+        assertEquals new DefaultClaims([foo: 'bar']).hashCode(), claims.hashCode()
+        assertEquals '{foo=bar}', claims.toString()
+
+        claims.put('hello', 'world')
+        claims.putAll([a: 'b'])
+        assertEquals 'world', claims.remove('hello')
+        assertFalse claims.isEmpty()
+        claims.clear()
+        assertTrue claims.isEmpty()
+        assertEquals 1, claims.@loads
+    }
+
+    @Test
+    void testFailedLoadIsRetried() {
+        def claims = new LazyClaims() {
+            int attempts = 0
+
+            @Override
+            protected Map<String, ?> load() {
+                if (attempts++ == 0) {
+                    throw new IllegalStateException('boom')
+                }
+                return [sub: 'joe']
+            }
+        }
+        try {
+            claims.getSubject()
+            fail()
+        } catch (IllegalStateException expected) {
+        }
+        assertFalse claims.isLoaded()
+        assertEquals 'joe', claims.getSubject()
+    }
+
+    @Test
+    void testMalformedUtf8InUnscannedClaimIsRejectedByParse() {
+        def parser = Jwts.parserBuilder().setLazyClaims(true).build()
+        String header = Encoders.BASE64URL.encode('{"alg":"none"}'.getBytes(Strings.UTF_8))
+        def payload = new ByteArrayOutputStream()
+        payload.write('{"sub":"joe","note":"'.getBytes(Strings.UTF_8))
+        payload.write([0xc3, 0x28] as byte[]) // a lead byte followed by a byte that cannot continue it
+        payload.write('"}'.getBytes(Strings.UTF_8))
+        String jwt = header + '.' + Encoders.BASE64URL.encode(payload.toByteArray()) + '.'
+
+        try {
+            parser.parseClaimsJwt(jwt)
+            fail()
+        } catch (MalformedJwtException expected) {
+        }
+
+        // well-formed multi-byte characters in the same place are still parsed lazily:
+        String valid = Jwts.builder().setSubject('joe').claim('note', 'h\u00e9llo \u20ac \ud83d\ude00').compact()
+        def claims = parser.parseClaimsJwt(valid).getBody()
+        assertEquals 'joe', claims.getSubject()
+        assertFalse((claims as LazyClaims).isLoaded())
+        assertEquals 'h\u00e9llo \u20ac \ud83d\ude00', claims.get('note')
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver
+import io.jsonwebtoken.jackson.io.JacksonDeserializer
+import io.jsonwebtoken.io.Decoders
+import io.jsonwebtoken.lang.Strings
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class PayloadClaimsTest {
+
+    private static final DefaultJwtParser PARSER = new DefaultJwtParser(null, null, null, DefaultClock.INSTANCE, 0,
+        new DefaultClaims(), Decoders.BASE64URL, new JacksonDeserializer<Map<String, ?>>(),
+        new DefaultCompressionCodecResolver(), false, true, 0, 0, 0)
+
+    private static PayloadClaims scan(String json) {
+        return PayloadClaims.scan(PARSER, json.getBytes(Strings.UTF_8))
+    }
+
+    @Test
+    void testRegisteredClaimsWithoutLoading() {
+        def claims = scan('{"iss":"me","sub":"joe","jti":"id","exp":1700000000,"nbf":-5,"iat":0,' +
+            '"roles":["a","b",{"exp":"nested values are not scanned"}],"n":1.5e3,"t":true,"f":false,"z":null}')
+        assertNotNull claims
+        assertEquals 'me', claims.getIssuer()
+        assertEquals 'joe', claims.getSubject()
+        assertEquals 'id', claims.getId()
+        assertEquals new Date(1700000000L * 1000), claims.getExpiration()
+        assertEquals new Date(-5000L), claims.getNotBefore()
+        assertEquals new Date(0L), claims.getIssuedAt()
+        assertFalse claims.isLoaded()
+
+        assertEquals(['a', 'b', [exp: 'nested values are not scanned']], claims.get('roles'))
+        assertTrue claims.isLoaded()
+        assertEquals 'joe', claims.getSubject()
+        assertEquals new Date(1700000000L * 1000), claims.getExpiration()
+    }
+
+    @Test
+    void testAbsentAndNullClaims() {
+        def claims = scan(' {\n\t"sub" : null ,\r\n "foo":{} , "bar":[ ] }  ')
+        assertNotNull claims
+        assertNull claims.getSubject()
+        assertNull claims.getExpiration()
+        assertNull claims.getIssuer()
+        assertFalse claims.isLoaded()
+        assertEquals 2, claims.size()
+    }
+
+    @Test
+    void testEmptyObject() {
+        def claims = scan('{}')
+        assertNotNull claims
+        assertTrue claims.isEmpty()
+    }
+
+    @Test
+    void testUnscannableRegisteredClaims() {
+        [
+            '{"exp":"2020-01-01T00:00:00Z"}', // string dates are converted by DefaultClaims
+            '{"exp":1.5}',
+            '{"exp":1e9}',
+            '{"exp":1234567890123456}', // would overflow in milliseconds
+            '{"sub":1}',
+            '{"sub":"jo\\"e"}',
+            '{"exp":1,"exp":2}',
+            '{"\\u0065xp":1}'
+        ].each {
+            assertNull it, scan(it)
+        }
+        assertNotNull scan('{"a":"escapes \\" \\\\ \\/ \\b \\f \\n \\r \\t \\u00e9 are fine elsewhere"}')
+        assertNotNull scan('{"a":1,"a":2}') // duplicate custom claims are left to the deserializer
+    }
+
+    @Test
+    void testMalformedJson() {
+        [
+            '{', '{"a"}', '{"a":}', '{"a":1,}', '{"a":1 "b":2}', '{a:1}', "{'a':1}", '{"a":tru}', '{"a":01}',
+            '{"a":-}', '{"a":1.}', '{"a":1e}', '{"a":"\\x"}', '{"a":"\\u00g0"}', '{"a":"\u0001"}', '{"a":"open}',
+            '{"a":[1,]}', '{"a":[1 2]}', '{"a":{"b"}}', '{"a":1} {}', '[1]'
+        ].each {
+            assertNull it, scan(it)
+        }
+    }
+
+    @Test
+    void testNonAsciiStringClaims() {
+        def claims = scan('{"sub":"Jos\u00e9 \u4e2d","iss":"\ud83d\ude00"}')
+        assertNotNull claims
+        assertEquals 'Jos\u00e9 \u4e2d', claims.getSubject()
+        assertEquals '\ud83d\ude00', claims.getIssuer()
+        assertFalse claims.isLoaded()
+    }
+
+    @Test
+    void testMalformedUtf8StringClaimIsLeftToTheDeserializer() {
+        byte[] bytes = '{"sub":"ab"}'.getBytes(Strings.UTF_8)
+        bytes[9] = (byte) 0xC3 // a truncated two-byte sequence
+        assertNull PayloadClaims.scan(PARSER, bytes)
+    }
+
+    @Test
+    void testDeepNestingIsLeftToTheDeserializer() {
+        assertNotNull scan('{"a":' + '[' * 255 + ']' * 255 + '}')
+        assertNull scan('{"a":' + '[' * 300 + ']' * 300 + '}')
+    }
+
+    private static PayloadClaims scan(int... noteBytes) {
+        def json = new ByteArrayOutputStream()
+        json.write('{"note":"'.getBytes(Strings.UTF_8))
+        noteBytes.each { json.write(it) }
+        json.write('","sub":"joe"}'.getBytes(Strings.UTF_8))
+        return PayloadClaims.scan(PARSER, json.toByteArray())
+    }
+
+    @Test
+    void testMultiByteUtf8InSkippedStrings() {
+        assertNotNull scan(0xc3, 0xa9) // U+00E9
+        assertNotNull scan(0xe2, 0x82, 0xac) // U+20AC
+        assertNotNull scan(0xed, 0x9f, 0xbf) // U+D7FF
+        assertNotNull scan(0xf0, 0x9f, 0x98, 0x80) // U+1F600
+        assertNotNull scan(0xf4, 0x8f, 0xbf, 0xbf) // U+10FFFF
+        [
+            [0x80], // a continuation byte without a lead byte
+            [0xc3], // truncated
+            [0xc3, 0x28],
+            [0xc0, 0xaf], // overlong
+            [0xe0, 0x80, 0xaf], // overlong
+            [0xf0, 0x80, 0x80, 0xaf], // overlong
+            [0xed, 0xa0, 0x80], // a surrogate
+            [0xf4, 0x90, 0x80, 0x80], // beyond U+10FFFF
+            [0xf5, 0x80, 0x80, 0x80],
+            [0xe2, 0x82, 0x28],
+            [0xff],
+        ].each {
+            assertNull it.toString(), scan(it as int[])
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.MalformedJwtException
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class TokenizedJwtTest {
+
+    @Test
+    void testTokenize() {
+        def t = TokenizedJwt.tokenize('aaa.bbbb.cc')
+        assertEquals 'aaa', t.header
+        assertEquals 'bbbb', t.payload
+        assertEquals 'cc', t.digest
+        assertEquals 'aaa.bbbb', t.signedContent
+        assertEquals 0, t.headerOffset
+        assertEquals 3, t.headerLength
+        assertEquals 4, t.payloadOffset
+        assertEquals 4, t.payloadLength
+        assertEquals 9, t.digestOffset
+        assertEquals 2, t.digestLength
+        assertTrue t.hasHeader()
+        assertTrue t.hasDigest()
+    }
+
+    @Test
+    void testTokenizeUnsigned() {
+        def t = TokenizedJwt.tokenize('aaa.bbbb.')
+        assertEquals 'aaa', t.header
+        assertEquals 'bbbb', t.payload
+        assertNull t.digest
+        assertFalse t.hasDigest()
+    }
+
+    @Test
+    void testTokenizeWithoutHeader() {
+        def t = TokenizedJwt.tokenize('.bbbb.')
+        assertNull t.header
+        assertFalse t.hasHeader()
+        assertEquals 'bbbb', t.payload
+    }
+
+    @Test
+    void testTokenizeTrimsHeaderAndPayloadOnly() {
+        def t = TokenizedJwt.tokenize(' aaa \t. bbbb \n. cc ')
+        assertEquals 'aaa', t.header
+        assertEquals 'bbbb', t.payload
+        assertEquals ' cc ', t.digest
+        assertEquals 'aaa.bbbb', t.signedContent
+    }
+
+    @Test
+    void testTokenizeWhitespaceOnlyHeader() {
+        def t = TokenizedJwt.tokenize('   .bbbb.cc')
+        assertNull t.header
+        assertEquals 'bbbb', t.payload
+    }
+
+    @Test
+    void testTokenizeWhitespaceOnlyPayload() {
+        try {
+            TokenizedJwt.tokenize('aaa.   .cc')
+            fail()
+        } catch (MalformedJwtException e) {
+            assertEquals "JWT string 'aaa.   .cc' is missing a body/payload.", e.message
+        }
+    }
+
+    @Test
+    void testTokenizeTooManyPeriods() {
+        try {
+            TokenizedJwt.tokenize('a.b.c.d')
+            fail()
+        } catch (MalformedJwtException e) {
+            assertEquals 'JWT strings must contain exactly 2 period characters. Found: 3', e.message
+        }
+    }
+
+    @Test
+    void testTokenizeCharSequence() {
+        def sb = new StringBuilder('aaa.bbbb.cc')
+        def t = TokenizedJwt.tokenize(sb)
+        assertSame sb, t.jwt
+        assertEquals 'bbbb', t.payload
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl
+
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.Clock
+import io.jsonwebtoken.ExpiredJwtException
+import io.jsonwebtoken.Jws
+import io.jsonwebtoken.JwtHandlerAdapter
+import io.jsonwebtoken.JwtParser
+import io.jsonwebtoken.Jwts
+import io.jsonwebtoken.PrematureJwtException
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.UnsupportedJwtException
+import io.jsonwebtoken.io.DeserializationException
+import io.jsonwebtoken.io.Deserializer
+import io.jsonwebtoken.jackson.io.JacksonDeserializer
+import io.jsonwebtoken.lang.Strings
+import io.jsonwebtoken.security.Keys
+import io.jsonwebtoken.security.SignatureException
+import org.junit.Test
+
+import javax.crypto.SecretKey
+
+import static org.junit.Assert.*
+
+class VerifiedJwsCacheTest {
+
+    private static final SecretKey KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256)
+
+    private static class MutableClock implements Clock {
+        long millis = System.currentTimeMillis()
+
+        @Override
+        Date now() {
+            return new Date(millis)
+        }
+    }
+
+    private static JwtParser parser(Clock clock, int size, long skewSeconds = 0) {
+        return Jwts.parserBuilder().setSigningKey(KEY).setClock(clock).setAllowedClockSkewSeconds(skewSeconds)
+            .setVerifiedJwsCacheSize(size).build()
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        assertNull Jwts.parserBuilder().build().verifiedJwsCacheStatistics
+        assertNull new DefaultJwtParser().verifiedJwsCacheStatistics
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNegativeSize() {
+        Jwts.parserBuilder().setVerifiedJwsCacheSize(-1)
+    }
+
+    @Test
+    void testHitReturnsEquivalentCopy() {
+        def clock = new MutableClock()
+        def parser = parser(clock, 10)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(clock.millis + 60000)).signWith(KEY).compact()
+
+        Jws<Claims> first = parser.parseClaimsJws(jws)
+        Jws<Claims> second = parser.parseClaimsJws(jws)
+
+        assertEquals first.getBody(), second.getBody()
+        assertEquals first.getHeader(), second.getHeader()
+        assertEquals first.getSignature(), second.getSignature()
+        assertNotSame first.getBody(), second.getBody()
+
+        //mutations by one caller are not visible to the next:
+        second.getBody().setSubject('mallory')
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+
+        def stats = parser.verifiedJwsCacheStatistics
+        assertEquals 2, stats.hitCount
+        assertEquals 1, stats.missCount
+        assertEquals 1, stats.size
+        assertEquals 10, stats.maxSize
+    }
+
+    @Test
+    void testParseAndHandlerShareCache() {
+        def parser = parser(new MutableClock(), 10)
+        String jws = Jwts.builder().setSubject('joe').signWith(KEY).compact()
+
+        assertEquals 'joe', ((Claims) parser.parse(jws).getBody()).getSubject()
+        String sub = parser.parse(jws, new JwtHandlerAdapter<String>() {
+            @Override
+            String onClaimsJws(Jws<Claims> j) {
+                return j.getBody().getSubject()
+            }
+        })
+        assertEquals 'joe', sub
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        assertEquals 2, parser.verifiedJwsCacheStatistics.hitCount
+    }
+
+    @Test
+    void testEntryDoesNotOutliveExpiration() {
+        def clock = new MutableClock()
+        def parser = parser(clock, 10)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(clock.millis + 5000)).signWith(KEY).compact()
+
+        parser.parseClaimsJws(jws)
+        clock.millis += 10000
+
+        try {
+            parser.parseClaimsJws(jws)
+            fail()
+        } catch (ExpiredJwtException expected) {
+        }
+        def stats = parser.verifiedJwsCacheStatistics
+        assertEquals 0, stats.hitCount
+        assertEquals 2, stats.missCount
+        assertEquals 1, stats.evictionCount
+        assertEquals 0, stats.size
+    }
+
+    @Test
+    void testEntryWithoutExpirationDoesNotOutliveMaxAge() {
+        def clock = new MutableClock()
+        def parser = Jwts.parserBuilder().setSigningKey(KEY).setClock(clock).setVerifiedJwsCache(10, 60).build()
+        String jws = Jwts.builder().setSubject('joe').signWith(KEY).compact()
+
+        parser.parseClaimsJws(jws)
+        clock.millis += 59000
+        parser.parseClaimsJws(jws)
+        clock.millis += 1000
+        parser.parseClaimsJws(jws) // verified again, since the entry reached its maximum age
+
+        def stats = parser.verifiedJwsCacheStatistics
+        assertEquals 1, stats.hitCount
+        assertEquals 2, stats.missCount
+        assertEquals 1, stats.size
+    }
+
+    @Test
+    void testMaxAgeCapsDistantExpiration() {
+        def clock = new MutableClock()
+        def parser = Jwts.parserBuilder().setSigningKey(KEY).setClock(clock).setVerifiedJwsCache(10, 60).build()
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(clock.millis + 3600000)).signWith(KEY)
+            .compact()
+
+        parser.parseClaimsJws(jws)
+        clock.millis += 60000
+        parser.parseClaimsJws(jws)
+
+        assertEquals 0, parser.verifiedJwsCacheStatistics.hitCount
+        assertEquals 2, parser.verifiedJwsCacheStatistics.missCount
+    }
+
+    @Test
+    void testDefaultMaxAgeIsFiveMinutes() {
+        def clock = new MutableClock()
+        def parser = parser(clock, 10)
+        String jws = Jwts.builder().setSubject('joe').signWith(KEY).compact()
+
+        parser.parseClaimsJws(jws)
+        clock.millis += 299000
+        parser.parseClaimsJws(jws)
+        clock.millis += 1000
+        parser.parseClaimsJws(jws)
+
+        assertEquals 1, parser.verifiedJwsCacheStatistics.hitCount
+        assertEquals 2, parser.verifiedJwsCacheStatistics.missCount
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNonPositiveMaxAge() {
+        Jwts.parserBuilder().setVerifiedJwsCache(10, 0)
+    }
+
+    @Test
+    void testNonPositiveMaxAgeWithCacheDisabled() {
+        assertNull Jwts.parserBuilder().setVerifiedJwsCache(0, 0).build().verifiedJwsCacheStatistics
+    }
+
+    @Test
+    void testExpiredWithinSkewIsNotCached() {
+        def clock = new MutableClock()
+        def parser = parser(clock, 10, 60)
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(clock.millis - 5000)).signWith(KEY).compact()
+
+        parser.parseClaimsJws(jws)
+        parser.parseClaimsJws(jws)
+        assertEquals 0, parser.verifiedJwsCacheStatistics.hitCount
+        assertEquals 0, parser.verifiedJwsCacheStatistics.size
+    }
+
+    @Test
+    void testClockChecksRunOnHit() {
+        def clock = new MutableClock()
+        def parser = parser(clock, 10)
+        String jws = Jwts.builder().setSubject('joe').setNotBefore(new Date(clock.millis - 1000)).signWith(KEY).compact()
+
+        parser.parseClaimsJws(jws)
+        clock.millis -= 60000 //clock moves backwards, before nbf
+
+        try {
+            parser.parseClaimsJws(jws)
+            fail()
+        } catch (PrematureJwtException expected) {
+        }
+        assertEquals 1, parser.verifiedJwsCacheStatistics.hitCount
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        def parser = parser(new MutableClock(), 10)
+        String jws = Jwts.builder().setSubject('joe').signWith(KEY).compact()
+        String forged = jws.substring(0, jws.lastIndexOf('.') + 1) + 'AAAA'
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                parser.parseClaimsJws(forged)
+                fail()
+            } catch (SignatureException expected) {
+            }
+        }
+        assertEquals 0, parser.verifiedJwsCacheStatistics.size
+    }
+
+    @Test
+    void testPlaintextAndUnsignedResultsAreNotCached() {
+        def parser = parser(new MutableClock(), 10)
+        String plaintextJws = Jwts.builder().setPayload('hello').signWith(KEY).compact()
+        String unsigned = Jwts.builder().setSubject('joe').compact()
+
+        assertEquals 'hello', parser.parse(plaintextJws).getBody()
+        assertEquals 'hello', parser.parse(plaintextJws).getBody()
+        parser.parse(unsigned)
+        parser.parse(unsigned)
+        assertEquals 0, parser.verifiedJwsCacheStatistics.size
+        assertEquals 0, parser.verifiedJwsCacheStatistics.hitCount
+
+        try {
+            parser.parseClaimsJws(plaintextJws)
+            fail()
+        } catch (UnsupportedJwtException expected) {
+        }
+    }
+
+    @Test
+    void testEviction() {
+        def parser = parser(new MutableClock(), 1)
+        String a = Jwts.builder().setSubject('a').signWith(KEY).compact()
+        String b = Jwts.builder().setSubject('b').signWith(KEY).compact()
+
+        parser.parseClaimsJws(a)
+        parser.parseClaimsJws(b)
+        assertEquals 'a', parser.parseClaimsJws(a).getBody().getSubject()
+
+        def stats = parser.verifiedJwsCacheStatistics
+        assertEquals 0, stats.hitCount
+        assertEquals 2, stats.evictionCount
+        assertEquals 1, stats.size
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullJwsWithCache() {
+        parser(new MutableClock(), 10).parseClaimsJws(null)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testNullHandlerWithCache() {
+        parser(new MutableClock(), 10).parse('a.b.c', null)
+    }
+
+    @Test
+    void testNestedValuesAreNotShared() {
+        def clock = new MutableClock()
+        def parser = parser(clock, 10)
+        String jws = Jwts.builder().setHeaderParam('crit', ['exp']).setSubject('joe')
+            .claim('roles', ['user']).claim('address', [city: 'Springfield']).signWith(KEY).compact()
+
+        Jws<Claims> miss = parser.parseClaimsJws(jws)
+        miss.getBody().get('roles', List).add('admin')
+        miss.getBody().get('address', Map).put('city', 'Shelbyville')
+        ((List) miss.getHeader().get('crit')).add('nbf')
+
+        Jws<Claims> hit = parser.parseClaimsJws(jws)
+        hit.getBody().get('roles', List).add('root')
+
+        Jws<Claims> next = parser.parseClaimsJws(jws)
+        assertEquals(['user'], next.getBody().get('roles', List))
+        assertEquals([city: 'Springfield'], next.getBody().get('address', Map))
+        assertEquals(['exp'], next.getHeader().get('crit'))
+        assertEquals 2, parser.verifiedJwsCacheStatistics.hitCount
+    }
+
+    @Test
+    void testCachingDoesNotLoadLazyClaims() {
+        def clock = new MutableClock()
+        def payloads = []
+        def deserializer = new Deserializer<Map<String, ?>>() {
+            def delegate = new JacksonDeserializer<Map<String, ?>>()
+
+            @Override
+            Map<String, ?> deserialize(byte[] bytes) throws DeserializationException {
+                String json = new String(bytes, Strings.UTF_8)
+                if (!json.contains('"alg"')) {
+                    payloads << json
+                }
+                return delegate.deserialize(bytes)
+            }
+        }
+        def parser = Jwts.parserBuilder().setSigningKey(KEY).setClock(clock).setVerifiedJwsCacheSize(10)
+            .setLazyClaims(true).deserializeJsonWith(deserializer).build()
+        String jws = Jwts.builder().setSubject('joe').setExpiration(new Date(clock.millis + 60000))
+            .claim('roles', ['user']).signWith(KEY).compact()
+
+        assertEquals 'joe', parser.parseClaimsJws(jws).getBody().getSubject()
+        Jws<Claims> hit = parser.parseClaimsJws(jws)
+        assertEquals 'joe', hit.getBody().getSubject()
+        assertNotNull hit.getBody().getExpiration()
+        assertEquals 0, payloads.size()
+
+        hit.getBody().get('roles', List).add('admin')
+        assertEquals 1, payloads.size()
+        assertEquals(['user'], parser.parseClaimsJws(jws).getBody().get('roles', List))
+        assertEquals 2, payloads.size()
+    }
+}
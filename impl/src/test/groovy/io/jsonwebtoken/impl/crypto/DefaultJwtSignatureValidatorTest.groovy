@@ -18,10 +18,16 @@ package io.jsonwebtoken.impl.crypto
 import io.jsonwebtoken.SignatureAlgorithm
 import io.jsonwebtoken.io.Decoders
 import io.jsonwebtoken.security.Keys
+import io.jsonwebtoken.io.Encoders
 import org.junit.Test
 
+import java.security.Key
+
+import static org.junit.Assert.assertEquals
+import static org.junit.Assert.assertFalse
 import static org.junit.Assert.assertNotNull
 import static org.junit.Assert.assertSame
+import static org.junit.Assert.assertTrue
 
 class DefaultJwtSignatureValidatorTest {
 
@@ -50,4 +56,44 @@ class DefaultJwtSignatureValidatorTest {
         assertNotNull validator.signatureValidator
         assertSame Decoders.BASE64URL, validator.base64UrlDecoder
     }
+
+    @Test
+    void testIsValidRangeWithFactoryValidatorOnlyImplementingIsValidBytes() {
+        def alg = SignatureAlgorithm.HS256
+        def key = Keys.secretKeyFor(alg)
+        def delegate = new MacValidator(alg, key)
+        def verified = []
+        SignatureValidator legacy = [isValid: { byte[] data, byte[] signature ->
+            verified << new String(data, 'US-ASCII')
+            delegate.isValid(data, signature)
+        }] as SignatureValidator
+        SignatureValidatorFactory factory = [createSignatureValidator: { SignatureAlgorithm a, Key k -> legacy }] as SignatureValidatorFactory
+        def validator = new DefaultJwtSignatureValidator(factory, alg, key, Decoders.BASE64URL)
+        String jwt = 'eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJqb2UifQ'
+        String signature = new DefaultJwtSigner(alg, key, Encoders.BASE64URL).sign(jwt)
+        byte[] bytes = ('..' + jwt + '.' + signature).getBytes('US-ASCII')
+
+        assertTrue validator.isValid(bytes, 2, jwt.length(), signature)
+        assertFalse validator.isValid(bytes, 2, jwt.length() - 1, signature)
+        assertEquals([jwt, jwt.substring(0, jwt.length() - 1)], verified)
+    }
+
+    @Test
+    void testIsValidSegmentsWithFactoryValidatorOnlyImplementingIsValidBytes() {
+        def alg = SignatureAlgorithm.HS256
+        def key = Keys.secretKeyFor(alg)
+        def delegate = new MacValidator(alg, key)
+        def verified = []
+        SignatureValidator legacy = [isValid: { byte[] data, byte[] signature ->
+            verified << new String(data, 'US-ASCII')
+            delegate.isValid(data, signature)
+        }] as SignatureValidator
+        SignatureValidatorFactory factory = [createSignatureValidator: { SignatureAlgorithm a, Key k -> legacy }] as SignatureValidatorFactory
+        def validator = new DefaultJwtSignatureValidator(factory, alg, key, Decoders.BASE64URL)
+        String jwt = 'eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJqb2UifQ'
+        String signature = new DefaultJwtSigner(alg, key, Encoders.BASE64URL).sign(jwt)
+
+        assertTrue validator.isValid(SigningInput.of(jwt.getBytes('US-ASCII'), 0, 20, 21, jwt.length() - 21), signature)
+        assertEquals([jwt], verified)
+    }
 }
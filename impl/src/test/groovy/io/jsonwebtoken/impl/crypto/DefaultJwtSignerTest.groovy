@@ -20,6 +20,9 @@ import io.jsonwebtoken.io.Encoders
 import io.jsonwebtoken.security.Keys
 import org.junit.Test
 
+import java.security.Key
+
+import static org.junit.Assert.assertEquals
 import static org.junit.Assert.assertNotNull
 import static org.junit.Assert.assertSame
 
@@ -52,4 +55,46 @@ class DefaultJwtSignerTest {
         assertNotNull signer.signer
         assertSame Encoders.BASE64URL, signer.base64UrlEncoder
     }
+
+    @Test
+    void testSignRange() {
+        def alg = SignatureAlgorithm.HS256
+        def signer = new DefaultJwtSigner(alg, Keys.secretKeyFor(alg), Encoders.BASE64URL)
+        String jwt = 'eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJqb2UifQ'
+        byte[] bytes = ('..' + jwt + '.').getBytes('US-ASCII')
+
+        assertEquals signer.sign(jwt), signer.sign(bytes, 2, jwt.length())
+    }
+
+    @Test
+    void testSignRangeWithFactorySignerOnlyImplementingSignBytes() {
+        def alg = SignatureAlgorithm.HS256
+        def key = Keys.secretKeyFor(alg)
+        def delegate = new MacSigner(alg, key)
+        def signed = []
+        Signer legacy = [sign: { byte[] data -> signed << new String(data, 'US-ASCII'); delegate.sign(data) }] as Signer
+        SignerFactory factory = [createSigner: { SignatureAlgorithm a, Key k -> legacy }] as SignerFactory
+        def signer = new DefaultJwtSigner(factory, alg, key, Encoders.BASE64URL)
+        String jwt = 'eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJqb2UifQ'
+        byte[] bytes = ('..' + jwt + '.').getBytes('US-ASCII')
+
+        assertEquals new DefaultJwtSigner(alg, key, Encoders.BASE64URL).sign(jwt), signer.sign(bytes, 2, jwt.length())
+        assertEquals([jwt], signed)
+    }
+
+    @Test
+    void testSignSegmentsWithFactorySignerOnlyImplementingSignBytes() {
+        def alg = SignatureAlgorithm.HS256
+        def key = Keys.secretKeyFor(alg)
+        def delegate = new MacSigner(alg, key)
+        def signed = []
+        Signer legacy = [sign: { byte[] data -> signed << new String(data, 'US-ASCII'); delegate.sign(data) }] as Signer
+        SignerFactory factory = [createSigner: { SignatureAlgorithm a, Key k -> legacy }] as SignerFactory
+        def signer = new DefaultJwtSigner(factory, alg, key, Encoders.BASE64URL)
+        String jwt = 'eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJqb2UifQ'
+        def input = SigningInput.of(' ' + jwt, 1, 20, 22, jwt.length() - 21)
+
+        assertEquals new DefaultJwtSigner(alg, key, Encoders.BASE64URL).sign(jwt), signer.sign(input)
+        assertEquals([jwt], signed)
+    }
 }
@@ -200,4 +200,61 @@ class EllipticCurveSignatureValidatorTest {
             assert new EllipticCurveSignatureValidator(algorithm, keypair.public).isValid(data, signature)
         }
     }
+
+    @Test
+    void testPooledSignatureInstancesAreReused() {
+        KeyPair kp = EllipticCurveProvider.generateKeyPair(SignatureAlgorithm.ES256)
+        def v = new EllipticCurveSignatureValidator(SignatureAlgorithm.ES256, kp.public)
+        def signer = new EllipticCurveSigner(SignatureAlgorithm.ES256, kp.private)
+        byte[] data = 'header.payload'.getBytes('US-ASCII')
+        byte[] signature = signer.sign(data)
+        byte[] other = signer.sign(data)
+        assertFalse Arrays.equals(signature, other) // ECDSA signatures are randomized even with a reused instance
+
+        assertTrue v.isValid(data, signature)
+        Signature pooled = v.acquireSignatureInstance()
+        v.releaseSignatureInstance(pooled)
+        assertFalse v.isValid(data, 0, 6, signature)
+        assertTrue v.isValid(data, other)
+        assertTrue v.isValid(data, EllipticCurveProvider.transcodeSignatureToDER(other)) // legacy DER signature
+        assertSame pooled, v.acquireSignatureInstance()
+    }
+
+    @Test
+    void testOverriddenDoVerifyInitializesNewSignatureInstance() {
+        KeyPair kp = EllipticCurveProvider.generateKeyPair(SignatureAlgorithm.ES256)
+        def instances = []
+        def v = new EllipticCurveSignatureValidator(SignatureAlgorithm.ES256, kp.public) {
+            @Override
+            protected boolean doVerify(Signature sig, PublicKey pk, byte[] data, byte[] signature) throws InvalidKeyException, java.security.SignatureException {
+                instances << sig
+                return super.doVerify(sig, pk, data, signature)
+            }
+        }
+        byte[] data = 'xxheader.payloadxx'.getBytes('US-ASCII')
+        byte[] signature = new EllipticCurveSigner(SignatureAlgorithm.ES256, kp.private).sign('header.payload'.getBytes('US-ASCII'))
+
+        assertTrue v.isValid('header.payload'.getBytes('US-ASCII'), signature)
+        assertTrue v.isValid(data, 2, 14, signature)
+        assertTrue v.isValid(SigningInput.of(data, 2, 6, 9, 7), signature)
+        assertEquals 3, instances.size()
+        assertNotSame instances[0], instances[1]
+        assertNotSame instances[1], instances[2]
+    }
+
+    @Test
+    void testDoVerifyWithNewSignatureInstance() {
+        KeyPair kp = EllipticCurveProvider.generateKeyPair(SignatureAlgorithm.ES256)
+        byte[] data = 'header.payload'.getBytes('US-ASCII')
+        byte[] signature = new EllipticCurveSigner(SignatureAlgorithm.ES256, kp.private).sign(data)
+        def v = new EllipticCurveSignatureValidator(SignatureAlgorithm.ES256, kp.public) {
+            @Override
+            boolean isValid(byte[] bytes, byte[] sig) {
+                // the contract before 0.12.0:
+                return doVerify(createSignatureInstance(), kp.public, bytes, transcodeSignatureToDER(sig))
+            }
+        }
+
+        assertTrue v.isValid(data, signature)
+    }
 }
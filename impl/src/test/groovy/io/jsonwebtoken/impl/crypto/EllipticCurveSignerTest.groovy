@@ -141,4 +141,24 @@ class EllipticCurveSignerTest {
             assertSame se.cause, ex
         }
     }
+
+    @Test
+    void testSignSegmentsUsesOverriddenDoSign() {
+        SignatureAlgorithm alg = SignatureAlgorithm.ES256
+        KeyPair kp = Keys.keyPairFor(alg)
+        def signed = []
+        def signer = new EllipticCurveSigner(alg, kp.private) {
+            @Override
+            protected byte[] doSign(byte[] data) throws InvalidKeyException, java.security.SignatureException {
+                signed << data
+                return super.doSign(data)
+            }
+        }
+        byte[] expected = 'header.payload'.getBytes('US-ASCII')
+        byte[] signature = signer.sign(SigningInput.of('header.payload', 0, 6, 7, 7))
+
+        assertTrue new EllipticCurveSignatureValidator(alg, kp.public).isValid(expected, signature)
+        assertEquals 1, signed.size()
+        assertArrayEquals expected, signed[0]
+    }
 }
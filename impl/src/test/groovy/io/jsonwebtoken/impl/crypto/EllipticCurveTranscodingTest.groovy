@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2015 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto
+
+import groovy.transform.CompileStatic
+import io.jsonwebtoken.JwtException
+import io.jsonwebtoken.SignatureAlgorithm
+import org.junit.Test
+
+import java.security.Signature
+
+import static org.junit.Assert.*
+
+/**
+ * Fuzzes the buffer-based ECDSA signature transcoders against the array-allocating implementation they replaced.
+ */
+class EllipticCurveTranscodingTest {
+
+    private static final List<SignatureAlgorithm> ALGS = [SignatureAlgorithm.ES256, SignatureAlgorithm.ES384,
+                                                          SignatureAlgorithm.ES512]
+
+    /**
+     * The transcoders as they were before 0.12.0.  Statically compiled so that array accesses behave exactly as in
+     * Java (Groovy would otherwise treat negative indices as counting from the end).
+     */
+    @CompileStatic
+    static class Legacy {
+
+        static byte[] toConcat(final byte[] derSignature, int outputLength) throws JwtException {
+
+            if (derSignature.length < 8 || derSignature[0] != 48) {
+                throw new JwtException("Invalid ECDSA signature format")
+            }
+
+            int offset
+            if (derSignature[1] > 0) {
+                offset = 2
+            } else if (derSignature[1] == (byte) 0x81) {
+                offset = 3
+            } else {
+                throw new JwtException("Invalid ECDSA signature format")
+            }
+
+            byte rLength = derSignature[offset + 1]
+
+            int i = rLength
+            while ((i > 0) && (derSignature[(offset + 2 + rLength) - i] == 0)) {
+                i--
+            }
+
+            byte sLength = derSignature[offset + 2 + rLength + 1]
+
+            int j = sLength
+            while ((j > 0) && (derSignature[(offset + 2 + rLength + 2 + sLength) - j] == 0)) {
+                j--
+            }
+
+            int rawLen = Math.max(i, j)
+            rawLen = Math.max(rawLen, (int) (outputLength / 2))
+
+            if ((derSignature[offset - 1] & 0xff) != derSignature.length - offset
+                || (derSignature[offset - 1] & 0xff) != 2 + rLength + 2 + sLength
+                || derSignature[offset] != 2
+                || derSignature[offset + 2 + rLength] != 2) {
+                throw new JwtException("Invalid ECDSA signature format")
+            }
+
+            final byte[] concatSignature = new byte[2 * rawLen]
+
+            System.arraycopy(derSignature, (offset + 2 + rLength) - i, concatSignature, rawLen - i, i)
+            System.arraycopy(derSignature, (offset + 2 + rLength + 2 + sLength) - j, concatSignature, 2 * rawLen - j, j)
+
+            return concatSignature
+        }
+
+        static byte[] toDER(byte[] jwsSignature) throws JwtException {
+
+            int rawLen = (int) (jwsSignature.length / 2)
+
+            int i = rawLen
+
+            while ((i > 0) && (jwsSignature[rawLen - i] == 0)) {
+                i--
+            }
+
+            int j = i
+
+            if (jwsSignature[rawLen - i] < 0) {
+                j += 1
+            }
+
+            int k = rawLen
+
+            while ((k > 0) && (jwsSignature[2 * rawLen - k] == 0)) {
+                k--
+            }
+
+            int l = k
+
+            if (jwsSignature[2 * rawLen - k] < 0) {
+                l += 1
+            }
+
+            int len = 2 + j + 2 + l
+
+            if (len > 255) {
+                throw new JwtException("Invalid ECDSA signature format")
+            }
+
+            int offset
+
+            final byte[] derSignature
+
+            if (len < 128) {
+                derSignature = new byte[2 + 2 + j + 2 + l]
+                offset = 1
+            } else {
+                derSignature = new byte[3 + 2 + j + 2 + l]
+                derSignature[1] = (byte) 0x81
+                offset = 2
+            }
+
+            derSignature[0] = 48
+            derSignature[offset++] = (byte) len
+            derSignature[offset++] = 2
+            derSignature[offset++] = (byte) j
+
+            System.arraycopy(jwsSignature, rawLen - i, derSignature, (offset + j) - i, i)
+
+            offset += j
+
+            derSignature[offset++] = 2
+            derSignature[offset++] = (byte) l
+
+            System.arraycopy(jwsSignature, 2 * rawLen - k, derSignature, (offset + l) - k, k)
+
+            return derSignature
+        }
+    }
+
+    /**
+     * Asserts that the new implementation returns what the legacy one returns, directly and when writing into a
+     * larger, dirty buffer at an offset, and throws a JwtException whenever the legacy one threw anything.
+     */
+    private static void assertConcatEquivalent(Random random, byte[] der, int outputLength) {
+        byte[] expected = null
+        try {
+            expected = Legacy.toConcat(der, outputLength)
+        } catch (Exception ignored) {
+        }
+
+        int offset = random.nextInt(8)
+        byte[] src = new byte[offset + der.length + random.nextInt(8)]
+        random.nextBytes(src)
+        System.arraycopy(der, 0, src, offset, der.length)
+        byte[] dest = new byte[616]
+        random.nextBytes(dest)
+        int destOffset = random.nextInt(16)
+
+        if (expected == null) {
+            try {
+                EllipticCurveProvider.transcodeSignatureToConcat(der, outputLength)
+                fail("Expected a JwtException for DER ${der.encodeHex()}")
+            } catch (JwtException e) {
+                assertEquals 'Invalid ECDSA signature format', e.message
+            }
+            try {
+                EllipticCurveProvider.transcodeSignatureToConcat(src, offset, der.length, outputLength, dest, destOffset)
+                fail("Expected a JwtException for DER ${der.encodeHex()}")
+            } catch (JwtException expectedException) {
+            }
+            return
+        }
+
+        assertArrayEquals der.encodeHex().toString(), expected,
+            EllipticCurveProvider.transcodeSignatureToConcat(der, outputLength)
+        assertArrayEquals expected, EllipticCurveProvider.transcodeSignatureToConcat(src, offset, der.length, outputLength)
+        int n = EllipticCurveProvider.transcodeSignatureToConcat(src, offset, der.length, outputLength, dest, destOffset)
+        assertEquals expected.length, n
+        assertArrayEquals expected, Arrays.copyOfRange(dest, destOffset, destOffset + n)
+    }
+
+    private static void assertDerEquivalent(Random random, byte[] jws) {
+        byte[] expected = null
+        try {
+            expected = Legacy.toDER(jws)
+        } catch (Exception ignored) {
+        }
+
+        int offset = random.nextInt(8)
+        byte[] src = new byte[offset + jws.length + random.nextInt(8)]
+        random.nextBytes(src)
+        System.arraycopy(jws, 0, src, offset, jws.length)
+        byte[] dest = new byte[EllipticCurveProvider.MAX_DER_SIGNATURE_LENGTH + 16]
+        random.nextBytes(dest)
+        int destOffset = random.nextInt(16)
+
+        if (expected == null) {
+            try {
+                EllipticCurveProvider.transcodeSignatureToDER(jws)
+                fail("Expected a JwtException for JWS signature ${jws.encodeHex()}")
+            } catch (JwtException e) {
+                assertEquals 'Invalid ECDSA signature format', e.message
+            }
+            try {
+                EllipticCurveProvider.transcodeSignatureToDER(src, offset, jws.length, dest, destOffset)
+                fail("Expected a JwtException for JWS signature ${jws.encodeHex()}")
+            } catch (JwtException expectedException) {
+            }
+            return
+        }
+
+        assertArrayEquals jws.encodeHex().toString(), expected, EllipticCurveProvider.transcodeSignatureToDER(jws)
+        int n = EllipticCurveProvider.transcodeSignatureToDER(src, offset, jws.length, dest, destOffset)
+        assertEquals expected.length, n
+        assertArrayEquals expected, Arrays.copyOfRange(dest, destOffset, destOffset + n)
+    }
+
+    // a signature value of the specified length, with a random number of leading zeros and a random sign bit:
+    private static byte[] integer(Random random, int length) {
+        byte[] b = new byte[length]
+        random.nextBytes(b)
+        int zeros = random.nextInt(4) == 0 ? Math.min(length, random.nextInt(4)) : 0
+        Arrays.fill(b, 0, zeros, (byte) 0)
+        return b
+    }
+
+    // a well-formed DER signature with random INTEGER lengths (not necessarily minimal) and header form:
+    private static byte[] der(Random random) {
+        byte[] r = integer(random, random.nextInt(70))
+        byte[] s = integer(random, random.nextInt(70))
+        int len = 2 + r.length + 2 + s.length
+        boolean longForm = len >= 128 || random.nextInt(8) == 0
+        def out = new ByteArrayOutputStream()
+        out.write(48)
+        if (longForm) {
+            out.write(0x81)
+        }
+        out.write(len)
+        out.write(2)
+        out.write(r.length)
+        out.write(r)
+        out.write(2)
+        out.write(s.length)
+        out.write(s)
+        return out.toByteArray()
+    }
+
+    private static byte[] mutate(Random random, byte[] b) {
+        switch (random.nextInt(4)) {
+            case 0: // flip a byte
+                if (b.length > 0) {
+                    b = b.clone()
+                    b[random.nextInt(b.length)] = (byte) random.nextInt(256)
+                }
+                return b
+            case 1: // truncate
+                return Arrays.copyOf(b, random.nextInt(b.length + 1))
+            case 2: // extend
+                byte[] longer = Arrays.copyOf(b, b.length + 1 + random.nextInt(4))
+                return longer
+            default:
+                return b
+        }
+    }
+
+    @Test
+    void testConcatFuzz() {
+        Random random = new Random(20200101)
+        for (int n = 0; n < 20000; n++) {
+            byte[] der = der(random)
+            if (random.nextBoolean()) {
+                der = mutate(random, der)
+            }
+            assertConcatEquivalent(random, der, [64, 96, 132, 0, random.nextInt(300)][random.nextInt(5)])
+        }
+    }
+
+    @Test
+    void testConcatRandomBytes() {
+        Random random = new Random(42)
+        for (int n = 0; n < 20000; n++) {
+            byte[] der = new byte[random.nextInt(160)]
+            random.nextBytes(der)
+            if (der.length > 1 && random.nextBoolean()) {
+                der[0] = 48
+                der[1] = (byte) (random.nextBoolean() ? der.length - 2 : 0x81)
+            }
+            assertConcatEquivalent(random, der, 132)
+        }
+    }
+
+    @Test
+    void testDerFuzz() {
+        Random random = new Random(8675309)
+        for (int n = 0; n < 20000; n++) {
+            int length = random.nextInt(8) == 0 ? random.nextInt(300) : [64, 96, 132][random.nextInt(3)]
+            byte[] jws = new byte[length]
+            int half = (int) (length / 2)
+            System.arraycopy(integer(random, half), 0, jws, 0, half)
+            System.arraycopy(integer(random, half), 0, jws, half, half)
+            if (length % 2 == 1) {
+                jws[length - 1] = (byte) random.nextInt(256)
+            }
+            if (random.nextInt(16) == 0) { // an all-zero R or S
+                int from = random.nextBoolean() ? 0 : half
+                Arrays.fill(jws, from, from + half, (byte) 0)
+            }
+            assertDerEquivalent(random, jws)
+        }
+    }
+
+    @Test
+    void testRoundTripOfRealSignatures() {
+        Random random = new Random(7)
+        for (SignatureAlgorithm alg : ALGS) {
+            def pair = EllipticCurveProvider.generateKeyPair(alg)
+            def sig = Signature.getInstance(alg.jcaName)
+            int outputLength = EllipticCurveProvider.getSignatureByteArrayLength(alg)
+            for (int n = 0; n < 200; n++) {
+                byte[] data = new byte[n]
+                random.nextBytes(data)
+                sig.initSign(pair.private)
+                sig.update(data)
+                byte[] der = sig.sign()
+
+                assertConcatEquivalent(random, der, outputLength)
+                byte[] concat = EllipticCurveProvider.transcodeSignatureToConcat(der, outputLength)
+                assertEquals outputLength, concat.length
+                assertDerEquivalent(random, concat)
+
+                sig.initVerify(pair.public)
+                sig.update(data)
+                assertTrue sig.verify(EllipticCurveProvider.transcodeSignatureToDER(concat))
+            }
+        }
+    }
+
+    @Test
+    void testSignerAndValidatorReuseBuffers() {
+        for (SignatureAlgorithm alg : ALGS) {
+            def pair = EllipticCurveProvider.generateKeyPair(alg)
+            def signer = new EllipticCurveSigner(alg, pair.private)
+            def validator = new EllipticCurveSignatureValidator(alg, pair.public)
+            for (int n = 0; n < 50; n++) {
+                byte[] data = "head.payload $n".getBytes('UTF-8')
+                byte[] signature = signer.sign(data)
+                assertEquals EllipticCurveProvider.getSignatureByteArrayLength(alg), signature.length
+                assertTrue validator.isValid(data, signature)
+                assertTrue validator.isValid(SigningInput.of(data, 0, 4, 5, data.length - 5), signature)
+                assertFalse validator.isValid("other $n".getBytes('UTF-8'), signature)
+            }
+        }
+    }
+
+    @Test
+    void testMaxDerSignatureLength() {
+        // the longest R and S whose DER sequence still fits in 255 bytes, with a negative R that needs a pad byte:
+        byte[] jws = new byte[250]
+        Arrays.fill(jws, 0, 125, (byte) 0xff)
+        Arrays.fill(jws, 125, 250, (byte) 0x01)
+        byte[] der = new byte[EllipticCurveProvider.MAX_DER_SIGNATURE_LENGTH]
+
+        assertEquals der.length, EllipticCurveProvider.transcodeSignatureToDER(jws, 0, jws.length, der, 0)
+        assertArrayEquals Legacy.toDER(jws), der
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testDerDestTooSmall() {
+        byte[] jws = new byte[64]
+        Arrays.fill(jws, (byte) 1)
+        EllipticCurveProvider.transcodeSignatureToDER(jws, 0, jws.length, new byte[69], 0)
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testConcatDestTooSmall() {
+        byte[] jws = new byte[64]
+        Arrays.fill(jws, (byte) 1)
+        byte[] der = EllipticCurveProvider.transcodeSignatureToDER(jws)
+        EllipticCurveProvider.transcodeSignatureToConcat(der, 0, der.length, 64, new byte[70], 8)
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class EnginePoolTest {
+
+    @Test(expected = IllegalArgumentException)
+    void testZeroCapacity() {
+        new EnginePool(0)
+    }
+
+    @Test
+    void testDefaultCapacity() {
+        assertEquals EnginePool.DEFAULT_CAPACITY, new EnginePool().capacity()
+        assertTrue EnginePool.DEFAULT_CAPACITY >= 2
+    }
+
+    @Test
+    void testPollEmpty() {
+        assertNull new EnginePool<String>(4).poll()
+    }
+
+    @Test
+    void testOfferAndPoll() {
+        def pool = new EnginePool<String>(2)
+        assertTrue pool.offer('a')
+        assertTrue pool.offer('b')
+        assertFalse pool.offer('c') //full
+        def polled = [pool.poll(), pool.poll()] as Set
+        assertEquals(['a', 'b'] as Set, polled)
+        assertNull pool.poll()
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void testOfferNull() {
+        new EnginePool<String>(2).offer(null)
+    }
+
+    @Test
+    void testConcurrentUseNeverSharesAnEngine() {
+        def pool = new EnginePool<Object>(4)
+        def inUse = Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<Object, Boolean>())
+        def failures = new java.util.concurrent.atomic.AtomicInteger()
+        def threads = (1..8).collect {
+            Thread.start {
+                for (int i = 0; i < 5000; i++) {
+                    Object engine = pool.poll() ?: new Object()
+                    if (!inUse.add(engine)) {
+                        failures.incrementAndGet()
+                    }
+                    inUse.remove(engine)
+                    pool.offer(engine)
+                }
+            }
+        }
+        threads*.join()
+        assertEquals 0, failures.get()
+    }
+}
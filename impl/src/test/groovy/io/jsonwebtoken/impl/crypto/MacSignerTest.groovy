@@ -20,9 +20,12 @@ import io.jsonwebtoken.security.SignatureException
 import org.junit.Test
 
 import javax.crypto.Mac
+import javax.crypto.MacSpi
+import javax.crypto.spec.SecretKeySpec
 import java.security.InvalidKeyException
 import java.security.Key
 import java.security.NoSuchAlgorithmException
+import java.security.spec.AlgorithmParameterSpec
 
 import static org.junit.Assert.*
 
@@ -100,4 +103,237 @@ class MacSignerTest {
             assertEquals e.cause.message, 'foo'
         }
     }
+
+    private static byte[] hmac(String jcaName, byte[] key, byte[] data) {
+        Mac mac = Mac.getInstance(jcaName)
+        mac.init(new SecretKeySpec(key, jcaName))
+        return mac.doFinal(data)
+    }
+
+    @Test
+    void testPooledMacsAreKeyedOnce() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        int created = 0
+        def s = new MacSigner(SignatureAlgorithm.HS256, key) {
+            @Override
+            protected Mac doGetMacInstance() throws NoSuchAlgorithmException, InvalidKeyException {
+                created++
+                return super.doGetMacInstance()
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            byte[] data = new byte[i * 7]
+            rng.nextBytes(data)
+            assertArrayEquals hmac('HmacSHA256', key, data), s.sign(data)
+            assertArrayEquals hmac('HmacSHA256', key, data), s.sign(data, 0, data.length)
+        }
+        assertEquals 1, created //only the first Mac, which was reused every time after that
+    }
+
+    @Test
+    void testSignRange() {
+        byte[] key = new byte[48]
+        rng.nextBytes(key)
+        byte[] data = new byte[100]
+        rng.nextBytes(data)
+        def s = new MacSigner(SignatureAlgorithm.HS384, key)
+        assertArrayEquals hmac('HmacSHA384', key, Arrays.copyOfRange(data, 10, 60)), s.sign(data, 10, 50)
+    }
+
+    @Test
+    void testSignRangeUsesOverriddenSign() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        byte[] data = new byte[100]
+        rng.nextBytes(data)
+        def signed = []
+        def s = new MacSigner(SignatureAlgorithm.HS256, key) {
+            @Override
+            byte[] sign(byte[] bytes) {
+                signed << bytes
+                return super.sign(bytes)
+            }
+        }
+        byte[] range = Arrays.copyOfRange(data, 10, 60)
+        assertArrayEquals hmac('HmacSHA256', key, range), s.sign(data, 10, 50)
+        assertEquals 1, signed.size()
+        assertArrayEquals range, signed[0]
+    }
+
+    @Test
+    void testSignSegmentsUsesOverriddenSign() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        def signed = []
+        def s = new MacSigner(SignatureAlgorithm.HS256, key) {
+            @Override
+            byte[] sign(byte[] bytes) {
+                signed << bytes
+                return super.sign(bytes)
+            }
+        }
+        byte[] expected = 'header.payload'.getBytes('US-ASCII')
+        assertArrayEquals hmac('HmacSHA256', key, expected), s.sign(SigningInput.of('header.payload', 0, 6, 7, 7))
+        assertEquals 1, signed.size()
+        assertArrayEquals expected, signed[0]
+    }
+
+    @Test
+    void testNonCloneableProvider() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        int created = 0
+        def s = new MacSigner(SignatureAlgorithm.HS256, key) {
+            @Override
+            protected Mac doGetMacInstance() throws NoSuchAlgorithmException, InvalidKeyException {
+                created++
+                Mac real = super.doGetMacInstance()
+                def spi = new NonCloneableMacSpi(real)
+                Mac mac = new Mac(spi, real.getProvider(), real.getAlgorithm()) {}
+                mac.init(new SecretKeySpec(key, 'HmacSHA256'))
+                return mac
+            }
+        }
+        def macs = (1..3).collect { s.acquireMac() }
+        assertEquals 3, created //nothing could be cloned
+        assertEquals 3, macs.toSet().size()
+        macs.each { s.releaseMac(it) }
+
+        byte[] data = 'hello'.getBytes('UTF-8')
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals hmac('HmacSHA256', key, data), s.sign(data)
+        }
+        assertEquals 3, created //the released Macs were reused
+    }
+
+    @Test
+    void testConcurrentMissesCloneAPrototype() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        int created = 0
+        def s = new MacSigner(SignatureAlgorithm.HS256, key) {
+            @Override
+            protected Mac doGetMacInstance() throws NoSuchAlgorithmException, InvalidKeyException {
+                created++
+                return super.doGetMacInstance()
+            }
+        }
+        byte[] data = 'hello'.getBytes('UTF-8')
+
+        def macs = (1..4).collect { s.acquireMac() }
+
+        assertEquals 2, created //the first Mac, then one more that the prototype was cloned from
+        assertEquals 4, macs.toSet().size()
+        macs.each { assertArrayEquals hmac('HmacSHA256', key, data), it.doFinal(data) }
+    }
+
+    @Test
+    void testOneShotSignerDoesNotCreatePrototype() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        def s = new MacSigner(SignatureAlgorithm.HS256, key)
+        byte[] data = 'hello'.getBytes('UTF-8')
+
+        assertArrayEquals hmac('HmacSHA256', key, data), s.sign(data)
+        assertNull s.@pool.@prototype
+    }
+
+    @Test
+    void testPoolsAreSharedPerAlgorithmAndKey() {
+        byte[] key = new byte[64]
+        rng.nextBytes(key)
+        byte[] otherKey = new byte[64]
+        rng.nextBytes(otherKey)
+
+        def pool = new MacSigner(SignatureAlgorithm.HS256, key).@pool
+        assertSame pool, new MacSigner(SignatureAlgorithm.HS256, key).@pool
+        assertSame pool, new MacSigner(SignatureAlgorithm.HS256, new SecretKeySpec(key, 'HmacSHA256')).@pool
+        assertSame pool, new MacValidator(SignatureAlgorithm.HS256, new SecretKeySpec(key, 'HmacSHA256')).@signer.@pool
+        assertNotSame pool, new MacSigner(SignatureAlgorithm.HS512, key).@pool
+        assertNotSame pool, new MacSigner(SignatureAlgorithm.HS256, otherKey).@pool
+        def subclass = new MacSigner(SignatureAlgorithm.HS256, key) {}
+        def field = MacSigner.getDeclaredField('pool')
+        field.setAccessible(true)
+        assertNotSame pool, field.get(subclass)
+    }
+
+    @Test
+    void testSharedPoolReusesMacsAcrossSigners() {
+        byte[] key = new byte[32]
+        rng.nextBytes(key)
+        byte[] data = 'hello'.getBytes('UTF-8')
+        def first = new MacSigner(SignatureAlgorithm.HS256, key)
+        Mac mac = first.acquireMac()
+        first.releaseMac(mac)
+
+        def second = new MacSigner(SignatureAlgorithm.HS256, key)
+        assertSame mac, second.acquireMac()
+        assertArrayEquals hmac('HmacSHA256', key, data), mac.doFinal(data)
+    }
+
+    @Test
+    void testConcurrentSigning() {
+        byte[] key = new byte[64]
+        rng.nextBytes(key)
+        def s = new MacSigner(SignatureAlgorithm.HS512, key)
+        def failures = new java.util.concurrent.atomic.AtomicInteger()
+        def threads = (1..8).collect { t ->
+            Thread.start {
+                def r = new Random(t)
+                for (int i = 0; i < 500; i++) {
+                    byte[] data = new byte[r.nextInt(200)]
+                    r.nextBytes(data)
+                    if (!Arrays.equals(hmac('HmacSHA512', key, data), s.sign(data))) {
+                        failures.incrementAndGet()
+                    }
+                }
+            }
+        }
+        threads*.join()
+        assertEquals 0, failures.get()
+    }
+
+    /**
+     * Delegates to an initialized Mac, but (unlike the JDK's MacSpi implementations) does not implement Cloneable.
+     */
+    private static class NonCloneableMacSpi extends MacSpi {
+
+        private final Mac delegate
+
+        NonCloneableMacSpi(Mac delegate) {
+            this.delegate = delegate
+        }
+
+        @Override
+        protected int engineGetMacLength() {
+            return delegate.getMacLength()
+        }
+
+        @Override
+        protected void engineInit(Key key, AlgorithmParameterSpec params) {
+            // already initialized
+        }
+
+        @Override
+        protected void engineUpdate(byte input) {
+            delegate.update(input)
+        }
+
+        @Override
+        protected void engineUpdate(byte[] input, int offset, int len) {
+            delegate.update(input, offset, len)
+        }
+
+        @Override
+        protected byte[] engineDoFinal() {
+            return delegate.doFinal()
+        }
+
+        @Override
+        protected void engineReset() {
+            delegate.reset()
+        }
+    }
 }
+
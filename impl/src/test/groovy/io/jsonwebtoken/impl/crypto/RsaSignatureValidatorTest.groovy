@@ -70,4 +70,99 @@ class RsaSignatureValidatorTest {
             assertSame se.cause, ex
         }
     }
+
+    @Test
+    void testFailedVerificationResetsPooledSignatureInstance() {
+        KeyPair kp = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        RsaSignatureValidator v = new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public)
+        byte[] data = new byte[32]
+        rng.nextBytes(data)
+        byte[] signature = new RsaSigner(SignatureAlgorithm.RS256, kp.private).sign(data)
+        byte[] forged = new byte[signature.length]
+        rng.nextBytes(forged)
+
+        assertFalse v.isValid(data, forged)
+        Signature pooled = v.acquireSignatureInstance()
+        v.releaseSignatureInstance(pooled)
+        assertTrue v.isValid(data, signature) // a failed verification must not leave data behind in the instance
+        assertFalse v.isValid(data, 0, 16, signature)
+        assertTrue v.isValid(data, signature)
+        assertSame pooled, v.acquireSignatureInstance()
+    }
+
+    @Test
+    void testOverriddenDoVerifyInitializesNewSignatureInstance() {
+        KeyPair kp = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        def instances = []
+        RsaSignatureValidator v = new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public) {
+            @Override
+            protected boolean doVerify(Signature sig, PublicKey pk, byte[] data, byte[] signature) throws InvalidKeyException, java.security.SignatureException {
+                instances << sig
+                return super.doVerify(sig, pk, data, signature)
+            }
+        }
+        byte[] data = new byte[32]
+        rng.nextBytes(data)
+        byte[] signature = new RsaSigner(SignatureAlgorithm.RS256, kp.private).sign(Arrays.copyOfRange(data, 8, 24))
+
+        assertTrue v.isValid(Arrays.copyOfRange(data, 8, 24), signature)
+        assertTrue v.isValid(data, 8, 16, signature)
+        byte[] jwt = 'xxheader.payloadxx'.getBytes('US-ASCII')
+        byte[] jwtSignature = new RsaSigner(SignatureAlgorithm.RS256, kp.private).sign(Arrays.copyOfRange(jwt, 2, 16))
+        assertTrue v.isValid(SigningInput.of(jwt, 2, 6, 9, 7), jwtSignature)
+        assertEquals 3, instances.size()
+        assertNotSame instances[0], instances[1]
+        assertNotSame instances[1], instances[2]
+    }
+
+    @Test
+    void testDoVerifyWithNewSignatureInstance() {
+        KeyPair kp = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        byte[] data = new byte[32]
+        rng.nextBytes(data)
+        byte[] signature = new RsaSigner(SignatureAlgorithm.RS256, kp.private).sign(data)
+        RsaSignatureValidator v = new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public) {
+            @Override
+            boolean isValid(byte[] bytes, byte[] sig) {
+                return doVerify(createSignatureInstance(), kp.public, bytes, sig) // the contract before 0.12.0
+            }
+        }
+
+        assertTrue v.isValid(data, signature)
+    }
+
+    @Test
+    void testSignatureInstanceIsNotReusedAfterException() {
+        KeyPair kp = Keys.keyPairFor(SignatureAlgorithm.RS256)
+        int created = 0
+        boolean fail = true
+        RsaSignatureValidator v = new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public) {
+            @Override
+            protected Signature getSignatureInstance() throws NoSuchAlgorithmException {
+                created++
+                return super.getSignatureInstance()
+            }
+
+            @Override
+            protected boolean doVerify(Signature sig, PublicKey pk, byte[] data, byte[] signature) throws InvalidKeyException, java.security.SignatureException {
+                if (fail) {
+                    sig.update(data) // leave the instance in a dirty state
+                    throw new java.security.SignatureException('foo')
+                }
+                return super.doVerify(sig, pk, data, signature)
+            }
+        }
+        byte[] data = new byte[32]
+        rng.nextBytes(data)
+        byte[] signature = new RsaSigner(SignatureAlgorithm.RS256, kp.private).sign(data)
+
+        try {
+            v.isValid(data, signature)
+            fail()
+        } catch (SignatureException expected) {
+        }
+        fail = false
+        assertTrue v.isValid(data, signature)
+        assertEquals 2, created
+    }
 }
@@ -174,4 +174,64 @@ class RsaSignerTest {
 
         assertTrue(MessageDigest.isEqual(out1, out2))
     }
+
+    @Test
+    void testSignRangeUsesOverriddenDoSign() {
+        KeyPair kp = RsaProvider.generateKeyPair(SignatureAlgorithm.RS256)
+        def signed = []
+        RsaSigner signer = new RsaSigner(SignatureAlgorithm.RS256, kp.private) {
+            @Override
+            protected byte[] doSign(byte[] data) throws InvalidKeyException, java.security.SignatureException {
+                signed << data
+                return super.doSign(data)
+            }
+        }
+        byte[] data = new byte[64]
+        rng.nextBytes(data)
+        byte[] range = Arrays.copyOfRange(data, 8, 24)
+
+        assertTrue new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public).isValid(range, signer.sign(data, 8, 16))
+        assertEquals 1, signed.size()
+        assertArrayEquals range, signed[0]
+    }
+
+    @Test
+    void testSignSegmentsUsesOverriddenDoSign() {
+        KeyPair kp = RsaProvider.generateKeyPair(SignatureAlgorithm.RS256)
+        def signed = []
+        RsaSigner signer = new RsaSigner(SignatureAlgorithm.RS256, kp.private) {
+            @Override
+            protected byte[] doSign(byte[] data) throws InvalidKeyException, java.security.SignatureException {
+                signed << data
+                return super.doSign(data)
+            }
+        }
+        byte[] expected = 'header.payload'.getBytes('US-ASCII')
+        byte[] signature = signer.sign(SigningInput.of('header.payload', 0, 6, 7, 7))
+
+        assertTrue new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public).isValid(expected, signature)
+        assertEquals 1, signed.size()
+        assertArrayEquals expected, signed[0]
+    }
+
+    @Test
+    void testSignReusesPooledSignatureInstances() {
+        KeyPair kp = RsaProvider.generateKeyPair(SignatureAlgorithm.RS256)
+        int created = 0
+        RsaSigner signer = new RsaSigner(SignatureAlgorithm.RS256, kp.private) {
+            @Override
+            protected Signature getSignatureInstance() throws NoSuchAlgorithmException {
+                created++
+                return super.getSignatureInstance()
+            }
+        }
+        byte[] data = new byte[64]
+        rng.nextBytes(data)
+        RsaSignatureValidator validator = new RsaSignatureValidator(SignatureAlgorithm.RS256, kp.public)
+        for (int i = 0; i < 3; i++) {
+            assertTrue validator.isValid(data, signer.sign(data))
+            assertTrue validator.isValid(data, 8, 16, signer.sign(data, 8, 16))
+        }
+        assertEquals 1, created
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.crypto
+
+import io.jsonwebtoken.SignatureAlgorithm
+import io.jsonwebtoken.io.Decoders
+import io.jsonwebtoken.io.Encoders
+import io.jsonwebtoken.security.Keys
+import org.junit.Test
+
+import java.nio.charset.Charset
+
+import static org.junit.Assert.*
+
+class SigningInputTest {
+
+    private static final Charset US_ASCII = Charset.forName('US-ASCII')
+
+    // a header and a payload long enough to need several chunks, separated by whitespace the tokenizer would trim:
+    private static final String HEADER = 'eyJhbGciOiJIUzI1NiJ9'
+    private static final String PAYLOAD = 'x' * 2500
+    private static final String JWT = ' ' + HEADER + ' . ' + PAYLOAD + ' '
+
+    private static SigningInput charsInput() {
+        return SigningInput.of(JWT, 1, HEADER.length(), HEADER.length() + 4, PAYLOAD.length())
+    }
+
+    private static SigningInput bytesInput() {
+        return SigningInput.of(JWT.getBytes(US_ASCII), 1, HEADER.length(), HEADER.length() + 4, PAYLOAD.length())
+    }
+
+    private static byte[] concatenated() {
+        return (HEADER + '.' + PAYLOAD).getBytes(US_ASCII)
+    }
+
+    @Test
+    void testLength() {
+        assertEquals HEADER.length() + 1 + PAYLOAD.length(), charsInput().length()
+        assertEquals HEADER.length() + 1 + PAYLOAD.length(), bytesInput().length()
+    }
+
+    @Test
+    void testToBytes() {
+        assertArrayEquals concatenated(), charsInput().toBytes()
+        assertArrayEquals concatenated(), bytesInput().toBytes()
+        assertArrayEquals 'h?.p?'.getBytes(US_ASCII), SigningInput.of('hé.p€', 0, 2, 3, 2).toBytes()
+        assertArrayEquals '.'.getBytes(US_ASCII), SigningInput.of('.', 0, 0, 1, 0).toBytes()
+    }
+
+    @Test
+    void testMacSignature() {
+        def alg = SignatureAlgorithm.HS256
+        def key = Keys.secretKeyFor(alg)
+        def signer = new MacSigner(alg, key)
+        byte[] expected = signer.sign(concatenated())
+
+        assertArrayEquals expected, signer.sign(charsInput())
+        assertArrayEquals expected, signer.sign(bytesInput())
+        assertTrue new MacValidator(alg, key).isValid(charsInput(), expected)
+        assertFalse new MacValidator(alg, key).isValid(bytesInput(), new byte[expected.length])
+    }
+
+    @Test
+    void testRsaSignature() {
+        def alg = SignatureAlgorithm.RS256
+        def pair = Keys.keyPairFor(alg)
+        byte[] signature = new RsaSigner(alg, pair.private).sign(charsInput())
+
+        assertTrue new RsaSignatureValidator(alg, pair.public).isValid(concatenated(), signature)
+        assertTrue new RsaSignatureValidator(alg, pair.public).isValid(bytesInput(), signature)
+        assertTrue new RsaSignatureValidator(alg, pair.private).isValid(charsInput(), signature)
+    }
+
+    @Test
+    void testEllipticCurveSignature() {
+        def alg = SignatureAlgorithm.ES256
+        def pair = Keys.keyPairFor(alg)
+        byte[] signature = new EllipticCurveSigner(alg, pair.private).sign(bytesInput())
+
+        assertTrue new EllipticCurveSignatureValidator(alg, pair.public).isValid(concatenated(), signature)
+        assertTrue new EllipticCurveSignatureValidator(alg, pair.public).isValid(charsInput(), signature)
+    }
+
+    @Test
+    void testJwtSignerAndValidator() {
+        def alg = SignatureAlgorithm.HS512
+        def key = Keys.secretKeyFor(alg)
+        String signature = new DefaultJwtSigner(alg, key, Encoders.BASE64URL).sign(charsInput())
+
+        assertEquals new DefaultJwtSigner(alg, key, Encoders.BASE64URL).sign(HEADER + '.' + PAYLOAD), signature
+        assertTrue new DefaultJwtSignatureValidator(alg, key, Decoders.BASE64URL).isValid(bytesInput(), signature)
+    }
+
+    @Test
+    void testNonAsciiCharactersAreSignedAsQuestionMarks() {
+        def alg = SignatureAlgorithm.HS256
+        def signer = new MacSigner(alg, Keys.secretKeyFor(alg))
+        String jwt = 'hé.p€'
+
+        assertArrayEquals signer.sign('h?.p?'.getBytes(US_ASCII)), signer.sign(SigningInput.of(jwt, 0, 2, 3, 2))
+    }
+
+    @Test
+    void testEmptySegments() {
+        def alg = SignatureAlgorithm.HS256
+        def signer = new MacSigner(alg, Keys.secretKeyFor(alg))
+
+        assertArrayEquals signer.sign('.'.getBytes(US_ASCII)), signer.sign(SigningInput.of('.', 0, 0, 1, 0))
+    }
+
+    @Test
+    void testSegmentsOutOfBounds() {
+        [[-1, 1, 2, 1], [0, 4, 2, 1], [0, 1, 2, 2], [0, 1, 2, -1]].each { args ->
+            try {
+                SigningInput.of('a.b', args[0], args[1], args[2], args[3])
+                fail()
+            } catch (IllegalArgumentException expected) {
+            }
+            try {
+                SigningInput.of('a.b'.getBytes(US_ASCII), args[0], args[1], args[2], args[3])
+                fail()
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 jsonwebtoken.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jsonwebtoken.impl.lang
+
+import org.junit.Test
+
+import static org.junit.Assert.*
+
+class BoundedCacheTest {
+
+    @Test(expected = IllegalArgumentException)
+    void testZeroMaxSize() {
+        new BoundedCache(0)
+    }
+
+    @Test
+    void testGetPutRemove() {
+        def cache = new BoundedCache<String, String>(10)
+        assertNull cache.get('a', 0)
+        cache.put('a', 'A', BoundedCache.NEVER)
+        assertEquals 'A', cache.get('a', 0)
+        assertEquals 1, cache.size
+        assertEquals 'A', cache.remove('a')
+        assertNull cache.remove('a')
+        assertEquals 0, cache.size
+        assertEquals 1, cache.hitCount
+        assertEquals 1, cache.missCount
+        assertEquals 0, cache.evictionCount
+    }
+
+    @Test
+    void testExpiration() {
+        def cache = new BoundedCache<String, String>(10)
+        cache.put('a', 'A', 100)
+        assertEquals 'A', cache.get('a', 99)
+        assertNull cache.get('a', 100)
+        assertEquals 0, cache.size
+        assertEquals 1, cache.hitCount
+        assertEquals 1, cache.missCount
+        assertEquals 1, cache.evictionCount
+    }
+
+    @Test
+    void testSizeBound() {
+        def cache = new BoundedCache<Integer, Integer>(37)
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i, BoundedCache.NEVER)
+            assertTrue cache.size <= 37
+        }
+        assertEquals 37, cache.maxSize
+        assertEquals 1000 - cache.size, cache.evictionCount
+    }
+
+    @Test
+    void testReplacementIsNotEviction() {
+        def cache = new BoundedCache<String, String>(2)
+        cache.put('a', 'A', BoundedCache.NEVER)
+        cache.put('a', 'A2', BoundedCache.NEVER)
+        assertEquals 0, cache.evictionCount
+        assertEquals 'A2', cache.get('a', 0)
+    }
+
+    @Test
+    void testSingleSegmentLru() {
+        def cache = new BoundedCache<Integer, String>(1)
+        cache.put(1, 'one', BoundedCache.NEVER)
+        cache.put(2, 'two', BoundedCache.NEVER)
+        assertNull cache.get(1, 0)
+        assertEquals 'two', cache.get(2, 0)
+        assertEquals 1, cache.evictionCount
+    }
+
+    @Test
+    void testClear() {
+        def cache = new BoundedCache<Integer, String>(4)
+        cache.put(1, 'one', BoundedCache.NEVER)
+        cache.put(2, 'two', BoundedCache.NEVER)
+        cache.clear()
+        assertEquals 0, cache.size
+    }
+
+    @Test
+    void testToString() {
+        def cache = new BoundedCache<Integer, String>(4)
+        assertEquals 'BoundedCache{size=0, maxSize=4, hits=0, misses=0, evictions=0}', cache.toString()
+    }
+
+    @Test
+    void testConcurrentAccess() {
+        def cache = new BoundedCache<Integer, Integer>(64)
+        def threads = (1..8).collect { t ->
+            Thread.start {
+                for (int i = 0; i < 10000; i++) {
+                    int k = (i * t) % 200
+                    if (cache.get(k, 0) == null) {
+                        cache.put(k, k, BoundedCache.NEVER)
+                    }
+                }
+            }
+        }
+        threads*.join()
+        assertTrue cache.size <= 64
+        assertEquals 80000, cache.hitCount + cache.missCount
+    }
+}